@@ -5,51 +5,70 @@ import com.defano.hypertalk.exception.Breadcrumb;
 import com.defano.wyldcard.runtime.ExecutionContext;
 import com.defano.hypertalk.exception.HtException;
 import org.antlr.v4.runtime.ParserRuleContext;
-import org.antlr.v4.runtime.Token;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.AnnotatedElement;
 
 /**
- * A base class for all nodes in the Abstract Syntax Tree. Holds a reference to the Antlr parser context referring to
- * where in the script this node was encountered.
+ * A base class for all nodes in the Abstract Syntax Tree. Holds the position in the script where this node was
+ * encountered; the Antlr parser context the node is created from is not retained.
  */
 public abstract class ASTNode {
 
-    private final ParserRuleContext context;
+    // Whether each class of node has members injected by Guice; determined once per class
+    private static final ClassValue<Boolean> hasInjectedMembers = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> thisClass = type; thisClass != ASTNode.class; thisClass = thisClass.getSuperclass()) {
+                if (isInjected(thisClass.getDeclaredFields()) || isInjected(thisClass.getDeclaredMethods())) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    };
+
+    private SourcePosition position;
 
     public ASTNode(ParserRuleContext context) {
-        this.context = context;
+        this.position = SourcePosition.of(context);
 
-        // Inject Guice dependencies into the AST
-        if (WyldCard.getInjector() != null) {
+        // Inject Guice dependencies into the AST (only those few nodes that have any)
+        if (WyldCard.getInjector() != null && hasInjectedMembers.get(getClass())) {
             WyldCard.getInjector().injectMembers(this);
         }
     }
 
     /**
-     * Gets the starting Antlr token associated with this AST node, or null if this node was generated outside of a
-     * parsed script text.
+     * Gets the position in the script of the first token of this AST node, or null if this node was generated outside
+     * of a parsed script text.
      *
-     * @return The beginning token of this node, or null if it cannot be determined.
+     * @return The position of this node, or null if it cannot be determined.
      */
-    public Token getToken() {
-        return context == null ? null : context.getStart();
+    public SourcePosition getSourcePosition() {
+        return position;
     }
 
     /**
-     * Gets the Antlr parse rule context that was provided when this node was instantiated. May be null if this node
-     * was generated outside of parsing a script.
+     * Assigns this node's script position to a node synthesized while executing or evaluating this node, so that
+     * errors and stack traces produced by the synthesized node refer to this node's location in the script.
      *
-     * @return The ParserRuleContext associated with this node, or null if this node was generated programmatically.
+     * @param node The synthesized node
+     * @param <T>  The type of node
+     * @return The given node
      */
-    protected ParserRuleContext getParserContext() {
-        return context;
+    protected <T extends ASTNode> T atThisPosition(T node) {
+        ((ASTNode) node).position = position;
+        return node;
     }
 
     /**
      * Given a HyperTalk exception, this method modifies the exception object by injecting a "breadcrumb" into it and
      * then then re-throws it.
      *
-     * A breadcrumb consists of the parser context (i.e., the line and column number of the script text associated with
-     * this node), plus a reference to 'me' (the HyperCard object to which the script belongs).
+     * A breadcrumb consists of the script position (i.e., the line and column number of the script text associated
+     * with this node), plus a reference to 'me' (the HyperCard object to which the script belongs).
      *
      * Has no effect if the given exception already contains a breadcrumb.
      *
@@ -58,7 +77,7 @@ public abstract class ASTNode {
      */
     protected void rethrowContextualizedException(ExecutionContext context, HtException e) throws HtException {
         if (e.getBreadcrumb() == null) {
-            e.setBreadcrumb(new Breadcrumb(context, getToken()));
+            e.setBreadcrumb(new Breadcrumb(context, position));
         }
 
         throw e;
@@ -66,10 +85,21 @@ public abstract class ASTNode {
 
     @Override
     public String toString() {
-        if (context != null) {
-            return context.getText();
+        if (position != null) {
+            return getClass().getSimpleName() + " at " + position;
         } else {
             return super.toString();
         }
     }
+
+    private static boolean isInjected(AccessibleObject[] members) {
+        for (AnnotatedElement thisMember : members) {
+            if (thisMember.isAnnotationPresent(com.google.inject.Inject.class) ||
+                    thisMember.isAnnotationPresent(javax.inject.Inject.class)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
 }
@@ -0,0 +1,81 @@
+package com.defano.hypertalk.ast;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+
+/**
+ * The location in a script's text of the first token of a parsed construct (for example, the statement or expression
+ * from which an AST node was compiled).
+ * <p>
+ * AST nodes retain only this compact record rather than the Antlr parser context they were compiled from; a parser
+ * context refers to its parent and children, so holding one keeps the entire parse tree (and its tokens) in memory for
+ * as long as the compiled script exists.
+ */
+public final class SourcePosition {
+
+    private final int line;
+    private final int column;
+    private final int startIndex;
+    private final int stopIndex;
+
+    private SourcePosition(int line, int column, int startIndex, int stopIndex) {
+        this.line = line;
+        this.column = column;
+        this.startIndex = startIndex;
+        this.stopIndex = stopIndex;
+    }
+
+    /**
+     * Gets the position of the first token of the given parser context.
+     *
+     * @param context The parser context; may be null
+     * @return The position, or null if the context is null or has no start token
+     */
+    public static SourcePosition of(ParserRuleContext context) {
+        return context == null ? null : of(context.getStart());
+    }
+
+    /**
+     * Gets the position of the given token.
+     *
+     * @param token The token; may be null
+     * @return The position, or null if the token is null
+     */
+    public static SourcePosition of(Token token) {
+        return token == null ? null :
+                new SourcePosition(token.getLine(), token.getCharPositionInLine(), token.getStartIndex(), token.getStopIndex());
+    }
+
+    /**
+     * @return The line number in the script, counting from 1
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return The column in the line, counting from 0
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * @return The index in the script text of the first character of the token
+     */
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    /**
+     * @return The index in the script text of the last character of the token (inclusive)
+     */
+    public int getStopIndex() {
+        return stopIndex;
+    }
+
+    @Override
+    public String toString() {
+        return "line " + line + ", column " + column;
+    }
+}
@@ -0,0 +1,21 @@
+package com.defano.hypertalk.ast.expression;
+
+import com.defano.hypertalk.ast.model.Value;
+import com.defano.hypertalk.exception.HtException;
+import com.defano.wyldcard.runtime.ExecutionContext;
+
+/**
+ * An expression compiled by {@link ExpressionCompiler} into a closure that evaluates it without re-examining its
+ * structure.
+ */
+public interface CompiledExpression {
+
+    /**
+     * Evaluates the compiled expression.
+     *
+     * @param context The execution context
+     * @return The evaluated value of the expression
+     * @throws HtException Thrown if an error occurs evaluating the expression
+     */
+    Value evaluate(ExecutionContext context) throws HtException;
+}
@@ -58,6 +58,19 @@ public abstract class Expression extends ASTNode {
         throw new IllegalStateException("Bug! Contextualized exception not thrown.");
     }
 
+    /**
+     * Adds this expression's breadcrumb to the given exception (if it doesn't already have one) and rethrows it; see
+     * {@link #rethrowContextualizedException(ExecutionContext, HtException)}. Used by expressions compiled by
+     * {@link ExpressionCompiler}.
+     *
+     * @param context The execution context.
+     * @param e       The exception to contextualize and re-throw.
+     * @throws HtException The contextualized exception
+     */
+    void contextualize(ExecutionContext context, HtException e) throws HtException {
+        rethrowContextualizedException(context, e);
+    }
+
     /**
      * Evaluates this expression as a list of comma-separated values.
      * <p>
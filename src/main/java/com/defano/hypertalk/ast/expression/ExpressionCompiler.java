@@ -0,0 +1,115 @@
+package com.defano.hypertalk.ast.expression;
+
+import com.defano.hypertalk.ast.expression.container.VariableExp;
+import com.defano.hypertalk.ast.expression.operator.BinaryOperatorExp;
+import com.defano.hypertalk.ast.expression.operator.binary.*;
+import com.defano.hypertalk.ast.expression.operator.unary.NegateOp;
+import com.defano.hypertalk.ast.expression.operator.unary.NotOp;
+import com.defano.hypertalk.ast.model.Value;
+import com.defano.hypertalk.exception.HtException;
+import com.defano.wyldcard.runtime.symbol.SymbolReference;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiles expressions into trees of closures ({@link CompiledExpression}); used by the compiled execution backend
+ * (see {@link com.defano.hypertalk.ast.statement.StatementCompiler}).
+ * <p>
+ * Literals, variable reads, grouping and the operators that depend only on the values of their operands are compiled;
+ * the operation each operator performs is resolved once at compile time rather than by virtual dispatch through the
+ * syntax tree on each evaluation. Every other expression (function calls, chunks, parts, properties, etc.) evaluates
+ * exactly as it does when interpreted. Operands are evaluated in the same order as when interpreted, and errors are
+ * attributed to the same expression.
+ */
+public class ExpressionCompiler {
+
+    private static final Map<Class<? extends BinaryOperatorExp>, BinaryOperation> operations = new HashMap<>();
+
+    static {
+        operations.put(AddOp.class, Value::add);
+        operations.put(MinusOp.class, Value::subtract);
+        operations.put(MultiplyOp.class, Value::multipliedBy);
+        operations.put(DivideOp.class, Value::dividedBy);
+        operations.put(DivOp.class, Value::divBy);
+        operations.put(ModOp.class, Value::mod);
+        operations.put(ExpOp.class, Value::exponentiate);
+        operations.put(AmpOp.class, Value::concat);
+        operations.put(AmpAmpOp.class, (lhs, rhs) -> lhs.concat(new Value(" ").concat(rhs)));
+        operations.put(AndOp.class, Value::and);
+        operations.put(OrOp.class, Value::or);
+        operations.put(EqualsOp.class, (lhs, rhs) -> Value.of(lhs.equals(rhs)));
+        operations.put(NotEqualsOp.class, (lhs, rhs) -> Value.of(!lhs.equals(rhs)));
+        operations.put(LessThanOp.class, Value::isLessThan);
+        operations.put(GreaterThanOp.class, Value::isGreaterThan);
+        operations.put(LessThanOrEqualsOp.class, Value::isLessThanOrEqualTo);
+        operations.put(GreaterThanOrEqualsOp.class, Value::isGreaterThanOrEqualTo);
+        operations.put(ContainsOp.class, (lhs, rhs) -> Value.of(lhs.contains(rhs)));
+    }
+
+    private ExpressionCompiler() {
+    }
+
+    /**
+     * Compiles the given expression.
+     *
+     * @param expression The expression to compile
+     * @return The compiled expression
+     */
+    public static CompiledExpression compile(Expression expression) {
+        if (expression instanceof LiteralExp) {
+            Value literal = ((LiteralExp) expression).literal;
+            return context -> literal;
+        } else if (expression instanceof GroupExp) {
+            return compile(((GroupExp) expression).expression);
+        } else if (expression instanceof VariableExp && ((VariableExp) expression).getChunk() == null) {
+            SymbolReference symbol = ((VariableExp) expression).getSymbol();
+            return context -> context.getVariable(symbol);
+        } else if (operations.containsKey(expression.getClass())) {
+            return compileBinary((BinaryOperatorExp) expression, operations.get(expression.getClass()));
+        } else if (expression instanceof NotOp) {
+            return compileUnary(expression, compile(((NotOp) expression).rhs), Value::not);
+        } else if (expression instanceof NegateOp) {
+            return compileUnary(expression, compile(((NegateOp) expression).rhs), Value::negate);
+        } else {
+            return expression::evaluate;
+        }
+    }
+
+    private static CompiledExpression compileBinary(BinaryOperatorExp expression, BinaryOperation operation) {
+        CompiledExpression lhs = compile(expression.getLhs());
+        CompiledExpression rhs = compile(expression.getRhs());
+
+        return checked(expression, context -> operation.apply(lhs.evaluate(context), rhs.evaluate(context)));
+    }
+
+    private static CompiledExpression compileUnary(Expression expression, CompiledExpression rhs, UnaryOperation operation) {
+        return checked(expression, context -> operation.apply(rhs.evaluate(context)));
+    }
+
+    /**
+     * Attaches the given expression's breadcrumb to any error produced by its compiled form that does not already have
+     * one, as {@link Expression#evaluate} does.
+     */
+    private static CompiledExpression checked(Expression expression, CompiledExpression compiled) {
+        return context -> {
+            try {
+                return compiled.evaluate(context);
+            } catch (HtException e) {
+                expression.contextualize(context, e);
+            }
+
+            throw new IllegalStateException("Bug! Contextualized exception not thrown.");
+        };
+    }
+
+    @FunctionalInterface
+    private interface BinaryOperation {
+        Value apply(Value lhs, Value rhs) throws HtException;
+    }
+
+    @FunctionalInterface
+    private interface UnaryOperation {
+        Value apply(Value rhs) throws HtException;
+    }
+}
@@ -4,15 +4,16 @@ import com.defano.wyldcard.runtime.ExecutionContext;
 import com.defano.hypertalk.ast.model.enums.Preposition;
 import com.defano.hypertalk.ast.model.Value;
 import com.defano.hypertalk.exception.HtException;
+import com.defano.wyldcard.runtime.symbol.SymbolReference;
 import org.antlr.v4.runtime.ParserRuleContext;
 
 public class VariableExp extends ContainerExp {
 
-    private final String symbol;
+    private final SymbolReference symbol;
 
     public VariableExp(ParserRuleContext context, String symbol) {
         super(context);
-        this.symbol = symbol;
+        this.symbol = new SymbolReference(symbol);
     }
 
     @Override
@@ -21,6 +22,10 @@ public class VariableExp extends ContainerExp {
         return chunkOf(context, value, getChunk());
     }
 
+    public SymbolReference getSymbol() {
+        return symbol;
+    }
+
     @Override
     public void putValue(ExecutionContext context, Value value, Preposition preposition) throws HtException {
         context.setVariable(symbol, preposition, getChunk(), value);
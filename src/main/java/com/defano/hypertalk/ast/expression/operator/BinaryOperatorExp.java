@@ -19,6 +19,14 @@ public abstract class BinaryOperatorExp extends Expression {
         this.rhs = rhs;
     }
 
+    public Expression getLhs() {
+        return lhs;
+    }
+
+    public Expression getRhs() {
+        return rhs;
+    }
+
     public Value lhs(ExecutionContext context) throws HtException {
         return lhs.evaluate(context);
     }
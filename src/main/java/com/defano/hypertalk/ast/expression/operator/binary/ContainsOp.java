@@ -15,6 +15,6 @@ public class ContainsOp extends BinaryOperatorExp {
 
     @Override
     protected Value onEvaluate(ExecutionContext context) throws HtException {
-        return new Value(lhs(context).contains(rhs(context)));
+        return Value.of(lhs(context).contains(rhs(context)));
     }
 }
@@ -15,6 +15,6 @@ public class IsInOp extends BinaryOperatorExp {
 
     @Override
     protected Value onEvaluate(ExecutionContext context) throws HtException {
-        return new Value(rhs(context).contains(lhs(context)));
+        return Value.of(rhs(context).contains(lhs(context)));
     }
 }
@@ -15,6 +15,6 @@ public class NotEqualsOp extends BinaryOperatorExp {
 
     @Override
     protected Value onEvaluate(ExecutionContext context) throws HtException {
-        return new Value(!lhs(context).equals(rhs(context)));
+        return Value.of(!lhs(context).equals(rhs(context)));
     }
 }
@@ -15,6 +15,6 @@ public class ThereIsNoOp extends UnaryOperatorExp {
 
     @Override
     protected Value onEvaluate(ExecutionContext context) throws HtException {
-        return new ThereIsAOp(super.getParserContext(), rhs).evaluate(context).not();
+        return atThisPosition(new ThereIsAOp(null, rhs)).evaluate(context).not();
     }
 }
@@ -1,23 +1,42 @@
 package com.defano.hypertalk.ast.model;
 
+import com.defano.hypertalk.ast.SourcePosition;
+import com.defano.hypertalk.ast.preemption.Preemption;
+import com.defano.hypertalk.ast.statement.CompiledStatement;
 import com.defano.hypertalk.ast.statement.Statement;
+import com.defano.hypertalk.ast.statement.StatementCompiler;
 import com.defano.hypertalk.ast.statement.StatementList;
+import com.defano.hypertalk.exception.HtException;
 import com.defano.hypertalk.exception.HtSyntaxException;
 import com.defano.hypertalk.exception.HtUncheckedSemanticException;
+import com.defano.wyldcard.debug.DebugContext;
+import com.defano.wyldcard.runtime.ExecutionContext;
+import com.defano.wyldcard.runtime.executor.ExecutionBackend;
+import com.defano.wyldcard.runtime.symbol.SymbolSlots;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.apache.commons.lang.builder.ToStringBuilder;
 
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class NamedBlock {
 
+    // Number of invocations after which a handler is compiled (when using the compiled backend)
+    private static final int COMPILE_THRESHOLD = 2;
+
     public final String name;
     public final StatementList statements;
     public final ParameterList parameters;
-    public final ParserRuleContext context;
+    public final SourcePosition position;
+    public final SymbolSlots localSlots;
+
+    private final AtomicInteger invocations = new AtomicInteger();
+    private volatile CompiledStatement compiledStatements;
 
     /**
-     * Wraps a list of statements in an NamedBlock object whose name is unused.
+     * Wraps a list of statements in an NamedBlock object whose name is unused. Prefer
+     * {@link Script#getAnonymousBlock()} for the statements of a (cached) scriptlet, so that a scriptlet executed
+     * repeatedly is wrapped by the same block and may become hot.
      *
      * @param statementList The list of statements
      * @return A NamedBlock representing the
@@ -46,7 +65,39 @@ public class NamedBlock {
         this.name = onName;
         this.statements = body;
         this.parameters = parameters;
-        this.context = context;
+        this.position = SourcePosition.of(context);
+        this.localSlots = new SymbolSlots(parameters.list);
+    }
+
+    /**
+     * Executes the statements of this block. When the compiled execution backend is selected (see
+     * {@link ExecutionBackend}), the block is compiled once it becomes hot and subsequently executes in compiled form,
+     * except while the debugger is active.
+     *
+     * @param context The execution context
+     * @throws HtException Thrown if an error occurs executing the statements
+     * @throws Preemption  Thrown if the statements preempt the handler
+     */
+    public void execute(ExecutionContext context) throws HtException, Preemption {
+        CompiledStatement compiled = getCompiledStatements();
+
+        if (compiled != null && !DebugContext.getInstance().isArmed()) {
+            StatementCompiler.execute(compiled, context);
+        } else {
+            statements.execute(context);
+        }
+    }
+
+    private CompiledStatement getCompiledStatements() {
+        if (!ExecutionBackend.isCompiled()) {
+            return null;
+        }
+
+        if (compiledStatements == null && invocations.incrementAndGet() >= COMPILE_THRESHOLD) {
+            compiledStatements = StatementCompiler.compile(statements);
+        }
+
+        return compiledStatements;
     }
 
     public Collection<Statement> findStatementsOnLine(int line) {
@@ -54,8 +105,8 @@ public class NamedBlock {
     }
 
     public Integer getLineNumber() {
-        if (context != null && context.getStart() != null) {
-            return context.getStart().getLine();
+        if (position != null) {
+            return position.getLine();
         } else {
             return null;
         }
@@ -8,11 +8,13 @@ import java.util.*;
 
 public class Script {
 
-    private final Map<BlockName, NamedBlock> handlers = new HashMap<>();
-    private final Map<BlockName, Integer> handlerStartingLine = new HashMap<>();
-    private final Map<BlockName, Integer> handlerEndingLine = new HashMap<>();
-    private final Map<BlockName, NamedBlock> functions = new HashMap<>();
+    // Keyed case-insensitively by block name; lookups do not allocate a key
+    private final Map<String, NamedBlock> handlers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, Integer> handlerStartingLine = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, Integer> handlerEndingLine = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, NamedBlock> functions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
     private StatementList statements = null;
+    private NamedBlock anonymousBlock = null;
     private Collection<Integer> appliedBreakpoints = new ArrayList<>();
     
     public Script () {
@@ -23,7 +25,7 @@ public class Script {
     }
 
     public void defineHandler (NamedBlock handler, int startingLine, int endingLine) {
-        BlockName name = new BlockName(handler.name);
+        String name = handler.name;
 
         handlers.put(name, handler);
         handlerStartingLine.put(name, startingLine);
@@ -31,7 +33,7 @@ public class Script {
     }
     
     public void defineUserFunction (NamedBlock function, int startingLine, int endingLine) {
-        BlockName name = new BlockName(function.name);
+        String name = function.name;
 
         functions.put(name, function);
         handlerStartingLine.put(name, startingLine);
@@ -48,52 +50,37 @@ public class Script {
     }
 
     public NamedBlock getHandler(String handler) {
-        return handlers.get(new BlockName(handler));
+        return handlers.get(handler);
     }
 
     public NamedBlock getNamedBlock(String block) {
-        if (handlers.containsKey(new BlockName(block))) {
-            return handlers.get(new BlockName(block));
-        }
-
-        if (functions.containsKey(new BlockName(block))) {
-            return functions.get(new BlockName(block));
-        }
-
-        return null;
+        NamedBlock handler = handlers.get(block);
+        return handler != null ? handler : functions.get(block);
     }
 
     public Collection<String> getHandlers() {
-        ArrayList<String> names = new ArrayList<>();
-        for (BlockName thisBlock : handlers.keySet()) {
-            names.add(thisBlock.name);
-        }
-        return names;
+        return new ArrayList<>(handlers.keySet());
     }
 
     public Collection<String> getFunctions() {
-        ArrayList<String> names = new ArrayList<>();
-        for (BlockName thisBlock : functions.keySet()) {
-            names.add(thisBlock.name);
-        }
-        return names;
+        return new ArrayList<>(functions.keySet());
     }
 
     public Integer getLineNumberForNamedBlock(String name) {
-        return handlerStartingLine.get(new BlockName(name));
+        return handlerStartingLine.get(name);
     }
 
     public String getNamedBlockForLine(int line) {
-        ArrayList<BlockName> allBlocks = new ArrayList<>();
+        ArrayList<String> allBlocks = new ArrayList<>();
         allBlocks.addAll(handlers.keySet());
         allBlocks.addAll(functions.keySet());
 
-        for (BlockName thisHandler : allBlocks) {
+        for (String thisHandler : allBlocks) {
             int startingLine = handlerStartingLine.get(thisHandler);
             int endingLine = handlerEndingLine.get(thisHandler);
 
             if (line >= startingLine && line <= endingLine) {
-                return thisHandler.name;
+                return thisHandler;
             }
         }
 
@@ -104,6 +91,20 @@ public class Script {
         return statements;
     }
 
+    /**
+     * Gets a NamedBlock wrapping the statements of this script (i.e., of a scriptlet). The same block is returned each
+     * time, so that a cached scriptlet executed repeatedly (i.e., by 'do') counts as one handler and may become hot.
+     *
+     * @return The block wrapping this script's statements
+     */
+    public synchronized NamedBlock getAnonymousBlock() {
+        if (anonymousBlock == null) {
+            anonymousBlock = NamedBlock.anonymousBlock(statements);
+        }
+
+        return anonymousBlock;
+    }
+
     public void applyBreakpoints(Collection<Integer> breakpointLines) {
 
         // Clear previously-applied breakpoints
@@ -136,24 +137,4 @@ public class Script {
 
         return foundStatements;
     }
-
-    private class BlockName {
-        private final String name;
-
-        public BlockName(String name) {
-            this.name = name;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            return this.name.equalsIgnoreCase(((BlockName) o).name);
-        }
-
-        @Override
-        public int hashCode() {
-            return this.name.toLowerCase().hashCode();
-        }
-    }
 }
@@ -10,41 +10,71 @@ import com.defano.hypertalk.ast.model.enums.SortStyle;
 import com.defano.hypertalk.comparator.StyledComparable;
 import com.defano.hypertalk.exception.HtException;
 import com.defano.hypertalk.exception.HtSemanticException;
+import com.defano.hypertalk.util.ChunkIndex;
 import com.defano.hypertalk.util.ChunkUtils;
 import com.defano.hypertalk.util.DateUtils;
+import com.defano.hypertalk.util.Range;
+import com.defano.hypertalk.util.Rope;
 import com.defano.wyldcard.runtime.ExecutionContext;
 
 import java.awt.*;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.regex.Matcher;
 
 /**
  * Representation of a value in HyperTalk; all script values (literals, variables, properties, etc.) are represented by
- * this type. Every value is stored internally as a Java String and converted to {@link Integer}, {@link Double},
- * {@link Boolean}, {@link Point} or {@link Rectangle} as requested at runtime.
+ * this type. Every value is semantically a string and converted to {@link Integer}, {@link Double}, {@link Boolean},
+ * {@link Point} or {@link Rectangle} as requested at runtime.
+ * <p>
+ * Values created from a Java primitive (i.e., the result of an arithmetic or logical operation) hold that primitive
+ * directly, and render their string form only when it is requested. This allows chains of arithmetic and comparisons
+ * to execute without formatting and re-parsing strings at every step.
+ * <p>
+ * Similarly, values produced by putting text before, after or into a chunk of another value are represented by a
+ * {@link Rope} that shares the unmodified text of the original. Building a large container one line at a time thus
+ * does not copy the container's text at each step.
  * <p>
  * Instances of this class are effectively immutable.
  */
 public class Value implements StyledComparable<Value>, Serializable {
 
-    private final String stringValue;
+    private static final Value TRUE = new Value(true);
+    private static final Value FALSE = new Value(false);
+
+    // String representation of this value; null until rendered when this value was created from a primitive or rope
+    private String stringValue;
+
+    // Rope representation of this value's text; created when this value is the subject (or result) of a mutation
+    private transient Rope rope;
 
     // A flag to indicate value represents a quoted literal (useful when disambiguating 'card button 1' from 'card
     // button "1"'. The latter refers to a card button _named_ "1"; the former refers to card button number 1)
     private boolean isQuotedLiteral;
 
-    // Cache for known value types (all are effectively final)
-    private Long longValue;
-    private Double floatValue;
-    private Boolean booleanValue;
+    // Primitive representations of this value; each is meaningful only when its corresponding 'is' flag is set. The
+    // 'parsed' flags indicate whether the representation has been determined (all are effectively final)
+    private long longValue;
+    private double floatValue;
+    private boolean booleanValue;
+
+    private boolean isLong;
+    private boolean isFloat;
+    private boolean isBoolean;
 
     private boolean parsedLong;
     private boolean parsedFloat;
     private boolean parsedBoolean;
 
+    // Memoized boundaries of the lines, items, words and chars in this value; built when first needed
+    private transient ChunkIndex lineIndex;
+    private transient ChunkIndex itemIndex;
+    private transient ChunkIndex wordIndex;
+    private transient ChunkIndex charIndex;
+
     /**
      * Creates a new Value representing the empty string, equivalent to `new Value("")`
      */
@@ -72,15 +102,32 @@ public class Value implements StyledComparable<Value>, Serializable {
 
     /**
      * Creates a new Value representing the String value of the argument. If the argument is null, creates a Value
-     * initialized with the empty string.
+     * initialized with the empty string. If the argument is itself a Value, the new Value is a copy of it.
      *
      * @param v The initial value
      */
     public Value(Object v) {
-        this(v == null ? "" : String.valueOf(v));
-
         if (v instanceof Value) {
-            this.isQuotedLiteral = ((Value) v).isQuotedLiteral;
+            Value that = (Value) v;
+
+            this.stringValue = that.stringValue;
+            this.rope = that.rope;
+            this.isQuotedLiteral = that.isQuotedLiteral;
+            this.longValue = that.longValue;
+            this.floatValue = that.floatValue;
+            this.booleanValue = that.booleanValue;
+            this.isLong = that.isLong;
+            this.isFloat = that.isFloat;
+            this.isBoolean = that.isBoolean;
+            this.parsedLong = that.parsedLong;
+            this.parsedFloat = that.parsedFloat;
+            this.parsedBoolean = that.parsedBoolean;
+            this.lineIndex = that.lineIndex;
+            this.itemIndex = that.itemIndex;
+            this.wordIndex = that.wordIndex;
+            this.charIndex = that.charIndex;
+        } else {
+            setStringValue(v == null ? "" : String.valueOf(v));
         }
     }
 
@@ -90,8 +137,14 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @param v The initial value
      */
     public Value(long v) {
-        this(String.valueOf(v));
         longValue = v;
+        floatValue = v;
+        isLong = true;
+        isFloat = true;
+
+        parsedLong = true;
+        parsedFloat = true;
+        parsedBoolean = true;
     }
 
     /**
@@ -100,8 +153,13 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @param f The initial value
      */
     public Value(double f) {
-        this(String.valueOf(f));
         floatValue = f;
+        isFloat = true;
+
+        // The string form of a double always includes a decimal point or exponent; never an integer
+        parsedLong = true;
+        parsedFloat = true;
+        parsedBoolean = true;
     }
 
     /**
@@ -110,8 +168,26 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @param v The initial value
      */
     public Value(boolean v) {
-        this(String.valueOf(v));
         booleanValue = v;
+        isBoolean = true;
+
+        parsedLong = true;
+        parsedFloat = true;
+        parsedBoolean = true;
+    }
+
+    /**
+     * Creates a new Value representing the text of a rope. The string form of the value is rendered only when it is
+     * requested.
+     *
+     * @param rope The initial value
+     */
+    private Value(Rope rope) {
+        this.rope = rope;
+
+        if (rope.isLeaf()) {
+            setStringValue(rope.toString());
+        }
     }
 
     /**
@@ -151,14 +227,18 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @param v The initial value.
      */
     public Value(String v) {
-        this.stringValue = v == null ? "" : v;
+        setStringValue(v);
+    }
 
-        // Special case: empty string is a valid int and float
-        if (v == null || v.trim().equals("")) {
-            longValue = 0L;
-            floatValue = 0.0;
-            booleanValue = null;
-        }
+    /**
+     * Gets a Value representing the given boolean. Unlike {@link #Value(boolean)}, this method returns a shared
+     * instance and does not allocate.
+     *
+     * @param v The boolean value
+     * @return A Value representing the boolean.
+     */
+    public static Value of(boolean v) {
+        return v ? TRUE : FALSE;
     }
 
     /**
@@ -259,7 +339,6 @@ public class Value implements StyledComparable<Value>, Serializable {
         }
 
         String mutatorString = mutator.toString();
-        String mutableString = mutable.toString();
 
         Value startVal = null;
         Value endVal = null;
@@ -281,7 +360,12 @@ public class Value implements StyledComparable<Value>, Serializable {
         if (endVal != null)
             endIdx = endVal.integerValue();
 
-        return new Value(ChunkUtils.putChunk(context, c.type, p, mutableString, startIdx, endIdx, mutatorString));
+        // Lines of a rope can be located and mutated without rendering (or copying) the mutable value's text
+        if (c.type == ChunkType.LINE && p != Preposition.REPLACING && mutable.getRope().hasPlainLineBreaks()) {
+            return new Value(ChunkUtils.putLineChunk(p, mutable.getRope(), startIdx, Rope.of(mutatorString)));
+        }
+
+        return new Value(ChunkUtils.putChunk(context, c.type, p, mutable.toString(), startIdx, endIdx, mutatorString));
     }
 
     /**
@@ -296,12 +380,12 @@ public class Value implements StyledComparable<Value>, Serializable {
 
         switch (p) {
             case BEFORE:
-                return new Value(mutator.toString() + mutable.toString());
+                return new Value(mutator.getRope().concat(mutable.getRope()));
             case INTO:
             case REPLACING:
                 return new Value(mutator.toString());
             case AFTER:
-                return new Value(mutable.toString() + mutator.toString());
+                return new Value(mutable.getRope().concat(mutator.getRope()));
             default:
                 throw new IllegalArgumentException("Bug! Unhandled preposition.");
         }
@@ -314,7 +398,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return True if the value represents a whole number
      */
     public boolean isInteger() {
-        return parseLong() != null;
+        return parseLong();
     }
 
     /**
@@ -332,7 +416,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return True if this value is either 'true' or 'false'.
      */
     public boolean isBoolean() {
-        return booleanValue != null || parseBoolean() != null;
+        return parseBoolean();
     }
 
     /**
@@ -341,7 +425,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return True if this value is a number.
      */
     public boolean isNumber() {
-        return floatValue != null || parseFloat() != null;
+        return parseFloat();
     }
 
     /**
@@ -389,65 +473,87 @@ public class Value implements StyledComparable<Value>, Serializable {
     }
 
     /**
-     * Attempts to cast this value as a long integer.
+     * Initializes this value from a string.
      *
-     * @return The long integer representation of this value, or null if it cannot be cast as a long.
+     * @param v The string value, or null to represent the empty string.
      */
-    private Long parseLong() {
-        if (parsedLong) {
-            return longValue;
-        }
+    private void setStringValue(String v) {
+        this.stringValue = v == null ? "" : v;
+    }
 
-        try {
-            longValue = Long.parseLong(stringValue.trim());
-        } catch (NumberFormatException e) {
-            longValue = null;
+    /**
+     * Attempts to interpret this value as a long integer. Values created from a primitive are never parsed.
+     *
+     * @return True if this value can be interpreted as a long (in which case longValue holds it), false otherwise.
+     */
+    private boolean parseLong() {
+        if (!parsedLong) {
+            try {
+                longValue = Long.parseLong(toString().trim());
+                isLong = true;
+            } catch (NumberFormatException e) {
+                isLong = false;
+            }
+
+            parsedLong = true;
         }
 
-        parsedLong = true;
-        return longValue;
+        return isLong;
     }
 
     /**
-     * Attempts to cast this value as a double-precision floating point value.
+     * Attempts to interpret this value as a double-precision floating point value. Values created from a primitive
+     * are never parsed.
      *
-     * @return The double representation of this value, or null if it cannot be cast as a double.
+     * @return True if this value can be interpreted as a double (in which case floatValue holds it), false otherwise.
      */
-    private Double parseFloat() {
-        if (parsedFloat) {
-            return floatValue;
-        }
+    private boolean parseFloat() {
+        if (!parsedFloat) {
+            String trimmed = toString().trim();
 
-        try {
-            floatValue = Double.parseDouble(stringValue.trim());
-        } catch (NumberFormatException e) {
-            floatValue = null;
+            // Special case: empty string is a valid float (but not an integer)
+            if (trimmed.isEmpty()) {
+                floatValue = 0.0;
+                isFloat = true;
+            } else {
+                try {
+                    floatValue = Double.parseDouble(trimmed);
+                    isFloat = true;
+                } catch (NumberFormatException e) {
+                    isFloat = false;
+                }
+            }
+
+            parsedFloat = true;
         }
 
-        parsedFloat = true;
-        return floatValue;
+        return isFloat;
     }
 
     /**
-     * Attempts to cast this value as a Boolean.
+     * Attempts to interpret this value as a Boolean. Values created from a primitive are never parsed.
      *
-     * @return The boolean representation of this value, or null, if it cannot be cast as a Boolean.
+     * @return True if this value can be interpreted as a boolean (in which case booleanValue holds it), false
+     * otherwise.
      */
-    private Boolean parseBoolean() {
-        if (parsedBoolean) {
-            return booleanValue;
-        }
+    private boolean parseBoolean() {
+        if (!parsedBoolean) {
+            String trimmed = toString().trim();
 
-        if (stringValue.trim().equalsIgnoreCase("true")) {
-            booleanValue = true;
-        } else if (stringValue.trim().equalsIgnoreCase("false")) {
-            booleanValue = false;
-        } else {
-            booleanValue = null;
+            if (trimmed.equalsIgnoreCase("true")) {
+                booleanValue = true;
+                isBoolean = true;
+            } else if (trimmed.equalsIgnoreCase("false")) {
+                booleanValue = false;
+                isBoolean = true;
+            } else {
+                isBoolean = false;
+            }
+
+            parsedBoolean = true;
         }
 
-        parsedBoolean = true;
-        return booleanValue;
+        return isBoolean;
     }
 
     /**
@@ -456,11 +562,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return The integer representation of this value.
      */
     public int integerValue() {
-        if (longValue != null || parseLong() != null) {
-            return longValue.intValue();
-        } else {
-            return 0;
-        }
+        return parseLong() ? (int) longValue : 0;
     }
 
     /**
@@ -469,10 +571,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return The integer representation of this value.
      */
     public long longValue() {
-        if (longValue != null || parseLong() != null)
-            return longValue;
-        else
-            return 0;
+        return parseLong() ? longValue : 0;
     }
 
     /**
@@ -482,10 +581,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return The floating-point representation of this value.
      */
     public double doubleValue() {
-        if (floatValue != null || parseFloat() != null)
-            return floatValue;
-        else
-            return 0;
+        return parseFloat() ? floatValue : 0;
     }
 
     /**
@@ -510,10 +606,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return The boolean representation of this value.
      */
     public boolean booleanValue() {
-        if (booleanValue != null || parseBoolean() != null)
-            return booleanValue;
-        else
-            return false;
+        return parseBoolean() && booleanValue;
     }
 
     /**
@@ -580,8 +673,8 @@ public class Value implements StyledComparable<Value>, Serializable {
     public List<Value> getListItems() {
         ArrayList<Value> items = new ArrayList<>();
 
-        if (!stringValue.isEmpty()) {
-            for (String thisItem : stringValue.split(",")) {
+        if (!isEmpty()) {
+            for (String thisItem : toString().split(",")) {
                 items.add(new Value(thisItem));
             }
         }
@@ -673,16 +766,43 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     @SuppressWarnings("WeakerAccess")
     public List<Value> getChunks(ExecutionContext context, ChunkType type) {
-        Matcher matcher = ChunkUtils.getRegexForChunkType(context, type).matcher(stringValue);
-        ArrayList<Value> chunks = new ArrayList<>();
+        ChunkIndex index = getChunkIndex(context, type);
+        ArrayList<Value> chunks = new ArrayList<>(index.getCount());
 
-        while (matcher.find()) {
-            chunks.add(new Value(matcher.group()));
+        for (int chunk = 1; chunk <= index.getCount(); chunk++) {
+            Range range = index.getRange(chunk);
+            chunks.add(new Value(toString().substring(range.start, range.end)));
         }
 
         return chunks;
     }
 
+    /**
+     * Gets an index of the boundaries of each chunk of the given type in this value. The index is built on first
+     * request and memoized, so that subsequent chunk expressions on this value (i.e., `line i of x` evaluated in a
+     * loop) do not need to rescan the text. Item indices are rebuilt whenever the `itemDelimiter` changes.
+     *
+     * @param context The execution context.
+     * @param type    The chunk type (i.e., word, item, line or range thereof)
+     * @return The index of chunks of the requested type in this value.
+     */
+    public ChunkIndex getChunkIndex(ExecutionContext context, ChunkType type) {
+        switch (ChunkIndex.getIndexType(type)) {
+            case LINE:
+                return lineIndex == null ? lineIndex = ChunkIndex.of(context, type, toString()) : lineIndex;
+            case WORD:
+                return wordIndex == null ? wordIndex = ChunkIndex.of(context, type, toString()) : wordIndex;
+            case CHAR:
+                return charIndex == null ? charIndex = ChunkIndex.of(context, type, toString()) : charIndex;
+            default:
+                ChunkIndex index = itemIndex;
+                if (index == null || !index.isIndexOf(context, type)) {
+                    index = itemIndex = ChunkIndex.of(context, type, toString());
+                }
+                return index;
+        }
+    }
+
     /**
      * Returns the number of items held in this value.
      *
@@ -690,7 +810,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return The number of items held in this value.
      */
     public int itemCount(ExecutionContext context) {
-        return ChunkUtils.getCount(context, ChunkType.ITEM, stringValue);
+        return getChunkIndex(context, ChunkType.ITEM).getCount();
     }
 
     /**
@@ -700,7 +820,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return The number of words held in this value.
      */
     public int wordCount(ExecutionContext context) {
-        return ChunkUtils.getCount(context, ChunkType.WORD, stringValue);
+        return getChunkIndex(context, ChunkType.WORD).getCount();
     }
 
     /**
@@ -710,7 +830,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return The number of chars held in this value.
      */
     public int charCount(ExecutionContext context) {
-        return ChunkUtils.getCount(context, ChunkType.CHAR, stringValue);
+        return getChunkIndex(context, ChunkType.CHAR).getCount();
     }
 
     /**
@@ -720,7 +840,11 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return The number of lines held in this value.
      */
     public int lineCount(ExecutionContext context) {
-        return ChunkUtils.getCount(context, ChunkType.LINE, stringValue);
+        if (stringValue == null && rope != null && rope.hasPlainLineBreaks()) {
+            return rope.getLineCount();
+        }
+
+        return getChunkIndex(context, ChunkType.LINE).getCount();
     }
 
     /**
@@ -754,7 +878,17 @@ public class Value implements StyledComparable<Value>, Serializable {
         if (endVal != null)
             endIdx = endVal.integerValue();
 
-        Value chunkValue = new Value(ChunkUtils.getChunk(context, c.type, stringValue, startIdx, endIdx));
+        Value chunkValue;
+
+        // Read a line of an unrendered rope without rendering the whole of it
+        if (c.type == ChunkType.LINE && stringValue == null && rope != null && rope.hasPlainLineBreaks()) {
+            Range range = rope.getLineRange(startIdx);
+            chunkValue = new Value(rope.substring(range.start, range.end).toString());
+        } else {
+            ChunkIndex index = getChunkIndex(context, c.type);
+            Range range = c.type.isRange() ? index.getRange(startIdx, endIdx) : index.getRange(startIdx);
+            chunkValue = new Value(toString().substring(range.start, range.end));
+        }
 
         // If a composite chunk; evaluate right hand of the expression first
         if (c instanceof CompositeChunk) {
@@ -770,7 +904,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return True if the value is empty, false otherwise.
      */
     public boolean isEmpty() {
-        return stringValue.equals("");
+        return stringValue != null ? stringValue.isEmpty() : rope != null && rope.length() == 0;
     }
 
     /**
@@ -790,9 +924,9 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     public Value isLessThan(Value v) {
         if (isNumber() && v.isNumber()) {
-            return new Value(doubleValue() < v.doubleValue());
+            return Value.of(doubleValue() < v.doubleValue());
         } else {
-            return new Value(toString().compareTo(v.toString()) < 0);
+            return Value.of(toString().compareTo(v.toString()) < 0);
         }
     }
 
@@ -805,9 +939,9 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     public Value isGreaterThan(Value v) {
         if (isNumber() && v.isNumber()) {
-            return new Value(doubleValue() > v.doubleValue());
+            return Value.of(doubleValue() > v.doubleValue());
         } else {
-            return new Value(toString().compareTo(v.toString()) > 0);
+            return Value.of(toString().compareTo(v.toString()) > 0);
         }
     }
 
@@ -820,9 +954,9 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     public Value isGreaterThanOrEqualTo(Value v) {
         if (isNumber() && v.isNumber()) {
-            return new Value(doubleValue() >= v.doubleValue());
+            return Value.of(doubleValue() >= v.doubleValue());
         } else {
-            return new Value(toString().compareTo(v.toString()) >= 0);
+            return Value.of(toString().compareTo(v.toString()) >= 0);
         }
     }
 
@@ -835,9 +969,9 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     public Value isLessThanOrEqualTo(Value v) {
         if (isNumber() && v.isNumber()) {
-            return new Value(doubleValue() <= v.doubleValue());
+            return Value.of(doubleValue() <= v.doubleValue());
         } else {
-            return new Value(toString().compareTo(v.toString()) <= 0);
+            return Value.of(toString().compareTo(v.toString()) <= 0);
         }
     }
 
@@ -851,7 +985,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     public Value multipliedBy(Value v) throws HtSemanticException {
         if (!isNumber() || !v.isNumber()) {
-            throw new HtSemanticException("The value '" + stringValue + "' cannot be multiplied by '" + v + "'.");
+            throw new HtSemanticException("The value '" + this + "' cannot be multiplied by '" + v + "'.");
         }
 
         try {
@@ -875,7 +1009,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     public Value dividedBy(Value v) throws HtSemanticException {
         if (!isNumber() || !v.isNumber()) {
-            throw new HtSemanticException("The value '" + stringValue + "' cannot be divided by " + v + '.');
+            throw new HtSemanticException("The value '" + this + "' cannot be divided by " + v + '.');
         }
 
         if (v.isZero()) {
@@ -922,7 +1056,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     public Value add(Value v) throws HtSemanticException {
         if (!isNumber() || !v.isNumber()) {
-            throw new HtSemanticException("The value '" + v + "' cannot be added to '" + stringValue + "'.");
+            throw new HtSemanticException("The value '" + v + "' cannot be added to '" + this + "'.");
         }
 
         try {
@@ -944,7 +1078,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     public Value subtract(Value v) throws HtSemanticException {
         if (!isNumber() || !v.isNumber()) {
-            throw new HtSemanticException("The value '" + v + "' cannot be subtracted from '" + stringValue + "'.");
+            throw new HtSemanticException("The value '" + v + "' cannot be subtracted from '" + this + "'.");
         }
 
         try {
@@ -966,7 +1100,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     public Value exponentiate(Value v) throws HtSemanticException {
         if (!isNumber() || !v.isNumber()) {
-            throw new HtSemanticException("The value '" + stringValue + "' cannot be raised to the power of '" + v + "'.");
+            throw new HtSemanticException("The value '" + this + "' cannot be raised to the power of '" + v + "'.");
         }
 
         return new Value(Math.pow(doubleValue(), v.doubleValue()));
@@ -981,7 +1115,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     public Value mod(Value v) throws HtSemanticException {
         if (!isNumber() || !v.isNumber()) {
-            throw new HtSemanticException("The value '" + v + "' cannot be mod by '" + stringValue + "'.");
+            throw new HtSemanticException("The value '" + v + "' cannot be mod by '" + this + "'.");
         }
 
         if (isInteger() && v.isInteger())
@@ -998,9 +1132,9 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     public Value not() throws HtSemanticException {
         if (!isBoolean())
-            throw new HtSemanticException("Expected a logical value here, but got '" + stringValue + "'.");
+            throw new HtSemanticException("Expected a logical value here, but got '" + this + "'.");
 
-        return new Value(!booleanValue());
+        return Value.of(!booleanValue());
     }
 
     /**
@@ -1015,7 +1149,7 @@ public class Value implements StyledComparable<Value>, Serializable {
         else if (isNumber())
             return new Value(doubleValue() * -1);
         else {
-            throw new HtSemanticException("Expected a number here, but got '" + stringValue + "'.");
+            throw new HtSemanticException("Expected a number here, but got '" + this + "'.");
         }
     }
 
@@ -1030,14 +1164,14 @@ public class Value implements StyledComparable<Value>, Serializable {
 
         // Allow for short circuit evaluation
         if (!isBoolean()) {
-            throw new HtSemanticException("Expected a logical value here, but got '" + stringValue + "'.");
+            throw new HtSemanticException("Expected a logical value here, but got '" + this + "'.");
         }
 
         if (!v.isBoolean()) {
             throw new HtSemanticException("Expected a logical value here, but got '" + v + "'.");
         }
 
-        return new Value(booleanValue() && v.booleanValue());
+        return Value.of(booleanValue() && v.booleanValue());
     }
 
     /**
@@ -1050,14 +1184,14 @@ public class Value implements StyledComparable<Value>, Serializable {
     public Value or(Value v) throws HtSemanticException {
 
         if (!isBoolean()) {
-            throw new HtSemanticException("Expected a logical value here, but got '" + stringValue + "'.");
+            throw new HtSemanticException("Expected a logical value here, but got '" + this + "'.");
         }
 
         if (!v.isBoolean()) {
             throw new HtSemanticException("Expected a logical value here, but got '" + v + "'.");
         }
 
-        return new Value(booleanValue() || v.booleanValue());
+        return Value.of(booleanValue() || v.booleanValue());
     }
 
     /**
@@ -1067,7 +1201,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return The resultant value
      */
     public Value concat(Value v) {
-        return new Value(stringValue + v.toString());
+        return new Value(toString() + v.toString());
     }
 
     /**
@@ -1080,10 +1214,10 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     public Value isWithin(Value v) throws HtSemanticException {
         if (!isPoint() || !v.isRect()) {
-            throw new HtSemanticException("Cannot determine if '" + stringValue + "' is within the bounds of '" + v.toString() + "'.");
+            throw new HtSemanticException("Cannot determine if '" + this + "' is within the bounds of '" + v.toString() + "'.");
         }
 
-        return new Value(v.rectangleValue().contains(pointValue()));
+        return Value.of(v.rectangleValue().contains(pointValue()));
     }
 
     /**
@@ -1153,7 +1287,21 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return True if the given value can be found within this value
      */
     public boolean contains(Value v) {
-        return stringValue.toLowerCase().contains(v.toString().toLowerCase());
+        return toString().toLowerCase().contains(v.toString().toLowerCase());
+    }
+
+    /**
+     * Returns a rope representing the text of this value. Mutating the returned rope (by concatenation or chunk
+     * insertion) shares, rather than copies, this value's text.
+     *
+     * @return The rope representation of this value.
+     */
+    public Rope getRope() {
+        if (rope == null) {
+            rope = Rope.of(toString());
+        }
+
+        return rope;
     }
 
     /**
@@ -1162,6 +1310,14 @@ public class Value implements StyledComparable<Value>, Serializable {
      * @return The string representation of this value.
      */
     public String toString() {
+        if (stringValue == null && rope != null) {
+            stringValue = rope.toString();
+        } else if (stringValue == null) {
+            stringValue = isLong ? String.valueOf(longValue) :
+                    isFloat ? String.valueOf(floatValue) :
+                    String.valueOf(booleanValue);
+        }
+
         return stringValue;
     }
 
@@ -1196,8 +1352,8 @@ public class Value implements StyledComparable<Value>, Serializable {
         else if (isInteger() && otherValue.isInteger()) {
             // Weird special case: "" is a valid number (zero), but is not equal to 0
             // Thus, '2 * "" = 0', but '0 <> ""' -- don't believe me, try it in HyperCard!
-            if (stringValue.equals("") || otherValue.stringValue.equals("")) {
-                return stringValue.equals(otherValue.stringValue);
+            if (isEmpty() || otherValue.isEmpty()) {
+                return isEmpty() && otherValue.isEmpty();
             } else {
                 return this.integerValue() == otherValue.integerValue();
             }
@@ -1219,7 +1375,7 @@ public class Value implements StyledComparable<Value>, Serializable {
      */
     @Override
     public int hashCode() {
-        return stringValue.hashCode();
+        return toString().hashCode();
     }
 
     /**
@@ -1268,4 +1424,9 @@ public class Value implements StyledComparable<Value>, Serializable {
 
         throw new IllegalArgumentException("Bug! Unimplemented comparison style.");
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        toString();     // Render the string form of primitive values before serializing
+        out.defaultWriteObject();
+    }
 }
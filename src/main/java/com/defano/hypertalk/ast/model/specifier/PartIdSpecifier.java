@@ -5,6 +5,7 @@ import com.defano.hypertalk.ast.model.enums.PartType;
 import com.defano.hypertalk.exception.HtNoSuchPartException;
 import com.defano.wyldcard.part.finder.FindInCollectionSpecifier;
 import com.defano.wyldcard.part.model.PartModel;
+import com.defano.wyldcard.part.stack.StackPartIndex;
 import com.defano.wyldcard.runtime.ExecutionContext;
 
 import java.util.List;
@@ -39,6 +40,25 @@ public class PartIdSpecifier implements FindInCollectionSpecifier {
         }
     }
 
+    @Override
+    public PartModel findInStackIndex(ExecutionContext context, StackPartIndex index) throws HtNoSuchPartException {
+        PartModel foundPart;
+
+        if (getType() == PartType.CARD) {
+            foundPart = index.getCard(id);
+        } else if (getType() == PartType.BACKGROUND) {
+            foundPart = index.getBackground(id);
+        } else {
+            return null;
+        }
+
+        if (foundPart == null || (getOwner() != null && foundPart.getOwner() != getOwner())) {
+            throw new HtNoSuchPartException("No " + getHyperTalkIdentifier(context) + " found.");
+        }
+
+        return foundPart;
+    }
+
     @Override
     public Owner getOwner() {
         return layer;
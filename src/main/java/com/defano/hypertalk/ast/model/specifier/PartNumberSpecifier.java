@@ -6,6 +6,7 @@ import com.defano.hypertalk.exception.HtNoSuchPartException;
 import com.defano.wyldcard.part.card.CardModel;
 import com.defano.wyldcard.part.finder.FindInCollectionSpecifier;
 import com.defano.wyldcard.part.model.PartModel;
+import com.defano.wyldcard.part.stack.StackPartIndex;
 import com.defano.wyldcard.runtime.ExecutionContext;
 
 import java.util.List;
@@ -49,6 +50,28 @@ public class PartNumberSpecifier implements FindInCollectionSpecifier {
         }
     }
 
+    @Override
+    public PartModel findInStackIndex(ExecutionContext context, StackPartIndex index) throws HtNoSuchPartException {
+        PartModel foundPart;
+
+        // Marked cards are not indexed
+        if (marked) {
+            return null;
+        } else if (getType() == PartType.CARD) {
+            foundPart = index.getCardByNumber(number);
+        } else if (getType() == PartType.BACKGROUND) {
+            foundPart = index.getBackgroundByNumber(number);
+        } else {
+            return null;
+        }
+
+        if (foundPart == null || (getOwner() != null && foundPart.getOwner() != getOwner())) {
+            throw new HtNoSuchPartException("No " + getHyperTalkIdentifier(context) + " found.");
+        }
+
+        return foundPart;
+    }
+
     @Override
     public Object getValue() {
         return number;
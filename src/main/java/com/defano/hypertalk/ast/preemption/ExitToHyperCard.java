@@ -10,4 +10,12 @@ public class ExitToHyperCard extends HtException {
     public ExitToHyperCard() {
         super("Exit to HyperCard");
     }
+
+    /**
+     * Like a {@link Preemption}, exiting to HyperCard is not an error; there's no need to capture a stack trace.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
 }
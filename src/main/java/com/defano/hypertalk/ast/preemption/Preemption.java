@@ -10,6 +10,14 @@ import com.defano.hypertalk.exception.HtNoSuchPropertyException;
  * been encountered either in Java or within a HyperTalk script. These situations are referred to as preemptions to
  * distinguish them from real errors, which use Java's exception naming conventions (i.e.,
  * {@link HtNoSuchPropertyException} or {@link com.defano.hypertalk.exception.HtException}).
+ *
+ * Preemptions are thrown routinely (for example, on every iteration of a loop using 'next repeat'), so they do not
+ * capture a stack trace and do not record suppressed exceptions. Having no mutable state, a preemption may be
+ * allocated once and thrown repeatedly (from any thread).
  */
 public class Preemption extends Exception {
+
+    protected Preemption() {
+        super(null, null, false, false);
+    }
 }
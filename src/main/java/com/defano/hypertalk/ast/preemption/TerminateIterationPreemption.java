@@ -6,4 +6,13 @@ package com.defano.hypertalk.ast.preemption;
  * or function.
  */
 public class TerminateIterationPreemption extends Preemption {
+
+    private static final TerminateIterationPreemption instance = new TerminateIterationPreemption();
+
+    private TerminateIterationPreemption() {
+    }
+
+    public static TerminateIterationPreemption getInstance() {
+        return instance;
+    }
 }
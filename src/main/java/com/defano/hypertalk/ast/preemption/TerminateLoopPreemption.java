@@ -5,4 +5,13 @@ package com.defano.hypertalk.ast.preemption;
  * following the loop.
  */
 public class TerminateLoopPreemption extends Preemption {
+
+    private static final TerminateLoopPreemption instance = new TerminateLoopPreemption();
+
+    private TerminateLoopPreemption() {
+    }
+
+    public static TerminateLoopPreemption getInstance() {
+        return instance;
+    }
 }
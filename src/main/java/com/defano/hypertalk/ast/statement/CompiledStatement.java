@@ -0,0 +1,37 @@
+package com.defano.hypertalk.ast.statement;
+
+import com.defano.hypertalk.ast.preemption.Preemption;
+import com.defano.hypertalk.exception.HtException;
+import com.defano.wyldcard.runtime.ExecutionContext;
+
+/**
+ * A statement (or list of statements) compiled by {@link StatementCompiler} into a closure that executes it without
+ * re-examining its structure.
+ * <p>
+ * Compiled statements signal 'next repeat' and 'exit repeat' by returning a {@link Completion} to the enclosing loop
+ * instead of throwing a preemption. Other preemptions ('return', 'exit', 'pass', etc.) are thrown as usual.
+ */
+public interface CompiledStatement {
+
+    /**
+     * The manner in which a compiled statement completed.
+     */
+    enum Completion {
+        /** Execution continues with the next statement */
+        NORMAL,
+        /** Execution continues with the next iteration of the enclosing repeat loop */
+        NEXT_REPEAT,
+        /** Execution continues after the enclosing repeat loop */
+        EXIT_REPEAT
+    }
+
+    /**
+     * Executes the compiled statement.
+     *
+     * @param context The execution context
+     * @return The manner in which the statement completed
+     * @throws HtException Thrown if an error occurs executing the statement
+     * @throws Preemption  Thrown if the statement preempts the handler ('return', 'exit', 'pass', etc.)
+     */
+    Completion execute(ExecutionContext context) throws HtException, Preemption;
+}
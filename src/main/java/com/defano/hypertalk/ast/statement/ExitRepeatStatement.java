@@ -12,6 +12,6 @@ public class ExitRepeatStatement extends Statement {
 
     @Override
     public void onExecute(ExecutionContext context) throws TerminateLoopPreemption {
-        throw new TerminateLoopPreemption();
+        throw TerminateLoopPreemption.getInstance();
     }
 }
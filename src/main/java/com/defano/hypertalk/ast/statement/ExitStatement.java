@@ -9,10 +9,12 @@ import org.antlr.v4.runtime.ParserRuleContext;
 public class ExitStatement extends Statement {
 
     private final String blockName;
+    private final TerminateHandlerPreemption exit;
 
     public ExitStatement(ParserRuleContext context, String blockName) {
         super(context);
         this.blockName = blockName;
+        this.exit = new TerminateHandlerPreemption(blockName);
     }
 
     @Override
@@ -21,6 +23,6 @@ public class ExitStatement extends Statement {
             throw new HtSemanticException("Cannot exit '" + blockName + "' from here.");
         }
 
-        throw new TerminateHandlerPreemption(blockName);
+        throw exit;
     }
 }
@@ -23,7 +23,7 @@ public class ExpressionStatement extends Statement {
 
         // Special case: A variable name used as a statement should be interpreted as a message command
         if (expression instanceof VariableExp) {
-            MessageCmd messageCmd = new MessageCmd(super.getParserContext(), expression.evaluate(context).toString(), new ListExp(null));
+            MessageCmd messageCmd = atThisPosition(new MessageCmd(null, expression.evaluate(context).toString(), new ListExp(null)));
             messageCmd.execute(context);
         }
 
@@ -12,6 +12,6 @@ public class NextRepeatStatement extends Statement {
 
     @Override
     public void onExecute(ExecutionContext context) throws TerminateIterationPreemption {
-        throw new TerminateIterationPreemption();
+        throw TerminateIterationPreemption.getInstance();
     }
 }
@@ -10,6 +10,8 @@ import org.antlr.v4.runtime.ParserRuleContext;
 
 public class ReturnStatement extends Statement {
 
+    private static final TerminateHandlerPreemption RETURN = new TerminateHandlerPreemption(null);
+
     public final Expression returnValue;
     
     public ReturnStatement(ParserRuleContext context) {
@@ -23,9 +25,20 @@ public class ReturnStatement extends Statement {
     }
 
     public void onExecute(ExecutionContext context) throws HtException, TerminateHandlerPreemption {
-        Value evaluatedReturnValue = returnValue.evaluate(context);
+        returnFromHandler(context, returnValue.evaluate(context));
+    }
+
+    /**
+     * Returns the given (evaluated) value from the executing handler. Also invoked by statements compiled by
+     * {@link StatementCompiler}.
+     *
+     * @param context The execution context.
+     * @param evaluatedReturnValue The value to return
+     * @throws TerminateHandlerPreemption Always thrown to terminate the handler
+     */
+    void returnFromHandler(ExecutionContext context, Value evaluatedReturnValue) throws TerminateHandlerPreemption {
         context.getStackFrame().setReturnValue(evaluatedReturnValue);
         context.setResult(evaluatedReturnValue);
-        throw new TerminateHandlerPreemption(null);
+        throw RETURN;
     }
 }
@@ -28,13 +28,7 @@ public abstract class Statement extends ASTNode {
 
     public void execute(ExecutionContext context) throws HtException, Preemption {
         try {
-            // Check for abort
-            if (context.didAbort()) {
-                throw new HtSemanticException("Script aborted.");
-            }
-
-            // Check to see if we need to break before executing this statement
-            handleBreakpoints(context);
+            enter(context);
 
             // Delegate to the implementor
             onExecute(context);
@@ -45,13 +39,43 @@ public abstract class Statement extends ASTNode {
         }
     }
 
+    /**
+     * Performs the checks made prior to executing this statement: aborts the script if requested, and breaks into the
+     * debugger if this statement is a breakpoint. Also invoked by statements compiled by {@link StatementCompiler}.
+     *
+     * @param context The execution context.
+     * @throws HtException Thrown if the script has been aborted
+     */
+    void enter(ExecutionContext context) throws HtException {
+        // Check for abort
+        if (context.didAbort()) {
+            throw new HtSemanticException("Script aborted.");
+        }
+
+        // Check to see if we need to break before executing this statement
+        handleBreakpoints(context);
+    }
+
+    /**
+     * Adds this statement's breadcrumb to the given exception (if it doesn't already have one) and rethrows it; see
+     * {@link #rethrowContextualizedException(ExecutionContext, HtException)}. Used by statements compiled by
+     * {@link StatementCompiler}.
+     *
+     * @param context The execution context.
+     * @param e       The exception to contextualize and re-throw.
+     * @throws HtException The contextualized exception
+     */
+    void contextualize(ExecutionContext context, HtException e) throws HtException {
+        rethrowContextualizedException(context, e);
+    }
+
     /**
      * Returns a non-null (but possibly empty) list of statements that appear on a given line of the script.
      * @param line The line number, counting from 1;
      * @return A list of zero or more found statements
      */
     public Collection<Statement> findStatementsOnLine(int line) {
-        if (getToken().getLine() == line) {
+        if (getSourcePosition() != null && getSourcePosition().getLine() == line) {
             return Lists.newArrayList(this);
         }
         return new ArrayList<>();
@@ -80,8 +104,15 @@ public abstract class Statement extends ASTNode {
      * @param context The execution context.
      */
     protected void handleBreakpoints(ExecutionContext context) throws ExitToHyperCard {
-        if (DebugContext.getInstance().isBreakpoint(context, this)) {
-            DebugContext.getInstance().debug(context, this);
+        DebugContext debugger = DebugContext.getInstance();
+
+        // Fast path: Unless debugging, tracing or stepping, only statements with breakpoints can break
+        if (!debugger.isArmed() && !hasBreakpoint()) {
+            return;
+        }
+
+        if (debugger.isBreakpoint(context, this)) {
+            debugger.debug(context, this);
 
             if (abortFlag) {
                 abortFlag = false;
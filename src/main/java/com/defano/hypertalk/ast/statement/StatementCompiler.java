@@ -0,0 +1,284 @@
+package com.defano.hypertalk.ast.statement;
+
+import com.defano.hypertalk.ast.expression.CompiledExpression;
+import com.defano.hypertalk.ast.expression.ExpressionCompiler;
+import com.defano.hypertalk.ast.model.Value;
+import com.defano.hypertalk.ast.preemption.Preemption;
+import com.defano.hypertalk.ast.preemption.TerminateIterationPreemption;
+import com.defano.hypertalk.ast.preemption.TerminateLoopPreemption;
+import com.defano.hypertalk.ast.statement.CompiledStatement.Completion;
+import com.defano.hypertalk.ast.statement.conditional.IfStatement;
+import com.defano.hypertalk.ast.statement.repeat.*;
+import com.defano.hypertalk.exception.HtException;
+import com.defano.hypertalk.exception.HtSemanticException;
+import com.defano.wyldcard.runtime.ExecutionContext;
+import com.defano.wyldcard.runtime.symbol.SymbolReference;
+
+import java.util.List;
+
+/**
+ * Compiles statements into trees of closures ({@link CompiledStatement}) specialized to their structure; used by the
+ * compiled execution backend (see {@link com.defano.wyldcard.runtime.executor.ExecutionBackend}).
+ * <p>
+ * Control flow (statement lists, 'if', 'repeat' and 'return') is compiled: the kind of each repeat loop is resolved
+ * once at compile time rather than on each execution, and 'next repeat' and 'exit repeat' complete without throwing.
+ * The conditions, repeat bounds and return values of these statements are compiled by {@link ExpressionCompiler}. Every
+ * other statement executes exactly as it does when interpreted. Each compiled statement performs the same abort and
+ * breakpoint checks as {@link Statement#execute(ExecutionContext)} and attaches the same breadcrumbs to errors, so
+ * compiled and interpreted statements behave identically.
+ */
+public class StatementCompiler {
+
+    private StatementCompiler() {
+    }
+
+    /**
+     * Compiles the given statement (typically the statement list forming the body of a handler or loop).
+     *
+     * @param statement The statement to compile
+     * @return The compiled statement
+     */
+    public static CompiledStatement compile(Statement statement) {
+        if (statement instanceof StatementList) {
+            return compileList((StatementList) statement);
+        } else if (statement instanceof IfStatement) {
+            return compileIf((IfStatement) statement);
+        } else if (statement instanceof RepeatStatement) {
+            return compileRepeat((RepeatStatement) statement);
+        } else if (statement instanceof ReturnStatement) {
+            return compileReturn((ReturnStatement) statement);
+        } else if (statement instanceof NextRepeatStatement) {
+            return checked(statement, context -> Completion.NEXT_REPEAT);
+        } else if (statement instanceof ExitRepeatStatement) {
+            return checked(statement, context -> Completion.EXIT_REPEAT);
+        } else {
+            return context -> {
+                statement.execute(context);
+                return Completion.NORMAL;
+            };
+        }
+    }
+
+    /**
+     * Executes a compiled handler body. A 'next repeat' or 'exit repeat' completing outside of any loop is thrown as
+     * the preemption the interpreter would have thrown, so that the caller handles it identically.
+     *
+     * @param compiled The compiled handler body
+     * @param context  The execution context
+     * @throws HtException Thrown if an error occurs executing the statements
+     * @throws Preemption  Thrown if the statements preempt the handler
+     */
+    public static void execute(CompiledStatement compiled, ExecutionContext context) throws HtException, Preemption {
+        switch (compiled.execute(context)) {
+            case NEXT_REPEAT:
+                throw TerminateIterationPreemption.getInstance();
+            case EXIT_REPEAT:
+                throw TerminateLoopPreemption.getInstance();
+            default:
+                break;
+        }
+    }
+
+    private static CompiledStatement compileList(StatementList statementList) {
+        List<Statement> statements = statementList.list;
+        CompiledStatement[] compiled = new CompiledStatement[statements.size()];
+
+        for (int index = 0; index < compiled.length; index++) {
+            compiled[index] = compile(statements.get(index));
+        }
+
+        return checked(statementList, context -> {
+            for (CompiledStatement thisStatement : compiled) {
+                Completion completion = thisStatement.execute(context);
+                if (completion != Completion.NORMAL) {
+                    return completion;
+                }
+            }
+
+            return Completion.NORMAL;
+        });
+    }
+
+    private static CompiledStatement compileIf(IfStatement ifStatement) {
+        CompiledExpression condition = ExpressionCompiler.compile(ifStatement.condition);
+        CompiledStatement thenBranch = compile(ifStatement.then.thenBranch);
+        CompiledStatement elseBranch = ifStatement.then.elseBranch == null ? null : compile(ifStatement.then.elseBranch);
+
+        return checked(ifStatement, context -> {
+            if (evaluateCondition(context, condition, "Condition expects a true or false value.")) {
+                return thenBranch.execute(context);
+            } else if (elseBranch != null) {
+                return elseBranch.execute(context);
+            }
+
+            return Completion.NORMAL;
+        });
+    }
+
+    private static CompiledStatement compileRepeat(RepeatStatement repeatStatement) {
+        RepeatSpecifier range = repeatStatement.range;
+        CompiledStatement body = compile(repeatStatement.statements);
+        CompiledStatement loop;
+
+        if (range instanceof RepeatForever) {
+            loop = compileRepeatForever(body);
+        } else if (range instanceof RepeatCount) {
+            loop = compileRepeatCount((RepeatCount) range, body);
+        } else if (range instanceof RepeatDuration) {
+            loop = compileRepeatDuration((RepeatDuration) range, body);
+        } else if (range instanceof RepeatWith) {
+            loop = compileRepeatWith((RepeatWith) range, body);
+        } else {
+            throw new IllegalStateException("Bug! Unknown repeat type.");
+        }
+
+        return checked(repeatStatement, context -> {
+            try {
+                return loop.execute(context);
+            } catch (TerminateLoopPreemption e) {
+                // Nothing to do except stop repeating
+                return Completion.NORMAL;
+            }
+        });
+    }
+
+    private static CompiledStatement compileReturn(ReturnStatement returnStatement) {
+        CompiledExpression returnValue = ExpressionCompiler.compile(returnStatement.returnValue);
+
+        return checked(returnStatement, context -> {
+            returnStatement.returnFromHandler(context, returnValue.evaluate(context));
+            return Completion.NORMAL;
+        });
+    }
+
+    private static CompiledStatement compileRepeatForever(CompiledStatement body) {
+        return context -> {
+            while (!context.didAbort()) {
+                if (iterate(context, body) == Completion.EXIT_REPEAT) {
+                    break;
+                }
+            }
+
+            return Completion.NORMAL;
+        };
+    }
+
+    private static CompiledStatement compileRepeatCount(RepeatCount count, CompiledStatement body) {
+        CompiledExpression countExpression = ExpressionCompiler.compile(count.count);
+
+        return context -> {
+            Value countValue = countExpression.evaluate(context);
+
+            if (!countValue.isNatural())
+                throw new HtSemanticException("Repeat range must be a natural number, got '" + countValue + "' instead.");
+
+            int countIndex = countValue.integerValue();
+            while (countIndex-- > 0) {
+                if (iterate(context, body) == Completion.EXIT_REPEAT) {
+                    break;
+                }
+            }
+
+            return Completion.NORMAL;
+        };
+    }
+
+    private static CompiledStatement compileRepeatDuration(RepeatDuration duration, CompiledStatement body) {
+        String error = "Repeat condition expects a true or false value.";
+        boolean repeatWhile = duration.polarity == RepeatDuration.POLARITY_WHILE;
+        CompiledExpression condition = ExpressionCompiler.compile(duration.condition);
+
+        return context -> {
+            while (evaluateCondition(context, condition, error) == repeatWhile) {
+                if (iterate(context, body) == Completion.EXIT_REPEAT) {
+                    break;
+                }
+            }
+
+            return Completion.NORMAL;
+        };
+    }
+
+    private static CompiledStatement compileRepeatWith(RepeatWith with, CompiledStatement body) {
+        SymbolReference symbol = with.symbol;
+        RepeatRange withRange = with.range;
+        boolean upTo = withRange.polarity == RepeatRange.POLARITY_UPTO;
+        CompiledExpression fromExpression = ExpressionCompiler.compile(withRange.from);
+        CompiledExpression toExpression = ExpressionCompiler.compile(withRange.to);
+
+        return context -> {
+            Value fromValue = fromExpression.evaluate(context);
+            Value toValue = toExpression.evaluate(context);
+
+            if (!fromValue.isInteger())
+                throw new HtSemanticException("Start of repeat range is not an integer value: '" + fromValue + "'");
+            if (!toValue.isInteger())
+                throw new HtSemanticException("End of repeat range is not an integer value: '" + toValue + "'");
+
+            int from = fromValue.integerValue();
+            int to = toValue.integerValue();
+
+            if (upTo) {
+                if (from > to)
+                    throw new HtSemanticException("Start of repeat range is greater than end: " + from + " > " + to);
+
+                for (int index = from; index <= to; index++) {
+                    context.setVariable(symbol, new Value(index));
+                    if (iterate(context, body) == Completion.EXIT_REPEAT) {
+                        break;
+                    }
+                }
+            }
+
+            else {
+                if (to > from)
+                    throw new HtSemanticException("End of repeat range is less than start: " + to + " > " + from);
+
+                for (int index = from; index >= to; index--) {
+                    context.setVariable(symbol, new Value(index));
+                    if (iterate(context, body) == Completion.EXIT_REPEAT) {
+                        break;
+                    }
+                }
+            }
+
+            return Completion.NORMAL;
+        };
+    }
+
+    private static Completion iterate(ExecutionContext context, CompiledStatement body) throws HtException, Preemption {
+        try {
+            return body.execute(context);
+        } catch (TerminateIterationPreemption e) {
+            // Nothing to do; keep repeating
+            return Completion.NEXT_REPEAT;
+        }
+    }
+
+    private static boolean evaluateCondition(ExecutionContext context, CompiledExpression condition, String error) throws HtException {
+        Value value = condition.evaluate(context);
+
+        if (value.isBoolean()) {
+            return value.booleanValue();
+        }
+
+        throw new HtSemanticException(error);
+    }
+
+    /**
+     * Wraps a compiled statement with the abort and breakpoint checks made before executing the given statement, and
+     * attaches the statement's breadcrumb to any error that does not already have one.
+     */
+    private static CompiledStatement checked(Statement statement, CompiledStatement compiled) {
+        return context -> {
+            try {
+                statement.enter(context);
+                return compiled.execute(context);
+            } catch (HtException e) {
+                statement.contextualize(context, e);
+            }
+
+            throw new IllegalStateException("Bug! Contextualized exception not thrown.");
+        };
+    }
+}
@@ -31,6 +31,10 @@ public class MessageCmd extends Statement {
         this.messageRecipient = messageRecipient;
     }
 
+    public Message getMessage() {
+        return message;
+    }
+
     @Override
     public void onExecute(ExecutionContext context) throws HtException {
 
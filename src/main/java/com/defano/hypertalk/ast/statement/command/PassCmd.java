@@ -11,10 +11,12 @@ import org.antlr.v4.runtime.ParserRuleContext;
 public class PassCmd extends Statement {
 
     private final String passedMessage;
+    private final PassPreemption pass;
 
     public PassCmd(ParserRuleContext context, String passedMessage) {
         super(context);
         this.passedMessage = passedMessage;
+        this.pass = new PassPreemption(passedMessage);
     }
 
     @Override
@@ -22,7 +24,7 @@ public class PassCmd extends Statement {
         if (!context.getStackFrame().getMessage().equalsIgnoreCase(passedMessage)) {
             throw new HtSemanticException("Cannot pass " + passedMessage + " from within " + context.getStackFrame().getMessage());
         } else {
-            throw new PassPreemption(passedMessage);
+            throw pass;
         }
     }
 }
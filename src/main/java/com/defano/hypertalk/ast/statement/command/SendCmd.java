@@ -27,7 +27,7 @@ public class SendCmd extends Command {
         PartExp recipient = partExpr.factor(context, PartExp.class, new HtSemanticException("Cannot send a message to that."));
         Message message = MessageBuilder.fromString(messageExpr.evaluate(context).toString());
 
-        new MessageCmd(getParserContext(), recipient, message).execute(context);
+        atThisPosition(new MessageCmd(null, recipient, message)).execute(context);
     }
 
 }
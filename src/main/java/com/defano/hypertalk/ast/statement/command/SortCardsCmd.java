@@ -1,21 +1,28 @@
 package com.defano.hypertalk.ast.statement.command;
 
 import com.defano.hypertalk.ast.expression.Expression;
+import com.defano.hypertalk.ast.model.Value;
 import com.defano.hypertalk.ast.model.enums.SortDirection;
 import com.defano.hypertalk.ast.model.enums.SortStyle;
+import com.defano.hypertalk.ast.model.specifier.PartSpecifier;
 import com.defano.hypertalk.ast.statement.Command;
-import com.defano.hypertalk.comparator.CardExpressionComparator;
+import com.defano.hypertalk.comparator.KeyedSort;
 import com.defano.hypertalk.exception.HtException;
 import com.defano.hypertalk.exception.HtSemanticException;
-import com.defano.hypertalk.exception.HtUncheckedSemanticException;
 import com.defano.wyldcard.part.bkgnd.BackgroundModel;
+import com.defano.wyldcard.part.button.ButtonPart;
 import com.defano.wyldcard.part.card.CardModel;
+import com.defano.wyldcard.part.card.CardPart;
+import com.defano.wyldcard.part.field.FieldPart;
 import com.defano.wyldcard.runtime.ExecutionContext;
+import com.defano.wyldcard.thread.Invoke;
 import org.antlr.v4.runtime.ParserRuleContext;
 
 import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class SortCardsCmd extends Command {
 
@@ -47,23 +54,20 @@ public class SortCardsCmd extends Command {
         // Get a copy of the list of cards in the stack
         List<CardModel> allCards = context.getCurrentStack().getStackModel().getCardModels();
 
-        // Filter list for cards indicated for sorting (i.e., marked cards; cards of a given background)
-        List<CardModel> sortCards = filterCards(context, allCards);
+        // Determine which cards are indicated for sorting (i.e., marked cards; cards of a given background)
+        boolean[] sortable = matchSortCriteria(context, allCards);
+        List<CardModel> sortCards = filterCards(allCards, sortable);
 
         // Sort the indicated cards
         try {
-            sortCards.sort(new CardExpressionComparator(context, expression, style, direction));
+            List<CardModel> sortedCards = KeyedSort.sort(sortCards, evaluateKeys(context, sortCards), style, direction);
 
             // Insert the sorted cards back into the full stack
-            List<CardModel> orderedCards = mergeCards(context, allCards, sortCards);
+            List<CardModel> orderedCards = mergeCards(allCards, sortable, sortedCards);
 
             // Update the stack with the modified card order and invalidate the card cache
             context.getCurrentStack().getStackModel().setCardModels(orderedCards);
 
-        } catch (HtUncheckedSemanticException e) {
-            // Error occurred sorting; revert all changes
-            context.getCurrentStack().getStackModel().setCardModels(allCards);
-            throw e.getHtCause();
         } finally {
             // Because card order may have changed, lets navigate back to where we started
             int thisCardIdx = indexOfCardId(context, context.getCurrentStack().getStackModel().getCardModels(), thisCardId);
@@ -71,56 +75,108 @@ public class SortCardsCmd extends Command {
         }
     }
 
-    private List<CardModel> filterCards(ExecutionContext context, List<CardModel> cards) throws HtException {
+    /**
+     * Evaluates the sort expression once in the context of each card.
+     *
+     * @param context The execution context
+     * @param cards   The cards to be sorted
+     * @return The sort key of each card, in the same order as the given cards
+     * @throws HtException Thrown if an error occurs evaluating the sort expression
+     */
+    private List<Value> evaluateKeys(ExecutionContext context, List<CardModel> cards) throws HtException {
+        List<Value> keys = new ArrayList<>(cards.size());
+        PartSpecifier originalMe = context.getStackFrame().getMe();
+        CardPart originalCard = context.getCurrentCard();
+
+        try {
+            for (CardModel thisCard : cards) {
+                context.setCurrentCard(acquire(context, thisCard));
+                keys.add(expression.evaluate(context));
+            }
+        } finally {
+            // Stop overriding card context in this thread
+            context.setCurrentCard(originalCard);
+            context.getStackFrame().setMe(originalMe);
+        }
+
+        return keys;
+    }
+
+    private CardPart acquire(ExecutionContext context, CardModel model) {
+        CardPart card = Invoke.onDispatch(() -> CardPart.fromModel(context, model));
+
+        // Shared background fields maintain original text; update the shared text context
+        for (FieldPart thisPart : card.getFields()) {
+            thisPart.getPartModel().setCurrentCardId(model.getId());
+        }
+
+        for (ButtonPart thisPart : card.getButtons()) {
+            thisPart.getPartModel().setCurrentCardId(model.getId());
+        }
+
+        return card;
+    }
+
+    private boolean[] matchSortCriteria(ExecutionContext context, List<CardModel> cards) throws HtException {
+        boolean[] matches = new boolean[cards.size()];
+        Set<Integer> backgroundCardIds = getBackgroundCardIds(context);
+
+        for (int index = 0; index < cards.size(); index++) {
+            CardModel thisCard = cards.get(index);
+            matches[index] = (backgroundCardIds == null || backgroundCardIds.contains(thisCard.getId())) && cardMatchesMarked(context, thisCard);
+        }
+
+        return matches;
+    }
+
+    private List<CardModel> filterCards(List<CardModel> cards, boolean[] sortable) {
         ArrayList<CardModel> filteredCards = new ArrayList<>();
 
-        for (CardModel thisCard : cards) {
-            if (cardMatchesSortCriteria(context, thisCard)) {
-                filteredCards.add(thisCard);
+        for (int index = 0; index < cards.size(); index++) {
+            if (sortable[index]) {
+                filteredCards.add(cards.get(index));
             }
         }
 
         return filteredCards;
     }
 
-    private List<CardModel> mergeCards(ExecutionContext context, List<CardModel> allCards, List<CardModel> filteredCards) throws HtException {
+    private List<CardModel> mergeCards(List<CardModel> allCards, boolean[] sortable, List<CardModel> sortedCards) {
         List<CardModel> merged = new ArrayList<>(allCards);
         int matched = 0;
 
         for (int index = 0; index < allCards.size(); index++) {
-            if (cardMatchesSortCriteria(context, allCards.get(index))) {
-                merged.set(index, filteredCards.get(matched++));
+            if (sortable[index]) {
+                merged.set(index, sortedCards.get(matched++));
             }
         }
 
-        if (matched != filteredCards.size()) {
-            throw new ConcurrentModificationException("Stack was modified while sorting.");
-        }
-
         return merged;
     }
 
-    private boolean cardMatchesSortCriteria(ExecutionContext context, CardModel cardModel) throws HtException {
-        return cardMatchesBackground(context, cardModel) && cardMatchesMarked(context, cardModel);
-    }
-
     private boolean cardMatchesMarked(ExecutionContext context, CardModel cardModel) {
         return !markedCards || cardModel.get(context, CardModel.PROP_MARKED).booleanValue();
     }
 
-    private boolean cardMatchesBackground(ExecutionContext context, CardModel cardModel) throws HtException {
+    /**
+     * Gets the IDs of the cards belonging to the background being sorted.
+     *
+     * @param context The execution context
+     * @return The IDs of the background's cards, or null if cards of every background are being sorted
+     * @throws HtException Thrown if the background expression does not refer to a background
+     */
+    private Set<Integer> getBackgroundCardIds(ExecutionContext context) throws HtException {
         if (background == null) {
-            return true;
+            return null;
         }
 
+        Set<Integer> cardIds = new HashSet<>();
         BackgroundModel backgroundModel = background.partFactor(context, BackgroundModel.class, new HtSemanticException("Can't sort that."));
         for (CardModel thisCard : backgroundModel.getCardModels()) {
-            if (thisCard.getId() == cardModel.getId()) {
-                return true;
-            }
+            cardIds.add(thisCard.getId());
         }
 
-        return false;
+        return cardIds;
     }
 
     private int indexOfCardId(ExecutionContext context, List<CardModel> cardModels, int id) {
@@ -6,15 +6,15 @@ import com.defano.hypertalk.ast.model.enums.Preposition;
 import com.defano.hypertalk.ast.expression.container.ContainerExp;
 import com.defano.hypertalk.ast.expression.Expression;
 import com.defano.hypertalk.ast.statement.Command;
-import com.defano.hypertalk.comparator.ExpressionValueComparator;
 import com.defano.hypertalk.ast.model.enums.SortStyle;
-import com.defano.hypertalk.comparator.ValueComparator;
+import com.defano.hypertalk.comparator.KeyedSort;
 import com.defano.hypertalk.exception.HtException;
 import com.defano.hypertalk.ast.model.chunk.ChunkType;
 import com.defano.hypertalk.exception.HtSemanticException;
 import com.defano.wyldcard.runtime.ExecutionContext;
 import org.antlr.v4.runtime.ParserRuleContext;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class SortCmd extends Command {
@@ -43,17 +43,21 @@ public class SortCmd extends Command {
         ContainerExp factor = container.factor(context, ContainerExp.class, new HtSemanticException("Can't sort that."));
         List<Value> items = getItemsToSort(context, factor);
 
-        // Sort by direction
-        if (expression == null) {
-            items.sort(new ValueComparator(direction, sortStyle));
-        }
+        // Sort by the items themselves, or by the value of the expression for each item
+        List<Value> keys = expression == null ? items : evaluateKeys(context, items);
+
+        putSortedItems(context, factor, KeyedSort.sort(items, keys, sortStyle, direction));
+    }
+
+    private List<Value> evaluateKeys(ExecutionContext context, List<Value> items) throws HtException {
+        List<Value> keys = new ArrayList<>(items.size());
 
-        // Sort by expression
-        else {
-            items.sort(new ExpressionValueComparator(context, expression, direction, sortStyle));
+        for (Value thisItem : items) {
+            context.setVariable("each", thisItem);
+            keys.add(expression.evaluate(context));
         }
 
-        putSortedItems(context, factor, items);
+        return keys;
     }
 
     private void putSortedItems(ExecutionContext context, ContainerExp container, List<Value> sortedItems) throws HtException {
@@ -4,21 +4,33 @@ import com.defano.hypertalk.ast.model.Value;
 import com.defano.hypertalk.ast.preemption.Preemption;
 import com.defano.hypertalk.ast.preemption.TerminateIterationPreemption;
 import com.defano.hypertalk.ast.preemption.TerminateLoopPreemption;
+import com.defano.hypertalk.ast.statement.CompiledStatement;
 import com.defano.hypertalk.ast.statement.Statement;
+import com.defano.hypertalk.ast.statement.StatementCompiler;
 import com.defano.hypertalk.ast.statement.StatementList;
 import com.defano.hypertalk.exception.HtException;
 import com.defano.hypertalk.exception.HtSemanticException;
+import com.defano.wyldcard.debug.DebugContext;
 import com.defano.wyldcard.runtime.ExecutionContext;
+import com.defano.wyldcard.runtime.executor.ExecutionBackend;
+import com.defano.wyldcard.runtime.symbol.SymbolReference;
 import org.antlr.v4.runtime.ParserRuleContext;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class RepeatStatement extends Statement {
 
+    // Number of iterations after which an interpreted loop's body is compiled (when using the compiled backend)
+    private static final int COMPILE_THRESHOLD = 100;
+
     public final RepeatSpecifier range;
     public final StatementList statements;
 
+    private final AtomicInteger iterations = new AtomicInteger();
+    private volatile CompiledStatement compiledStatements;
+
     public RepeatStatement(ParserRuleContext context, RepeatSpecifier range, StatementList statements) {
         super(context);
         this.range = range;
@@ -55,7 +67,7 @@ public class RepeatStatement extends Statement {
 
     private void executeRepeatWith(ExecutionContext context) throws HtException, Preemption {
         RepeatWith with = (RepeatWith) range;
-        String symbol = with.symbol;
+        SymbolReference symbol = with.symbol;
         RepeatRange withRange = with.range;
 
         Value fromValue = withRange.from.evaluate(context);
@@ -130,11 +142,34 @@ public class RepeatStatement extends Statement {
     }
 
     private void iterate(ExecutionContext context) throws HtException, Preemption {
+        CompiledStatement compiled = getCompiledStatements();
 
         try {
-            statements.execute(context);
+            if (compiled != null && !DebugContext.getInstance().isArmed()) {
+                if (compiled.execute(context) == CompiledStatement.Completion.EXIT_REPEAT) {
+                    throw TerminateLoopPreemption.getInstance();
+                }
+            } else {
+                statements.execute(context);
+            }
         } catch (TerminateIterationPreemption e) {
             // Nothing to do; keep repeating
         }
     }
+
+    /**
+     * Gets the compiled form of this loop's body, compiling it if the loop has become hot. Lets a long-running loop in
+     * a handler that is not (yet) compiled itself benefit from the compiled backend.
+     */
+    private CompiledStatement getCompiledStatements() {
+        if (!ExecutionBackend.isCompiled()) {
+            return null;
+        }
+
+        if (compiledStatements == null && iterations.incrementAndGet() >= COMPILE_THRESHOLD) {
+            compiledStatements = StatementCompiler.compile(statements);
+        }
+
+        return compiledStatements;
+    }
 }
@@ -1,12 +1,14 @@
 package com.defano.hypertalk.ast.statement.repeat;
 
+import com.defano.wyldcard.runtime.symbol.SymbolReference;
+
 public class RepeatWith extends RepeatSpecifier {
 
-    public final String symbol;
+    public final SymbolReference symbol;
     public final RepeatRange range;
     
     public RepeatWith (String symbol, RepeatRange range) {
-        this.symbol = symbol;
+        this.symbol = new SymbolReference(symbol);
         this.range = range;
     }
 }
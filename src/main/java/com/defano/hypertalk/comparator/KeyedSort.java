@@ -0,0 +1,105 @@
+package com.defano.hypertalk.comparator;
+
+import com.defano.hypertalk.ast.model.Value;
+import com.defano.hypertalk.ast.model.enums.SortDirection;
+import com.defano.hypertalk.ast.model.enums.SortStyle;
+import com.defano.hypertalk.util.DateUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Sorts a list of items by a sort key previously evaluated for each item (that is, a decorate-sort-undecorate sort).
+ * <p>
+ * Each key is converted just once into the form compared by the sort style (a string, double or epoch time) rather than
+ * being coerced again on every comparison. Sorts are stable: items with equal keys retain their relative order.
+ */
+public class KeyedSort {
+
+    // Convert keys concurrently only when there are enough of them to be worth it
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    /**
+     * Sorts a list of items according to their keys using HyperTalk sort semantics (see
+     * {@link Value#compareTo(Value, SortStyle)}).
+     *
+     * @param items     The items to sort; not modified
+     * @param keys      The sort key of each item; the same size and order as items
+     * @param style     The sort style
+     * @param direction The sort direction
+     * @param <T>       The type of item being sorted
+     * @return A new list containing the items in sorted order
+     */
+    public static <T> List<T> sort(List<T> items, List<Value> keys, SortStyle style, SortDirection direction) {
+        Comparator<Integer> byKey = comparing(keys, style);
+        if (direction == SortDirection.DESCENDING) {
+            byKey = byKey.reversed();
+        }
+
+        Integer[] order = new Integer[items.size()];
+        for (int index = 0; index < order.length; index++) {
+            order[index] = index;
+        }
+
+        // Object sorts are stable
+        Arrays.sort(order, byKey);
+
+        List<T> sorted = new ArrayList<>(items.size());
+        for (int thisIndex : order) {
+            sorted.add(items.get(thisIndex));
+        }
+
+        return sorted;
+    }
+
+    private static Comparator<Integer> comparing(List<Value> keys, SortStyle style) {
+        switch (style) {
+            case INTERNATIONAL:
+            case TEXT:
+                String[] text = new String[keys.size()];
+                convert(keys, true, index -> text[index] = keys.get(index).toString());
+                return (o1, o2) -> text[o1].compareTo(text[o2]);
+
+            case NUMERIC:
+                double[] numbers = new double[keys.size()];
+                convert(keys, true, index -> numbers[index] = keys.get(index).doubleValue());
+                return Comparator.comparingDouble(index -> numbers[index]);
+
+            case DATE_TIME:
+                long[] times = new long[keys.size()];
+                boolean[] isDate = new boolean[keys.size()];
+
+                // Date formats are shared and not thread-safe; convert serially
+                convert(keys, false, index -> {
+                    Date date = DateUtils.dateOf(keys.get(index));
+                    isDate[index] = date != null;
+                    times[index] = date == null ? 0 : date.getTime();
+                });
+
+                // Values that are not dates sort after those that are
+                return (o1, o2) -> isDate[o1] && isDate[o2] ?
+                        Long.compare(times[o1], times[o2]) :
+                        Boolean.compare(!isDate[o1], !isDate[o2]);
+        }
+
+        throw new IllegalArgumentException("Bug! Unimplemented comparison style.");
+    }
+
+    private static void convert(List<Value> keys, boolean parallel, IntConsumer conversion) {
+        if (parallel && keys.size() >= PARALLEL_THRESHOLD) {
+            // Values memoize their conversions; the same value may be the key of several items
+            IntStream.range(0, keys.size()).parallel().forEach(index -> {
+                synchronized (keys.get(index)) {
+                    conversion.accept(index);
+                }
+            });
+        } else {
+            IntStream.range(0, keys.size()).forEach(conversion);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.defano.hypertalk.exception;
 
+import com.defano.hypertalk.ast.SourcePosition;
 import com.defano.wyldcard.part.model.PartModel;
 import com.defano.wyldcard.runtime.ExecutionContext;
 import com.defano.hypertalk.ast.model.specifier.PartSpecifier;
@@ -9,22 +10,22 @@ import org.antlr.v4.runtime.Token;
 public class Breadcrumb {
 
     private ExecutionContext context;
-    private Token token;
+    private SourcePosition position;
     private PartSpecifier part;
 
-    public Breadcrumb (ExecutionContext context, Token token) {
+    public Breadcrumb (ExecutionContext context, SourcePosition position) {
         this.context = context;
-        this.token = token;
+        this.position = position;
         this.part = context.getStackFrame().getMe();
     }
 
     public Breadcrumb (Token token) {
-        this.token = token;
+        this.position = SourcePosition.of(token);
     }
 
     public Range getCharRange() {
-        int start = token.getStartIndex();
-        int end = token.getStopIndex();
+        int start = position.getStartIndex();
+        int end = position.getStopIndex();
 
         if (end > start) {
             return new Range(start, end + 1);
@@ -37,16 +38,16 @@ public class Breadcrumb {
         this.context = context;
     }
 
-    public void setToken(Token token) {
-        this.token = token;
+    public void setSourcePosition(SourcePosition position) {
+        this.position = position;
     }
 
     public void setPart(PartSpecifier part) {
         this.part = part;
     }
 
-    public Token getToken() {
-        return token;
+    public SourcePosition getSourcePosition() {
+        return position;
     }
 
     public PartSpecifier getPart() {
@@ -61,8 +62,8 @@ public class Breadcrumb {
     public String toString() {
         String breadcrumb = "";
 
-        if ( token != null) {
-            breadcrumb += "line " + token.getLine() + ", column " + token.getCharPositionInLine();
+        if (position != null) {
+            breadcrumb += position.toString();
         }
 
         if (part != null) {
@@ -0,0 +1,163 @@
+package com.defano.hypertalk.util;
+
+import com.defano.hypertalk.ast.model.chunk.ChunkType;
+import com.defano.hypertalk.ast.model.enums.Ordinal;
+import com.defano.wyldcard.runtime.ExecutionContext;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.regex.Matcher;
+
+/**
+ * An index of the character boundaries of every chunk of a given type (line, item, word or char) in a string. The
+ * index is built in a single pass over the string, after which any chunk can be ranged, and chunks counted, in
+ * constant time.
+ * <p>
+ * Instances of this class are immutable and are typically memoized by the {@link com.defano.hypertalk.ast.model.Value}
+ * whose text they index, so that repeated chunk expressions (i.e., `line i of x` in a loop) do not rescan the text.
+ */
+public class ChunkIndex {
+
+    private final ChunkType chunkType;
+    private final String delimiter;
+    private final int length;
+    private final int count;
+
+    // Start (inclusive) and end (exclusive) offset of each chunk; null when each char of the string is its own chunk
+    private final int[] starts;
+    private final int[] ends;
+
+    private ChunkIndex(ChunkType chunkType, String delimiter, int length, int count, int[] starts, int[] ends) {
+        this.chunkType = chunkType;
+        this.delimiter = delimiter;
+        this.length = length;
+        this.count = count;
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * Builds an index of the chunks of the given type in a string.
+     *
+     * @param context   The execution context.
+     * @param chunkType The type of chunk to index; characters, words, lines or items (or ranges thereof).
+     * @param value     The string to be indexed.
+     * @return The index of chunks in the value.
+     */
+    public static ChunkIndex of(ExecutionContext context, ChunkType chunkType, String value) {
+        ChunkType indexType = getIndexType(chunkType);
+        String delimiter = indexType == ChunkType.ITEM ? ChunkUtils.getItemDelimiter(context) : null;
+
+        // When no surrogate pairs are present, char N is simply the Nth character of the string
+        if (indexType == ChunkType.CHAR && value.length() == value.codePointCount(0, value.length())) {
+            return new ChunkIndex(indexType, null, value.length(), value.length(), null, null);
+        }
+
+        int[] starts = new int[16];
+        int[] ends = new int[16];
+        int count = 0;
+
+        Matcher matcher = ChunkUtils.getRegexForChunkType(context, indexType).matcher(value);
+        while (matcher.find()) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+
+            starts[count] = matcher.start();
+            ends[count] = matcher.end();
+            count++;
+        }
+
+        return new ChunkIndex(indexType, delimiter, value.length(), count, starts, ends);
+    }
+
+    /**
+     * Gets the (non-range) chunk type that an index of the given chunk type describes; range and single chunks of the
+     * same kind share the same index.
+     *
+     * @param chunkType The chunk type
+     * @return The corresponding single chunk type (i.e., {@link ChunkType#LINE} for {@link ChunkType#LINERANGE}).
+     */
+    public static ChunkType getIndexType(ChunkType chunkType) {
+        switch (chunkType) {
+            case CHAR:
+            case CHARRANGE:
+                return ChunkType.CHAR;
+            case WORD:
+            case WORDRANGE:
+                return ChunkType.WORD;
+            case LINE:
+            case LINERANGE:
+                return ChunkType.LINE;
+            case ITEM:
+            case ITEMRANGE:
+                return ChunkType.ITEM;
+            default:
+                throw new RuntimeException("Bug! Not implemented: " + chunkType);
+        }
+    }
+
+    /**
+     * Determines if this index can be used to range chunks of the given type in a string indexed by it. Item indices
+     * are only valid for the item delimiter that was in effect when they were built.
+     *
+     * @param context   The execution context.
+     * @param chunkType The type of chunk to be ranged.
+     * @return True if this index describes the requested chunk type; false if it must be rebuilt.
+     */
+    public boolean isIndexOf(ExecutionContext context, ChunkType chunkType) {
+        ChunkType indexType = getIndexType(chunkType);
+        return indexType == this.chunkType &&
+                (indexType != ChunkType.ITEM || delimiter.equals(ChunkUtils.getItemDelimiter(context)));
+    }
+
+    /**
+     * Gets the number of chunks in the indexed string.
+     *
+     * @return The number of chunks
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the range of characters identified by a set of chunks.
+     *
+     * @param start The first requested chunk, inclusive, counting from 1.
+     * @param end   The last requested chunk, inclusive, counting from 1.
+     * @return The range of characters identified.
+     */
+    public Range getRange(int start, int end) {
+        return new Range(getRange(start).start, getRange(end).end);
+    }
+
+    /**
+     * Gets the range of characters identified by a chunk number or ordinal (i.e., {@link Ordinal#LAST}). Chunks that
+     * do not exist are ranged as an empty range at the end of the string.
+     *
+     * @param chunkNumber The requested chunk, counting from 1, or a reserved ordinal value.
+     * @return The range of characters identified by this chunk.
+     */
+    public Range getRange(int chunkNumber) {
+        int index;
+
+        if (chunkNumber == Ordinal.LAST.intValue()) {
+            index = count - 1;
+        } else if (chunkNumber == Ordinal.MIDDLE.intValue()) {
+            index = count / 2;
+        } else if (chunkNumber == Ordinal.ANY.intValue() && count > 0) {
+            index = new Random().nextInt(count);
+        } else {
+            index = chunkNumber - 1;
+        }
+
+        if (index < 0 || index >= count) {
+            return new Range(length, length);
+        } else if (starts == null) {
+            return new Range(index, index + 1);
+        } else {
+            return new Range(starts[index], ends[index]);
+        }
+    }
+}
@@ -20,6 +20,7 @@ public class ChunkUtils {
     private static final Pattern CHAR_REGEX = Pattern.compile("[\\s\\S]");
     private static final Pattern WORD_REGEX = Pattern.compile("\\S+");
     private static final Pattern LINE_REGEX = Pattern.compile("(?m)^.*$");
+    private static final Rope NEWLINE = Rope.of("\n");
 
     /**
      * Gets a chunk of a value. For example, 'the last line of x'
@@ -91,6 +92,44 @@ public class ChunkUtils {
         }
     }
 
+    /**
+     * Puts a value before, into or after a line of a rope. Produces the same text as
+     * {@link #putChunk(ExecutionContext, ChunkType, Preposition, String, int, int, String)}, but the returned rope
+     * shares all unmodified text with the mutable rope instead of copying it.
+     *
+     * @param preposition One of into, before or after indicating the line-relative position where the value should be
+     *                    inserted.
+     * @param mutable     The rope whose line will be mutated; its lines must be delimited only by newlines (see
+     *                    {@link Rope#hasPlainLineBreaks()}).
+     * @param lineNumber  The number of the line to be mutated, counting from 1, or a reserved ordinal value.
+     * @param mutator     The rope that will be inserted into the mutable rope.
+     * @return The rope resulting from this put operation.
+     */
+    public static Rope putLineChunk(Preposition preposition, Rope mutable, int lineNumber, Rope mutator) {
+
+        // If necessary, add as many lines as are needed to assure the value can be mutated
+        if (!Ordinal.isReservedValue(lineNumber)) {
+            for (int index = mutable.getLineCount(); index < lineNumber; index++) {
+                mutable = mutable.concat(NEWLINE);
+            }
+        }
+
+        Range range = mutable.getLineRange(lineNumber);
+        Rope head = mutable.substring(0, range.start);
+        Rope tail = mutable.substring(range.end, mutable.length());
+
+        switch (preposition) {
+            case BEFORE:
+                return head.concat(mutator).concat(NEWLINE).concat(mutable.substring(range.start, mutable.length()));
+            case INTO:
+                return head.concat(mutator).concat(tail);
+            case AFTER:
+                return mutable.substring(0, range.end).concat(NEWLINE).concat(mutator).concat(tail);
+            default:
+                throw new RuntimeException("Bug! Not implemented: " + preposition);
+        }
+    }
+
     /**
      * Puts a value into a composite chunk of another value. For example, 'put x into the first char of the second word
      * of the third line of y'
@@ -190,7 +229,7 @@ public class ChunkUtils {
     private static String getItemDelimiterRegex(ExecutionContext context) {
         List<Character> specialChars = Lists.charactersOf("[\\^$.|?*+()");
 
-        String itemDelimiter = WyldCard.getInstance().getWyldCardPart().get(context, WyldCardProperties.PROP_ITEMDELIMITER).toString();
+        String itemDelimiter = getItemDelimiter(context);
         StringBuilder itemDelimiterRegex = new StringBuilder();
 
         for (char thisChar : itemDelimiter.toCharArray()) {
@@ -204,6 +243,16 @@ public class ChunkUtils {
         return itemDelimiterRegex.toString();
     }
 
+    /**
+     * Gets the current value of the `itemDelimiter` property.
+     *
+     * @param context The execution context.
+     * @return The string separating items.
+     */
+    public static String getItemDelimiter(ExecutionContext context) {
+        return WyldCard.getInstance().getWyldCardPart().get(context, WyldCardProperties.PROP_ITEMDELIMITER).toString();
+    }
+
     /**
      * When mutating a chunk, this method determines the "separator" that should be inserted between chunks. For
      * example, a single space between words.
@@ -225,7 +274,7 @@ public class ChunkUtils {
                 return "\n";
             case ITEMRANGE:
             case ITEM:
-                return WyldCard.getInstance().getWyldCardPart().get(context, WyldCardProperties.PROP_ITEMDELIMITER).toString();
+                return getItemDelimiter(context);
             default:
                 throw new RuntimeException("Bug! Not implemented: " + chunkType);
         }
@@ -0,0 +1,314 @@
+package com.defano.hypertalk.util;
+
+import com.defano.hypertalk.ast.model.enums.Ordinal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * An immutable string represented as a balanced binary tree of short string fragments. Concatenating, splitting and
+ * locating lines in a rope requires time proportional to the depth of the tree (not the length of the text) and new
+ * ropes share all unmodified fragments with the ropes they were created from.
+ * <p>
+ * This allows containers to be repeatedly mutated (i.e., `put x after line i of report` in a loop) without copying
+ * the entire text at each step; a flat string is produced only when {@link #toString()} is invoked.
+ */
+public final class Rope {
+
+    // Leaves no longer than this are merged when concatenated; strings longer than this are split into several leaves
+    private static final int MAX_LEAF_LENGTH = 1024;
+
+    // Trees deeper than this are rebuilt (balanced) when concatenated
+    private static final int MAX_DEPTH = 48;
+
+    private static final Rope EMPTY = new Rope("");
+
+    // Text of a leaf node; null for concatenation nodes
+    private final String leaf;
+
+    // Children of a concatenation node; null for leaf nodes
+    private final Rope left, right;
+
+    private final int length;
+    private final int depth;
+    private final int lineBreaks;
+    private final boolean plainLineBreaks;
+
+    private Rope(String leaf) {
+        this.leaf = leaf;
+        this.left = null;
+        this.right = null;
+        this.length = leaf.length();
+        this.depth = 0;
+
+        int lineBreaks = 0;
+        boolean plainLineBreaks = true;
+        for (int index = 0; index < leaf.length(); index++) {
+            char c = leaf.charAt(index);
+            if (c == '\n') {
+                lineBreaks++;
+            } else if (c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                plainLineBreaks = false;
+            }
+        }
+
+        this.lineBreaks = lineBreaks;
+        this.plainLineBreaks = plainLineBreaks;
+    }
+
+    private Rope(Rope first, Rope second, String leaf) {
+        this.leaf = leaf;
+        this.left = null;
+        this.right = null;
+        this.length = leaf.length();
+        this.depth = 0;
+        this.lineBreaks = first.lineBreaks + second.lineBreaks;
+        this.plainLineBreaks = first.plainLineBreaks && second.plainLineBreaks;
+    }
+
+    private Rope(Rope left, Rope right) {
+        this.leaf = null;
+        this.left = left;
+        this.right = right;
+        this.length = left.length + right.length;
+        this.depth = Math.max(left.depth, right.depth) + 1;
+        this.lineBreaks = left.lineBreaks + right.lineBreaks;
+        this.plainLineBreaks = left.plainLineBreaks && right.plainLineBreaks;
+    }
+
+    /**
+     * Creates a rope representing the given string.
+     *
+     * @param text The text of the rope
+     * @return A rope whose text is equal to the given string.
+     */
+    public static Rope of(String text) {
+        if (text.isEmpty()) {
+            return EMPTY;
+        } else if (text.length() <= MAX_LEAF_LENGTH) {
+            return new Rope(text);
+        }
+
+        List<Rope> leaves = new ArrayList<>();
+        for (int start = 0; start < text.length(); start += MAX_LEAF_LENGTH) {
+            leaves.add(new Rope(text.substring(start, Math.min(text.length(), start + MAX_LEAF_LENGTH))));
+        }
+
+        return balance(leaves, 0, leaves.size());
+    }
+
+    /**
+     * Gets the number of characters in this rope.
+     *
+     * @return The length of the text
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Determines if this rope consists of a single fragment; {@link #toString()} of a leaf does not copy its text.
+     *
+     * @return True if this rope is a single leaf
+     */
+    public boolean isLeaf() {
+        return leaf != null;
+    }
+
+    /**
+     * Determines if the lines of this rope can be located with {@link #getLineRange(int)}, that is, the text contains
+     * no line terminators other than newline ('\n').
+     *
+     * @return True if lines in this rope are delimited only by newlines.
+     */
+    public boolean hasPlainLineBreaks() {
+        return plainLineBreaks;
+    }
+
+    /**
+     * Gets the number of lines in this rope, consistent with the line regex used by {@link ChunkUtils}: the empty
+     * string contains no lines, and a trailing newline does not begin a new line.
+     *
+     * @return The number of lines in the text
+     */
+    public int getLineCount() {
+        if (length == 0) {
+            return 0;
+        }
+
+        return charAt(length - 1) == '\n' ? lineBreaks : lineBreaks + 1;
+    }
+
+    /**
+     * Gets the range of characters identified by a line number or ordinal. Lines that do not exist are ranged as an
+     * empty range at the end of the text (see {@link ChunkIndex#getRange(int)}). Valid only when
+     * {@link #hasPlainLineBreaks()} is true.
+     *
+     * @param lineNumber The requested line, counting from 1, or a reserved ordinal value.
+     * @return The range of characters identified by this line.
+     */
+    public Range getLineRange(int lineNumber) {
+        int count = getLineCount();
+        int index;
+
+        if (lineNumber == Ordinal.LAST.intValue()) {
+            index = count - 1;
+        } else if (lineNumber == Ordinal.MIDDLE.intValue()) {
+            index = count / 2;
+        } else if (lineNumber == Ordinal.ANY.intValue() && count > 0) {
+            index = new Random().nextInt(count);
+        } else {
+            index = lineNumber - 1;
+        }
+
+        if (index < 0 || index >= count) {
+            return new Range(length, length);
+        }
+
+        int start = index == 0 ? 0 : indexOfLineBreak(index - 1) + 1;
+        int end = index < lineBreaks ? indexOfLineBreak(index) : length;
+        return new Range(start, end);
+    }
+
+    /**
+     * Creates a rope whose text is this rope's text followed by the given rope's text.
+     *
+     * @param that The rope to append
+     * @return The concatenated rope
+     */
+    public Rope concat(Rope that) {
+        if (that.length == 0) {
+            return this;
+        } else if (this.length == 0) {
+            return that;
+        }
+
+        // Merge short fragments, typically when appending a short value to the end of a long one
+        if (that.leaf != null) {
+            if (this.leaf != null && this.length + that.length <= MAX_LEAF_LENGTH) {
+                return new Rope(this, that, this.leaf + that.leaf);
+            } else if (this.right != null && this.right.leaf != null && this.right.length + that.length <= MAX_LEAF_LENGTH) {
+                return new Rope(this.left, new Rope(this.right, that, this.right.leaf + that.leaf));
+            }
+        }
+
+        Rope concatenated = new Rope(this, that);
+        if (concatenated.depth > MAX_DEPTH) {
+            List<Rope> leaves = new ArrayList<>();
+            concatenated.collectLeaves(leaves);
+            return balance(leaves, 0, leaves.size());
+        }
+
+        return concatenated;
+    }
+
+    /**
+     * Creates a rope representing a range of the characters in this rope.
+     *
+     * @param start The first character, counting from 0, inclusive.
+     * @param end   The last character, counting from 0, exclusive.
+     * @return The requested substring of this rope.
+     */
+    public Rope substring(int start, int end) {
+        if (start == 0 && end == length) {
+            return this;
+        } else if (start >= end) {
+            return EMPTY;
+        } else if (leaf != null) {
+            return new Rope(leaf.substring(start, end));
+        } else if (end <= left.length) {
+            return left.substring(start, end);
+        } else if (start >= left.length) {
+            return right.substring(start - left.length, end - left.length);
+        } else {
+            return left.substring(start, left.length).concat(right.substring(0, end - left.length));
+        }
+    }
+
+    /**
+     * Gets the character at the given index.
+     *
+     * @param index The index of the character, counting from 0
+     * @return The requested character
+     */
+    public char charAt(int index) {
+        Rope node = this;
+        while (node.leaf == null) {
+            if (index < node.left.length) {
+                node = node.left;
+            } else {
+                index -= node.left.length;
+                node = node.right;
+            }
+        }
+
+        return node.leaf.charAt(index);
+    }
+
+    /**
+     * Produces the text represented by this rope.
+     *
+     * @return The text of this rope.
+     */
+    @Override
+    public String toString() {
+        if (leaf != null) {
+            return leaf;
+        }
+
+        StringBuilder builder = new StringBuilder(length);
+        appendTo(builder);
+        return builder.toString();
+    }
+
+    private void appendTo(StringBuilder builder) {
+        if (leaf != null) {
+            builder.append(leaf);
+        } else {
+            left.appendTo(builder);
+            right.appendTo(builder);
+        }
+    }
+
+    private int indexOfLineBreak(int lineBreak) {
+        Rope node = this;
+        int offset = 0;
+
+        while (node.leaf == null) {
+            if (lineBreak < node.left.lineBreaks) {
+                node = node.left;
+            } else {
+                lineBreak -= node.left.lineBreaks;
+                offset += node.left.length;
+                node = node.right;
+            }
+        }
+
+        for (int index = 0; index < node.leaf.length(); index++) {
+            if (node.leaf.charAt(index) == '\n' && lineBreak-- == 0) {
+                return offset + index;
+            }
+        }
+
+        throw new IllegalStateException("Bug! No such line break.");
+    }
+
+    private void collectLeaves(List<Rope> leaves) {
+        if (leaf != null) {
+            leaves.add(this);
+        } else {
+            left.collectLeaves(leaves);
+            right.collectLeaves(leaves);
+        }
+    }
+
+    private static Rope balance(List<Rope> leaves, int start, int end) {
+        if (end - start == 1) {
+            return leaves.get(start);
+        }
+
+        int middle = (start + end) / 2;
+        return new Rope(balance(leaves, start, middle), balance(leaves, middle, end));
+    }
+}
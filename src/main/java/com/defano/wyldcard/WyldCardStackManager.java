@@ -9,16 +9,18 @@ import com.defano.wyldcard.aspect.RunOnDispatch;
 import com.defano.wyldcard.message.SystemMessage;
 import com.defano.wyldcard.part.card.CardModel;
 import com.defano.wyldcard.part.card.CardPart;
+import com.defano.wyldcard.part.model.PartModel;
 import com.defano.wyldcard.part.stack.StackModel;
 import com.defano.wyldcard.part.stack.StackNavigationObserver;
 import com.defano.wyldcard.part.stack.StackPart;
 import com.defano.wyldcard.pattern.WyldCardPatternFactory;
 import com.defano.wyldcard.runtime.ExecutionContext;
+import com.defano.wyldcard.runtime.compiler.ScriptIndex;
 import com.defano.wyldcard.runtime.manager.IdleObserver;
 import com.defano.wyldcard.runtime.manager.PaintManager;
 import com.defano.wyldcard.runtime.manager.PartToolManager;
 import com.defano.wyldcard.runtime.manager.PeriodicMessageManager;
-import com.defano.wyldcard.serializer.Serializer;
+import com.defano.wyldcard.serializer.StackArchive;
 import com.defano.wyldcard.thread.Invoke;
 import com.defano.wyldcard.util.ImageLayerUtils;
 import com.defano.wyldcard.util.ProxyObservable;
@@ -88,7 +90,9 @@ public class WyldCardStackManager implements StackNavigationObserver, StackManag
         LOG.debug("De-serializing stack file {}.", stackFile.getName());
 
         try {
-            return Serializer.deserialize(stackFile, StackModel.class);
+            StackModel model = StackArchive.read(stackFile);
+            ScriptIndex.load(stackFile);
+            return model;
         } catch (Exception e) {
             return null;
         }
@@ -221,8 +225,12 @@ public class WyldCardStackManager implements StackNavigationObserver, StackManag
             try {
                 LOG.debug("Serializing stack {} to file {}.", stackModel, file.getName());
 
-                Serializer.serialize(file, stackModel);
-                stackModel.setSavedStackFile(context, file);
+                // Modifications made while the stack is being written are not reflected in the file
+                long generation = PartModel.getModificationClock();
+
+                StackArchive.write(file, stackModel);
+                ScriptIndex.save(file, stackModel);
+                stackModel.setSavedStackFile(context, file, generation);
                 context.setResult(new Value());
             } catch (IOException e) {
                 context.setResult(new Value("An error occurred saving the file " + file.getAbsolutePath()));
@@ -556,7 +564,8 @@ public class WyldCardStackManager implements StackNavigationObserver, StackManag
         }
 
         try {
-            StackModel model = Serializer.deserialize(stackFile, StackModel.class);
+            StackModel model = StackArchive.read(stackFile);
+            ScriptIndex.load(stackFile);
             model.setSavedStackFile(context, stackFile);
             return openStack(context, model, inNewWindow);
         } catch (Exception e) {
@@ -26,6 +26,10 @@ import javax.swing.*;
  * execution of the calling thread via {@link Statement#hold()} then display the script editor (in debug mode) for
  * part whose script is being executed.
  * <p>
+ * Because that check is made before every statement, statements first consult {@link #isArmed()}, a single volatile
+ * read that is false whenever no script is being debugged, traced or stepped; only statements bearing a breakpoint
+ * need to be checked while the debugger is idle.
+ * <p>
  * Piece of cake!
  */
 public class DebugContext {
@@ -39,6 +43,7 @@ public class DebugContext {
     private Statement debugStatement;               // Statement that caused the breakpoint
     private Thread debugThread;                     // Script execution thread we're debugging
     private ExecutionContext debugContext;          // Last captured script execution context
+    private volatile boolean armed;                 // True while debugging, tracing or stepping
 
     // When true, a script has paused execution due to a breakpoint
     private BehaviorSubject<Boolean> isExecutionPaused = BehaviorSubject.createDefault(false);
@@ -86,6 +91,7 @@ public class DebugContext {
         debugStatement = statement;
 
         // Notify observers
+        armed = true;
         isDebugging.onNext(true);
         isExecutionPaused.onNext(true);
 
@@ -93,7 +99,7 @@ public class DebugContext {
         Invoke.onDispatch(() -> {
             WyldCard.getInstance().getWindowManager().getVariableWatcher().setWatchedVariables(debugContext);
             WyldCard.getInstance().getWindowManager().getExpressionEvaluator().setContext(debugContext);
-            editor.getEditor().showTraceHighlight(statement.getToken().getLine() - 1);
+            editor.getEditor().showTraceHighlight(statement.getSourcePosition().getLine() - 1);
         });
 
         // Special case: When tracing, delay the configured amount, remove the trace highlight and keep going.
@@ -138,6 +144,7 @@ public class DebugContext {
             debugStatement.release();
 
             if (releaseDebugger) {
+                armed = false;
                 isDebugging.onNext(false);
                 isTracing.onNext(false);
 
@@ -229,6 +236,20 @@ public class DebugContext {
         return isDebugging.blockingFirst();
     }
 
+    /**
+     * Determines if the debugger is armed; that is, if a script is being debugged, traced or stepped such that
+     * statements other than those bearing a breakpoint may need to break. When false, only statements that have a
+     * breakpoint ({@link Statement#hasBreakpoint()}) need to be checked with
+     * {@link #isBreakpoint(ExecutionContext, Statement)}.
+     * <p>
+     * Unlike {@link #isDebugging()}, this method is inexpensive enough to invoke before every statement.
+     *
+     * @return True if the debugger is armed.
+     */
+    public boolean isArmed() {
+        return armed;
+    }
+
     /**
      * Gets an observable indicating when the debugger has paused execution of a script (i.e., a breakpoint has been
      * reached and we're waiting for user input to step or resume execution).
@@ -269,8 +290,8 @@ public class DebugContext {
      */
     public boolean isBreakpoint(ExecutionContext context, Statement statement) {
 
-        // Statements not bound to parser tokens were "synthesized" at runtime and don't qualify for step debugging
-        if (statement.getToken() == null) {
+        // Statements without a script position were "synthesized" at runtime and don't qualify for step debugging
+        if (statement.getSourcePosition() == null) {
             return false;
         }
 
@@ -11,6 +11,7 @@ public class HandlerInvocationCache {
 
     private final List<HandlerInvocationObserver> handlerInvocationObservers = new ArrayList<>();
     private final Map<String, List<HandlerInvocation>> invocationMap = new HashMap<>();
+    private volatile boolean observed = false;
 
     private HandlerInvocationCache() {}
 
@@ -30,17 +31,29 @@ public class HandlerInvocationCache {
     @RunOnDispatch
     public void addObserver(HandlerInvocationObserver observer) {
         handlerInvocationObservers.add(observer);
+        observed = true;
     }
 
     @RunOnDispatch
     public void removeObserver(HandlerInvocationObserver observer) {
         handlerInvocationObservers.remove(observer);
+        observed = !handlerInvocationObservers.isEmpty();
 
         if (handlerInvocationObservers.isEmpty()) {
             clear();
         }
     }
 
+    /**
+     * Determines if any observer (i.e., the message watcher) is listening for handler invocations. Invocations that
+     * are expensive to describe need not be reported when nobody is observing. Safe to invoke from any thread.
+     *
+     * @return True if at least one observer is registered
+     */
+    public boolean isObserved() {
+        return observed;
+    }
+
     public void clear() {
         invocationMap.clear();
     }
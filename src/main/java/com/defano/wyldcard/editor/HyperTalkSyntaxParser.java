@@ -52,7 +52,7 @@ public class HyperTalkSyntaxParser extends AbstractParser implements CompileComp
                 previousParseResult.addNotice(new DefaultParserNotice(
                         HyperTalkSyntaxParser.this,
                         errorMessage,
-                        generatedError.getBreadcrumb().getToken().getLine() - 1
+                        generatedError.getBreadcrumb().getSourcePosition().getLine() - 1
                 ));
 
                 delegate.onCompileCompleted(null, errorMessage);
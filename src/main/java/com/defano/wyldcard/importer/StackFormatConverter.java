@@ -20,12 +20,18 @@ import com.defano.wyldcard.thread.Invoke;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 public class StackFormatConverter {
 
     private final ConversionStatusObserver status;
     private final ConversionProgressObserver progress;
+    private final Set<Integer> markedCardIds = new HashSet<>();
+    private int decodedImageCount;
 
     private StackFormatConverter(ConversionStatusObserver status, ConversionProgressObserver progress) {
         this.status = status;
@@ -61,6 +67,7 @@ public class StackFormatConverter {
 
         try {
             HyperCardStack hcStack = HyperCardStack.fromFile(stackFile);
+            decodeImages(hcStack);
             StackModel model = buildStack(new ExecutionContext(), stackFile.getName(), hcStack);
             status.onConversionSucceeded(model);
 
@@ -75,9 +82,43 @@ public class StackFormatConverter {
         }
     }
 
+    /**
+     * Decodes the WOBA-compressed card and background images of the stack in parallel (decoding images is by far the
+     * most expensive part of conversion); each image is otherwise decoded when its card or background is built.
+     *
+     * @param hcStack The stack whose images should be decoded
+     * @throws ExecutionException   Thrown if an error occurs decoding an image
+     * @throws InterruptedException Thrown if the conversion is interrupted
+     */
+    private void decodeImages(HyperCardStack hcStack) throws ExecutionException, InterruptedException {
+        List<ImageBlock> imageBlocks = hcStack.getBlocks(ImageBlock.class);
+        int progressInterval = Math.max(1, imageBlocks.size() / 100);
+
+        ForkJoinPool.commonPool().submit(() -> imageBlocks.parallelStream().forEach(imageBlock -> {
+            imageBlock.getImage();
+            onImageDecoded(imageBlocks.size(), progressInterval);
+        })).get();
+    }
+
+    /**
+     * Counts a decoded image and reports progress. Images are decoded concurrently; counting and reporting together
+     * (while holding this object's lock) ensures that progress is reported in order and never goes backwards.
+     *
+     * @param imageCount       The total number of images being decoded
+     * @param progressInterval The number of decoded images between progress reports
+     */
+    private synchronized void onImageDecoded(int imageCount, int progressInterval) {
+        decodedImageCount++;
+
+        if (decodedImageCount % progressInterval == 0 || decodedImageCount == imageCount) {
+            progress.onConversionProgressUpdate(decodedImageCount, imageCount, "Decoding image " + decodedImageCount + " of " + imageCount + ".");
+        }
+    }
+
     private StackModel buildStack(ExecutionContext context, String name, HyperCardStack hcStack) {
 
         List<CardBlock> cardBlocks = hcStack.getCardBlocks();
+        indexMarkedCards(hcStack);
 
         StackBlock stackBlock = hcStack.getBlock(StackBlock.class);
         StackModel stackModel = new StackModelBuilder()
@@ -102,7 +143,7 @@ public class StackFormatConverter {
                 .withId(cardBlock.getBlockId())
                 .withBackgroundId(cardBlock.getBkgndId())
                 .withName(cardBlock.getName())
-                .withIsMarked(isCardMarked(cardBlock.getBlockId(), cardBlock.getStack()))
+                .withIsMarked(markedCardIds.contains(cardBlock.getBlockId()))
                 .withCantDelete(Arrays.stream(cardBlock.getFlags()).anyMatch(f -> f == LayerFlag.CANT_DELETE))
                 .withDontSearch(Arrays.stream(cardBlock.getFlags()).anyMatch(f -> f == LayerFlag.DONT_SEARCH))
                 .withShowPict(Arrays.stream(cardBlock.getFlags()).noneMatch(f -> f == LayerFlag.HIDE_PICTURE))
@@ -327,17 +368,19 @@ public class StackFormatConverter {
         }
     }
 
-    private boolean isCardMarked(int cardId, HyperCardStack stack) {
+    private void indexMarkedCards(HyperCardStack stack) {
+        Set<Integer> indexedCardIds = new HashSet<>();
+
+        // Some stacks may not have a page block (ostensibly, this implies that the stack has no marked cards...?)
         for (PageBlock thisPage : stack.getBlocks(PageBlock.class)) {
             for (PageEntryRecord thisEntry : thisPage.getPageEntries()) {
-                if (thisEntry.getCardId() == cardId) {
-                    return Arrays.stream(thisEntry.getFlags()).anyMatch(f -> f == PageFlag.MARKED_CARD);
+
+                // Only the first entry for a card determines whether it's marked
+                if (indexedCardIds.add(thisEntry.getCardId()) && Arrays.stream(thisEntry.getFlags()).anyMatch(f -> f == PageFlag.MARKED_CARD)) {
+                    markedCardIds.add(thisEntry.getCardId());
                 }
             }
         }
-
-        // Some stacks may not have a page block (ostensibly, this implies that the stack has no marked cards...?)
-        return false;
     }
 
 }
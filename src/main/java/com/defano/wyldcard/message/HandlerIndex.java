@@ -0,0 +1,121 @@
+package com.defano.wyldcard.message;
+
+import com.defano.wyldcard.WyldCard;
+import com.defano.wyldcard.part.stack.StackModel;
+import com.defano.wyldcard.runtime.ExecutionContext;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A per-stack index of the part that handles each message (or implements each function) sent into a message passing
+ * hierarchy. Resolving a handler by walking the hierarchy requires looking up the handler in the script of every part
+ * between the recipient and the part that handles it; this index remembers the result of that walk so that, for
+ * example, calling a function defined in the stack script from a button does not repeat the walk on every call.
+ * <p>
+ * All resolutions are discarded whenever the script of any part changes (see {@link #invalidate()}). Resolutions
+ * starting from a part other than a stack are also discarded when the current card changes, since the hierarchy above
+ * such parts is determined by the current card.
+ */
+public class HandlerIndex {
+
+    // Incremented whenever a script changes; resolutions made in an earlier generation are stale
+    private static final AtomicLong generation = new AtomicLong();
+
+    // Resolutions keyed by the part receiving the message (by identity) then by message name (case insensitive)
+    private final Cache<Messagable, ConcurrentMap<String, Resolution>> handlers = CacheBuilder.newBuilder().weakKeys().build();
+    private final Cache<Messagable, ConcurrentMap<String, Resolution>> functions = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * Discards all resolutions (in every stack's index); invoked when the script of any part changes.
+     */
+    public static void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Finds the first part in the message passing hierarchy of the given recipient (starting with, and including, the
+     * recipient itself) whose script defines a handler for the given message.
+     *
+     * @param context     The execution context
+     * @param recipient   The part first receiving the message
+     * @param messageName The name of the message (case insensitive)
+     * @return The part that handles the message, or the WyldCard part if no part in the hierarchy handles it.
+     */
+    public Messagable findHandlerRecipient(ExecutionContext context, Messagable recipient, String messageName) {
+        return find(context, handlers, recipient, messageName, false);
+    }
+
+    /**
+     * Finds the first part in the message passing hierarchy of the given recipient (starting with, and including, the
+     * recipient itself) whose script defines a function (or handler) with the given name.
+     *
+     * @param context      The execution context
+     * @param recipient    The part whose script invoked the function
+     * @param functionName The name of the function (case insensitive)
+     * @return The part that implements the function, or the WyldCard part if no part in the hierarchy implements it.
+     */
+    public Messagable findFunctionRecipient(ExecutionContext context, Messagable recipient, String functionName) {
+        return find(context, functions, recipient, functionName, true);
+    }
+
+    private Messagable find(ExecutionContext context, Cache<Messagable, ConcurrentMap<String, Resolution>> index, Messagable recipient, String name, boolean function) {
+        Messagable wyldCard = WyldCard.getInstance().getWyldCardPart();
+        if (recipient == wyldCard) {
+            return wyldCard;
+        }
+
+        // Hierarchy above any part other than a stack passes through the current card
+        Object currentCard = recipient instanceof StackModel ? null : context.getCurrentCard().getPartModel();
+
+        ConcurrentMap<String, Resolution> resolutions;
+        try {
+            resolutions = index.get(recipient, () -> new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Bug! Failed to create handler index.", e);
+        }
+
+        Resolution resolution = resolutions.get(name);
+        if (resolution == null || !resolution.isValid(currentCard)) {
+            long resolvedGeneration = generation.get();
+            resolution = new Resolution(resolvedGeneration, currentCard, resolve(context, recipient, name, function, wyldCard));
+            resolutions.put(name, resolution);
+        }
+
+        return resolution.target;
+    }
+
+    private Messagable resolve(ExecutionContext context, Messagable recipient, String name, boolean function, Messagable wyldCard) {
+        Messagable target = recipient;
+
+        while (target != null && target != wyldCard) {
+            if (function ? target.getScript(context).getNamedBlock(name) != null : target.hasHandler(context, name)) {
+                return target;
+            }
+
+            target = recipient.getNextMessageRecipient(context, target.getMe(context).getType());
+        }
+
+        return wyldCard;
+    }
+
+    private static class Resolution {
+        private final long generation;
+        private final Object currentCard;
+        private final Messagable target;
+
+        private Resolution(long generation, Object currentCard, Messagable target) {
+            this.generation = generation;
+            this.currentCard = currentCard;
+            this.target = target;
+        }
+
+        private boolean isValid(Object currentCard) {
+            return this.generation == HandlerIndex.generation.get() && this.currentCard == currentCard;
+        }
+    }
+}
@@ -6,15 +6,18 @@ import com.defano.hypertalk.ast.model.enums.PartType;
 import com.defano.hypertalk.ast.model.Script;
 import com.defano.hypertalk.ast.model.Value;
 import com.defano.hypertalk.ast.model.specifier.PartSpecifier;
+import com.defano.hypertalk.ast.preemption.ExitToHyperCard;
 import com.defano.hypertalk.exception.HtException;
 import com.defano.hypertalk.exception.HtSemanticException;
 import com.defano.wyldcard.WyldCard;
 import com.defano.wyldcard.awt.keyboard.DeferredKeyEvent;
+import com.defano.wyldcard.debug.message.HandlerInvocationCache;
 import com.defano.wyldcard.part.field.DeferredKeyEventListener;
 import com.defano.wyldcard.runtime.executor.ScriptExecutor;
 import com.defano.wyldcard.runtime.executor.observer.MessageCompletionObserver;
 import com.defano.wyldcard.runtime.ExecutionContext;
 import com.defano.wyldcard.thread.ThreadChecker;
+import org.slf4j.LoggerFactory;
 
 import java.awt.event.KeyEvent;
 import java.util.concurrent.CountDownLatch;
@@ -32,6 +35,18 @@ public interface Messagable {
      */
     Script getScript(ExecutionContext context);
 
+    /**
+     * Determines if this part's script defines a handler for the given message. Implementations may be able to answer
+     * this question without compiling the script.
+     *
+     * @param context     The execution context.
+     * @param handlerName The name of the message handler (case insensitive).
+     * @return True if the script defines a handler of this name; false otherwise.
+     */
+    default boolean hasHandler(ExecutionContext context, String handlerName) {
+        return getScript(context).getHandler(handlerName) != null;
+    }
+
     /**
      * Gets a part specifier that uniquely identifies this part in the stack. This part will be bound to the 'me'
      * keyword in the script that receives messages.
@@ -130,8 +145,17 @@ public interface Messagable {
             return;
         }
 
+        // Already executing a script; pass the message through the hierarchy on this thread
+        if (ScriptExecutor.isScriptExecutorThread()) {
+            inlineReceiveMessage(context, initiator, message, onCompletion);
+            return;
+        }
+
+        // Don't bother compiling (or fetching) the script of a part that doesn't handle this message
+        Script script = hasHandler(context, message.getMessageName()) ? getScript(context) : null;
+
         // Attempt to invoke command handler in this part and listen for completion
-        ScriptExecutor.asyncExecuteHandler(context, initiator, getMe(context), getScript(context), message, (me, script, handler, trappedMessage, exception) -> {
+        ScriptExecutor.asyncExecuteHandler(context, initiator, getMe(context), script, message, (me, handlerScript, handler, trappedMessage, exception) -> {
 
             // Did message generate an error
             if (exception != null) {
@@ -153,6 +177,71 @@ public interface Messagable {
         });
     }
 
+    /**
+     * Synchronously passes a message through this part's message passing hierarchy on the current script executor
+     * thread, executing the first handler found and continuing only if that handler passes the message. Parts that do
+     * not handle the message are skipped without compiling their scripts, and no futures or callbacks are produced for
+     * them.
+     * <p>
+     * Should be invoked only from a script executor thread; see
+     * {@link #receiveMessage(ExecutionContext, ASTNode, Message, MessageCompletionObserver)}.
+     *
+     * @param context      The execution context
+     * @param initiator    The statement or expression in the abstract syntax tree that caused this message to be sent,
+     *                     null indicates that WyldCard generated this message.
+     * @param message      The message to be received by this part
+     * @param onCompletion A callback that will fire (on this thread) when the message has been trapped or passed.
+     */
+    default void inlineReceiveMessage(ExecutionContext context, ASTNode initiator, Message message, MessageCompletionObserver onCompletion) {
+        Messagable recipient = this;
+
+        while (recipient != null) {
+
+            // Skip to the first part that handles the message, unless the message watcher needs to see every recipient
+            if (!HandlerInvocationCache.getInstance().isObserved()) {
+                Messagable handlingRecipient = context.getCurrentStack().getStackModel().getHandlerIndex().findHandlerRecipient(context, recipient, message.getMessageName());
+
+                // Parts skipped over still receive the message; the first of them is the target
+                if (handlingRecipient != recipient && context.getTarget() == null) {
+                    context.setTarget(recipient.getMe(context));
+                }
+
+                recipient = handlingRecipient;
+            }
+
+            // WyldCard has no script, but acts upon the messages that reach it
+            if (recipient == WyldCard.getInstance().getWyldCardPart()) {
+                recipient.receiveMessage(context, initiator, message, onCompletion);
+                return;
+            }
+
+            PartSpecifier me = recipient.getMe(context);
+            NamedBlock handler = recipient.hasHandler(context, message.getMessageName()) ?
+                    recipient.getScript(context).getHandler(message.getMessageName()) :
+                    null;
+
+            try {
+                if (ScriptExecutor.blockingExecuteHandler(context, initiator, me, handler, message)) {
+                    onCompletion.onMessagePassed(message, true, null);
+                    return;
+                }
+            } catch (ExitToHyperCard e) {
+                onCompletion.onMessagePassed(message, true, null);
+                return;
+            } catch (HtException e) {
+                onCompletion.onMessagePassed(message, true, e);
+                return;
+            } catch (RuntimeException e) {
+                // Reported as it would be had the handler executed asynchronously (see HandlerExecutionFutureCallback)
+                LoggerFactory.getLogger(Messagable.class).error("Encountered an unexpected error executing handler.", e);
+                onCompletion.onMessagePassed(message, true, new HtSemanticException("Bug! An unexpected error occurred:" + e.getMessage()));
+                return;
+            }
+
+            recipient = getNextMessageRecipient(context, me.getType());
+        }
+    }
+
     /**
      * Consumes a {@link KeyEvent} pending the completion of a HyperTalk handler that may or may not choose to trap it.
      * <p>
@@ -199,20 +288,12 @@ public interface Messagable {
      * @throws HtSemanticException Thrown if a syntax or semantic error occurs attempting to execute the function.
      */
     default Value invokeFunction(ExecutionContext context, ASTNode initiator, Message message) throws HtException {
-        NamedBlock function = getScript(context).getNamedBlock(message.getMessageName());
-        Messagable target = this;
-
-        while (function == null) {
-            // Get next part is message passing hierarchy
-            target = getNextMessageRecipient(context, target.getMe(context).getType());
-
-            // No more scripts to search; error!
-            if (target == null || target == WyldCard.getInstance().getWyldCardPart()) {
-                throw new HtSemanticException("No such function " + message.getMessageName() + ".");
-            }
+        Messagable target = context.getCurrentStack().getStackModel().getHandlerIndex().findFunctionRecipient(context, this, message.getMessageName());
+        NamedBlock function = target == WyldCard.getInstance().getWyldCardPart() ? null : target.getScript(context).getNamedBlock(message.getMessageName());
 
-            // Look for function in this script
-            function = target.getScript(context).getNamedBlock(message.getMessageName());
+        // No script in the message passing hierarchy implements the function; error!
+        if (function == null) {
+            throw new HtSemanticException("No such function " + message.getMessageName() + ".");
         }
 
         return ScriptExecutor.blockingExecuteFunction(context, initiator, target.getMe(context), function, message.evaluateArguments(context));
@@ -13,6 +13,7 @@ import com.defano.wyldcard.part.model.PartModel;
 import com.defano.wyldcard.part.stack.StackModel;
 import com.defano.wyldcard.runtime.ExecutionContext;
 import com.defano.wyldcard.serializer.BufferedImageSerializer;
+import com.defano.wyldcard.serializer.EncodedValue;
 import com.defano.hypertalk.ast.model.enums.Owner;
 import com.defano.hypertalk.ast.model.enums.PartType;
 import com.defano.hypertalk.ast.model.Value;
@@ -39,7 +40,7 @@ public class BackgroundModel extends PartModel implements LayeredPartFinder, Car
     public static final String PROP_ABBREVNAME = "abbreviated name";
     public static final String PROP_LONGNAME = "long name";
 
-    private BufferedImage backgroundImage;
+    private EncodedValue<BufferedImage> backgroundImage;
     private final Collection<ButtonModel> buttonModels = new ArrayList<>();
     private final Collection<FieldModel> fieldModels = new ArrayList<>();
 
@@ -139,11 +140,13 @@ public class BackgroundModel extends PartModel implements LayeredPartFinder, Car
     private void addFieldModel(FieldModel model) {
         model.setParentPartModel(this);
         this.fieldModels.add(model);
+        model.markModified();
     }
 
     private void addButtonModel(ButtonModel model) {
         model.setParentPartModel(this);
         this.buttonModels.add(model);
+        model.markModified();
     }
 
     @Override
@@ -159,17 +162,20 @@ public class BackgroundModel extends PartModel implements LayeredPartFinder, Car
             default:
                 throw new IllegalArgumentException("Bug! Can't delete this kind of part from a background: " + model.getType());
         }
+
+        markModified();
     }
 
     public void setBackgroundImage(BufferedImage image) {
-        this.backgroundImage = image;
+        this.backgroundImage = image == null ? null : EncodedValue.ofImage(image);
+        markModified();
     }
 
     public BufferedImage getBackgroundImage(Dimension dimension) {
         if (this.backgroundImage == null) {
             return BufferedImageSerializer.emptyImage(dimension);
         } else {
-            return this.backgroundImage;
+            return this.backgroundImage.get(this);
         }
     }
 
@@ -177,6 +183,50 @@ public class BackgroundModel extends PartModel implements LayeredPartFinder, Car
         return this.backgroundImage != null;
     }
 
+    /**
+     * Releases the decoded background image and the decoded text of this background's fields on the given card. See
+     * {@link CardModel#releaseContents()}.
+     *
+     * @param cardId The ID of the card being closed
+     */
+    public void releaseContents(int cardId) {
+        if (backgroundImage != null) {
+            backgroundImage.release();
+        }
+
+        for (FieldModel thisField : fieldModels) {
+            thisField.releaseText(cardId);
+        }
+    }
+
+    /**
+     * Gets the background image and the text of this background's fields on the given card. See
+     * {@link CardModel#collectContents(Collection)}.
+     *
+     * @param cardId   The ID of the card whose contents are being collected
+     * @param contents The collection to which the contents are added
+     */
+    public void collectContents(int cardId, Collection<EncodedValue<?>> contents) {
+        if (backgroundImage != null) {
+            contents.add(backgroundImage);
+        }
+
+        for (FieldModel thisField : fieldModels) {
+            thisField.collectText(cardId, contents);
+        }
+    }
+
+    @Override
+    protected void onPropertyModified(String property) {
+        super.onPropertyModified(property);
+
+        // Renaming a background changes which part its stack finds by name
+        StackModel stack = getParentStackModel();
+        if (stack != null && PROP_NAME.equals(property)) {
+            stack.getPartIndex().invalidateNames();
+        }
+    }
+
     public boolean hasName() {
         try {
             return !findProperty(PROP_NAME).value().get(new ExecutionContext(), null).isEmpty();
@@ -101,6 +101,10 @@ public class ButtonModel extends CardLayerPartModel implements PropertyChangeObs
     }
 
     private void setHilite(ExecutionContext context, int forCardId, Value hilite) {
+        if (getHilite(context, forCardId).booleanValue() != hilite.booleanValue()) {
+            markModified();
+        }
+
         if (isSharedHilite(context)) {
             sharedHiliteState = hilite.booleanValue();
         } else {
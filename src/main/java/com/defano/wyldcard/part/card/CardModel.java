@@ -15,6 +15,7 @@ import com.defano.wyldcard.part.model.PartModel;
 import com.defano.wyldcard.part.stack.StackModel;
 import com.defano.wyldcard.runtime.ExecutionContext;
 import com.defano.wyldcard.serializer.BufferedImageSerializer;
+import com.defano.wyldcard.serializer.EncodedValue;
 import com.defano.wyldcard.serializer.Serializer;
 import com.defano.wyldcard.thread.Invoke;
 
@@ -50,7 +51,7 @@ public class CardModel extends PartModel implements LayeredPartFinder, NamedPart
     private final Collection<FieldModel> fields = new ArrayList<>();
     private final Collection<ButtonModel> buttons = new ArrayList<>();
     private int backgroundId;
-    private BufferedImage cardImage;
+    private EncodedValue<BufferedImage> cardImage;
 
     private transient CardModelObserver observer;
 
@@ -141,6 +142,7 @@ public class CardModel extends PartModel implements LayeredPartFinder, NamedPart
             throw new IllegalArgumentException("Bug! Can't delete this kind of part from a card: " + partModel.getType());
         }
 
+        markModified();
         firePartRemoved(context, partModel);
     }
 
@@ -155,6 +157,7 @@ public class CardModel extends PartModel implements LayeredPartFinder, NamedPart
         }
 
         partModel.setParentPartModel(this);
+        partModel.markModified();
     }
 
     /**
@@ -168,6 +171,7 @@ public class CardModel extends PartModel implements LayeredPartFinder, NamedPart
 
     public void setBackgroundId(int backgroundId) {
         this.backgroundId = backgroundId;
+        markModified();
     }
 
     public BackgroundModel getBackgroundModel() {
@@ -184,11 +188,12 @@ public class CardModel extends PartModel implements LayeredPartFinder, NamedPart
      * @param image The card image.
      */
     public void setCardImage(BufferedImage image) {
-        this.cardImage = image;
+        this.cardImage = image == null ? null : EncodedValue.ofImage(image);
+        markModified();
     }
 
     /**
-     * Returns the image of this card's foreground.
+     * Returns the image of this card's foreground, decoding it if it has not been decoded since the stack was opened.
      *
      * @return The foreground image.
      */
@@ -196,7 +201,7 @@ public class CardModel extends PartModel implements LayeredPartFinder, NamedPart
         if (cardImage == null) {
             return BufferedImageSerializer.emptyImage(dimension);
         } else {
-            return this.cardImage;
+            return this.cardImage.get(this);
         }
     }
 
@@ -204,6 +209,41 @@ public class CardModel extends PartModel implements LayeredPartFinder, NamedPart
         return cardImage != null;
     }
 
+    /**
+     * Releases the decoded graphics and text of this card (and the card's view of its background) so that, if
+     * unmodified, they may be reclaimed when memory is needed. Invoked when the card is closed; anything released is
+     * decoded again the next time it's used.
+     */
+    public void releaseContents() {
+        if (cardImage != null) {
+            cardImage.release();
+        }
+
+        for (FieldModel thisField : fields) {
+            thisField.releaseText(getId());
+        }
+
+        getBackgroundModel().releaseContents(getId());
+    }
+
+    /**
+     * Gets the (possibly undecoded) graphics and text of this card and of the card's view of its background, so that
+     * they may be decoded before the card is opened. See {@link EncodedValue#read()}.
+     *
+     * @param contents The collection to which this card's contents are added
+     */
+    public void collectContents(Collection<EncodedValue<?>> contents) {
+        if (cardImage != null) {
+            contents.add(cardImage);
+        }
+
+        for (FieldModel thisField : fields) {
+            thisField.collectText(getId(), contents);
+        }
+
+        getBackgroundModel().collectContents(getId(), contents);
+    }
+
     /**
      * Create's a deep copy of this card.
      *
@@ -301,6 +341,17 @@ public class CardModel extends PartModel implements LayeredPartFinder, NamedPart
         return getAbbrevId(context) + " of " + getStackModel().getLongName(context);
     }
 
+    @Override
+    protected void onPropertyModified(String property) {
+        super.onPropertyModified(property);
+
+        // Renaming a card changes which part its stack finds by name
+        StackModel stack = getParentStackModel();
+        if (stack != null && PROP_NAME.equals(property)) {
+            stack.getPartIndex().invalidateNames();
+        }
+    }
+
     private boolean hasName() {
         try {
             return !findProperty(PROP_NAME).value().get(new ExecutionContext(), this).isEmpty();
@@ -634,6 +634,9 @@ public class CardPart extends CardLayeredPane implements Part<CardModel>, Canvas
         getPartModel().removePropertyChangedObserver(this);
         getPartModel().getBackgroundModel().removePropertyChangedObserver(this);
 
+        // Let unmodified images and text be reclaimed (and decoded again when next needed)
+        getPartModel().releaseContents();
+
         super.dispose();
 
         isOpened.set(false);
@@ -13,14 +13,18 @@ import com.defano.wyldcard.part.field.styles.HyperCardTextField;
 import com.defano.wyldcard.part.finder.LayeredPartFinder;
 import com.defano.wyldcard.part.model.LogicalLinkObserver;
 import com.defano.wyldcard.part.model.PartModel;
+import com.defano.wyldcard.part.stack.StackModel;
 import com.defano.wyldcard.part.util.FieldUtilities;
 import com.defano.wyldcard.runtime.ExecutionContext;
+import com.defano.wyldcard.serializer.EncodedValue;
 import org.bitbucket.cowwoc.diffmatchpatch.DiffMatchPatch;
 
 import javax.annotation.PostConstruct;
 import javax.swing.*;
 import javax.swing.text.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A data model representing a field. See {@link FieldPart} for the associated controller object. This model is a mess.
@@ -77,10 +81,14 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
     public static final String PROP_TEXTHEIGHT = "textheight";
     public static final String PROP_FIXEDLINEHEIGHT = "fixedlineheight";
 
-    private final Map<Integer, StyledDocument> unsharedText = new HashMap<>();
+    private static final int DIFF_TEXT_LIMIT = 64 * 1024;       // Longest existing + new text diffed to preserve style
+    private static final float DIFF_TIMEOUT_SECONDS = 0.25f;    // Longest time spent diffing; then settle for coarser
+
+    // Text is written by the script and dispatch threads, but read by search workers (see getText(int, boolean))
+    private final ConcurrentMap<Integer, EncodedValue<StyledDocument>> unsharedText = new ConcurrentHashMap<>();
     private final Set<Integer> sharedAutoSelection = new HashSet<>();
     private final Map<Integer, Set<Integer>> unsharedAutoSelection = new HashMap<>();
-    private StyledDocument sharedText;
+    private volatile EncodedValue<StyledDocument> sharedText;
 
     private transient FieldModelObserver observer;
     private transient Range selection;
@@ -168,6 +176,10 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
     }
 
     private StyledDocument getStyledDocument(ExecutionContext context, int forCardId) {
+        return getEncodedDocument(context, forCardId).get(this);
+    }
+
+    private EncodedValue<StyledDocument> getEncodedDocument(ExecutionContext context, int forCardId) {
         if (isSharedText(context)) {
             return getSharedText(context);
         } else {
@@ -175,17 +187,13 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
         }
     }
 
-    private StyledDocument getUnsharedText(ExecutionContext context, int cardId) {
-        if (!unsharedText.containsKey(cardId)) {
-            unsharedText.put(cardId, getNewDocument(context));
-        }
-
-        return unsharedText.get(cardId);
+    private EncodedValue<StyledDocument> getUnsharedText(ExecutionContext context, int cardId) {
+        return unsharedText.computeIfAbsent(cardId, id -> EncodedValue.ofDocument(getNewDocument(context)));
     }
 
-    private StyledDocument getSharedText(ExecutionContext context) {
+    private EncodedValue<StyledDocument> getSharedText(ExecutionContext context) {
         if (sharedText == null) {
-            sharedText = getNewDocument(context);
+            sharedText = EncodedValue.ofDocument(getNewDocument(context));
         }
 
         return sharedText;
@@ -213,10 +221,52 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
      * @param doc     The styled document data to persist into the model.
      */
     public void setStyledDocument(ExecutionContext context, StyledDocument doc) {
-        if (isSharedText(context)) {
-            sharedText = doc;
-        } else {
-            unsharedText.put(getCurrentCardId(context), doc);
+        EncodedValue<StyledDocument> previous = isSharedText(context) ? sharedText : unsharedText.get(getCurrentCardId(context));
+
+        // Persisting the document already held by this model (i.e., one edited in place) is not itself a modification
+        if (previous == null || !previous.holds(doc)) {
+            if (isSharedText(context)) {
+                sharedText = EncodedValue.ofDocument(doc);
+            } else {
+                unsharedText.put(getCurrentCardId(context), EncodedValue.ofDocument(doc));
+            }
+
+            markModified();
+        }
+    }
+
+    /**
+     * Releases the decoded text of this field on the given card so that, if unmodified, it may be reclaimed when memory
+     * is needed. See {@link EncodedValue#release()}.
+     *
+     * @param cardId The ID of the card being closed
+     */
+    public void releaseText(int cardId) {
+        if (sharedText != null) {
+            sharedText.release();
+        }
+
+        EncodedValue<StyledDocument> cardText = unsharedText.get(cardId);
+        if (cardText != null) {
+            cardText.release();
+        }
+    }
+
+    /**
+     * Adds the (possibly undecoded) text of this field on the given card to a collection. Does not create text for
+     * cards that have none.
+     *
+     * @param cardId   The ID of the card
+     * @param contents The collection to which the text is added
+     */
+    public void collectText(int cardId, Collection<EncodedValue<?>> contents) {
+        if (sharedText != null) {
+            contents.add(sharedText);
+        }
+
+        EncodedValue<StyledDocument> cardText = unsharedText.get(cardId);
+        if (cardText != null) {
+            contents.add(cardText);
         }
     }
 
@@ -226,7 +276,7 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
      * @param context The execution context.
      * @return True if the model should use sharedText data; false otherwise.
      */
-    private boolean isSharedText(ExecutionContext context) {
+    public boolean isSharedText(ExecutionContext context) {
         return getOwner() == Owner.CARD || get(context, PROP_SHAREDTEXT).booleanValue();
     }
 
@@ -242,7 +292,28 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
     }
 
     public String getText(ExecutionContext context, int forCardId) {
-        StyledDocument doc = getStyledDocument(context, forCardId);
+        return getText(forCardId, isSharedText(context));
+    }
+
+    /**
+     * Gets a plaintext representation of the text held in this model on the given card, given the value of this
+     * field's sharedText property. Requires no execution context; may be invoked from any thread (i.e., when
+     * searching).
+     *
+     * @param forCardId    The ID of the card whose text should be returned
+     * @param isSharedText The value of this field's sharedText property (see {@link #isSharedText(ExecutionContext)})
+     * @return A plaintext representation of the contents of this field on the given card.
+     */
+    public String getText(int forCardId, boolean isSharedText) {
+        // Reading text need not create an empty document for a card that has none (and may happen off the dispatch
+        // thread, i.e., when searching)
+        EncodedValue<StyledDocument> text = isSharedText ? sharedText : unsharedText.get(forCardId);
+        if (text == null) {
+            return "";
+        }
+
+        // Reading the text of a card that isn't displayed (i.e., when searching or sorting) need not retain its document
+        StyledDocument doc = text.read();
         try {
             return doc.getText(0, doc.getLength());
         } catch (BadLocationException e) {
@@ -253,16 +324,19 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
     public void applyFont(ExecutionContext context, int forCardId, int start, String fontFamily) {
         StyledDocument doc = getStyledDocument(context, forCardId);
         doc.setCharacterAttributes(start, doc.getLength() - start, TextStyleSpecifier.fromFontFamily(fontFamily).toAttributeSet(), false);
+        markModified();
     }
 
     public void applyFontSize(ExecutionContext context, int forCardId, int start, int fontSize) {
         StyledDocument doc = getStyledDocument(context, forCardId);
         doc.setCharacterAttributes(start, doc.getLength() - start, TextStyleSpecifier.fromFontSize(fontSize).toAttributeSet(), false);
+        markModified();
     }
 
     public void applyFontStyle(ExecutionContext context, int forCardId, int start, Value style) {
         StyledDocument doc = getStyledDocument(context, forCardId);
         doc.setCharacterAttributes(start, doc.getLength() - start, TextStyleSpecifier.fromFontStyle(style).toAttributeSet(), false);
+        markModified();
     }
 
     /**
@@ -272,9 +346,15 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
      * It is not possible to correctly restyle the new text in every case. This is a result of the {@link FieldModel}
      * not being able to notify us of insert/delete operations.
      * <p>
-     * This method invokes Google's DiffMatchPatch utility to generate a change set, then attempts to apply each change
-     * independently to let the {@link StyledDocument} model best preserve its formatting.
+     * This method invokes Google's DiffMatchPatch utility to generate a change set, then builds a new document from
+     * the unchanged runs of the existing document (keeping their style) and the inserted text (styled like the text it
+     * replaced or follows). Each paragraph keeps the paragraph style (i.e., alignment) of the paragraph it came from, or
+     * that text was inserted into. When the texts are too large to diff quickly, the new text simply replaces the old,
+     * in the style of the first character of the existing text, with each paragraph styled like the existing paragraph
+     * at the same index.
      * <p>
+     * The new document is built detached from the view (so that no document events are fired while building it) and
+     * then swapped in whole, rather than editing the displayed document one change at a time.
      *
      * @param context The execution context.
      * @param newText The text with which to replace the field's existing contents.
@@ -287,40 +367,122 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
             return;
         }
 
-        int changePosition = 0;
-        StyledDocument document = getStyledDocument(context);
-
-        AttributeSet style = document.getLength() == 0 ?
+        StyledDocument existing = getStyledDocument(context);
+        AttributeSet style = existing.getLength() == 0 ?
                 WyldCard.getInstance().getFontManager().getFocusedTextStyle().toAttributeSet() :
-                document.getCharacterElement(0).getAttributes();
+                existing.getCharacterElement(0).getAttributes();
+
+        StyledDocument replacement = getNewDocument(context);
 
         try {
-            for (DiffMatchPatch.Diff thisDiff : getTextDifferences(existingText, newText)) {
-                switch (thisDiff.operation) {
-                    case EQUAL:
-                        style = document.getCharacterElement(changePosition).getAttributes();
-                        changePosition += thisDiff.text.length();
-                        break;
-                    case DELETE:
-                        style = document.getCharacterElement(changePosition).getAttributes();
-                        document.remove(changePosition, thisDiff.text.length());
-                        break;
-                    case INSERT:
-                        document.insertString(changePosition, thisDiff.text, style);
-                        changePosition += thisDiff.text.length();
-                        break;
-                }
+            if (existing.getLength() == 0 || existingText.length() + newText.length() > DIFF_TEXT_LIMIT) {
+                replacement.insertString(0, newText, style);
+                copyParagraphStyles(existing, replacement);
+            } else {
+                patchDocument(existing, getTextDifferences(existingText, newText), style, replacement);
             }
         } catch (BadLocationException e) {
             throw new RuntimeException("An error occurred updating field text.", e);
         }
 
-        setStyledDocument(context, document);              // Save our changes
-        fireDocumentChangeObserver(context, document);     // ... and let the view know know about 'em
+        setStyledDocument(context, replacement);              // Save our changes
+        fireDocumentChangeObserver(context, replacement);     // ... and let the view know know about 'em
     }
 
     /**
-     * Produces a set of differences between the existing and replacement strings.
+     * Appends the text of an existing document, with the given differences applied, to a new document.
+     *
+     * @param existing    The existing document
+     * @param diffs       The differences between the existing document's text and the new text
+     * @param style       The style of text inserted before any existing text
+     * @param replacement The document to which the patched text is appended
+     * @throws BadLocationException Thrown if the differences do not describe the existing document's text
+     */
+    private void patchDocument(StyledDocument existing, List<DiffMatchPatch.Diff> diffs, AttributeSet style, StyledDocument replacement) throws BadLocationException {
+        int changePosition = 0;
+
+        for (DiffMatchPatch.Diff thisDiff : diffs) {
+            switch (thisDiff.operation) {
+                case EQUAL:
+                    style = existing.getCharacterElement(changePosition).getAttributes();
+                    copyText(existing, changePosition, changePosition + thisDiff.text.length(), replacement);
+                    changePosition += thisDiff.text.length();
+                    break;
+                case DELETE:
+                    style = existing.getCharacterElement(changePosition).getAttributes();
+                    changePosition += thisDiff.text.length();
+                    break;
+                case INSERT:
+                    appendText(replacement, thisDiff.text, style, existing.getParagraphElement(changePosition).getAttributes());
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Appends a range of styled text from one document to another, one run of like-styled characters at a time. Each
+     * run keeps the paragraph style of the paragraph it is copied from.
+     *
+     * @param from  The document to copy from
+     * @param start The first character to copy (inclusive)
+     * @param end   The last character to copy (exclusive)
+     * @param to    The document to append to
+     * @throws BadLocationException Thrown if the range is not within the source document
+     */
+    private void copyText(StyledDocument from, int start, int end, StyledDocument to) throws BadLocationException {
+        int position = start;
+
+        while (position < end) {
+            Element run = from.getCharacterElement(position);
+            int runEnd = Math.min(run.getEndOffset(), end);
+
+            appendText(to, from.getText(position, runEnd - position), run.getAttributes(), from.getParagraphElement(position).getAttributes());
+            position = runEnd;
+        }
+    }
+
+    /**
+     * Appends text to a document. Each paragraph begun by the appended text takes the given paragraph style; a
+     * paragraph begun by text appended earlier keeps its style.
+     *
+     * @param to             The document to append to
+     * @param text           The text to append
+     * @param style          The character style of the appended text
+     * @param paragraphStyle The paragraph style of paragraphs begun by the appended text
+     * @throws BadLocationException Thrown if the document cannot be appended to
+     */
+    private void appendText(StyledDocument to, String text, AttributeSet style, AttributeSet paragraphStyle) throws BadLocationException {
+        int start = to.getLength();
+        boolean beginsParagraph = to.getParagraphElement(start).getStartOffset() == start;
+
+        to.insertString(start, text, style);
+
+        int firstParagraph = beginsParagraph ? start : to.getParagraphElement(start).getEndOffset();
+        if (firstParagraph <= to.getLength()) {
+            to.setParagraphAttributes(firstParagraph, to.getLength() - firstParagraph, paragraphStyle, true);
+        }
+    }
+
+    /**
+     * Styles each paragraph of a document like the paragraph at the same index in another document (or like the other
+     * document's last paragraph, when it has fewer paragraphs).
+     *
+     * @param from The document whose paragraph styles are copied
+     * @param to   The document whose paragraphs are styled
+     */
+    private void copyParagraphStyles(StyledDocument from, StyledDocument to) {
+        Element fromParagraphs = from.getDefaultRootElement();
+        Element toParagraphs = to.getDefaultRootElement();
+
+        for (int index = 0; index < toParagraphs.getElementCount(); index++) {
+            Element paragraph = fromParagraphs.getElement(Math.min(index, fromParagraphs.getElementCount() - 1));
+            to.setParagraphAttributes(toParagraphs.getElement(index).getStartOffset(), 0, paragraph.getAttributes(), true);
+        }
+    }
+
+    /**
+     * Produces a set of differences between the existing and replacement strings, spending no more than
+     * {@link #DIFF_TIMEOUT_SECONDS} doing so (after which coarser, but still correct, differences are produced).
      *
      * @param existing    The existing text to analyze
      * @param replacement The new/replacement text to compare
@@ -328,6 +490,7 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
      */
     private LinkedList<DiffMatchPatch.Diff> getTextDifferences(String existing, String replacement) {
         DiffMatchPatch dmp = new DiffMatchPatch();
+        dmp.diffTimeout = DIFF_TIMEOUT_SECONDS;
 
         LinkedList<DiffMatchPatch.Diff> diffs = dmp.diffMain(existing, replacement);
         dmp.diffCleanupSemantic(diffs);
@@ -344,6 +507,7 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
         doc.setCharacterAttributes(0, doc.getLength() + 1, tss.toAttributeSet(), true);
 
         setStyledDocument(context, doc);
+        markModified();
         fireDocumentChangeObserver(context, doc);
     }
 
@@ -381,6 +545,7 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
         }
 
         setStyledDocument(context, doc);
+        markModified();
         fireDocumentChangeObserver(context, doc);
     }
 
@@ -409,6 +574,7 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
         }
 
         setStyledDocument(context, doc);
+        markModified();
         fireDocumentChangeObserver(context, doc);
     }
 
@@ -441,6 +607,7 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
         }
 
         setStyledDocument(context, doc);
+        markModified();
         fireDocumentChangeObserver(context, doc);
     }
 
@@ -528,6 +695,7 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
             }
 
             getAutoSelectedLines(context).add(lineNumber);
+            markModified();
             fireAutoSelectChangeObserver(context, getAutoSelectedLines(context));
         }
     }
@@ -547,6 +715,7 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
             autoSelection.add(line);
         }
 
+        markModified();
         fireAutoSelectChangeObserver(context, autoSelection);
     }
 
@@ -630,6 +799,32 @@ public class FieldModel extends CardLayerPartModel implements AddressableSelecti
         this.selection = selection;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Also discards this field's text (on the card to which it's bound) from the stack's search index.
+     */
+    @Override
+    public void markModified() {
+        super.markModified();
+
+        StackModel stack = getParentStackModel();
+        if (stack != null) {
+            stack.getSearchIndex().invalidate(this, getCurrentCardIdOrNull());
+        }
+    }
+
+    @Override
+    protected void onPropertyModified(String property) {
+        super.onPropertyModified(property);
+
+        // Changes which text (shared or per-card) the field holds on every card
+        StackModel stack = getParentStackModel();
+        if (stack != null && PROP_SHAREDTEXT.equals(property)) {
+            stack.getSearchIndex().invalidate(this, null);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -109,6 +109,7 @@ public abstract class HyperCardTextField extends JScrollPane implements
     @RunOnDispatch
     public void insertUpdate(DocumentEvent e) {
         documentUpdate();
+        toolEditablePart.getPartModel().markModified();
     }
 
     /**
@@ -118,6 +119,7 @@ public abstract class HyperCardTextField extends JScrollPane implements
     @RunOnDispatch
     public void removeUpdate(DocumentEvent e) {
         documentUpdate();
+        toolEditablePart.getPartModel().markModified();
     }
 
     /**
@@ -357,7 +359,8 @@ public abstract class HyperCardTextField extends JScrollPane implements
             textPane.setStyledDocument(doc);
             doc.addDocumentListener(HyperCardTextField.this);
 
-            textPane.setCaretPosition(oldCaretPosition);
+            // Replacement document may be shorter than the one it replaced
+            textPane.setCaretPosition(Math.min(oldCaretPosition, doc.getLength()));
         }
     }
 
@@ -393,6 +396,18 @@ public abstract class HyperCardTextField extends JScrollPane implements
         model.setStyledDocument(context, textPane.getStyledDocument());
     }
 
+    /**
+     * Persists a style change made by the user in this field's view into the model, and marks the model as modified.
+     * (Syncing the model for other reasons, like closing the part, does not modify it.)
+     *
+     * @param context The execution context.
+     */
+    @RunOnDispatch
+    private void syncEditToModel(ExecutionContext context) {
+        syncModelToView(context);
+        toolEditablePart.getPartModel().markModified();
+    }
+
     @RunOnDispatch
     private void updateSelectedLoc() {
         Point caretPos = textPane.getCaret().getMagicCaretPosition();
@@ -480,7 +495,7 @@ public abstract class HyperCardTextField extends JScrollPane implements
                 }
             }
 
-            syncModelToView(context);
+            syncEditToModel(context);
             updateSelection();
         }
     }
@@ -489,7 +504,10 @@ public abstract class HyperCardTextField extends JScrollPane implements
         @Override
         public void accept(Value align) {
             if (hasFocus()) {
-                Invoke.onDispatch(() -> setActiveTextAlign(new ExecutionContext(), align));
+                Invoke.onDispatch(() -> {
+                    setActiveTextAlign(new ExecutionContext(), align);
+                    toolEditablePart.getPartModel().markModified();
+                });
             }
         }
     }
@@ -523,7 +541,7 @@ public abstract class HyperCardTextField extends JScrollPane implements
                 }
             }
 
-            syncModelToView(context);
+            syncEditToModel(context);
             updateSelection();
         }
     }
@@ -557,7 +575,7 @@ public abstract class HyperCardTextField extends JScrollPane implements
                 }
             }
 
-            syncModelToView(context);
+            syncEditToModel(context);
             updateSelection();
         }
     }
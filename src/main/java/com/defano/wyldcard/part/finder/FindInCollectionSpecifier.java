@@ -3,6 +3,7 @@ package com.defano.wyldcard.part.finder;
 import com.defano.hypertalk.ast.model.specifier.PartSpecifier;
 import com.defano.hypertalk.exception.HtNoSuchPartException;
 import com.defano.wyldcard.part.model.PartModel;
+import com.defano.wyldcard.part.stack.StackPartIndex;
 import com.defano.wyldcard.runtime.ExecutionContext;
 
 import java.util.List;
@@ -21,4 +22,17 @@ public interface FindInCollectionSpecifier extends PartSpecifier {
      * @throws HtNoSuchPartException Thrown if the specified part cannot be found
      */
     PartModel findInCollection(ExecutionContext context, List<PartModel> collection) throws HtNoSuchPartException;
+
+    /**
+     * Finds a specified card or background using a stack's part index, without examining every part in the stack.
+     *
+     * @param context The execution context
+     * @param index   The part index of the stack to look within
+     * @return The specified part, or null if this specifier cannot be resolved using the index (in which case the part
+     * should be found using {@link #findInCollection(ExecutionContext, List)})
+     * @throws HtNoSuchPartException Thrown if the index shows that the specified part does not exist
+     */
+    default PartModel findInStackIndex(ExecutionContext context, StackPartIndex index) throws HtNoSuchPartException {
+        return null;
+    }
 }
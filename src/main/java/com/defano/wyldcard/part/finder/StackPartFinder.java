@@ -43,7 +43,8 @@ public interface StackPartFinder extends OrderedPartFinder {
     }
 
     /**
-     * Finds any kind of part within the set of parts returned by {@link #getPartsInDisplayOrder}.
+     * Finds any kind of part within the set of parts returned by {@link #getPartsInDisplayOrder}. Cards and
+     * backgrounds specified by ID, name or number are found using the stack's part index.
      *
      * @param context The execution context
      * @param ps      The specifier indicating the part to find
@@ -51,6 +52,13 @@ public interface StackPartFinder extends OrderedPartFinder {
      * @throws HtNoSuchPartException Thrown if the part does not exist
      */
     default PartModel findPartInDisplayedOrder(ExecutionContext context, PartSpecifier ps) throws HtNoSuchPartException {
+        if (ps instanceof FindInCollectionSpecifier) {
+            PartModel foundPart = ((FindInCollectionSpecifier) ps).findInStackIndex(context, getStackModel().getPartIndex());
+            if (foundPart != null) {
+                return foundPart;
+            }
+        }
+
         return OrderedPartFinder.super.findPart(context, ps);
     }
 
@@ -11,6 +11,7 @@ import com.defano.hypertalk.ast.model.specifier.PartSpecifier;
 import com.defano.hypertalk.exception.HtException;
 import com.defano.hypertalk.exception.HtSemanticException;
 import com.defano.wyldcard.WyldCard;
+import com.defano.wyldcard.message.HandlerIndex;
 import com.defano.wyldcard.message.Messagable;
 import com.defano.wyldcard.part.button.ButtonModel;
 import com.defano.wyldcard.part.card.CardDisplayLayer;
@@ -19,7 +20,9 @@ import com.defano.wyldcard.part.field.FieldModel;
 import com.defano.wyldcard.part.stack.StackModel;
 import com.defano.wyldcard.property.SimplePropertiesModel;
 import com.defano.wyldcard.runtime.compiler.CompilationUnit;
+import com.defano.wyldcard.runtime.compiler.ScriptCache;
 import com.defano.wyldcard.runtime.compiler.ScriptCompiler;
+import com.defano.wyldcard.runtime.compiler.ScriptSignature;
 import com.defano.wyldcard.runtime.ExecutionContext;
 import com.defano.wyldcard.thread.Invoke;
 import com.defano.wyldcard.window.WindowBuilder;
@@ -31,6 +34,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A base model object for all HyperCard "parts" that Defines properties common to all part objects.
@@ -59,6 +63,9 @@ public abstract class PartModel extends SimplePropertiesModel implements Messaga
     protected static final String ALIAS_BOTTOMRIGHT = "bottomright";
     protected static final String ALIAS_LOCATION = "location";
 
+    // Incremented on every modification to any part; a part's generation is the value of the clock when it was last modified
+    private static final AtomicLong modificationClock = new AtomicLong();
+
     private final PartType type;
     private Owner owner;
     private int scriptEditorCaretPosition;
@@ -69,6 +76,9 @@ public abstract class PartModel extends SimplePropertiesModel implements Messaga
     private transient Script compiledScript;
     private transient long deferCompilation = 0;
     private transient long scriptHash;
+    private transient long contentHashTextHash;
+    private transient String contentHash;
+    private transient volatile long generation;
 
     public PartModel(PartType type, Owner owner, PartModel parentPartModel) {
         super();
@@ -173,10 +183,11 @@ public abstract class PartModel extends SimplePropertiesModel implements Messaga
                 .withGetter((context, model) -> checkpoints)
                 .withSetter((context, model, value) -> {
                     PartModel.this.checkpoints = value;
-                    Script script = getScript(context);
-                    if (script != null) {
-                        script.applyBreakpoints(getBreakpoints());
-                    }
+                    markModified();
+
+                    // Force recompile; a part with breakpoints cannot share its compiled script with other parts
+                    invalidateCompiledScript();
+                    getScript(context);
                 });
     }
 
@@ -244,17 +255,22 @@ public abstract class PartModel extends SimplePropertiesModel implements Messaga
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Scripts without breakpoints are compiled through the {@link ScriptCache}, and may therefore share a compiled
+     * representation with other parts having identical script text. Scripts with breakpoints are compiled privately
+     * since applying breakpoints mutates the compiled script.
      */
     @Override
     public synchronized Script getScript(ExecutionContext context) {
         if (isScriptDirty(context) && System.currentTimeMillis() > deferCompilation) {
             try {
                 String scriptText = getScriptText(context);
-                Script script = (Script) ScriptCompiler.blockingCompile(CompilationUnit.SCRIPT, scriptText);
+                List<Integer> breakpoints = getBreakpoints();
+                Script script = breakpoints.isEmpty() ?
+                        (Script) ScriptCache.getInstance().blockingCompile(CompilationUnit.SCRIPT, scriptText, getContentHash(scriptText)) :
+                        (Script) ScriptCompiler.blockingCompile(CompilationUnit.SCRIPT, scriptText);
 
-                if (script != null) {
-                    return setScript(script, scriptText.hashCode());
-                }
+                return setScript(script == null ? new Script() : script, scriptText.hashCode(), breakpoints);
             } catch (HtException e) {
                 deferCompilation = System.currentTimeMillis() + 5000;
                 e.getBreadcrumb().setContext(context);
@@ -266,10 +282,99 @@ public abstract class PartModel extends SimplePropertiesModel implements Messaga
         return this.compiledScript == null ? new Script() : this.compiledScript;
     }
 
-    private synchronized Script setScript(Script script, long scriptHash) {
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When this part's script has not yet been compiled, but a {@link ScriptSignature} is known for its text (i.e.,
+     * because it was read from the stack's script index), this method answers from the signature without compiling
+     * the script.
+     */
+    @Override
+    public boolean hasHandler(ExecutionContext context, String handlerName) {
+        if (isScriptDirty(context)) {
+            ScriptSignature signature = ScriptCache.getInstance().getSignature(getContentHash(getScriptText(context)));
+            if (signature != null && !signature.definesHandler(handlerName)) {
+                return false;
+            }
+        }
+
+        return getScript(context).getHandler(handlerName) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Changing a part's script may change which part handles a message; discards all handler resolutions.
+     */
+    @Override
+    protected void onPropertySet(String property) {
+        if (PROP_SCRIPT.equals(property)) {
+            HandlerIndex.invalidate();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Marks this part (and the parts containing it) as modified.
+     */
+    @Override
+    protected void onPropertyModified(String property) {
+        markModified();
+    }
+
+    /**
+     * Records that this part has been modified by advancing its generation, and the generation of every part containing
+     * it (i.e., modifying a button on a card modifies the card and its stack), to the current value of the modification
+     * clock.
+     * <p>
+     * Modifications to property values are recorded automatically; this method should be invoked by model methods
+     * that mutate persistent, non-property state (like a card's image or a field's text).
+     */
+    public void markModified() {
+        long now = modificationClock.incrementAndGet();
+        for (PartModel part = this; part != null; part = part.getParentPartModel()) {
+            part.generation = now;
+        }
+    }
+
+    /**
+     * Gets the generation of this part; that is, the value of the modification clock when this part, or any part it
+     * contains, was last modified. A part that has not been modified since it was created (or deserialized) has
+     * generation zero.
+     *
+     * @return This part's generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the current value of the modification clock. Any part modified after this call will have a generation
+     * greater than the returned value.
+     *
+     * @return The current modification clock value
+     */
+    public static long getModificationClock() {
+        return modificationClock.get();
+    }
+
+    /**
+     * Marks this part's compiled script as stale, forcing it to be recompiled the next time it is needed.
+     */
+    protected synchronized void invalidateCompiledScript() {
+        this.scriptHash = 0;
+        this.deferCompilation = 0;
+    }
+
+    private synchronized Script setScript(Script script, long scriptHash, List<Integer> breakpoints) {
         this.compiledScript = script;
         this.scriptHash = scriptHash;
-        this.compiledScript.applyBreakpoints(getBreakpoints());
+
+        // Shared (cached) scripts never carry breakpoints; only apply them to privately compiled scripts
+        if (!breakpoints.isEmpty()) {
+            this.compiledScript.applyBreakpoints(breakpoints);
+        }
 
         return script;
     }
@@ -278,6 +383,15 @@ public abstract class PartModel extends SimplePropertiesModel implements Messaga
         return hasProperty(PROP_SCRIPT) && getScriptText(context).hashCode() != scriptHash;
     }
 
+    private synchronized String getContentHash(String scriptText) {
+        if (contentHash == null || scriptText.hashCode() != contentHashTextHash) {
+            contentHash = ScriptCache.hash(scriptText);
+            contentHashTextHash = scriptText.hashCode();
+        }
+
+        return contentHash;
+    }
+
     public Owner getOwner() {
         return owner;
     }
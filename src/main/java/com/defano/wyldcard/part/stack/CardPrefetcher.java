@@ -0,0 +1,162 @@
+package com.defano.wyldcard.part.stack;
+
+import com.defano.wyldcard.aspect.RunOnDispatch;
+import com.defano.wyldcard.part.card.CardModel;
+import com.defano.wyldcard.serializer.EncodedValue;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Decodes the graphics and text of the cards a user is likely to visit next (the cards either side of the current
+ * card, and the card most recently visited) on a background thread, so that navigating to them does not stall the
+ * dispatch thread while their images and field documents are decoded.
+ * <p>
+ * The decoded contents of the most recently used and predicted cards are retained (and thereby protected from garbage
+ * collection) until they are evicted to make room for others, or until the card is removed from the stack.
+ */
+class CardPrefetcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CardPrefetcher.class);
+    private static final int WARM_CARD_COUNT = 8;
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("card-prefetch").setDaemon(true).build());
+
+    // Decoded contents of recently used and predicted cards, least recently used first
+    private final Map<CardModel, List<Object>> warmCards = new LinkedHashMap<CardModel, List<Object>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CardModel, List<Object>> eldest) {
+            return size() > WARM_CARD_COUNT;
+        }
+    };
+
+    private Future<?> pending;
+
+    /**
+     * Predicts the cards likely to be visited after the given card and begins decoding their contents in the
+     * background. Any prediction still in progress is abandoned.
+     *
+     * @param stack      The stack being navigated
+     * @param cardIndex  The index of the card that was just opened
+     * @param recentCard The card that was displayed before it, or null
+     * @return The prediction, which completes once the predicted cards have been decoded
+     */
+    @RunOnDispatch
+    Future<?> prefetch(StackModel stack, int cardIndex, CardModel recentCard) {
+        int cardCount = stack.getCardCount();
+
+        // Most likely to be visited last, so that they're evicted last
+        Set<CardModel> predicted = new LinkedHashSet<>();
+        if (recentCard != null && stack.hasCard(recentCard)) {
+            predicted.add(recentCard);
+        }
+        predicted.add(stack.getCardModel((cardIndex + cardCount - 1) % cardCount));
+        predicted.add(stack.getCardModel((cardIndex + 1) % cardCount));
+        predicted.add(stack.getCardModel(cardIndex));
+
+        // Card and field models are not thread-safe; find their contents on the dispatch thread
+        Map<CardModel, List<EncodedValue<?>>> contents = new LinkedHashMap<>();
+        for (CardModel thisCard : predicted) {
+            List<EncodedValue<?>> cardContents = new ArrayList<>();
+            thisCard.collectContents(cardContents);
+            contents.put(thisCard, cardContents);
+        }
+
+        cancel();
+
+        pending = executor.submit(() -> {
+            for (Map.Entry<CardModel, List<EncodedValue<?>>> thisCard : contents.entrySet()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+
+                warm(thisCard.getKey(), thisCard.getValue());
+            }
+        });
+
+        return pending;
+    }
+
+    /**
+     * Evicts the contents of cards that are no longer part of the given stack, and abandons any prediction in
+     * progress (i.e., because the order of cards in the stack changed).
+     *
+     * @param stack The stack
+     */
+    void invalidate(StackModel stack) {
+        cancel();
+
+        synchronized (warmCards) {
+            warmCards.keySet().removeIf(card -> !stack.hasCard(card));
+        }
+    }
+
+    /**
+     * Evicts the contents of the given card.
+     *
+     * @param card The card to evict
+     */
+    void evict(CardModel card) {
+        synchronized (warmCards) {
+            warmCards.remove(card);
+        }
+    }
+
+    /**
+     * Evicts all cards and abandons any prediction in progress.
+     */
+    void clear() {
+        cancel();
+
+        synchronized (warmCards) {
+            warmCards.clear();
+        }
+    }
+
+    /**
+     * Determines if the decoded contents of the given card are retained.
+     *
+     * @param card The card
+     * @return True if the card's contents are retained
+     */
+    boolean isWarm(CardModel card) {
+        synchronized (warmCards) {
+            return warmCards.containsKey(card);
+        }
+    }
+
+    /**
+     * Abandons the prediction in progress, if any. Interrupts the prefetch thread so that it stops before decoding
+     * another card, and so that it does not retain the contents of a card it has already decoded.
+     */
+    private void cancel() {
+        if (pending != null) {
+            pending.cancel(true);
+        }
+    }
+
+    private void warm(CardModel card, List<EncodedValue<?>> contents) {
+        List<Object> decoded = new ArrayList<>();
+
+        try {
+            for (EncodedValue<?> thisValue : contents) {
+                decoded.add(thisValue.read());
+            }
+        } catch (IllegalStateException e) {
+            // Let the error surface when (if) the card is opened
+            LOG.debug("Failed to prefetch card contents.", e);
+            return;
+        }
+
+        // Checked while holding the lock so that a card decoded after the prediction was abandoned isn't retained
+        synchronized (warmCards) {
+            if (!Thread.currentThread().isInterrupted()) {
+                warmCards.put(card, decoded);
+            }
+        }
+    }
+}
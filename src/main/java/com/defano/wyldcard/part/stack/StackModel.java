@@ -9,6 +9,7 @@ import com.defano.hypertalk.ast.model.specifier.StackPartSpecifier;
 import com.defano.wyldcard.WyldCard;
 import com.defano.wyldcard.icon.ButtonIcon;
 import com.defano.wyldcard.icon.UserIcon;
+import com.defano.wyldcard.message.HandlerIndex;
 import com.defano.wyldcard.part.NamedPart;
 import com.defano.wyldcard.part.bkgnd.BackgroundModel;
 import com.defano.wyldcard.part.builder.BackgroundModelBuilder;
@@ -17,7 +18,7 @@ import com.defano.wyldcard.part.finder.StackPartFinder;
 import com.defano.wyldcard.part.model.PartModel;
 import com.defano.wyldcard.pattern.WyldCardPatternFactory;
 import com.defano.wyldcard.runtime.ExecutionContext;
-import com.defano.wyldcard.serializer.Serializer;
+import com.defano.wyldcard.search.SearchIndex;
 import io.reactivex.Observable;
 import io.reactivex.subjects.BehaviorSubject;
 import io.reactivex.subjects.Subject;
@@ -26,8 +27,6 @@ import javax.annotation.PostConstruct;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.util.List;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -55,6 +54,10 @@ public class StackModel extends PartModel implements StackPartFinder, NamedPart
     private transient Subject<Optional<File>> savedStackFileProvider;
     private transient int nextPartId = new Random().nextInt();
     private transient boolean isBeingClosed = false;
+    private transient HandlerIndex handlerIndex;
+    private transient SearchIndex searchIndex;
+    private transient StackPartIndex partIndex;
+    private transient volatile long savedGeneration;
 
     public StackModel() {
         super(PartType.STACK, Owner.HYPERCARD, null);
@@ -80,6 +83,9 @@ public class StackModel extends PartModel implements StackPartFinder, NamedPart
         super.postConstructPartModel();
 
         savedStackFileProvider = BehaviorSubject.createDefault(Optional.empty());
+        handlerIndex = new HandlerIndex();
+        searchIndex = new SearchIndex();
+        partIndex = new StackPartIndex(this);
 
         // User patterns may be missing from serialized object form; rehydrate empty map in this case
         if (userPatterns == null) {
@@ -138,6 +144,19 @@ public class StackModel extends PartModel implements StackPartFinder, NamedPart
     }
 
     public void setSavedStackFile(ExecutionContext context, File file) {
+        setSavedStackFile(context, file, getModificationClock());
+    }
+
+    /**
+     * Records the file to which this stack was saved (or from which it was opened), and names the stack after it.
+     *
+     * @param context    The execution context
+     * @param file       The stack file
+     * @param generation The value of the modification clock ({@link #getModificationClock()}) when the stack began
+     *                   being written to (or finished being read from) the file; modifications made after this point
+     *                   are not reflected in the file.
+     */
+    public void setSavedStackFile(ExecutionContext context, File file, long generation) {
         this.savedStackFileProvider.onNext(Optional.of(file));
 
         String filename = file.getName();
@@ -146,6 +165,33 @@ public class StackModel extends PartModel implements StackPartFinder, NamedPart
         }
 
         set(context, PROP_NAME, new Value(filename));
+        this.savedGeneration = generation;
+    }
+
+    /**
+     * Gets the modification generation reflected in the given file; that is, the value of the modification clock when
+     * this stack was last saved to (or opened from) it. Any part of this stack whose generation (see
+     * {@link #getGeneration()}) is no greater than this value is unchanged from its representation in the file.
+     *
+     * @param file The stack file
+     * @return The generation reflected in the file, or -1 if this stack was not last saved to, or opened from, the
+     * given file.
+     */
+    public long getSavedGeneration(File file) {
+        Optional<File> savedFile = savedStackFileProvider.blockingFirst();
+        return savedFile.isPresent() && savedFile.get().getAbsoluteFile().equals(file.getAbsoluteFile()) ? savedGeneration : -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A stack's name is derived from the name of the file it's saved in; changing it is not a modification.
+     */
+    @Override
+    protected void onPropertyModified(String property) {
+        if (!PROP_NAME.equals(property)) {
+            super.onPropertyModified(property);
+        }
     }
 
     public int getNextButtonId(int parentPartId) {
@@ -174,24 +220,38 @@ public class StackModel extends PartModel implements StackPartFinder, NamedPart
 
     public void addCard(CardModel cardModel) {
         cardModels.add(cardModel);
+        partIndex.invalidate();
+        cardModel.markModified();
+        markModified();
     }
 
     public void addCard(CardModel cardModel, int atIndex) {
         cardModels.add(atIndex, cardModel);
+        partIndex.invalidate();
+        cardModel.markModified();
+        markModified();
     }
 
     public void addBackground(BackgroundModel backgroundModel) {
         backgroundModels.put(backgroundModel.getId(), backgroundModel);
+        partIndex.invalidate();
+        backgroundModel.markModified();
+        markModified();
     }
 
     public int newBackground() {
         int newBackgroundId = getNextBackgroundId();
-        backgroundModels.put(newBackgroundId, new BackgroundModelBuilder(this).withId(newBackgroundId).build());
+        BackgroundModel backgroundModel = new BackgroundModelBuilder(this).withId(newBackgroundId).build();
+        backgroundModels.put(newBackgroundId, backgroundModel);
+        partIndex.invalidate();
+        backgroundModel.markModified();
         return newBackgroundId;
     }
 
     public void deleteCurrentCard() {
         cardModels.remove(currentCardIndex);
+        partIndex.invalidate();
+        markModified();
     }
 
     public String getStackName(ExecutionContext context) {
@@ -208,6 +268,8 @@ public class StackModel extends PartModel implements StackPartFinder, NamedPart
 
     public void setCardModels(List<CardModel> cardModels) {
         this.cardModels = cardModels;
+        partIndex.invalidate();
+        markModified();
     }
 
     public CardModel getCardModel(int index) {
@@ -215,7 +277,7 @@ public class StackModel extends PartModel implements StackPartFinder, NamedPart
     }
 
     public boolean hasCard(CardModel cardModel) {
-        return cardModels.contains(cardModel);
+        return partIndex.getCard(cardModel.getId()) == cardModel;
     }
 
     public int getCardCount() {
@@ -235,24 +297,20 @@ public class StackModel extends PartModel implements StackPartFinder, NamedPart
     }
 
     public int getIndexOfCard(CardModel card) {
-        return cardModels.indexOf(card);
+        Integer number = partIndex.getCard(card.getId()) == card ? partIndex.getNumber(card) : null;
+        return number == null ? -1 : number - 1;
     }
 
     public Integer getIndexOfCardId(int cardId) {
-        return cardModels.stream()
-                .filter(c -> c.getId() == cardId)
-                .map(c -> cardModels.indexOf(c))
-                .findFirst()
-                .orElse(null);
+        CardModel card = partIndex.getCard(cardId);
+        return card == null ? null : partIndex.getNumber(card) - 1;
     }
 
     public int getIndexOfBackground(int backgroundId) {
-        Optional<CardModel> card = cardModels.stream()
-                .filter(c -> c.getBackgroundId() == backgroundId)
-                .findFirst();
+        List<CardModel> cards = partIndex.getCardsInBackground(backgroundId);
 
-        if (card.isPresent()) {
-            return getIndexOfCard(card.get());
+        if (!cards.isEmpty()) {
+            return getIndexOfCard(cards.get(0));
         } else {
             throw new IllegalArgumentException("No such background.");
         }
@@ -302,9 +360,34 @@ public class StackModel extends PartModel implements StackPartFinder, NamedPart
     }
 
     public List<CardModel> getCardsInBackground(int backgroundId) {
-        return getCardModels().stream()
-                .filter(c -> c.getBackgroundId() == backgroundId)
-                .collect(Collectors.toList());
+        return new ArrayList<>(partIndex.getCardsInBackground(backgroundId));
+    }
+
+    /**
+     * Gets the index of message handlers and functions resolved in the message passing hierarchies of this stack.
+     *
+     * @return The stack's handler index
+     */
+    public HandlerIndex getHandlerIndex() {
+        return handlerIndex;
+    }
+
+    /**
+     * Gets the index of the words appearing in the fields of this stack, used by the 'find' command.
+     *
+     * @return The stack's search index
+     */
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Gets the index of the cards and backgrounds of this stack by ID, name and number.
+     *
+     * @return The stack's part index
+     */
+    public StackPartIndex getPartIndex() {
+        return partIndex;
     }
 
     @Override
@@ -319,6 +402,7 @@ public class StackModel extends PartModel implements StackPartFinder, NamedPart
 
     public void createIcon(String name, BufferedImage image) {
         userIcons.put(name, image);
+        markModified();
     }
 
     public List<ButtonIcon> getUserIcons() {
@@ -336,6 +420,7 @@ public class StackModel extends PartModel implements StackPartFinder, NamedPart
 
     public void setUserPattern(int patternId, BufferedImage pattern) {
         userPatterns.put(patternId, pattern);
+        markModified();
         WyldCardPatternFactory.getInstance().invalidatePatternCache();
     }
 
@@ -358,22 +443,15 @@ public class StackModel extends PartModel implements StackPartFinder, NamedPart
     }
 
     /**
-     * A cheesy and expensive mechanism to determine if the user has made a change to the stack since it was last opened.
+     * Determines if the user has made a change to the stack since it was last saved or opened. Modifications are
+     * recorded as they are made (see {@link PartModel#markModified()}), so this check does not depend on the size of
+     * the stack.
      *
      * @return True if the stack has changes; false otherwise
      */
     public boolean isDirty() {
-        Optional<File> stackFile = savedStackFileProvider.blockingFirst();
-
-        if (stackFile.isPresent()) {
-            try {
-                String savedStack = new String(Files.readAllBytes(stackFile.get().toPath()), StandardCharsets.UTF_8);
-                String currentStack = Serializer.serialize(this);
-
-                return !isEmpty() && !savedStack.equalsIgnoreCase(currentStack);
-            } catch (Exception e) {
-                return true;
-            }
+        if (savedStackFileProvider.blockingFirst().isPresent()) {
+            return !isEmpty() && getGeneration() > savedGeneration;
         }
 
         return !isEmpty();
@@ -406,18 +484,16 @@ public class StackModel extends PartModel implements StackPartFinder, NamedPart
      */
     @Override
     public List<PartModel> getPartsInDisplayOrder(ExecutionContext context) {
-        ArrayList<PartModel> parts = new ArrayList<>();
-
-        for (CardModel thisCard : getCardModels()) {
-            parts.add(thisCard);
-
-            BackgroundModel thisBackground = getBackground(thisCard.getBackgroundId());
-            if (!parts.contains(thisBackground)) {
-                parts.add(thisBackground);
-            }
-        }
+        return partIndex.getPartsInDisplayOrder();
+    }
 
-        return parts;
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPartNumber(ExecutionContext context, PartModel part, PartType ofType) {
+        Integer number = part.getType() == ofType ? partIndex.getNumber(part) : null;
+        return number != null ? number : StackPartFinder.super.getPartNumber(context, part, ofType);
     }
 
     /**
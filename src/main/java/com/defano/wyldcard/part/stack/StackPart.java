@@ -43,6 +43,7 @@ public class StackPart implements Part<StackModel>, PropertyChangeObserver {
 
     private final StackModel stackModel;
     private final CurtainManager curtainManager = new CurtainManager();
+    private final CardPrefetcher cardPrefetcher = new CardPrefetcher();
     private final Set<StackObserver> stackObservers = new HashSet<>();
     private final Set<StackNavigationObserver> stackNavigationObservers = new HashSet<>();
     private final Subject<Integer> cardCountProvider = BehaviorSubject.createDefault(0);
@@ -121,6 +122,7 @@ public class StackPart implements Part<StackModel>, PropertyChangeObserver {
             }
 
             stackModel.deleteCurrentCard();
+            cardPrefetcher.evict(deletedCardModel);
             cardCountProvider.onNext(stackModel.getCardCount());
             fireOnCardOrderChanged();
 
@@ -248,6 +250,8 @@ public class StackPart implements Part<StackModel>, PropertyChangeObserver {
      */
     @RunOnDispatch
     public void invalidateCache(ExecutionContext context, int cardIndex) {
+        cardPrefetcher.invalidate(getStackModel());
+
         this.currentCard.partClosed(context);
         this.currentCard = loadCard(context, getStackModel().getCurrentCardIndex());
 
@@ -395,6 +399,9 @@ public class StackPart implements Part<StackModel>, PropertyChangeObserver {
             stackModel.setCurrentCardIndex(cardIndex);
             currentCard = loadCard(context, cardIndex);
 
+            // Start decoding the cards likely to be visited next
+            cardPrefetcher.prefetch(stackModel, cardIndex, oldCard);
+
             // Notify observers of new card
             fireOnCardOpened(oldCard, currentCard);
 
@@ -495,6 +502,7 @@ public class StackPart implements Part<StackModel>, PropertyChangeObserver {
 
     @Override
     public void partClosed(ExecutionContext context) {
+        cardPrefetcher.clear();
         closeCard(context, null);
         fireOnStackClosed();
     }
@@ -0,0 +1,220 @@
+package com.defano.wyldcard.part.stack;
+
+import com.defano.wyldcard.part.bkgnd.BackgroundModel;
+import com.defano.wyldcard.part.card.CardModel;
+import com.defano.wyldcard.part.model.PartModel;
+import com.defano.wyldcard.runtime.ExecutionContext;
+
+import java.util.*;
+
+/**
+ * An index of the cards and backgrounds of a stack by ID, name and number, so that parts like 'card id 4312',
+ * 'card "Foo"' or 'bkgnd 3' can be found without scanning every card in the stack.
+ * <p>
+ * The stack discards the index whenever cards or backgrounds are added, removed or reordered (and discards the names
+ * it holds whenever a card or background is renamed); the index is rebuilt the next time it's used.
+ */
+public class StackPartIndex {
+
+    private final StackModel stack;
+
+    // Indexed when first needed after the stack's cards change
+    private List<PartModel> partsInDisplayOrder;
+    private List<BackgroundModel> backgrounds;
+    private Map<Integer, CardModel> cardsById;
+    private Map<Integer, Integer> cardNumbersById;
+    private Map<Integer, Integer> backgroundNumbersById;
+    private Map<Integer, List<CardModel>> cardsByBackgroundId;
+
+    // Indexed when first needed after a card or background is renamed
+    private Map<String, CardModel> cardsByName;
+    private Map<String, BackgroundModel> backgroundsByName;
+
+    StackPartIndex(StackModel stack) {
+        this.stack = stack;
+    }
+
+    /**
+     * Discards the index; invoked when cards or backgrounds are added to, removed from, or reordered in the stack.
+     */
+    synchronized void invalidate() {
+        partsInDisplayOrder = null;
+        invalidateNames();
+    }
+
+    /**
+     * Discards the indexed names of cards and backgrounds; invoked when a card or background is renamed.
+     */
+    public synchronized void invalidateNames() {
+        cardsByName = null;
+        backgroundsByName = null;
+    }
+
+    /**
+     * Gets the cards and backgrounds of the stack in display order; that is, each card in stack order, each followed
+     * by its background if that background has not already appeared.
+     *
+     * @return An unmodifiable list of the stack's cards and backgrounds
+     */
+    public synchronized List<PartModel> getPartsInDisplayOrder() {
+        validate();
+        return partsInDisplayOrder;
+    }
+
+    /**
+     * Gets the card with the given ID.
+     *
+     * @param id The ID of the card
+     * @return The card, or null if no such card exists
+     */
+    public synchronized CardModel getCard(int id) {
+        validate();
+        return cardsById.get(id);
+    }
+
+    /**
+     * Gets the card with the given number (its position in the stack, counting from 1).
+     *
+     * @param number The number of the card
+     * @return The card, or null if no such card exists
+     */
+    public CardModel getCardByNumber(int number) {
+        return number > 0 && number <= stack.getCardCount() ? stack.getCardModel(number - 1) : null;
+    }
+
+    /**
+     * Gets the first card whose name matches the given name (case insensitive).
+     *
+     * @param context The execution context
+     * @param name    The name of the card
+     * @return The card, or null if no such card exists
+     */
+    public synchronized CardModel getCard(ExecutionContext context, String name) {
+        validateNames(context);
+        return cardsByName.get(name.toLowerCase());
+    }
+
+    /**
+     * Gets the background with the given ID, provided that at least one card in the stack belongs to it.
+     *
+     * @param id The ID of the background
+     * @return The background, or null if no such background exists
+     */
+    public synchronized BackgroundModel getBackground(int id) {
+        validate();
+        Integer number = backgroundNumbersById.get(id);
+        return number == null ? null : backgrounds.get(number - 1);
+    }
+
+    /**
+     * Gets the background with the given number (its position relative to other backgrounds, as ordered by their first
+     * card, counting from 1).
+     *
+     * @param number The number of the background
+     * @return The background, or null if no such background exists
+     */
+    public synchronized BackgroundModel getBackgroundByNumber(int number) {
+        validate();
+        return number > 0 && number <= backgrounds.size() ? backgrounds.get(number - 1) : null;
+    }
+
+    /**
+     * Gets the first background whose name matches the given name (case insensitive).
+     *
+     * @param context The execution context
+     * @param name    The name of the background
+     * @return The background, or null if no such background exists
+     */
+    public synchronized BackgroundModel getBackground(ExecutionContext context, String name) {
+        validateNames(context);
+        return backgroundsByName.get(name.toLowerCase());
+    }
+
+    /**
+     * Gets the number of the given card or background (see {@link #getCardByNumber(int)} and
+     * {@link #getBackgroundByNumber(int)}).
+     *
+     * @param part The card or background
+     * @return The part's number, or null if the part is not a card or background of this stack
+     */
+    public synchronized Integer getNumber(PartModel part) {
+        validate();
+
+        if (part instanceof CardModel) {
+            return cardNumbersById.get(part.getId());
+        } else if (part instanceof BackgroundModel) {
+            return backgroundNumbersById.get(part.getId());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the cards belonging to the given background, in stack order.
+     *
+     * @param backgroundId The ID of the background
+     * @return An unmodifiable list of the background's cards; empty if the background has no cards
+     */
+    public synchronized List<CardModel> getCardsInBackground(int backgroundId) {
+        validate();
+        return cardsByBackgroundId.getOrDefault(backgroundId, Collections.emptyList());
+    }
+
+    private void validate() {
+        if (partsInDisplayOrder != null) {
+            return;
+        }
+
+        List<CardModel> cards = stack.getCardModels();
+        List<PartModel> parts = new ArrayList<>();
+        Map<Integer, List<CardModel>> backgroundCards = new HashMap<>();
+
+        backgrounds = new ArrayList<>();
+        cardsById = new HashMap<>();
+        cardNumbersById = new HashMap<>();
+        backgroundNumbersById = new HashMap<>();
+
+        for (int index = 0; index < cards.size(); index++) {
+            CardModel thisCard = cards.get(index);
+            int backgroundId = thisCard.getBackgroundId();
+
+            cardsById.putIfAbsent(thisCard.getId(), thisCard);
+            cardNumbersById.putIfAbsent(thisCard.getId(), index + 1);
+            backgroundCards.computeIfAbsent(backgroundId, id -> new ArrayList<>()).add(thisCard);
+            parts.add(thisCard);
+
+            if (!backgroundNumbersById.containsKey(backgroundId)) {
+                BackgroundModel thisBackground = stack.getBackground(backgroundId);
+                backgrounds.add(thisBackground);
+                backgroundNumbersById.put(backgroundId, backgrounds.size());
+                parts.add(thisBackground);
+            }
+        }
+
+        cardsByBackgroundId = new HashMap<>();
+        for (Map.Entry<Integer, List<CardModel>> thisBackground : backgroundCards.entrySet()) {
+            cardsByBackgroundId.put(thisBackground.getKey(), Collections.unmodifiableList(thisBackground.getValue()));
+        }
+
+        partsInDisplayOrder = Collections.unmodifiableList(parts);
+    }
+
+    private void validateNames(ExecutionContext context) {
+        validate();
+
+        if (cardsByName == null) {
+            cardsByName = new HashMap<>();
+            backgroundsByName = new HashMap<>();
+
+            for (PartModel thisPart : partsInDisplayOrder) {
+                String name = thisPart.getName(context).toLowerCase();
+
+                if (thisPart instanceof CardModel) {
+                    cardsByName.putIfAbsent(name, (CardModel) thisPart);
+                } else if (thisPart != null) {
+                    backgroundsByName.putIfAbsent(name, (BackgroundModel) thisPart);
+                }
+            }
+        }
+    }
+}
@@ -55,6 +55,15 @@ public class Property {
         return aliases.contains(name);
     }
 
+    /**
+     * Gets every name that this property is known by, including its primary name.
+     *
+     * @return An unmodifiable, alphabetized list of this property's names.
+     */
+    public List<String> aliases() {
+        return Collections.unmodifiableList(aliases);
+    }
+
     /**
      * Adds zero or more new aliases to this property. Does not affect or replace existing aliases.
      *
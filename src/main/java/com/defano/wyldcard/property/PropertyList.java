@@ -1,9 +1,76 @@
 package com.defano.wyldcard.property;
 
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * An {@link ArrayList} of {@link Property} objects. Used only to mark the class for special serialization /
- * deserialization by Gson.
+ * An {@link ArrayList} of {@link Property} objects. Used to mark the class for special serialization /
+ * deserialization by Gson, and to maintain a (transient) index of properties by name and alias so that properties can
+ * be found without scanning the list.
+ * <p>
+ * The index is maintained by {@link #add(Property)}, {@link #remove(Object)} and {@link #clear()}; the list should not
+ * be modified by other means.
  */
-public class PropertyList extends ArrayList<Property> {}
+public class PropertyList extends ArrayList<Property> {
+
+    // Properties keyed by each of their (lowercase) names and aliases; not serialized
+    private final transient Map<String, Property> index = new ConcurrentHashMap<>();
+
+    /**
+     * Finds the property known by the given name or alias (case insensitive).
+     *
+     * @param propertyName The name of the property to find
+     * @return The first property in this list known by the given name, or null if no such property exists.
+     */
+    public Property find(String propertyName) {
+        Property property = index.get(propertyName);
+
+        if (property == null) {
+            String canonicalName = propertyName.toLowerCase();
+            property = index.get(canonicalName);
+
+            // Not indexed; may be missing, or an alias added to the property after it was added to this list
+            if (property == null) {
+                for (Property thisProperty : this) {
+                    if (thisProperty.matches(canonicalName)) {
+                        index(thisProperty);
+                        return thisProperty;
+                    }
+                }
+            }
+        }
+
+        return property;
+    }
+
+    @Override
+    public boolean add(Property property) {
+        boolean added = super.add(property);
+        index(property);
+        return added;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        boolean removed = super.remove(o);
+
+        if (removed) {
+            index.values().removeIf(p -> p.equals(o));
+        }
+
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        index.clear();
+    }
+
+    private void index(Property property) {
+        for (String thisAlias : property.aliases()) {
+            index.putIfAbsent(thisAlias.toLowerCase(), property);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.defano.wyldcard.part.model.PropertyChangeObserver;
 import com.defano.wyldcard.property.builder.PropertyBuilder;
 import com.defano.wyldcard.property.builder.PropertyValueBuilder;
 import com.defano.wyldcard.property.value.BasicValue;
+import com.defano.wyldcard.property.value.ConcreteValue;
 import com.defano.wyldcard.runtime.ExecutionContext;
 import com.defano.wyldcard.thread.Invoke;
 
@@ -93,7 +94,7 @@ public class SimplePropertiesModel implements PropertiesModel, PropertyBuilder {
             throw new HtNoSuchPropertyException("No such property '" + propertyName + "'.");
         }
 
-        p.value().set(context, propertyValue, this);
+        setValue(context, p, propertyValue);
         fireOnPropertyChanged(context, p.name(), get(context, propertyName), propertyValue);
     }
 
@@ -134,11 +135,7 @@ public class SimplePropertiesModel implements PropertiesModel, PropertyBuilder {
      */
     @Override
     public Property findProperty(String propertyName) {
-        String canonicalName = propertyName.toLowerCase();
-        return properties.stream()
-                .filter(p -> p.matches(canonicalName))
-                .findFirst()
-                .orElse(null);
+        return properties.find(propertyName);
     }
 
     /**
@@ -200,7 +197,7 @@ public class SimplePropertiesModel implements PropertiesModel, PropertyBuilder {
         }
 
         try {
-            p.value().set(context, propertyValue, this);
+            setValue(context, p, propertyValue);
 
             if (notifyObservers) {
                 fireOnPropertyChanged(context, p.name(), get(context, propertyName), propertyValue);
@@ -211,6 +208,42 @@ public class SimplePropertiesModel implements PropertiesModel, PropertyBuilder {
         }
     }
 
+    private void setValue(ExecutionContext context, Property p, Value propertyValue) throws HtException {
+        Value previousValue = p.value() instanceof ConcreteValue ? ((ConcreteValue) p.value()).rawValue() : null;
+
+        p.value().set(context, propertyValue, this);
+        onPropertySet(p.name());
+
+        // Computed and delegated values are not stored in this model; only a change to a stored value modifies it
+        if (p.value() instanceof ConcreteValue) {
+            Value newValue = ((ConcreteValue) p.value()).rawValue();
+            if (previousValue != newValue && (previousValue == null || newValue == null || !previousValue.toString().equals(newValue.toString()))) {
+                onPropertyModified(p.name());
+            }
+        }
+    }
+
+    /**
+     * Invoked on the setting thread immediately after a property has been set, whether or not observers are notified
+     * of the change. Subclasses may override this method to discard state derived from a property's value.
+     *
+     * @param property The name of the property that was set (never an alias)
+     */
+    protected void onPropertySet(String property) {
+        // Nothing to do by default
+    }
+
+    /**
+     * Invoked on the setting thread immediately after the stored value of a property has been set to a value different
+     * than it held before. Not invoked when a property is set to its existing value, nor when a computed or delegated
+     * property is set. Subclasses may override this method to track modifications to the model.
+     *
+     * @param property The name of the property that was modified (never an alias)
+     */
+    protected void onPropertyModified(String property) {
+        // Nothing to do by default
+    }
+
     /**
      * Notify all the observers that the given property has changed value.
      *
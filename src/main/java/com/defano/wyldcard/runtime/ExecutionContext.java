@@ -2,6 +2,7 @@ package com.defano.wyldcard.runtime;
 
 import com.defano.hypertalk.ast.ASTNode;
 import com.defano.hypertalk.ast.model.enums.Preposition;
+import com.defano.hypertalk.ast.model.NamedBlock;
 import com.defano.hypertalk.ast.model.Value;
 import com.defano.hypertalk.ast.model.chunk.Chunk;
 import com.defano.hypertalk.ast.model.specifier.PartSpecifier;
@@ -21,6 +22,8 @@ import com.defano.wyldcard.part.stack.StackPart;
 import com.defano.wyldcard.runtime.callstack.CallStack;
 import com.defano.wyldcard.runtime.callstack.StackFrame;
 import com.defano.wyldcard.runtime.symbol.BasicSymbolTable;
+import com.defano.wyldcard.runtime.symbol.LocalSymbolTable;
+import com.defano.wyldcard.runtime.symbol.SymbolReference;
 import com.defano.wyldcard.runtime.symbol.SymbolTable;
 
 import java.util.List;
@@ -59,6 +62,9 @@ public class ExecutionContext {
     // Globals are shared across all contexts... that what makes them global :)
     private static final SymbolTable globals = new BasicSymbolTable();
 
+    // The implicit 'it' variable
+    private static final SymbolReference IT = new SymbolReference("it");
+
     private StackPart stack;                                // WyldCard stack that this script is bound to
     private CardPart card;                                  // "Current" card in the context of this execution
     private CallStack callStack = new CallStack();          // HyperTalk Call stack
@@ -226,11 +232,11 @@ public class ExecutionContext {
     /**
      * Pushes a new frame onto the call stack representing a handler or function invocation.
      *
-     * @param message   The name of the message (i.e., handler or function) that this frame represents.
+     * @param handler   The handler or function that this frame represents.
      * @param me        The part which the 'me' keyword refers to in this context.
      * @param arguments Evaluated arguments passed to this handler or function.
      */
-    public void pushStackFrame(ASTNode callingNode, String message, PartSpecifier me, List<Value> arguments) throws HtException {
+    public void pushStackFrame(ASTNode callingNode, NamedBlock handler, PartSpecifier me, List<Value> arguments) throws HtException {
 
         // Kill script execution before we overflow JVM call stack
         if (callStack.size() == MAX_CALL_STACK_DEPTH) {
@@ -238,7 +244,7 @@ public class ExecutionContext {
         }
 
         getStackFrame().setAstNode(callingNode);
-        callStack.push(new StackFrame(me, message, arguments));
+        callStack.push(new StackFrame(me, handler.name, arguments, handler.localSlots));
     }
 
     /**
@@ -322,10 +328,24 @@ public class ExecutionContext {
      * @param v      The value to assign it
      */
     public void setVariable(String symbol, Value v) {
-        if (globals.contains(symbol) && getStackFrame().isGlobalInScope(symbol))
-            globals.set(symbol, v);
-        else
-            getStackFrame().getLocalVariables().set(symbol, v);
+        setVariable(new SymbolReference(symbol), v);
+    }
+
+    /**
+     * Sets (assigns) the referenced symbol (variable) to the given value within the current frame.
+     *
+     * @param symbol A reference to the variable to assign
+     * @param v      The value to assign it
+     */
+    public void setVariable(SymbolReference symbol, Value v) {
+        StackFrame frame = getStackFrame();
+
+        if (frame.isGlobalInScope(symbol.getName()) && globals.contains(symbol.getName())) {
+            globals.set(symbol.getName(), v);
+        } else {
+            LocalSymbolTable locals = frame.getLocalVariables();
+            locals.set(symbol.getSlot(locals.getSlots()), v);
+        }
     }
 
     /**
@@ -340,10 +360,28 @@ public class ExecutionContext {
      * @throws HtException Thrown if an error occurs mutating the variable (i.e., an invalid chunk was specified)
      */
     public void setVariable(String symbol, Preposition preposition, Chunk chunk, Value value) throws HtException {
+        setVariable(new SymbolReference(symbol), preposition, chunk, value);
+    }
+
+    /**
+     * Puts a value into the referenced variable, possibly mutating only a portion of the existing value depending on
+     * the given chunk and preposition supplied.
+     *
+     * @param symbol      A reference to the variable to change
+     * @param preposition A preposition indicating whether the value will be placed before, after, or into (replacing)
+     *                    the existing value
+     * @param chunk       A chunk of the variable to be mutated, or the entire value if null
+     * @param value       The value to be put into the mutated portion of the variable.
+     * @throws HtException Thrown if an error occurs mutating the variable (i.e., an invalid chunk was specified)
+     */
+    public void setVariable(SymbolReference symbol, Preposition preposition, Chunk chunk, Value value) throws HtException {
 
         // When mutating the value of an un-scoped symbol, do not resolve the value of that symbol to be the symbols's
         // name itself.
-        Value mutable = isVariableInScope(symbol) ? getVariable(symbol) : new Value();
+        Value mutable = findVariable(symbol);
+        if (mutable == null) {
+            mutable = new Value();
+        }
 
         // Operating on a chunk of the existing value
         if (chunk != null)
@@ -364,31 +402,37 @@ public class ExecutionContext {
      * @return The value of the requested symbol.
      */
     public Value getVariable(String symbol) {
-        Value value;
+        return getVariable(new SymbolReference(symbol));
+    }
 
-        if (globals.contains(symbol) && getStackFrame().isGlobalInScope(symbol)) {
-            value = globals.get(symbol);
-        } else if (getStackFrame().getLocalVariables().contains(symbol)) {
-            value = getStackFrame().getLocalVariables().get(symbol);
-        }
+    /**
+     * Gets the value assigned to the referenced variable. See {@link #getVariable(String)}.
+     *
+     * @param symbol A reference to the variable whose value should be retrieved.
+     * @return The value of the requested symbol.
+     */
+    public Value getVariable(SymbolReference symbol) {
+        Value value = findVariable(symbol);
 
         // Allow the user to refer to literals without quotation marks
-        else {
-            value = new Value(symbol);
-        }
-
-        return value;
+        return value == null ? new Value(symbol.getName()) : value;
     }
 
     /**
-     * Determines if the given symbol name refers to an in-scope variable (either local or global).
+     * Gets the value of the referenced variable if it is in scope (either local or global).
      *
-     * @param symbol The symbol (variable name) to test
-     * @return True if the symbol is an in-scope variable, false otherwise
+     * @param symbol The symbol/variable whose value should be retrieved.
+     * @return The value of the variable, or null if the symbol is not an in-scope variable
      */
-    private boolean isVariableInScope(String symbol) {
-        return globals.contains(symbol) && getStackFrame().isGlobalInScope(symbol) ||
-                getStackFrame().getLocalVariables().contains(symbol);
+    private Value findVariable(SymbolReference symbol) {
+        StackFrame frame = getStackFrame();
+
+        if (frame.isGlobalInScope(symbol.getName()) && globals.contains(symbol.getName())) {
+            return globals.get(symbol.getName());
+        }
+
+        LocalSymbolTable locals = frame.getLocalVariables();
+        return locals.get(symbol.getSlot(locals.getSlots()));
     }
 
     /**
@@ -521,7 +565,7 @@ public class ExecutionContext {
      * @return The value of 'it'.
      */
     public Value getIt() {
-        return getVariable("it");
+        return getVariable(IT);
     }
 
     /**
@@ -530,7 +574,7 @@ public class ExecutionContext {
      * @param value The value of 'it'.
      */
     public void setIt(Object value) {
-        setVariable("it", new Value(value));
+        setVariable(IT, new Value(value));
     }
 
     /**
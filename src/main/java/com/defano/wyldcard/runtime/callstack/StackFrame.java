@@ -5,9 +5,10 @@ import com.defano.hypertalk.ast.model.Value;
 import com.defano.hypertalk.ast.model.specifier.PartMessageSpecifier;
 import com.defano.hypertalk.ast.model.specifier.PartSpecifier;
 import com.defano.wyldcard.runtime.ExecutionContext;
-import com.defano.wyldcard.runtime.symbol.BasicSymbolTable;
 import com.defano.wyldcard.runtime.symbol.CompositeSymbolTable;
 import com.defano.wyldcard.runtime.symbol.FilteredSymbolTable;
+import com.defano.wyldcard.runtime.symbol.LocalSymbolTable;
+import com.defano.wyldcard.runtime.symbol.SymbolSlots;
 import com.defano.wyldcard.runtime.symbol.SymbolTable;
 
 import java.util.ArrayList;
@@ -16,7 +17,7 @@ import java.util.List;
 
 public class StackFrame {
 
-    private final SymbolTable localVariables = new BasicSymbolTable();  // Local variables
+    private final LocalSymbolTable localVariables;                      // Local variables
     private final List<String> globalsInScope = new ArrayList<>();      // Global variables that are in scope in this frame
 
     private long creationTime = System.currentTimeMillis();             // Time when this frame was created
@@ -32,20 +33,23 @@ public class StackFrame {
      */
     public StackFrame() {
         this.me = new PartMessageSpecifier();
+        this.localVariables = new LocalSymbolTable(new SymbolSlots());
     }
 
     /**
      * Create a stack frame representing the invocation of a handler or user-defined function.
      *
-     * @param me        The part to which the 'me' keyword is bound in this context (i.e., the part owning this script)
-     * @param message   The message being handled (i.e., the name of the handler or function)
-     * @param arguments A list of evaluated arguments to be bound the handler's parameter list. May not be null; provide
-     *                  an empty list for invocations not passing arguments.
+     * @param me         The part to which the 'me' keyword is bound in this context (i.e., the part owning this script)
+     * @param message    The message being handled (i.e., the name of the handler or function)
+     * @param arguments  A list of evaluated arguments to be bound the handler's parameter list. May not be null;
+     *                   provide an empty list for invocations not passing arguments.
+     * @param localSlots The slots assigned to the local variables of the handler or function
      */
-    public StackFrame(PartSpecifier me, String message, List<Value> arguments) {
+    public StackFrame(PartSpecifier me, String message, List<Value> arguments, SymbolSlots localSlots) {
         this.message = message;
         this.me = me;
         this.params = arguments;
+        this.localVariables = new LocalSymbolTable(localSlots);
     }
 
     /**
@@ -75,7 +79,7 @@ public class StackFrame {
      *
      * @return In-scope local variables
      */
-    public SymbolTable getLocalVariables() {
+    public LocalSymbolTable getLocalVariables() {
         return localVariables;
     }
 
@@ -203,9 +207,9 @@ public class StackFrame {
     public String getStackTraceEntryString() {
         StringBuilder builder = new StringBuilder();
 
-        if (astNode != null && astNode.getToken() != null) {
+        if (astNode != null && astNode.getSourcePosition() != null) {
             builder.append("line ")
-                    .append(astNode.getToken().getLine())
+                    .append(astNode.getSourcePosition().getLine())
                     .append(" of ");
         }
 
@@ -0,0 +1,253 @@
+package com.defano.wyldcard.runtime.compiler;
+
+import com.defano.hypertalk.ast.model.Script;
+import com.defano.hypertalk.exception.HtException;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A process-wide cache of compiled scripts, keyed by the content hash of the script text and the compilation unit it
+ * was compiled as. Parts whose scripts are identical (a common occurrence when buttons are copied and pasted, or when
+ * a stack is re-opened) share a single compiled representation rather than each paying to lex and parse the text.
+ * <p>
+ * Entries are evicted in least-recently-used order whenever the cache holds more than {@link #MAX_ENTRIES} scripts or
+ * the cached script text exceeds {@link #MAX_CHARACTERS} characters in total.
+ * <p>
+ * Scriptlets (the text given to 'do', 'the value of', the message box, or dereferenced as a part or container) are
+ * cached here too, see {@link #getScriptlet(String)}. Since so much of the text evaluated this way is not HyperTalk at
+ * all, a failure to compile a scriptlet is cached as well.
+ * <p>
+ * The cache also retains a {@link ScriptSignature} for each successfully compiled script. Signatures are small enough
+ * to be persisted next to a stack file (see {@link ScriptIndex}) so that when a stack is re-opened, WyldCard can
+ * determine which parts handle a given message without compiling scripts whose text has not changed. Persisted
+ * indices are disabled unless enabled at startup with the `wyldcard.scriptIndex` system property (i.e.,
+ * `-Dwyldcard.scriptIndex=true`).
+ * <p>
+ * Compiled scripts returned by this cache are shared; callers that mutate the compiled script (i.e., to apply
+ * breakpoints) should compile a private copy using {@link ScriptCompiler#blockingCompile(CompilationUnit, String)}.
+ */
+public class ScriptCache {
+
+    public static final String PERSISTENT_INDEX_PROPERTY = "wyldcard.scriptIndex";
+
+    private static final int MAX_ENTRIES = 4096;
+    private static final int MAX_CHARACTERS = 8 * 1024 * 1024;
+    private static final int MAX_SIGNATURES = 64 * 1024;
+
+    private static final ScriptCache instance = new ScriptCache();
+
+    private final LinkedHashMap<CacheKey, CacheEntry> compiled = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, ScriptSignature> signatures = new LinkedHashMap<String, ScriptSignature>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ScriptSignature> eldest) {
+            return size() > MAX_SIGNATURES;
+        }
+    };
+
+    private long cachedCharacters = 0;
+    private final boolean persistentIndexEnabled = Boolean.getBoolean(PERSISTENT_INDEX_PROPERTY);
+
+    private ScriptCache() {
+    }
+
+    public static ScriptCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Gets the content hash of the given script text. Scripts with identical text produce identical hashes.
+     *
+     * @param scriptText The script text to hash
+     * @return A hex-encoded hash of the script text.
+     */
+    public static String hash(String scriptText) {
+        return Hashing.sha256().hashString(scriptText == null ? "" : scriptText, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * Compiles the given script on the current thread, or returns a previously compiled copy of the same text if one
+     * is available in the cache. Scripts that fail to compile are not cached; each attempt to compile them produces a
+     * new error.
+     *
+     * @param compilationUnit The type of script/scriptlet to compile
+     * @param scriptText      The script text to parse.
+     * @return The compiled Script object (the root of the abstract syntax tree); this object may be shared with other
+     * callers and should not be mutated.
+     * @throws HtException Thrown if an error (i.e., syntax error) occurs when compiling.
+     */
+    public Object blockingCompile(CompilationUnit compilationUnit, String scriptText) throws HtException {
+        return blockingCompile(compilationUnit, scriptText, hash(scriptText));
+    }
+
+    /**
+     * Compiles the given script on the current thread, or returns a previously compiled copy of the same text if one
+     * is available in the cache.
+     *
+     * @param compilationUnit The type of script/scriptlet to compile
+     * @param scriptText      The script text to parse.
+     * @param scriptHash      The content hash of the script text, as produced by {@link #hash(String)}.
+     * @return The compiled Script object (the root of the abstract syntax tree); this object may be shared with other
+     * callers and should not be mutated.
+     * @throws HtException Thrown if an error (i.e., syntax error) occurs when compiling.
+     */
+    public Object blockingCompile(CompilationUnit compilationUnit, String scriptText, String scriptHash) throws HtException {
+        CacheKey key = new CacheKey(compilationUnit, scriptHash);
+        CacheEntry entry = get(key);
+
+        // Text known not to compile is compiled again to produce a new error (errors acquire breadcrumbs)
+        if (entry != null && !entry.failed) {
+            return entry.compiled;
+        }
+
+        // Compile outside of the lock; concurrent compiles of the same text are harmless (last one wins)
+        Object compiledScript = TwoPhaseParser.parseScript(compilationUnit, scriptText);
+        put(key, new CacheEntry(compiledScript, length(scriptText), false));
+
+        if (compiledScript instanceof Script) {
+            putSignature(scriptHash, new ScriptSignature((Script) compiledScript));
+        }
+
+        return compiledScript;
+    }
+
+    /**
+     * Gets the compiled form of the given scriptlet text, compiling it on the current thread if it has not been
+     * compiled before. Text that does not compile is cached as such, so that repeatedly evaluating text that isn't
+     * HyperTalk (i.e., 'the value of "hello world"') does not repeatedly invoke the parser.
+     *
+     * @param scriptletText The text of the scriptlet to compile.
+     * @return The compiled scriptlet (having at least one statement), or null if the text is not a valid scriptlet or
+     * contains no statements; this object may be shared with other callers and should not be mutated.
+     */
+    public Script getScriptlet(String scriptletText) {
+        CacheKey key = new CacheKey(CompilationUnit.SCRIPTLET, hash(scriptletText));
+        CacheEntry entry = get(key);
+
+        if (entry == null) {
+            try {
+                Object compiled = TwoPhaseParser.parseScript(CompilationUnit.SCRIPTLET, scriptletText);
+                entry = new CacheEntry(compiled, length(scriptletText), false);
+            } catch (Exception e) {
+                entry = new CacheEntry(null, length(scriptletText), true);
+            }
+
+            put(key, entry);
+        }
+
+        Script script = entry.failed ? null : (Script) entry.compiled;
+        return script == null || script.getStatements() == null || script.getStatements().list.isEmpty() ? null : script;
+    }
+
+    /**
+     * Gets the signature of a previously compiled (or indexed) script, or null if the script with the given hash has
+     * not been compiled or indexed.
+     *
+     * @param scriptHash The content hash of the script text, as produced by {@link #hash(String)}.
+     * @return The signature of the script, or null if unknown.
+     */
+    public synchronized ScriptSignature getSignature(String scriptHash) {
+        return signatures.get(scriptHash);
+    }
+
+    /**
+     * Records the signature of a script whose text has the given hash.
+     *
+     * @param scriptHash The content hash of the script text, as produced by {@link #hash(String)}.
+     * @param signature  The signature of the compiled script.
+     */
+    public synchronized void putSignature(String scriptHash, ScriptSignature signature) {
+        signatures.put(scriptHash, signature);
+    }
+
+    /**
+     * Determines whether script indices should be read from and written to disk alongside stack files, as selected by
+     * the `wyldcard.scriptIndex` system property when WyldCard was started.
+     *
+     * @return True if persistent script indices are enabled; false (the default) otherwise.
+     */
+    public boolean isPersistentIndexEnabled() {
+        return persistentIndexEnabled;
+    }
+
+    /**
+     * Removes all compiled scripts and signatures from the cache.
+     */
+    public synchronized void clear() {
+        compiled.clear();
+        signatures.clear();
+        cachedCharacters = 0;
+    }
+
+    /**
+     * Gets the number of compiled (or failed) texts presently held in the cache.
+     *
+     * @return The number of cached entries
+     */
+    synchronized int size() {
+        return compiled.size();
+    }
+
+    private static int length(String scriptText) {
+        return scriptText == null ? 0 : scriptText.length();
+    }
+
+    private synchronized CacheEntry get(CacheKey key) {
+        return compiled.get(key);
+    }
+
+    private synchronized void put(CacheKey key, CacheEntry entry) {
+        CacheEntry replaced = compiled.put(key, entry);
+        if (replaced != null) {
+            cachedCharacters -= replaced.length;
+        }
+        cachedCharacters += entry.length;
+
+        // Evict least-recently used entries until we're back within bounds
+        Iterator<CacheEntry> eldest = compiled.values().iterator();
+        while (eldest.hasNext() && (compiled.size() > MAX_ENTRIES || cachedCharacters > MAX_CHARACTERS)) {
+            cachedCharacters -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    private static class CacheKey {
+        private final CompilationUnit compilationUnit;
+        private final String scriptHash;
+
+        private CacheKey(CompilationUnit compilationUnit, String scriptHash) {
+            this.compilationUnit = compilationUnit;
+            this.scriptHash = scriptHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CacheKey cacheKey = (CacheKey) o;
+            return compilationUnit == cacheKey.compilationUnit &&
+                    Objects.equals(scriptHash, cacheKey.scriptHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(compilationUnit, scriptHash);
+        }
+    }
+
+    private static class CacheEntry {
+        private final Object compiled;
+        private final int length;
+        private final boolean failed;       // Text did not compile (only cached for scriptlets)
+
+        private CacheEntry(Object compiled, int length, boolean failed) {
+            this.compiled = compiled;
+            this.length = length;
+            this.failed = failed;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.defano.wyldcard.runtime.compiler;
+
+import com.defano.wyldcard.part.bkgnd.BackgroundModel;
+import com.defano.wyldcard.part.card.CardModel;
+import com.defano.wyldcard.part.model.PartModel;
+import com.defano.wyldcard.part.stack.StackModel;
+import com.defano.wyldcard.serializer.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An on-disk index of script signatures, written next to a stack file when the stack is saved and read back when the
+ * stack is opened. Maps the content hash of each script in the stack to its {@link ScriptSignature}.
+ * <p>
+ * A compiled syntax tree cannot be persisted, but its signature can: once loaded into the {@link ScriptCache}, the
+ * index lets WyldCard skip parsing any script whose text has not changed since the index was written until a message
+ * that the script actually handles is sent to it.
+ * <p>
+ * The index is written to a hidden file beside the stack (`.<stack file name>.scripts`) and only when enabled with
+ * the `wyldcard.scriptIndex` system property (see {@link ScriptCache#isPersistentIndexEnabled()}). The index is purely
+ * an optimization; a missing, stale or corrupt index file is ignored.
+ */
+public class ScriptIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScriptIndex.class);
+    private static final String INDEX_EXTENSION = ".scripts";
+
+    private final Map<String, ScriptSignature> signatures = new HashMap<>();
+
+    private ScriptIndex() {
+    }
+
+    /**
+     * Reads the script index associated with the given stack file (if one exists) and loads its signatures into the
+     * {@link ScriptCache}. Has no effect if persistent indices are disabled or no index exists.
+     *
+     * @param stackFile The stack file whose index should be loaded.
+     */
+    public static void load(File stackFile) {
+        File indexFile = getIndexFile(stackFile);
+
+        if (!ScriptCache.getInstance().isPersistentIndexEnabled() || indexFile == null || !indexFile.exists()) {
+            return;
+        }
+
+        try {
+            ScriptIndex index = Serializer.deserialize(indexFile, ScriptIndex.class);
+            if (index != null) {
+                for (Map.Entry<String, ScriptSignature> thisEntry : index.signatures.entrySet()) {
+                    ScriptCache.getInstance().putSignature(thisEntry.getKey(), thisEntry.getValue());
+                }
+            }
+        } catch (Exception e) {
+            LOG.warn("Ignoring unreadable script index {}.", indexFile.getName(), e);
+        }
+    }
+
+    /**
+     * Writes a script index for the given stack next to the stack file. Only scripts whose signature is known to the
+     * {@link ScriptCache} (that is, scripts that have been compiled or were present in a previously loaded index) are
+     * indexed; other scripts will simply be compiled on demand when the stack is next opened.
+     *
+     * @param stackFile  The file to which the stack was saved.
+     * @param stackModel The stack whose scripts should be indexed.
+     */
+    public static void save(File stackFile, StackModel stackModel) {
+        File indexFile = getIndexFile(stackFile);
+
+        if (!ScriptCache.getInstance().isPersistentIndexEnabled() || indexFile == null) {
+            return;
+        }
+
+        ScriptIndex index = new ScriptIndex();
+        for (PartModel thisPart : getScriptedParts(stackModel)) {
+            String scriptText = thisPart.getScriptText(null);
+
+            if (!scriptText.trim().isEmpty()) {
+                String scriptHash = ScriptCache.hash(scriptText);
+                ScriptSignature signature = ScriptCache.getInstance().getSignature(scriptHash);
+
+                if (signature != null) {
+                    index.signatures.put(scriptHash, signature);
+                }
+            }
+        }
+
+        try {
+            Serializer.serialize(indexFile, index);
+        } catch (Exception e) {
+            LOG.warn("Failed to write script index {}.", indexFile.getName(), e);
+        }
+    }
+
+    private static File getIndexFile(File stackFile) {
+        if (stackFile == null) {
+            return null;
+        }
+
+        return new File(stackFile.getAbsoluteFile().getParentFile(), "." + stackFile.getName() + INDEX_EXTENSION);
+    }
+
+    private static List<PartModel> getScriptedParts(StackModel stackModel) {
+        List<PartModel> parts = new ArrayList<>();
+        parts.add(stackModel);
+
+        for (PartModel thisPart : stackModel.getPartsInDisplayOrder(null)) {
+            parts.add(thisPart);
+
+            if (thisPart instanceof CardModel) {
+                parts.addAll(((CardModel) thisPart).getPartModels(null));
+            } else if (thisPart instanceof BackgroundModel) {
+                parts.addAll(((BackgroundModel) thisPart).getButtonModels());
+                parts.addAll(((BackgroundModel) thisPart).getFieldModels());
+            }
+        }
+
+        return parts;
+    }
+}
@@ -0,0 +1,52 @@
+package com.defano.wyldcard.runtime.compiler;
+
+import com.defano.hypertalk.ast.model.Script;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A compact summary of a compiled script; the names of the handlers and functions that it defines. A signature can be
+ * persisted alongside a stack (see {@link ScriptIndex}) and used to determine whether a part's script handles a given
+ * message without first having to compile it.
+ */
+public class ScriptSignature {
+
+    private final Set<String> handlers = new HashSet<>();
+    private final Set<String> functions = new HashSet<>();
+
+    @SuppressWarnings("unused")
+    private ScriptSignature() {
+        // Required for serialization
+    }
+
+    public ScriptSignature(Script script) {
+        for (String thisHandler : script.getHandlers()) {
+            handlers.add(thisHandler.toLowerCase());
+        }
+
+        for (String thisFunction : script.getFunctions()) {
+            functions.add(thisFunction.toLowerCase());
+        }
+    }
+
+    /**
+     * Determines if the script described by this signature defines a message handler with the given name.
+     *
+     * @param name The name of the handler (case insensitive)
+     * @return True if the script defines a handler of this name; false otherwise.
+     */
+    public boolean definesHandler(String name) {
+        return handlers.contains(name.toLowerCase());
+    }
+
+    /**
+     * Determines if the script described by this signature defines a function with the given name.
+     *
+     * @param name The name of the function (case insensitive)
+     * @return True if the script defines a function of this name; false otherwise.
+     */
+    public boolean definesFunction(String name) {
+        return functions.contains(name.toLowerCase());
+    }
+}
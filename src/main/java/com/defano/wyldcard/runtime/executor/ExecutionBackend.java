@@ -0,0 +1,70 @@
+package com.defano.wyldcard.runtime.executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Strategies for executing the statements of HyperTalk handlers. The backend is selected at startup with the
+ * `wyldcard.backend` system property (i.e., `-Dwyldcard.backend=compiled`); {@link #INTERPRETED} is used when the
+ * property is absent or unknown.
+ */
+public enum ExecutionBackend {
+
+    /**
+     * Handlers execute by walking their abstract syntax tree.
+     */
+    INTERPRETED,
+
+    /**
+     * Handlers (and repeat loops) that become hot are compiled into closures specialized to their structure (see
+     * {@link com.defano.hypertalk.ast.statement.StatementCompiler}), which the JIT can optimize far better than the
+     * tree-walking interpreter. Scripts are interpreted whenever the debugger is active.
+     */
+    COMPILED;
+
+    public static final String PROPERTY = "wyldcard.backend";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExecutionBackend.class);
+    private static volatile ExecutionBackend selectedBackend = select();
+
+    /**
+     * Gets the execution backend selected by the `wyldcard.backend` system property when WyldCard was started.
+     *
+     * @return The execution backend in use
+     */
+    public static ExecutionBackend getSelectedBackend() {
+        return selectedBackend;
+    }
+
+    /**
+     * Changes the execution backend; intended for benchmarks comparing backends. Handlers and loops already compiled
+     * are interpreted while the interpreted backend is selected.
+     *
+     * @param backend The execution backend to use
+     */
+    public static void setSelectedBackend(ExecutionBackend backend) {
+        selectedBackend = backend;
+    }
+
+    /**
+     * Determines if hot handlers and loops should be compiled.
+     *
+     * @return True if the compiled backend is in use
+     */
+    public static boolean isCompiled() {
+        return selectedBackend == COMPILED;
+    }
+
+    private static ExecutionBackend select() {
+        String selection = System.getProperty(PROPERTY, INTERPRETED.name());
+
+        for (ExecutionBackend thisBackend : values()) {
+            if (thisBackend.name().equalsIgnoreCase(selection.trim())) {
+                return thisBackend;
+            }
+        }
+
+        LOG.warn("Unknown execution backend '{}'; using {}.", selection, INTERPRETED);
+        return INTERPRETED;
+    }
+}
@@ -0,0 +1,106 @@
+package com.defano.wyldcard.runtime.executor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Strategies for assigning threads to executing HyperTalk handlers. The mode is selected at startup with the
+ * `wyldcard.executor` system property (i.e., `-Dwyldcard.executor=virtual`); {@link #POOLED} is used when the property
+ * is absent or when the selected mode is not supported by the running JVM.
+ */
+public enum ExecutorMode {
+
+    /**
+     * Handlers execute on a fixed-size pool of platform threads. A handler blocked waiting on another (i.e., sending a
+     * message from a thread outside the script executor) occupies a pool thread while it waits.
+     */
+    POOLED,
+
+    /**
+     * Each handler executes on its own virtual thread, so that handlers blocked waiting on other handlers do not
+     * consume a scarce pool thread. Requires a JVM supporting virtual threads (Java 21 or later).
+     */
+    VIRTUAL;
+
+    public static final String PROPERTY = "wyldcard.executor";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExecutorMode.class);
+
+    /**
+     * Gets the executor mode selected by the `wyldcard.executor` system property, falling back to {@link #POOLED} if
+     * the selected mode is unknown or unsupported.
+     *
+     * @return The executor mode to use
+     */
+    public static ExecutorMode getSelectedMode() {
+        String selection = System.getProperty(PROPERTY, POOLED.name());
+
+        for (ExecutorMode thisMode : values()) {
+            if (thisMode.name().equalsIgnoreCase(selection.trim())) {
+                if (thisMode.isSupported()) {
+                    return thisMode;
+                }
+
+                LOG.warn("Executor mode {} is not supported by this JVM; using {}.", thisMode, POOLED);
+                return POOLED;
+            }
+        }
+
+        LOG.warn("Unknown executor mode '{}'; using {}.", selection, POOLED);
+        return POOLED;
+    }
+
+    /**
+     * Determines if this executor mode is supported by the running JVM.
+     *
+     * @return True if this mode can be used
+     */
+    public boolean isSupported() {
+        return this == POOLED || getVirtualThreadFactory("script-exe-") != null;
+    }
+
+    /**
+     * Creates an executor service for running HyperTalk handlers in this mode.
+     *
+     * @param poolSize     The number of threads in the pool (ignored when threads are not pooled)
+     * @param threadPrefix The prefix of the name of each thread created by the executor; subsequent threads are
+     *                     numbered sequentially (virtual threads are additionally marked with 'v-')
+     * @return The executor service
+     */
+    public ExecutorService newExecutorService(int poolSize, String threadPrefix) {
+        if (this == VIRTUAL) {
+            try {
+                Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                return (ExecutorService) newThreadPerTaskExecutor.invoke(null, getVirtualThreadFactory(threadPrefix + "v-"));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOG.warn("Failed to create virtual thread executor; using a fixed thread pool.", e);
+            }
+        }
+
+        return Executors.newFixedThreadPool(poolSize, new ThreadFactoryBuilder().setNameFormat(threadPrefix + "%d").build());
+    }
+
+    /**
+     * Gets a factory of sequentially-named virtual threads, equivalent to `Thread.ofVirtual().name(prefix, 0).factory()`.
+     * Invoked reflectively so that WyldCard continues to build and run on JVMs that do not support virtual threads.
+     *
+     * @param threadPrefix The prefix of each thread's name
+     * @return The thread factory, or null if virtual threads are not supported.
+     */
+    private static ThreadFactory getVirtualThreadFactory(String threadPrefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadPrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -47,8 +47,9 @@ public class ScriptExecutor {
     private static final ThreadPoolExecutor orderedExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(1, new ThreadFactoryBuilder().setNameFormat("script-exe-" + MAX_EXECUTOR_THREADS).build());
     private static final ListeningExecutorService listeningOrderedExecutor = MoreExecutors.listeningDecorator(orderedExecutor);
 
-    // Executor for all other HyperTalk scripts and handlers
-    private static final ThreadPoolExecutor defaultExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(MAX_EXECUTOR_THREADS, new ThreadFactoryBuilder().setNameFormat("script-exe-%d").build());
+    // Executor for all other HyperTalk scripts and handlers; pooled or virtual threads (see ExecutorMode)
+    private static final ExecutorMode executorMode = ExecutorMode.getSelectedMode();
+    private static final ExecutorService defaultExecutor = executorMode.newExecutorService(MAX_EXECUTOR_THREADS, "script-exe-");
     private static final ListeningExecutorService listeningDefaultExecutor = MoreExecutors.listeningDecorator(defaultExecutor);
 
     private ScriptExecutor() {
@@ -69,7 +70,8 @@ public class ScriptExecutor {
         ThreadChecker.assertWorkerThread();
 
         try {
-            Statement statement = ((Script) ScriptCompiler.blockingCompile(CompilationUnit.SCRIPTLET, expression)).getStatements().list.get(0);
+            Script script = ScriptCache.getInstance().getScriptlet(expression);
+            Statement statement = script == null ? null : script.getStatements().list.get(0);
             if (statement instanceof ExpressionStatement) {
                 return ((ExpressionStatement) statement).expression.evaluate(context);
             }
@@ -104,7 +106,12 @@ public class ScriptExecutor {
         ThreadChecker.assertWorkerThread();
 
         try {
-            Statement statement = ((Script) ScriptCompiler.blockingCompile(CompilationUnit.SCRIPTLET, value.toString())).getStatements().list.get(0);
+            Script script = ScriptCache.getInstance().getScriptlet(value.toString());
+            if (script == null) {
+                return null;
+            }
+
+            Statement statement = script.getStatements().list.get(0);
 
             // Simple case; statement matches requested type
             if (statement.getClass().isAssignableFrom(klass)) {
@@ -168,32 +175,69 @@ public class ScriptExecutor {
 
         // Special case: No handler in the script for this message; produce a "no-op" execution
         else {
-            future = submit(getExecutorForMessage(message), () -> {
-
-                // Synthesize handler invocation for message watcher
-                HandlerInvocationCache.getInstance().notifyMessageHandled(new HandlerInvocation(
-                        Thread.currentThread().getName(),
-                        message.getMessageName(),
-                        message.evaluateArguments(context),
-                        me,
-                        context.getTarget() == null,
-                        context.getStackDepth(),
-                        false)
-                );
-
-                // No handler for script, but we still need to capture that this part was the target
-                if (context.getTarget() == null) {
-                    context.setTarget(me);
-                }
-
-                // Unimplemented handlers don't trap message
-                return false;
-            });
+            future = submit(getExecutorForMessage(message), () -> passUnhandledMessage(context, me, message));
         }
 
         Futures.addCallback(future, new HandlerExecutionFutureCallback(me, script, message.getMessageName(), completionObserver));
     }
 
+    /**
+     * Executes a script handler on the current thread, which must be a script executor thread (see
+     * {@link #isScriptExecutorThread()}), and returns whether the handler trapped the message. This is the synchronous
+     * form of {@link #asyncExecuteHandler(ExecutionContext, ASTNode, PartSpecifier, Script, Message, HandlerCompletionObserver)}
+     * used when a script sends a message; no future or callback is produced.
+     *
+     * @param context     The execution context
+     * @param callingNode The statement or expression that sent the message, or null if WyldCard sent it
+     * @param me          The part whose script is being executed (for the purposes of the 'me' keyword).
+     * @param handler     The handler to execute, or null if the part does not handle this message
+     * @param message     The message whose handler should be executed.
+     * @return True if the handler trapped the message; false if the message was passed (or not handled)
+     * @throws HtException Thrown if an error occurs executing the handler
+     */
+    public static boolean blockingExecuteHandler(ExecutionContext context, ASTNode callingNode, PartSpecifier me, NamedBlock handler, Message message) throws HtException {
+        ThreadChecker.assertWorkerThread();
+
+        if (handler == null) {
+            return passUnhandledMessage(context, me, message);
+        } else {
+            return new MessageHandlerExecutionTask(context, callingNode, me, handler, message).call();
+        }
+    }
+
+    /**
+     * Records that a part received a message for which it has no handler; the part becomes the target if it is the
+     * first recipient of the message.
+     *
+     * @param context The execution context
+     * @param me      The part that received the message
+     * @param message The message that was not handled
+     * @return False, always; unimplemented handlers don't trap messages
+     * @throws HtException Thrown if an error occurs evaluating the message's arguments
+     */
+    private static boolean passUnhandledMessage(ExecutionContext context, PartSpecifier me, Message message) throws HtException {
+
+        // Synthesize handler invocation for message watcher (only when it's watching; arguments may be costly)
+        if (HandlerInvocationCache.getInstance().isObserved()) {
+            HandlerInvocationCache.getInstance().notifyMessageHandled(new HandlerInvocation(
+                    Thread.currentThread().getName(),
+                    message.getMessageName(),
+                    message.evaluateArguments(context),
+                    me,
+                    context.getTarget() == null,
+                    context.getStackDepth(),
+                    false)
+            );
+        }
+
+        // No handler for script, but we still need to capture that this part was the target
+        if (context.getTarget() == null) {
+            context.setTarget(me);
+        }
+
+        return false;
+    }
+
     /**
      * Evaluates text using a specified context on a background thread and notifies an observer of the result when
      * complete. This is primarily useful for message window text evaluation (also used in the "Evaluate Expression"
@@ -250,7 +294,14 @@ public class ScriptExecutor {
      * @throws HtException Thrown if an error occurs compiling the statements.
      */
     public static CheckedFuture<Boolean, HtException> asyncExecuteString(ExecutionContext context, PartSpecifier me, String statementList) throws HtException {
-        return submit(listeningDefaultExecutor, new MessageHandlerExecutionTask(context, null, me, NamedBlock.anonymousBlock(((Script) ScriptCompiler.blockingCompile(CompilationUnit.SCRIPTLET, statementList)).getStatements()), MessageBuilder.emptyMessage()));
+        Script script = ScriptCache.getInstance().getScriptlet(statementList);
+
+        // Not a valid scriptlet; recompile to produce the syntax error (only the failure is cached, not the error)
+        if (script == null) {
+            script = (Script) ScriptCompiler.blockingCompile(CompilationUnit.SCRIPTLET, statementList);
+        }
+
+        return submit(listeningDefaultExecutor, new MessageHandlerExecutionTask(context, null, me, script.getAnonymousBlock(), MessageBuilder.emptyMessage()));
     }
 
     /**
@@ -260,16 +311,27 @@ public class ScriptExecutor {
      * @return The number of active or pending scripts
      */
     public static int getPendingScriptCount() {
-        return MeteredTask.getRunningTaskCount() + defaultExecutor.getQueue().size() +
+        int queuedTasks = defaultExecutor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) defaultExecutor).getQueue().size() : 0;
+
+        return MeteredTask.getRunningTaskCount() + queuedTasks +
                 MeteredTask.getRunningTaskCount() + orderedExecutor.getQueue().size();
     }
 
+    /**
+     * Gets the mode by which threads are assigned to executing handlers.
+     *
+     * @return The executor mode in use
+     */
+    public static ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
     /**
      * Determines if the current thread is a known script execution thread.
      *
      * @return True if the current thread is a script-executor thread.
      */
-    private static boolean isScriptExecutorThread() {
+    public static boolean isScriptExecutorThread() {
         return Thread.currentThread().getName().startsWith("script-exe-");
     }
 
@@ -36,7 +36,7 @@ public class FunctionHandlerExecutionTask implements Callable<Value>, MeteredTas
 
         HandlerInvocationCache.getInstance().notifyMessageHandled(new HandlerInvocation(Thread.currentThread().getName(), function.name, evaluatedArguments, me, true, context.getStackDepth(), true));
 
-        context.pushStackFrame(callingNode, function.name, me, evaluatedArguments);
+        context.pushStackFrame(callingNode, function, me, evaluatedArguments);
 
         // Bind argument values to parameter variables in this context
         for (int index = 0; index < function.parameters.list.size(); index++) {
@@ -49,7 +49,7 @@ public class FunctionHandlerExecutionTask implements Callable<Value>, MeteredTas
         }
 
         try {
-            function.statements.execute(context);
+            function.execute(context);
         } catch (TerminateIterationPreemption p) {
             throw new HtSemanticException("Can't continue from here.");
         } catch (TerminateLoopPreemption p) {
@@ -51,7 +51,7 @@ public class MessageHandlerExecutionTask implements HandlerExecutionTask, Metere
                 true));
 
         // Push a new context
-        context.pushStackFrame(callingNode, handler.name, me, arguments);
+        context.pushStackFrame(callingNode, handler, me, arguments);
 
         // Target refers to the part first receiving the message
         if (context.getTarget() == null) {
@@ -69,7 +69,7 @@ public class MessageHandlerExecutionTask implements HandlerExecutionTask, Metere
 
         // Execute handler
         try {
-            handler.statements.execute(context);
+            handler.execute(context);
             context.popStackFrame();
         }
 
@@ -53,7 +53,7 @@ public class StaticContextEvaluationTask implements Callable<String>, MeteredTas
         // Special case: If last statement was an unknown literal (interpreted as a message), then return the variable-
         // evaluation of that literal
         if (lastStatement instanceof MessageCmd) {
-            return context.getVariable(lastStatement.getToken().getText()).toString();
+            return context.getVariable(((MessageCmd) lastStatement).getMessage().getMessageName()).toString();
         }
 
         // When the last statement is an expression, return the result of evaluating the expression
@@ -2,10 +2,7 @@ package com.defano.wyldcard.runtime.symbol;
 
 import com.defano.hypertalk.ast.model.Value;
 
-import javax.swing.*;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -15,7 +12,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class BasicSymbolTable implements SymbolTable {
 
     private final Map<String, Value> table = new ConcurrentHashMap<>();
-    private final List<SymbolObserver> observers = new ArrayList<>();
+    private final SymbolObservers observers = new SymbolObservers(this);
     
     @Override
     public Value get (String id) {
@@ -27,10 +24,8 @@ public class BasicSymbolTable implements SymbolTable {
 
     @Override
     public void set(String id, Value v) {
-        Value oldValue = contains(id) ? get(id) : null;
-        table.put(id.toLowerCase(), v);
-
-        fireObservers(id, oldValue, v);
+        Value oldValue = table.put(id.toLowerCase(), v);
+        observers.fireSymbolChanged(id, oldValue, v);
     }
 
     @Override
@@ -52,14 +47,4 @@ public class BasicSymbolTable implements SymbolTable {
     public void removeObserver(SymbolObserver observer) {
         observers.remove(observer);
     }
-
-    private void fireObservers(String id, Value oldValue, Value newValue) {
-        if (!observers.isEmpty()) {
-            SwingUtilities.invokeLater(() -> {
-                for (SymbolObserver thisObserver : observers) {
-                    thisObserver.onSymbolChanged(BasicSymbolTable.this, id, oldValue, newValue);
-                }
-            });
-        }
-    }
 }
@@ -0,0 +1,111 @@
+package com.defano.wyldcard.runtime.symbol;
+
+import com.defano.hypertalk.ast.model.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The local variables of a stack frame, stored in an array indexed by the slots assigned to them by the executing
+ * handler's {@link SymbolSlots}. Variables may be accessed by slot (see {@link SymbolReference}) or, more slowly, by
+ * name.
+ */
+public class LocalSymbolTable implements SymbolTable {
+
+    private final SymbolSlots slots;
+    private final SymbolObservers observers = new SymbolObservers(this);
+
+    // Value of each variable indexed by slot; null for variables not (yet) defined in this frame
+    private volatile Value[] values;
+
+    public LocalSymbolTable(SymbolSlots slots) {
+        this.slots = slots;
+        this.values = new Value[8];
+    }
+
+    /**
+     * Gets the slot assignments used by this table.
+     *
+     * @return The slots of the handler executing in this frame.
+     */
+    public SymbolSlots getSlots() {
+        return slots;
+    }
+
+    /**
+     * Gets the value of the variable in the given slot.
+     *
+     * @param slot The variable's slot
+     * @return The variable's value, or null if the variable is not defined in this frame
+     */
+    public Value get(int slot) {
+        Value[] values = this.values;
+        return slot < values.length ? values[slot] : null;
+    }
+
+    /**
+     * Sets the value of the variable in the given slot.
+     *
+     * @param slot The variable's slot
+     * @param v    The value to assign
+     */
+    public void set(int slot, Value v) {
+        Value[] values = this.values;
+
+        if (slot >= values.length) {
+            values = Arrays.copyOf(values, Math.max(slot + 1, values.length * 2));
+        }
+
+        Value oldValue = values[slot];
+        values[slot] = v;
+        this.values = values;
+
+        if (observers.isObserved()) {
+            observers.fireSymbolChanged(slots.getSymbol(slot), oldValue, v);
+        }
+    }
+
+    @Override
+    public Value get(String id) {
+        int slot = slots.findSlot(id.toLowerCase());
+        Value v = slot < 0 ? null : get(slot);
+        return v == null ? new Value() : v;
+    }
+
+    @Override
+    public void set(String id, Value v) {
+        set(slots.getSlot(id.toLowerCase()), v);
+    }
+
+    @Override
+    public boolean contains(String id) {
+        int slot = slots.findSlot(id.toLowerCase());
+        return slot >= 0 && get(slot) != null;
+    }
+
+    @Override
+    public Collection<String> getSymbols() {
+        Value[] values = this.values;
+        List<String> symbols = new ArrayList<>();
+
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                symbols.add(slots.getSymbol(slot));
+            }
+        }
+
+        return symbols;
+    }
+
+    @Override
+    public void addObserver(SymbolObserver observer) {
+        observers.add(observer);
+    }
+
+    @Override
+    public void removeObserver(SymbolObserver observer) {
+        observers.remove(observer);
+    }
+}
@@ -0,0 +1,81 @@
+package com.defano.wyldcard.runtime.symbol;
+
+import com.defano.hypertalk.ast.model.Value;
+
+import javax.swing.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The observers of a symbol table. Changes are delivered on the dispatch thread in batches: all changes made to the
+ * table between two deliveries are coalesced (per symbol) and reported together, so that a script rapidly updating a
+ * variable does not flood the dispatch thread with a notification per assignment.
+ */
+class SymbolObservers {
+
+    private final SymbolTable symbolTable;
+    private final List<SymbolObserver> observers = new CopyOnWriteArrayList<>();
+
+    // Changes not yet delivered; symbol name to the {oldest, newest} value of the symbol
+    private final Map<String, Value[]> pendingChanges = new LinkedHashMap<>();
+
+    SymbolObservers(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
+
+    void add(SymbolObserver observer) {
+        observers.add(observer);
+    }
+
+    void remove(SymbolObserver observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * Determines if the symbol table has any observers; when false, callers need not determine the previous value of
+     * a changed symbol.
+     *
+     * @return True if there are observers of this table
+     */
+    boolean isObserved() {
+        return !observers.isEmpty();
+    }
+
+    void fireSymbolChanged(String id, Value oldValue, Value newValue) {
+        if (observers.isEmpty()) {
+            return;
+        }
+
+        synchronized (pendingChanges) {
+            boolean deliveryScheduled = !pendingChanges.isEmpty();
+            Value[] change = pendingChanges.get(id);
+
+            if (change == null) {
+                pendingChanges.put(id, new Value[]{oldValue, newValue});
+            } else {
+                change[1] = newValue;
+            }
+
+            if (!deliveryScheduled) {
+                SwingUtilities.invokeLater(this::deliverChanges);
+            }
+        }
+    }
+
+    private void deliverChanges() {
+        Map<String, Value[]> changes;
+
+        synchronized (pendingChanges) {
+            changes = new LinkedHashMap<>(pendingChanges);
+            pendingChanges.clear();
+        }
+
+        for (Map.Entry<String, Value[]> thisChange : changes.entrySet()) {
+            for (SymbolObserver thisObserver : observers) {
+                thisObserver.onSymbolChanged(symbolTable, thisChange.getKey(), thisChange.getValue()[0], thisChange.getValue()[1]);
+            }
+        }
+    }
+}
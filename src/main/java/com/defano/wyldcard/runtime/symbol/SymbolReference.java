@@ -0,0 +1,70 @@
+package com.defano.wyldcard.runtime.symbol;
+
+/**
+ * A reference to a variable appearing in script (i.e., the `x` in `put x + 1 into x`). The reference lowercases the
+ * variable name once, and remembers which slot the variable occupies in the frames of the handler in which it was
+ * last resolved.
+ */
+public class SymbolReference {
+
+    private final String name;
+    private final String key;
+
+    // Slot of this symbol in the most recently resolved set of slots (volatile; replaced as a single unit)
+    private volatile Resolution resolution;
+
+    public SymbolReference(String name) {
+        this.name = name;
+        this.key = name.toLowerCase();
+    }
+
+    /**
+     * Gets the name of the variable as it appears in script.
+     *
+     * @return The variable's name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the case-insensitive key of this variable (its lowercase name).
+     *
+     * @return The variable's key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the slot occupied by this variable in the given set of slots, assigning one if necessary.
+     *
+     * @param slots The slots of the handler whose frame is being accessed
+     * @return The slot index of this variable
+     */
+    public int getSlot(SymbolSlots slots) {
+        Resolution resolved = resolution;
+
+        if (resolved == null || resolved.slots != slots) {
+            resolved = new Resolution(slots, slots.getSlot(key));
+            resolution = resolved;
+        }
+
+        return resolved.slot;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static class Resolution {
+        private final SymbolSlots slots;
+        private final int slot;
+
+        private Resolution(SymbolSlots slots, int slot) {
+            this.slots = slots;
+            this.slot = slot;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.defano.wyldcard.runtime.symbol;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns the local variables of a handler or function to numbered slots in the frames that execute it. Each handler
+ * has a single set of slots shared by every invocation of it; a {@link LocalSymbolTable} stores the value of each
+ * variable at its slot index, and a {@link SymbolReference} remembers the slot it resolved to, so that reading or
+ * writing a local variable does not require a case-insensitive, by-name lookup.
+ * <p>
+ * Parameters are assigned slots when the handler is compiled; other variables are assigned slots the first time they
+ * are referenced (variables may be created dynamically, i.e., by `do` or `value`).
+ */
+public class SymbolSlots {
+
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+
+    public SymbolSlots() {
+    }
+
+    /**
+     * Creates a set of slots whose first slots are assigned to the given symbols (typically, a handler's parameters).
+     *
+     * @param symbols The symbols to which slots should be assigned, in order.
+     */
+    public SymbolSlots(List<String> symbols) {
+        for (String thisSymbol : symbols) {
+            getSlot(thisSymbol.toLowerCase());
+        }
+    }
+
+    /**
+     * Gets the slot assigned to the given symbol, assigning the next unused slot if the symbol has not been seen
+     * before.
+     *
+     * @param key The lowercase name of the symbol
+     * @return The slot index of the symbol
+     */
+    public int getSlot(String key) {
+        Integer slot = slots.get(key);
+        return slot == null ? assignSlot(key) : slot;
+    }
+
+    /**
+     * Gets the slot assigned to the given symbol without assigning one.
+     *
+     * @param key The lowercase name of the symbol
+     * @return The slot index of the symbol, or -1 if no slot has been assigned to it.
+     */
+    public int findSlot(String key) {
+        Integer slot = slots.get(key);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Gets the (lowercase) name of the symbol assigned to the given slot.
+     *
+     * @param slot The slot index
+     * @return The name of the symbol
+     */
+    public synchronized String getSymbol(int slot) {
+        return symbols.get(slot);
+    }
+
+    private synchronized int assignSlot(String key) {
+        Integer slot = slots.get(key);
+
+        if (slot == null) {
+            slot = symbols.size();
+            symbols.add(key);
+            slots.put(key, slot);
+        }
+
+        return slot;
+    }
+}
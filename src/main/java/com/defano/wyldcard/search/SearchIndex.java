@@ -0,0 +1,321 @@
+package com.defano.wyldcard.search;
+
+import com.defano.hypertalk.ast.model.enums.SearchType;
+import com.defano.hypertalk.util.Range;
+import com.defano.wyldcard.part.card.CardModel;
+import com.defano.wyldcard.part.field.FieldModel;
+import com.defano.wyldcard.part.stack.StackModel;
+import com.defano.wyldcard.runtime.ExecutionContext;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An inverted index of the words appearing in the fields of a stack, used to narrow the fields searched by the 'find'
+ * command to those that could possibly contain the search term.
+ * <p>
+ * The text of each field on each card is indexed the first time it is searched after the text is created or modified;
+ * fields notify the index when their text (or any other state) changes via {@link #invalidate(FieldModel, Integer)}.
+ * Words are held in a sorted map so that those beginning with a given prefix ('find whole') can be found without
+ * examining every word in the stack.
+ * <p>
+ * Fields may be indexed concurrently from several threads; each text is decoded and tokenized outside of this object's
+ * lock.
+ */
+public class SearchIndex {
+
+    private static final Pattern words = Pattern.compile("\\w+");
+    private static final int SHARED_TEXT = Integer.MIN_VALUE;
+
+    // Indexed text of each field, keyed by field and card (or SHARED_TEXT, for fields whose text is shared)
+    private final Map<FieldModel, Map<Integer, IndexedText>> texts = new IdentityHashMap<>();
+
+    // Texts containing each (lowercase) word
+    private final NavigableMap<String, Set<IndexedText>> postings = new TreeMap<>();
+
+    // Texts whose words cannot be reliably determined from their lowercase form; always searched
+    private final Set<IndexedText> irregularTexts = new HashSet<>();
+
+    private int textCount;
+    private long sequence;          // Incremented each time a text is indexed
+    private long invalidations;     // Incremented each time a text is invalidated
+
+    /**
+     * Discards the indexed text of the given field on the given card, and any shared text of the field.
+     *
+     * @param field  The field whose text changed
+     * @param cardId The ID of the card whose text changed, or null to discard the field's text on every card
+     */
+    public synchronized void invalidate(FieldModel field, Integer cardId) {
+        Map<Integer, IndexedText> fieldTexts = texts.get(field);
+        invalidations++;
+
+        if (fieldTexts != null) {
+            if (cardId == null) {
+                new ArrayList<>(fieldTexts.values()).forEach(this::remove);
+            } else {
+                remove(fieldTexts.get(cardId));
+                remove(fieldTexts.get(SHARED_TEXT));
+            }
+        }
+    }
+
+    /**
+     * Discards the indexed text of fields and cards that no longer exist in the given stack. Does not index (or
+     * decode) any text.
+     *
+     * @param context The execution context
+     * @param stack   The stack whose text is indexed
+     */
+    synchronized void prune(ExecutionContext context, StackModel stack) {
+        Set<IndexedText> live = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (CardModel thisCard : stack.getCardModels()) {
+            for (FieldModel thisField : thisCard.getFieldModels()) {
+                live.add(findIndexedText(thisField, textKey(thisCard.getId(), thisField.isSharedText(context))));
+            }
+
+            for (FieldModel thisField : thisCard.getBackgroundModel().getFieldModels()) {
+                live.add(findIndexedText(thisField, textKey(thisCard.getId(), thisField.isSharedText(context))));
+            }
+        }
+
+        live.remove(null);
+        if (textCount > live.size()) {
+            purge(live);
+        }
+    }
+
+    /**
+     * Gets a number that increases each time a text is indexed. Texts indexed after a call to this method are
+     * guaranteed to have a sequence number greater than the value returned (see {@link IndexedText#getSequence()}).
+     *
+     * @return The sequence number of the most recently indexed text
+     */
+    synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the indexed text of a field on a given card, indexing it if necessary. Does not require an execution
+     * context (the field's sharedText property is provided by the caller), and so may be invoked from any thread.
+     *
+     * @param field      The field
+     * @param cardId     The ID of the card whose text should be returned
+     * @param sharedText The value of the field's sharedText property
+     * @return The indexed text
+     */
+    IndexedText getIndexedText(FieldModel field, int cardId, boolean sharedText) {
+        int textKey = textKey(cardId, sharedText);
+        long invalidated;
+
+        synchronized (this) {
+            IndexedText text = findIndexedText(field, textKey);
+            if (text != null) {
+                return text;
+            }
+
+            invalidated = invalidations;
+        }
+
+        // Decoding the field's text is the costly part of indexing; don't block other threads while doing so
+        IndexedText text = new IndexedText(field, textKey, field.getText(cardId, sharedText));
+
+        synchronized (this) {
+            IndexedText existing = findIndexedText(field, textKey);
+            if (existing != null) {
+                return existing;
+            }
+
+            text.sequence = ++sequence;
+
+            // Text may have changed while it was being decoded; use it, but don't keep it
+            if (invalidated == invalidations) {
+                texts.computeIfAbsent(field, f -> new HashMap<>()).put(textKey, text);
+                add(text);
+            }
+
+            return text;
+        }
+    }
+
+    private IndexedText findIndexedText(FieldModel field, int textKey) {
+        Map<Integer, IndexedText> fieldTexts = texts.get(field);
+        return fieldTexts == null ? null : fieldTexts.get(textKey);
+    }
+
+    private static int textKey(int cardId, boolean sharedText) {
+        return sharedText ? SHARED_TEXT : cardId;
+    }
+
+    /**
+     * Finds the indexed texts that could contain a match for the given search term, using the given search type.
+     * Texts not returned are guaranteed not to contain a match.
+     *
+     * @param type The type of search
+     * @param term The search term
+     * @return The texts that may contain a match, or null if every text may contain a match
+     */
+    synchronized Set<IndexedText> findCandidates(SearchType type, String term) {
+        Set<IndexedText> candidates = new HashSet<>(irregularTexts);
+        String termLower = term.toLowerCase();
+
+        switch (type) {
+            case WORDS:
+                // Only a word equal to the term can match
+                candidates.addAll(postings.getOrDefault(termLower, Collections.emptySet()));
+                return candidates;
+
+            case WHOLE: {
+                // Matches start at a word beginning with the term's first word
+                Matcher matcher = words.matcher(termLower);
+                if (!matcher.find() || matcher.start() != 0) {
+                    return null;
+                }
+
+                String prefix = matcher.group();
+                for (Set<IndexedText> thisPosting : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                    candidates.addAll(thisPosting);
+                }
+                return candidates;
+            }
+
+            case CHARS:
+            case STRING: {
+                // Matches contain the term's first word (whole or in part) within a word
+                String infix = type == SearchType.CHARS ? termLower.trim() : termLower;
+                Matcher matcher = words.matcher(infix);
+                if (!matcher.find()) {
+                    return type == SearchType.CHARS && !infix.isEmpty() ? candidates : null;
+                }
+
+                String firstWord = type == SearchType.CHARS ? infix : matcher.group();
+                for (Map.Entry<String, Set<IndexedText>> thisPosting : postings.entrySet()) {
+                    if (thisPosting.getKey().contains(firstWord)) {
+                        candidates.addAll(thisPosting.getValue());
+                    }
+                }
+                return candidates;
+            }
+
+            default:
+                return null;
+        }
+    }
+
+    private void add(IndexedText text) {
+        textCount++;
+
+        if (text.isIrregular()) {
+            irregularTexts.add(text);
+        }
+
+        for (String thisWord : text.wordOffsets.keySet()) {
+            postings.computeIfAbsent(thisWord, w -> new HashSet<>()).add(text);
+        }
+    }
+
+    private void remove(IndexedText text) {
+        if (text == null) {
+            return;
+        }
+
+        textCount--;
+        irregularTexts.remove(text);
+        texts.get(text.field).remove(text.key);
+
+        for (String thisWord : text.wordOffsets.keySet()) {
+            Set<IndexedText> posting = postings.get(thisWord);
+            posting.remove(text);
+
+            if (posting.isEmpty()) {
+                postings.remove(thisWord);
+            }
+        }
+    }
+
+    private void purge(Set<IndexedText> live) {
+        List<IndexedText> stale = new ArrayList<>();
+
+        for (Map<Integer, IndexedText> thisField : texts.values()) {
+            for (IndexedText thisText : thisField.values()) {
+                if (!live.contains(thisText)) {
+                    stale.add(thisText);
+                }
+            }
+        }
+
+        stale.forEach(this::remove);
+        texts.values().removeIf(Map::isEmpty);
+    }
+
+    /**
+     * The indexed text of a field on a card (or of a field's shared text).
+     */
+    static class IndexedText {
+
+        private final FieldModel field;
+        private final int key;
+        private final String text;
+        private final Map<String, List<Integer>> wordOffsets = new HashMap<>();
+        private boolean irregular;
+        private long sequence;
+
+        private IndexedText(FieldModel field, int key, String text) {
+            this.field = field;
+            this.key = key;
+            this.text = text;
+
+            Matcher matcher = words.matcher(text);
+            while (matcher.find()) {
+                wordOffsets.computeIfAbsent(matcher.group().toLowerCase(), w -> new ArrayList<>()).add(matcher.start());
+            }
+
+            // Case-insensitive searches match against lowercase text, which (rarely) may not contain the same words
+            String textLower = text.toLowerCase();
+            if (!textLower.equals(text)) {
+                Set<String> lowerWords = new HashSet<>();
+                Matcher lowerMatcher = words.matcher(textLower);
+                while (lowerMatcher.find()) {
+                    lowerWords.add(lowerMatcher.group());
+                }
+
+                irregular = !lowerWords.equals(wordOffsets.keySet());
+            }
+        }
+
+        String getText() {
+            return text;
+        }
+
+        boolean isIrregular() {
+            return irregular;
+        }
+
+        /**
+         * Gets the order in which this text was indexed, relative to others. See {@link SearchIndex#getSequence()}.
+         *
+         * @return The sequence number of this text
+         */
+        long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Gets the ranges of the words in this text matching the given word (case insensitive).
+         *
+         * @param word The word to find
+         * @return The ranges of each occurrence of the word, in order
+         */
+        List<Range> findWord(String word) {
+            List<Range> ranges = new ArrayList<>();
+
+            for (int thisOffset : wordOffsets.getOrDefault(word.toLowerCase(), Collections.emptyList())) {
+                ranges.add(new Range(thisOffset, thisOffset + word.length()));
+            }
+
+            return ranges;
+        }
+    }
+}
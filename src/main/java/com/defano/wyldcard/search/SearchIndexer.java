@@ -5,6 +5,7 @@ import com.defano.wyldcard.part.card.CardModel;
 import com.defano.wyldcard.part.field.FieldModel;
 import com.defano.wyldcard.part.model.PartModel;
 import com.defano.wyldcard.part.stack.StackModel;
+import com.defano.hypertalk.ast.model.enums.SearchType;
 import com.defano.hypertalk.ast.model.specifier.CompositePartSpecifier;
 import com.defano.hypertalk.exception.HtException;
 import com.defano.hypertalk.exception.HtSemanticException;
@@ -13,9 +14,16 @@ import com.defano.wyldcard.runtime.ExecutionContext;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 
 public class SearchIndexer {
 
+    private static final int MIN_RANGE_SIZE = 8;        // Fewest cards searched by each worker task
+    private static final int RANGES_PER_WORKER = 4;     // Number of card ranges to create for each worker thread
+
     /**
      * Executes a {@link SearchQuery} against a single, specified card in the current stack. Has no effect (returns an
      * empty list) if the specified card is eligible for searching (i.e., marked 'dontSearch')
@@ -31,21 +39,25 @@ public class SearchIndexer {
         StackModel currentStack = context.getCurrentStack().getStackModel();
         CardModel card = currentStack.getCardModel(cardIndex);
 
-        indexCard(context, query, currentStack, card, cardIndex, results);
+        for (SearchTarget thisTarget : getSearchTargets(context, query, card, cardIndex)) {
+            searchField(query, thisTarget, null, null, results);
+        }
 
         return results;
     }
 
     /**
      * Executes a {@link SearchQuery} against qualifying cards in the current stack.
+     * <p>
+     * When searching all fields, the stack is searched in the background, in ranges of cards searched concurrently;
+     * this method returns immediately and results become available as they are found.
      *
      * @param context The execution context
      * @param query The search query
-     * @return A list of zero or more search results (card, field and offsets of each "hit")
+     * @return The search results (card, field and offsets of each "hit"), beginning with the current card
      * @throws HtException Thrown if an error occurs executing the query
      */
-    public static List<SearchResult> indexResults(ExecutionContext context, SearchQuery query) throws HtException {
-        List<SearchResult> results = new ArrayList<>();
+    public static SearchResults indexResults(ExecutionContext context, SearchQuery query) throws HtException {
         StackModel thisStack = context.getCurrentStack().getStackModel();
 
         // Indexing a single, user-specified field
@@ -64,98 +76,196 @@ public class SearchIndexer {
                 cardIndex = card.getCardIndexInStack();
             }
 
+            List<SearchTarget> targets = new ArrayList<>();
             if (isCardSearchable(context, query, card)) {
-                indexField(context, query, field, cardIndex, results);
+                addSearchTarget(context, field, card.getId(), cardIndex, targets);
             }
+
+            List<SearchResult> results = new ArrayList<>();
+            for (SearchTarget thisTarget : targets) {
+                searchField(query, thisTarget, null, null, results);
+            }
+
+            return SearchResults.of(results);
         }
 
         // Indexing all fields on all cards
         else {
-            // Index this card to end of the stack...
-            indexCards(context, query, thisStack.getCurrentCardIndex(), thisStack.getCardCount(), thisStack, results);
+            return indexCards(context, query, thisStack);
+        }
+    }
+
+    /**
+     * Executes a {@link SearchQuery} against every card in the given stack, beginning with the current card and
+     * wrapping around to the first card. Cards are divided into ranges that are searched concurrently on the common
+     * fork-join pool.
+     * <p>
+     * The execution context is not safe for use by other threads, so the fields to be searched in each range are
+     * determined on the thread requesting results, as each range is started (see {@link SearchResults}); worker tasks
+     * only index and search the text of those fields. Only the first few ranges are started before this method
+     * returns.
+     *
+     * @param context The execution context
+     * @param query The search query
+     * @param thisStack The stack whose cards should be searched
+     * @return The search results, in search order
+     */
+    private static SearchResults indexCards(ExecutionContext context, SearchQuery query, StackModel thisStack) {
+        SearchResults results = new SearchResults();
+        List<CardModel> cards = new ArrayList<>(thisStack.getCardModels());
+        int currentCardIndex = thisStack.getCurrentCardIndex();
+
+        // Find the fields that could contain the search term; any text indexed hereafter might, too
+        SearchIndex index = thisStack.getSearchIndex();
+        index.prune(context, thisStack);
+        long indexed = index.getSequence();
+        Set<SearchIndex.IndexedText> candidateTexts = index.findCandidates(query.getSearchType(), query.getSearchTerm());
+        Predicate<SearchIndex.IndexedText> candidates = text -> candidateTexts == null || text.getSequence() > indexed || candidateTexts.contains(text);
+
+        int rangeSize = Math.max(MIN_RANGE_SIZE, cards.size() / (ForkJoinPool.getCommonPoolParallelism() * RANGES_PER_WORKER));
 
-            // ... then index first card up to this card
-            indexCards(context, query, 0, thisStack.getCurrentCardIndex(), thisStack, results);
+        // Index this card to end of the stack...
+        for (int fromIndex = currentCardIndex; fromIndex < cards.size(); fromIndex += rangeSize) {
+            addRange(query, cards, fromIndex, Math.min(fromIndex + rangeSize, cards.size()), index, candidates, results);
         }
 
+        // ... then index first card up to this card
+        for (int fromIndex = 0; fromIndex < currentCardIndex; fromIndex += rangeSize) {
+            addRange(query, cards, fromIndex, Math.min(fromIndex + rangeSize, currentCardIndex), index, candidates, results);
+        }
+
+        results.start(context);
         return results;
     }
 
     /**
-     * Executes a given {@link SearchQuery} against a range of cards in the current stack.
+     * Appends a range of cards to a set of search results. When started, the range's fields are determined (on the
+     * starting thread) and the given {@link SearchQuery} is executed against them in the background.
+     *
+     * @param query The search query
+     * @param cards The cards in the stack being searched
+     * @param fromIndex The index of the first card in the stack to be searched (inclusive)
+     * @param toIndex The index of the last card in the stack to be searched (exclusive)
+     * @param index The search index of the stack
+     * @param candidates Determines which indexed texts may contain the search term
+     * @param results The search results to which the results of this range should be appended
+     */
+    private static void addRange(SearchQuery query, List<CardModel> cards, int fromIndex, int toIndex, SearchIndex index, Predicate<SearchIndex.IndexedText> candidates, SearchResults results) {
+        results.addRange(context -> {
+            List<SearchTarget> targets = getSearchTargets(context, query, cards, fromIndex, toIndex);
+
+            return CompletableFuture.supplyAsync(() -> {
+                List<SearchResult> rangeResults = new ArrayList<>();
+
+                for (int targetIndex = 0; targetIndex < targets.size() && !results.isCancelled(); targetIndex++) {
+                    searchField(query, targets.get(targetIndex), index, candidates, rangeResults);
+                }
+
+                return rangeResults;
+            }, ForkJoinPool.commonPool());
+        });
+    }
+
+    /**
+     * Determines the fields to be searched on a range of cards.
      *
      * @param context The execution context
      * @param query The search query
-     * @param fromIndex The index of the first card in the stack to be indexed (inclusive)
-     * @param toIndex The index of the last card in the stack to be indexed (exclusive)
-     * @param thisStack The stack whose cards should be searched
-     * @param results A mutable list of search results; each hit in the indexed field will be appended to this list
+     * @param cards The cards in the stack being searched
+     * @param fromIndex The index of the first card in the stack to be searched (inclusive)
+     * @param toIndex The index of the last card in the stack to be searched (exclusive)
+     * @return The fields to be searched, in search order
      */
-    private static void indexCards(ExecutionContext context, SearchQuery query, int fromIndex, int toIndex, StackModel thisStack, List<SearchResult> results) {
-        for (int thisCardIndex = fromIndex; thisCardIndex < toIndex; thisCardIndex++) {
-            CardModel thisCard = thisStack.getCardModel(thisCardIndex);
+    private static List<SearchTarget> getSearchTargets(ExecutionContext context, SearchQuery query, List<CardModel> cards, int fromIndex, int toIndex) {
+        List<SearchTarget> targets = new ArrayList<>();
 
-            indexCard(context, query, thisStack, thisCard, thisCardIndex, results);
+        for (int thisCardIndex = fromIndex; thisCardIndex < toIndex; thisCardIndex++) {
+            targets.addAll(getSearchTargets(context, query, cards.get(thisCardIndex), thisCardIndex));
         }
+
+        return targets;
     }
 
     /**
-     * Executes a given {@link SearchQuery} against all the fields on a given card. Has no effect (returns an
-     * empty list) if the specified card is eligible for searching (i.e., marked 'dontSearch')
+     * Determines the fields to be searched on a given card. Returns an empty list if the specified card is ineligible
+     * for searching (i.e., marked 'dontSearch')
      *
      * @param context The execution context
      * @param query The search query
-     * @param thisStack The stack whose card is to be searched
      * @param thisCard The model of the card to be searched
      * @param thisCardIndex The index (zero-based position) of the card in the stack
-     * @param results A mutable list of search results; each hit in the indexed field will be appended to this list
+     * @return The card and background fields to be searched on the card
      */
-    private static void indexCard(ExecutionContext context, SearchQuery query, StackModel thisStack, CardModel thisCard, int thisCardIndex, List<SearchResult> results) {
+    private static List<SearchTarget> getSearchTargets(ExecutionContext context, SearchQuery query, CardModel thisCard, int thisCardIndex) {
+        List<SearchTarget> targets = new ArrayList<>();
 
         // Ignore cards ineligible for search
         if (!isCardSearchable(context, query, thisCard)) {
-            return;
+            return targets;
         }
 
-        BackgroundModel thisBackground = thisStack.getBackground(thisCard.getBackgroundId());
+        BackgroundModel thisBackground = thisCard.getBackgroundModel();
 
         for (FieldModel thisCardField : thisCard.getFieldModels()) {
-            indexField(context, query, thisCardField, thisCardIndex, results);
+            addSearchTarget(context, thisCardField, thisCard.getId(), thisCardIndex, targets);
         }
 
         for (FieldModel thisBkgndField : thisBackground.getFieldModels()) {
-            indexField(context, query, thisBkgndField, thisCardIndex, results);
+            addSearchTarget(context, thisBkgndField, thisCard.getId(), thisCardIndex, targets);
+        }
+
+        return targets;
+    }
+
+    private static void addSearchTarget(ExecutionContext context, FieldModel fieldModel, int cardId, int cardIndex, List<SearchTarget> targets) {
+
+        // Ignore fields marked "don't search"
+        if (!fieldModel.get(context, FieldModel.PROP_DONTSEARCH).booleanValue()) {
+            targets.add(new SearchTarget(fieldModel, cardId, cardIndex, fieldModel.isSharedText(context)));
         }
     }
 
     /**
-     * Executes a given {@link SearchQuery} against the text present in a given field.
+     * Executes a given {@link SearchQuery} against the text present in a given field. Requires no execution context;
+     * may be invoked from any thread.
      *
-     * @param context The execution context
      * @param query The search query
-     * @param fieldModel The field that should be searched
-     * @param cardIndex The index of the card (in the current stack) where the search field is found
+     * @param target The field (and card) to be searched
+     * @param index The search index of the field's stack, or null to search the field without indexing it
+     * @param candidates Determines which indexed texts may contain the search term, or null if not using an index
      * @param results A mutable list of search results; each hit in the indexed field will be appended to this list
      */
-    private static void indexField(ExecutionContext context, SearchQuery query, FieldModel fieldModel, int cardIndex, List<SearchResult> results) {
+    private static void searchField(SearchQuery query, SearchTarget target, SearchIndex index, Predicate<SearchIndex.IndexedText> candidates, List<SearchResult> results) {
+        String fieldText;
+        if (index == null) {
+            fieldText = target.field.getText(target.cardId, target.sharedText);
+        } else {
+            SearchIndex.IndexedText indexedText = index.getIndexedText(target.field, target.cardId, target.sharedText);
 
-        // Ignore fields marked "don't search"
-        if (fieldModel.get(context, FieldModel.PROP_DONTSEARCH).booleanValue()) {
-            return;
+            // Field can't contain the search term
+            if (!candidates.test(indexedText)) {
+                return;
+            }
+
+            // Whole words are found in the index itself
+            fieldText = indexedText.getText();
+            if (query.getSearchType() == SearchType.WORDS && !indexedText.isIrregular()) {
+                for (Range thisRange : indexedText.findWord(query.getSearchTerm())) {
+                    results.add(new SearchResult(fieldText, thisRange, target.field, target.cardIndex));
+                }
+                return;
+            }
         }
 
         int searchFrom = 0;
         Range result;
 
-        int cardId = context.getCurrentStack().getStackModel().getCardModel(cardIndex).getId();
-        String fieldText = fieldModel.getText(context, cardId);
-
         do {
             result = SearchFactory.searchBy(query.getSearchType()).search(fieldText, query.getSearchTerm(), searchFrom);
 
             if (result != null) {
                 searchFrom = result.end;
-                results.add(new SearchResult(fieldText, result, fieldModel, cardIndex));
+                results.add(new SearchResult(fieldText, result, target.field, target.cardIndex));
             }
 
         } while (result != null);
@@ -176,4 +286,21 @@ public class SearchIndexer {
                 && !cardModel.getBackgroundModel().get(context, BackgroundModel.PROP_DONTSEARCH).booleanValue();
     }
 
+    /**
+     * A field to be searched on a given card. Captures the state that depends on the execution context (which is not
+     * thread-safe) when the search begins, so that the field may be searched on any thread.
+     */
+    private static class SearchTarget {
+        private final FieldModel field;
+        private final int cardId;
+        private final int cardIndex;
+        private final boolean sharedText;
+
+        private SearchTarget(FieldModel field, int cardId, int cardIndex, boolean sharedText) {
+            this.field = field;
+            this.cardId = cardId;
+            this.cardIndex = cardIndex;
+            this.sharedText = sharedText;
+        }
+    }
 }
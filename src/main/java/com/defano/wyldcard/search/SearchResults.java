@@ -0,0 +1,164 @@
+package com.defano.wyldcard.search;
+
+import com.defano.wyldcard.runtime.ExecutionContext;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * The results of a {@link SearchQuery}, in search order, which may still be being produced in the background.
+ * <p>
+ * A search of the whole stack is divided into ranges of cards that are searched concurrently; results are available as
+ * soon as every range preceding them has been searched. Thus, the first hit can be shown while the remainder of the
+ * stack is still being searched.
+ * <p>
+ * Ranges are started (that is, the fields they search are determined and their search submitted) only as results are
+ * needed, a few ranges ahead of the range whose results are being awaited. Starting a range requires an execution
+ * context, so ranges are started only on the thread requesting results.
+ */
+public class SearchResults {
+
+    private final List<CompletableFuture<List<SearchResult>>> ranges = new ArrayList<>();
+    private final Queue<Function<ExecutionContext, CompletableFuture<List<SearchResult>>>> pendingRanges = new ArrayDeque<>();
+    private final int rangesAhead;
+    private volatile boolean cancelled;
+
+    SearchResults() {
+        this(ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param rangesAhead The number of ranges to start beyond the range whose results are being awaited
+     */
+    SearchResults(int rangesAhead) {
+        this.rangesAhead = rangesAhead;
+    }
+
+    /**
+     * Creates a SearchResults containing the given, already-known results.
+     *
+     * @param results The search results
+     * @return The SearchResults
+     */
+    static SearchResults of(List<SearchResult> results) {
+        SearchResults searchResults = new SearchResults();
+        searchResults.addRange(CompletableFuture.completedFuture(results));
+        return searchResults;
+    }
+
+    /**
+     * Creates a SearchResults containing no results.
+     *
+     * @return The empty SearchResults
+     */
+    public static SearchResults empty() {
+        return of(new ArrayList<>());
+    }
+
+    /**
+     * Appends the results of searching a range of cards; ranges must be added in search order.
+     *
+     * @param range The results of the range, once searched
+     */
+    void addRange(CompletableFuture<List<SearchResult>> range) {
+        addRange(context -> range);
+    }
+
+    /**
+     * Appends a range of cards to be searched once its results may soon be needed; ranges must be added in search
+     * order.
+     *
+     * @param range Starts searching the range (on the thread requesting results), returning its eventual results
+     */
+    void addRange(Function<ExecutionContext, CompletableFuture<List<SearchResult>>> range) {
+        pendingRanges.add(range);
+    }
+
+    /**
+     * Starts searching the first ranges of cards, ahead of any request for results.
+     *
+     * @param context The execution context
+     */
+    synchronized void start(ExecutionContext context) {
+        startRanges(context, rangesAhead + 1);
+    }
+
+    /**
+     * Gets the search result at the given position, waiting for it to be found if necessary.
+     *
+     * @param context The execution context
+     * @param index The zero-based position of the result
+     * @return The result, or null if the search produced fewer than index + 1 results (or was cancelled)
+     */
+    public synchronized SearchResult get(ExecutionContext context, int index) {
+        int offset = index;
+
+        for (int rangeIndex = 0; ; rangeIndex++) {
+            if (cancelled) {
+                return null;
+            }
+
+            startRanges(context, rangeIndex + rangesAhead + 1);
+            if (rangeIndex >= ranges.size()) {
+                return null;
+            }
+
+            List<SearchResult> rangeResults = await(ranges.get(rangeIndex));
+            if (offset < rangeResults.size()) {
+                return rangeResults.get(offset);
+            }
+
+            offset -= rangeResults.size();
+        }
+    }
+
+    /**
+     * Determines if the search produced no results, waiting for the first result (or for the search to complete) if
+     * necessary.
+     *
+     * @param context The execution context
+     * @return True if there are no results
+     */
+    public boolean isEmpty(ExecutionContext context) {
+        return get(context, 0) == null;
+    }
+
+    /**
+     * Abandons any search still in progress; results not yet found will not be produced.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Determines if {@link #cancel()} has been invoked. Searches of each range of cards should stop when this is true.
+     *
+     * @return True if cancelled
+     */
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void startRanges(ExecutionContext context, int count) {
+        while (ranges.size() < count && !pendingRanges.isEmpty() && !cancelled) {
+            ranges.add(pendingRanges.remove().apply(context));
+        }
+    }
+
+    private List<SearchResult> await(CompletableFuture<List<SearchResult>> range) {
+        try {
+            return range.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -6,14 +6,12 @@ import com.defano.wyldcard.runtime.ExecutionContext;
 import com.google.inject.Singleton;
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
 
 @Singleton
 public class WyldCardSearchManager implements SearchManager {
 
     private SearchQuery lastQuery;
-    private List<SearchResult> results = new ArrayList<>();
+    private SearchResults results = SearchResults.empty();
     private int nextResult = 0;
 
     private Value foundChunk = new Value();
@@ -24,34 +22,36 @@ public class WyldCardSearchManager implements SearchManager {
     @Override
     public void find(ExecutionContext context, SearchQuery query) throws HtException {
 
-        // Wrap search results
-        if (nextResult >= results.size()) {
-            nextResult = 0;
-        }
-
         // Continue last query
-        if (isResumingSearch(query)) {
-            processSearchResult(context, results.get(nextResult++));
+        if (isResumingSearch(context, query)) {
+            SearchResult result = results.get(context, nextResult++);
+
+            // Wrap search results
+            if (result == null) {
+                nextResult = 0;
+                result = results.get(context, nextResult++);
+            }
+
+            processSearchResult(context, result);
         }
 
-        // Start new query
+        // Start new query; remaining results continue to be found in the background
         else {
+            results.cancel();
+
             lastQuery = query;
             results = SearchIndexer.indexResults(context, query);
             nextResult = 0;
 
-            if (results.isEmpty()) {
-                processSearchResult(context, null);
-            } else {
-                processSearchResult(context, results.get(nextResult++));
-            }
+            processSearchResult(context, results.get(context, nextResult++));
         }
     }
 
     @Override
     public void reset() {
         clearSearchHighlights(new ExecutionContext());
-        results.clear();
+        results.cancel();
+        results = SearchResults.empty();
 
         foundChunk = new Value();
         foundField = new Value();
@@ -93,8 +93,8 @@ public class WyldCardSearchManager implements SearchManager {
         }
     }
 
-    private boolean isResumingSearch(SearchQuery query) {
-        return lastQuery != null && lastQuery.equals(query) && results.size() > 0;
+    private boolean isResumingSearch(ExecutionContext context, SearchQuery query) {
+        return lastQuery != null && lastQuery.equals(query) && !results.isEmpty(context);
     }
 
 }
@@ -0,0 +1,266 @@
+package com.defano.wyldcard.serializer;
+
+import com.defano.wyldcard.part.model.PartModel;
+
+import javax.swing.text.StyledDocument;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.function.Predicate;
+
+/**
+ * A value, like a card image or the styled text of a field, that is held in its serialized (encoded) form until it is
+ * first used. Decoding images and styled documents is expensive; deferring it means that opening a stack decodes only
+ * the contents of the cards that are actually displayed or touched by a script.
+ * <p>
+ * A value read from a stack archive does not hold its encoded form in memory either; it holds only the name of the
+ * archive entry containing it, and reads the entry each time the value needs to be decoded (or is written to another
+ * archive). See {@link StackArchive.ArchiveFile}.
+ * <p>
+ * A value decoded with {@link #get(PartModel)} is retained by this object until it is released with
+ * {@link #release()} (typically, when the card displaying it is closed). A released value whose owning part has not
+ * been modified since the value was decoded is then held only by a soft reference, and is decoded again should the
+ * garbage collector reclaim it before it's next needed. A value whose owner has been modified may have been changed in
+ * place, can no longer be recovered from its encoded form, and so remains strongly held.
+ *
+ * @param <T> The type of the decoded value
+ */
+public class EncodedValue<T> {
+
+    static final Codec<BufferedImage> IMAGE_CODEC = new Codec<BufferedImage>() {
+        @Override
+        public BufferedImage decode(byte[] data) throws IOException {
+            return BufferedImageSerializer.fromPng(data);
+        }
+
+        @Override
+        public byte[] encode(BufferedImage value) throws IOException {
+            return BufferedImageSerializer.toPng(value);
+        }
+    };
+
+    static final Codec<StyledDocument> DOCUMENT_CODEC = new Codec<StyledDocument>() {
+        @Override
+        public StyledDocument decode(byte[] data) {
+            return StyledDocumentSerializer.convertRtfToDocument(data);
+        }
+
+        @Override
+        public byte[] encode(StyledDocument value) {
+            return StyledDocumentSerializer.convertDocumentToRtf(value);
+        }
+    };
+
+    private final Codec<T> codec;
+    private byte[] encoded;                  // Encoded form, when held in memory (not read on demand from an archive)
+    private StackArchive.ArchiveFile source; // Archive from which the encoded form is read on demand, or null
+    private String origin;                   // Name of the stack archive entry holding the encoded form, if known
+    private T value;                         // Decoded value, while retained
+    private SoftReference<T> released;       // Decoded value, after it has been released (or read without being retained)
+    private PartModel owner;                 // Part that retained the decoded value
+    private long decodedGeneration;          // Owner's generation when the value was retained
+
+    private EncodedValue(Codec<T> codec, byte[] encoded, String origin, T value) {
+        this.codec = codec;
+        this.encoded = encoded;
+        this.origin = origin;
+        this.value = value;
+    }
+
+    /**
+     * Creates an EncodedValue holding the given (decoded) image.
+     *
+     * @param image The image
+     * @return An EncodedValue retaining the image
+     */
+    public static EncodedValue<BufferedImage> ofImage(BufferedImage image) {
+        return new EncodedValue<>(IMAGE_CODEC, null, null, image);
+    }
+
+    /**
+     * Creates an EncodedValue holding the given (decoded) styled document.
+     *
+     * @param document The document
+     * @return An EncodedValue retaining the document
+     */
+    public static EncodedValue<StyledDocument> ofDocument(StyledDocument document) {
+        return new EncodedValue<>(DOCUMENT_CODEC, null, null, document);
+    }
+
+    /**
+     * Creates an EncodedValue from its encoded form, without decoding it.
+     *
+     * @param codec   The codec used to decode the value
+     * @param encoded The encoded value
+     * @param origin  The name of the stack archive entry from which the encoded form was read, or null
+     * @param <T>     The type of the decoded value
+     * @return An EncodedValue that has not yet been decoded
+     */
+    static <T> EncodedValue<T> ofEncoded(Codec<T> codec, byte[] encoded, String origin) {
+        return new EncodedValue<>(codec, encoded, origin, null);
+    }
+
+    /**
+     * Creates an EncodedValue whose encoded form is held in an entry of a stack archive, without reading the entry.
+     *
+     * @param codec  The codec used to decode the value
+     * @param source The archive holding the encoded value
+     * @param origin The name of the archive entry holding the encoded value
+     * @param <T>    The type of the decoded value
+     * @return An EncodedValue that has not yet been read or decoded
+     */
+    static <T> EncodedValue<T> ofEntry(Codec<T> codec, StackArchive.ArchiveFile source, String origin) {
+        EncodedValue<T> value = new EncodedValue<>(codec, null, origin, null);
+        value.source = source;
+        source.bind(value);
+        return value;
+    }
+
+    /**
+     * Gets the decoded value, decoding it if necessary, and retains it until {@link #release()} is invoked. Callers
+     * may modify the returned value, provided that they mark the owning part as modified.
+     *
+     * @param owner The part owning this value
+     * @return The decoded value
+     */
+    public synchronized T get(PartModel owner) {
+        if (value == null) {
+            value = read();
+            released = null;
+            this.owner = owner;
+            this.decodedGeneration = owner.getGeneration();
+        }
+
+        return value;
+    }
+
+    /**
+     * Gets the decoded value, decoding it if necessary, without retaining it. The returned value must not be modified.
+     *
+     * @return The decoded value
+     */
+    public synchronized T read() {
+        if (value != null) {
+            return value;
+        }
+
+        T decoded = released == null ? null : released.get();
+        if (decoded == null) {
+            try {
+                decoded = codec.decode(readEncoded());
+                released = new SoftReference<>(decoded);
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalStateException("An error occurred decoding stack contents. This stack is corrupted.", e);
+            }
+        }
+
+        return decoded;
+    }
+
+    /**
+     * Stops retaining the decoded value. If the value's owner has not been modified since the value was retained, the
+     * value may be reclaimed (and later decoded again); otherwise, the decoded value is kept and its stale encoded form
+     * is discarded.
+     */
+    public synchronized void release() {
+        if (value != null && owner != null) {
+            if (hasEncoded() && owner.getGeneration() == decodedGeneration) {
+                released = new SoftReference<>(value);
+                value = null;
+            } else {
+                encoded = null;
+                origin = null;
+                unbind();
+            }
+        }
+    }
+
+    /**
+     * Determines if the given object is the decoded value retained by this EncodedValue.
+     *
+     * @param object The object to compare
+     * @return True if this EncodedValue currently retains the given object
+     */
+    public synchronized boolean holds(Object object) {
+        return value != null && value == object;
+    }
+
+    /**
+     * Determines if this value's encoded form is known to represent its current value; that is, whether it can be
+     * written without being encoded again.
+     *
+     * @return True if {@link #getEncoded()} will return without encoding the value
+     */
+    synchronized boolean isEncoded() {
+        return hasEncoded() && (value == null || owner == null || owner.getGeneration() == decodedGeneration);
+    }
+
+    /**
+     * Gets the name of the stack archive entry from which this value's encoded form was read (or to which it was
+     * written).
+     *
+     * @return The entry name, or null if unknown.
+     */
+    synchronized String getOrigin() {
+        return isEncoded() ? origin : null;
+    }
+
+    synchronized void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    /**
+     * Gets the encoded form of this value, encoding it if the encoded form is not known to be current.
+     *
+     * @return The encoded value
+     * @throws IOException Thrown if the value cannot be encoded
+     */
+    synchronized byte[] getEncoded() throws IOException {
+        return isEncoded() ? readEncoded() : codec.encode(read());
+    }
+
+    /**
+     * Reads this value's encoded form into memory if it is held in the given archive under an entry for which the
+     * given predicate is false; invoked when the archive is about to be replaced by one lacking that entry.
+     *
+     * @param archive  The archive about to be replaced
+     * @param retained Determines if an entry of the given name will still be present once the archive is replaced
+     * @throws IOException Thrown if the entry cannot be read
+     */
+    synchronized void detach(StackArchive.ArchiveFile archive, Predicate<String> retained) throws IOException {
+        if (source == archive && !retained.test(origin)) {
+            encoded = source.readEntry(origin);
+            unbind();
+        }
+    }
+
+    private boolean hasEncoded() {
+        return encoded != null || source != null;
+    }
+
+    private byte[] readEncoded() throws IOException {
+        return source == null ? encoded : source.readEntry(origin);
+    }
+
+    private void unbind() {
+        if (source != null) {
+            source.unbind(this);
+            source = null;
+        }
+    }
+
+    Codec<T> getCodec() {
+        return codec;
+    }
+
+    /**
+     * Converts a value to and from its encoded form.
+     *
+     * @param <T> The type of the decoded value
+     */
+    interface Codec<T> {
+        T decode(byte[] data) throws IOException;
+
+        byte[] encode(T value) throws IOException;
+    }
+}
@@ -0,0 +1,37 @@
+package com.defano.wyldcard.serializer;
+
+import com.google.gson.*;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Base64;
+
+/**
+ * Serializes an {@link EncodedValue} as a base64 string of its encoded form; the same representation used for the
+ * decoded value itself (see {@link BufferedImageSerializer} and {@link StyledDocumentSerializer}), but without decoding
+ * it.
+ *
+ * @param <T> The type of the decoded value
+ */
+class EncodedValueSerializer<T> implements JsonSerializer<EncodedValue<T>>, JsonDeserializer<EncodedValue<T>> {
+
+    private final EncodedValue.Codec<T> codec;
+
+    EncodedValueSerializer(EncodedValue.Codec<T> codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public EncodedValue<T> deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
+        return EncodedValue.ofEncoded(codec, Base64.getDecoder().decode(json.getAsString()), null);
+    }
+
+    @Override
+    public JsonElement serialize(EncodedValue<T> src, Type typeOfSrc, JsonSerializationContext context) {
+        try {
+            return new JsonPrimitive(Base64.getEncoder().encodeToString(src.getEncoded()));
+        } catch (IOException e) {
+            throw new JsonIOException("An error occurred while trying to save stack contents.", e);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.defano.hypertalk.ast.model.Value;
 import com.defano.wyldcard.property.PropertyList;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
 
 import javax.swing.text.StyledDocument;
 import java.awt.image.BufferedImage;
@@ -20,17 +21,30 @@ public class Serializer {
     private Serializer() {
     }
 
-    private static final Gson gson = new GsonBuilder()
-            .registerTypeAdapterFactory(new PostConstructAdapterFactory())
-            .registerTypeAdapter(Value.class, new ValueSerializer())
-            .registerTypeAdapter(byte[].class, new ByteArraySerializer())
+    private static final Gson gson = newGsonBuilder()
             .registerTypeAdapter(BufferedImage.class, new BufferedImageSerializer())
             .registerTypeAdapter(StyledDocument.class, new StyledDocumentSerializer())
-            .registerTypeAdapter(PropertyList.class, new PropertyListSerializer())
-            .enableComplexMapKeySerialization()
+            .registerTypeAdapter(new TypeToken<EncodedValue<BufferedImage>>() {}.getType(), new EncodedValueSerializer<>(EncodedValue.IMAGE_CODEC))
+            .registerTypeAdapter(new TypeToken<EncodedValue<StyledDocument>>() {}.getType(), new EncodedValueSerializer<>(EncodedValue.DOCUMENT_CODEC))
             .setPrettyPrinting()
             .create();
 
+    /**
+     * Creates a Gson builder configured with the type adapters common to every WyldCard serialization format; the
+     * caller must register adapters for {@link BufferedImage} and {@link StyledDocument} (and their {@link EncodedValue}
+     * forms), whose representation differs between formats (see {@link StackArchive}).
+     *
+     * @return A partially-configured GsonBuilder
+     */
+    static GsonBuilder newGsonBuilder() {
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(new PostConstructAdapterFactory())
+                .registerTypeAdapter(Value.class, new ValueSerializer())
+                .registerTypeAdapter(byte[].class, new ByteArraySerializer())
+                .registerTypeAdapter(PropertyList.class, new PropertyListSerializer())
+                .enableComplexMapKeySerialization();
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> T copy(T t) {
         return (T) deserialize(serialize(t), t.getClass());
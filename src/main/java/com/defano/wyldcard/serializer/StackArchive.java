@@ -0,0 +1,589 @@
+package com.defano.wyldcard.serializer;
+
+import com.defano.wyldcard.part.bkgnd.BackgroundModel;
+import com.defano.wyldcard.part.card.CardModel;
+import com.defano.wyldcard.part.model.PartModel;
+import com.defano.wyldcard.part.stack.StackModel;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.gson.*;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.StyledDocument;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A chunked, on-disk representation of a stack. A stack archive is a ZIP container in which the stack, each of its
+ * cards and backgrounds, and each card image, background image and field document are stored as separate entries:
+ * <pre>
+ *     stack.json                   The stack; each card and background is replaced with the name of its entry
+ *     cards/{id}.json              A card; each image and styled document is replaced with the name of its entry
+ *     backgrounds/{id}.json        A background
+ *     images/{fingerprint}.png     A card or background image (identical images share one entry)
+ *     documents/{fingerprint}.rtf  The styled text of a field (identical documents share one entry)
+ * </pre>
+ * Entries are streamed to disk one at a time as the stack is serialized, so the stack is never held in memory as a
+ * single JSON string. When a stack is saved over the archive it was last saved to (or opened from), each card and
+ * background that has not been modified since (see {@link PartModel#getGeneration()}) is copied from the old archive
+ * rather than being serialized again. Images and documents are named by a fingerprint of their content, and any image
+ * or document already present in the old archive is likewise copied rather than re-encoded.
+ * <p>
+ * Reading an archive parses every card and background entry when the stack is read. Card images and field documents
+ * are not: each is represented by an {@link EncodedValue} holding only the name of its entry, which is read from the
+ * archive (and decoded) when the image or document is first used. See {@link ArchiveFile}.
+ * <p>
+ * Stacks saved in the original (single JSON document) format can still be read with {@link #read(File)}.
+ */
+public class StackArchive {
+
+    private static final String STACK_ENTRY = "stack.json";
+    private static final String CARD_FOLDER = "cards/";
+    private static final String BACKGROUND_FOLDER = "backgrounds/";
+    private static final String IMAGE_FOLDER = "images/";
+    private static final String DOCUMENT_FOLDER = "documents/";
+    private static final String JSON_EXTENSION = ".json";
+
+    private StackArchive() {
+    }
+
+    /**
+     * Determines if the given file is a stack archive (as opposed to a stack saved in the original JSON format).
+     *
+     * @param file The file to test
+     * @return True if the file exists and is a stack archive
+     */
+    public static boolean isArchive(File file) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == 0x504B0304;      // ZIP local file header signature ("PK\3\4")
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a stack from a file written by {@link #write(File, StackModel)}, or from a stack file saved in the original
+     * (single JSON document) format.
+     *
+     * @param file The stack file to read
+     * @return The stack model
+     * @throws IOException Thrown if the file cannot be read or is corrupted
+     */
+    public static StackModel read(File file) throws IOException {
+        if (!isArchive(file)) {
+            return Serializer.deserialize(file, StackModel.class);
+        }
+
+        try (ZipFile archive = new ZipFile(file)) {
+            ArchiveSession session = new ArchiveSession(archive, null, -1, new ArchiveFile(file));
+            return session.readEntry(STACK_ENTRY, session.gson.getAdapter(StackModel.class));
+        } catch (JsonParseException e) {
+            throw new IOException("Failed to read the stack. The file may be corrupted.", e);
+        }
+    }
+
+    /**
+     * Writes a stack archive to the given file, replacing it if it exists. Cards, backgrounds, images and documents
+     * unchanged since the stack was last saved to the file (if it was written as an archive) are copied from it. The
+     * archive is written to a temporary file which replaces the original only if the write completes successfully.
+     * <p>
+     * Images and documents of any open stack that are still to be read from the file being replaced, and that are not
+     * present in the new archive, are read into memory before the file is replaced.
+     *
+     * @param file  The file to write
+     * @param stack The stack to write
+     * @throws IOException Thrown if an error occurs writing the file
+     */
+    public static void write(File file, StackModel stack) throws IOException {
+        File tempFile = new File(file.getAbsoluteFile().getParentFile(), "." + file.getName() + ".tmp");
+
+        try (ZipFile previous = openArchive(file);
+             ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            new ArchiveSession(previous, out, previous == null ? -1 : stack.getSavedGeneration(file), null).writeStack(stack);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        }
+
+        try {
+            ArchiveFile.replace(file, tempFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile.toPath());
+            throw e;
+        }
+
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static ZipFile openArchive(File file) throws IOException {
+        return file.exists() && isArchive(file) ? new ZipFile(file) : null;
+    }
+
+    private static String fingerprint(BufferedImage image) {
+        int width = image.getWidth();
+        int[] row = new int[width];
+        ByteBuffer rowBytes = ByteBuffer.allocate(width * 4);
+        Hasher hasher = Hashing.murmur3_128().newHasher()
+                .putInt(width)
+                .putInt(image.getHeight())
+                .putInt(image.getType());
+
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            rowBytes.clear();
+            rowBytes.asIntBuffer().put(row);
+            hasher.putBytes(rowBytes.array());
+        }
+
+        return hasher.hash().toString();
+    }
+
+    private static String fingerprint(StyledDocument document) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        document.render(() -> fingerprint(hasher, document, document.getDefaultRootElement()));
+        return hasher.hash().toString();
+    }
+
+    private static void fingerprint(Hasher hasher, StyledDocument document, Element element) {
+        hasher.putString(element.getName(), StandardCharsets.UTF_8);
+
+        AttributeSet attributes = element.getAttributes();
+        for (Enumeration<?> names = attributes.getAttributeNames(); names.hasMoreElements(); ) {
+            Object name = names.nextElement();
+            hasher.putString(String.valueOf(name), StandardCharsets.UTF_8);
+            hasher.putString(String.valueOf(attributes.getAttribute(name)), StandardCharsets.UTF_8);
+        }
+
+        if (element.isLeaf()) {
+            try {
+                int start = element.getStartOffset();
+                int end = Math.min(element.getEndOffset(), document.getLength());
+                hasher.putString(document.getText(start, Math.max(0, end - start)), StandardCharsets.UTF_8);
+            } catch (BadLocationException e) {
+                throw new IllegalStateException("Bug! Element outside of document.", e);
+            }
+        } else {
+            for (int index = 0; index < element.getElementCount(); index++) {
+                fingerprint(hasher, document, element.getElement(index));
+            }
+        }
+    }
+
+    /**
+     * A single read or write of an archive. The session's Gson instance serializes cards, backgrounds, images and
+     * documents as references to the entries that hold them.
+     */
+    private static class ArchiveSession {
+
+        private final ZipFile previous;         // Archive being read, or previously written archive (may be null)
+        private final ZipOutputStream out;      // Archive being written; null when reading
+        private final long savedGeneration;     // Generation of the stack reflected in the previous archive, or -1
+        private final ArchiveFile source;       // Archive from which images and documents are read; null when writing
+        private final Set<String> entries = new HashSet<>();
+        private final Gson gson;
+
+        private ArchiveSession(ZipFile previous, ZipOutputStream out, long savedGeneration, ArchiveFile source) {
+            this.previous = previous;
+            this.out = out;
+            this.savedGeneration = savedGeneration;
+            this.source = source;
+            this.gson = Serializer.newGsonBuilder()
+                    .registerTypeAdapter(BufferedImage.class, new ImageEntryAdapter().nullSafe())
+                    .registerTypeAdapter(StyledDocument.class, new DocumentEntryAdapter().nullSafe())
+                    .registerTypeAdapter(new TypeToken<EncodedValue<BufferedImage>>() {}.getType(),
+                            new EncodedEntryAdapter<>(EncodedValue.IMAGE_CODEC, IMAGE_FOLDER, ".png", false, StackArchive::fingerprint).nullSafe())
+                    .registerTypeAdapter(new TypeToken<EncodedValue<StyledDocument>>() {}.getType(),
+                            new EncodedEntryAdapter<>(EncodedValue.DOCUMENT_CODEC, DOCUMENT_FOLDER, ".rtf", true, StackArchive::fingerprint).nullSafe())
+                    .registerTypeAdapterFactory(new PartEntryAdapterFactory())
+                    .create();
+        }
+
+        private void writeStack(StackModel stack) throws IOException {
+            putJson(STACK_ENTRY, gson.toJsonTree(stack));
+        }
+
+        private <T> T readEntry(String name, TypeAdapter<T> adapter) throws IOException {
+            try (JsonReader reader = new JsonReader(new InputStreamReader(getEntryStream(name), StandardCharsets.UTF_8))) {
+                return adapter.read(reader);
+            }
+        }
+
+        private byte[] readBlob(String name) throws IOException {
+            try (InputStream in = getEntryStream(name)) {
+                return ByteStreams.toByteArray(in);
+            }
+        }
+
+        private InputStream getEntryStream(String name) throws IOException {
+            ZipEntry entry = previous.getEntry(name);
+            if (entry == null) {
+                throw new IOException("Missing stack entry " + name + ". This stack is corrupted.");
+            }
+
+            return previous.getInputStream(entry);
+        }
+
+        /**
+         * Writes a JSON entry.
+         */
+        private void putJson(String name, JsonElement json) throws IOException {
+            entries.add(name);
+
+            out.putNextEntry(new ZipEntry(name));
+            writeJson(json, out);
+            out.closeEntry();
+        }
+
+        /**
+         * Copies a JSON entry from the previous archive, along with the images and documents it refers to.
+         */
+        private void copyJson(String name) throws IOException {
+            entries.add(name);
+
+            byte[] json = readBlob(name);
+            out.putNextEntry(new ZipEntry(name));
+            out.write(json);
+            out.closeEntry();
+
+            try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8))) {
+                for (JsonToken token = reader.peek(); token != JsonToken.END_DOCUMENT; token = reader.peek()) {
+                    switch (token) {
+                        case BEGIN_OBJECT:
+                            reader.beginObject();
+                            break;
+                        case END_OBJECT:
+                            reader.endObject();
+                            break;
+                        case BEGIN_ARRAY:
+                            reader.beginArray();
+                            break;
+                        case END_ARRAY:
+                            reader.endArray();
+                            break;
+                        case NAME:
+                            reader.nextName();
+                            break;
+                        case STRING:
+                            String value = reader.nextString();
+                            if ((value.startsWith(IMAGE_FOLDER) || value.startsWith(DOCUMENT_FOLDER)) && previous.getEntry(value) != null) {
+                                putBlob(value, value.startsWith(DOCUMENT_FOLDER), null);
+                            }
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Determines if the given part is unchanged from its representation in the given entry of the previous
+         * archive.
+         */
+        private boolean isUnchanged(PartModel part, String name) {
+            return savedGeneration >= 0 && part.getGeneration() <= savedGeneration && previous.getEntry(name) != null;
+        }
+
+        private void writeJson(JsonElement json, OutputStream stream) throws IOException {
+            Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+            gson.toJson(json, new JsonWriter(writer));
+            writer.flush();
+        }
+
+        /**
+         * Writes a content-addressed binary entry, copying it from the previous archive when present. Entries that are
+         * already compressed (like PNG images) are stored rather than deflated.
+         */
+        private void putBlob(String name, boolean compress, BlobEncoder encoder) throws IOException {
+
+            // Identical content may be referenced many times, but is stored only once
+            if (!entries.add(name)) {
+                return;
+            }
+
+            ZipEntry previousEntry = previous == null ? null : previous.getEntry(name);
+
+            if (previousEntry != null) {
+                out.putNextEntry(newBlobEntry(name, compress, previousEntry.getSize(), previousEntry.getCrc()));
+                try (InputStream in = previous.getInputStream(previousEntry)) {
+                    ByteStreams.copy(in, out);
+                }
+                out.closeEntry();
+            } else {
+                byte[] data = encoder.encode();
+                CRC32 crc = new CRC32();
+                crc.update(data);
+
+                out.putNextEntry(newBlobEntry(name, compress, data.length, crc.getValue()));
+                out.write(data);
+                out.closeEntry();
+            }
+        }
+
+        private ZipEntry newBlobEntry(String name, boolean compress, long size, long crc) {
+            ZipEntry entry = new ZipEntry(name);
+
+            if (!compress) {
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(size);
+                entry.setCompressedSize(size);
+                entry.setCrc(crc);
+            }
+
+            return entry;
+        }
+
+        /**
+         * Stores each card and background in its own entry.
+         */
+        private class PartEntryAdapterFactory implements TypeAdapterFactory {
+            @Override
+            public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                String folder = type.getRawType() == CardModel.class ? CARD_FOLDER :
+                        type.getRawType() == BackgroundModel.class ? BACKGROUND_FOLDER :
+                                null;
+
+                if (folder == null) {
+                    return null;
+                }
+
+                TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+                return new TypeAdapter<T>() {
+                    @Override
+                    public void write(JsonWriter writer, T part) throws IOException {
+                        if (part == null) {
+                            writer.nullValue();
+                            return;
+                        }
+
+                        PartModel model = (PartModel) part;
+                        String name = folder + model.getId() + JSON_EXTENSION;
+
+                        if (!entries.contains(name) && isUnchanged(model, name)) {
+                            copyJson(name);
+                        } else {
+                            // Part IDs are unique within a stack, but don't let a duplicate overwrite another entry
+                            for (int duplicate = 1; entries.contains(name); duplicate++) {
+                                name = folder + model.getId() + "-" + duplicate + JSON_EXTENSION;
+                            }
+
+                            putJson(name, delegate.toJsonTree(part));
+                        }
+
+                        writer.value(name);
+                    }
+
+                    @Override
+                    public T read(JsonReader reader) throws IOException {
+                        if (reader.peek() == JsonToken.NULL) {
+                            reader.nextNull();
+                            return null;
+                        }
+
+                        return readEntry(reader.nextString(), delegate);
+                    }
+                };
+            }
+        }
+
+        /**
+         * Stores each distinct image as a PNG entry.
+         */
+        private class ImageEntryAdapter extends TypeAdapter<BufferedImage> {
+            @Override
+            public void write(JsonWriter writer, BufferedImage image) throws IOException {
+                String name = IMAGE_FOLDER + fingerprint(image) + ".png";
+                putBlob(name, false, () -> BufferedImageSerializer.toPng(image));
+                writer.value(name);
+            }
+
+            @Override
+            public BufferedImage read(JsonReader reader) throws IOException {
+                return BufferedImageSerializer.fromPng(readBlob(reader.nextString()));
+            }
+        }
+
+        /**
+         * Stores each distinct styled document as an RTF entry.
+         */
+        private class DocumentEntryAdapter extends TypeAdapter<StyledDocument> {
+            @Override
+            public void write(JsonWriter writer, StyledDocument document) throws IOException {
+                String name = DOCUMENT_FOLDER + fingerprint(document) + ".rtf";
+                putBlob(name, true, () -> StyledDocumentSerializer.convertDocumentToRtf(document));
+                writer.value(name);
+            }
+
+            @Override
+            public StyledDocument read(JsonReader reader) throws IOException {
+                return StyledDocumentSerializer.convertRtfToDocument(readBlob(reader.nextString()));
+            }
+        }
+
+        /**
+         * Stores the encoded form of each distinct card image or field document in its own entry. Values read from an
+         * archive are not read (or decoded) until they're used, and values whose encoded form is still current are
+         * written without being decoded or encoded again.
+         */
+        private class EncodedEntryAdapter<T> extends TypeAdapter<EncodedValue<T>> {
+
+            private final EncodedValue.Codec<T> codec;
+            private final String folder;
+            private final String extension;
+            private final boolean compress;
+            private final Function<T, String> fingerprint;
+
+            private EncodedEntryAdapter(EncodedValue.Codec<T> codec, String folder, String extension, boolean compress, Function<T, String> fingerprint) {
+                this.codec = codec;
+                this.folder = folder;
+                this.extension = extension;
+                this.compress = compress;
+                this.fingerprint = fingerprint;
+            }
+
+            @Override
+            public void write(JsonWriter writer, EncodedValue<T> payload) throws IOException {
+                String name = payload.getOrigin();
+
+                if (name == null) {
+                    name = payload.isEncoded() ?
+                            folder + Hashing.murmur3_128().hashBytes(payload.getEncoded()) + extension :
+                            folder + fingerprint.apply(payload.read()) + extension;
+                }
+
+                putBlob(name, compress, payload::getEncoded);
+                payload.setOrigin(name);
+                writer.value(name);
+            }
+
+            @Override
+            public EncodedValue<T> read(JsonReader reader) throws IOException {
+                String name = reader.nextString();
+                if (previous.getEntry(name) == null) {
+                    throw new IOException("Missing stack entry " + name + ". This stack is corrupted.");
+                }
+
+                return EncodedValue.ofEntry(codec, source, name);
+            }
+        }
+    }
+
+    /**
+     * A stack archive from which card images and field documents are read on demand (see {@link EncodedValue}). The
+     * file is opened when the first entry is read and remains open until it is replaced by
+     * {@link #write(File, StackModel)}, or until no value read from it remains.
+     */
+    static class ArchiveFile {
+
+        // Archives that may have values still to be read from them
+        private static final Set<ArchiveFile> archives = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+        private final File file;
+        private final Set<EncodedValue<?>> values = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+        private ZipFile zipFile;
+
+        private ArchiveFile(File file) {
+            this.file = file.getAbsoluteFile();
+            archives.add(this);
+        }
+
+        /**
+         * Reads the contents of an entry in this archive.
+         *
+         * @param name The name of the entry
+         * @return The contents of the entry
+         * @throws IOException Thrown if the archive cannot be read, or no longer contains the entry
+         */
+        synchronized byte[] readEntry(String name) throws IOException {
+            if (zipFile == null) {
+                zipFile = new ZipFile(file);
+            }
+
+            ZipEntry entry = zipFile.getEntry(name);
+            if (entry == null) {
+                throw new IOException("Missing stack entry " + name + ". This stack is corrupted.");
+            }
+
+            try (InputStream in = zipFile.getInputStream(entry)) {
+                return ByteStreams.toByteArray(in);
+            }
+        }
+
+        void bind(EncodedValue<?> value) {
+            values.add(value);
+        }
+
+        void unbind(EncodedValue<?> value) {
+            values.remove(value);
+        }
+
+        private synchronized void close() throws IOException {
+            if (zipFile != null) {
+                zipFile.close();
+                zipFile = null;
+            }
+        }
+
+        /**
+         * Prepares for a stack archive to be replaced. Values still to be read from the archive whose entries are not
+         * present in the replacement are read into memory, and the archive is closed (so that it may be replaced). The
+         * remaining values are subsequently read from the replacement.
+         *
+         * @param file        The archive file about to be replaced
+         * @param replacement The archive that will replace it
+         * @throws IOException Thrown if an error occurs reading either archive
+         */
+        private static void replace(File file, File replacement) throws IOException {
+            List<ArchiveFile> replaced;
+            synchronized (archives) {
+                replaced = archives.stream().filter(a -> a.file.equals(file.getAbsoluteFile())).collect(Collectors.toList());
+            }
+
+            if (replaced.isEmpty()) {
+                return;
+            }
+
+            try (ZipFile replacementArchive = new ZipFile(replacement)) {
+                for (ArchiveFile archive : replaced) {
+                    List<EncodedValue<?>> bound;
+                    synchronized (archive.values) {
+                        bound = new ArrayList<>(archive.values);
+                    }
+
+                    for (EncodedValue<?> value : bound) {
+                        value.detach(archive, name -> replacementArchive.getEntry(name) != null);
+                    }
+
+                    archive.close();
+                }
+            }
+        }
+    }
+
+    private interface BlobEncoder {
+        byte[] encode() throws IOException;
+    }
+}
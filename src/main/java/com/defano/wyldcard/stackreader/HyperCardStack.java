@@ -4,6 +4,7 @@ import com.defano.wyldcard.stackreader.block.*;
 import com.defano.wyldcard.stackreader.misc.ImportException;
 import com.defano.wyldcard.stackreader.misc.StackInputStream;
 import com.defano.wyldcard.stackreader.misc.UnsupportedVersionException;
+import com.google.common.io.ByteStreams;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 import org.slf4j.Logger;
@@ -11,9 +12,9 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.image.BufferedImage;
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
 
 /**
  * Represents a HyperCard stack file.
@@ -24,13 +25,42 @@ public class HyperCardStack {
     private static final Logger LOG = LoggerFactory.getLogger(HyperCardStack.class);
     private final List<Block> blocks = new ArrayList<>();
 
+    // Blocks indexed by type and by class (in file order), and by class and id (first occurrence of each id)
+    private final Map<BlockType, List<Block>> blocksByType = new EnumMap<>(BlockType.class);
+    private final Map<Class<? extends Block>, List<Block>> blocksByClass = new HashMap<>();
+    private final Map<Class<? extends Block>, Map<Integer, Block>> blocksById = new HashMap<>();
+
+    /**
+     * Reads a HyperCard stack file. The file is memory-mapped rather than read into the heap; each block's data is a
+     * slice of the mapped file.
+     *
+     * @param f The stack file
+     * @return The stack
+     * @throws FileNotFoundException Thrown if the file does not exist or cannot be opened
+     * @throws ImportException       Thrown if the file cannot be read or is not a valid stack
+     */
     public static HyperCardStack fromFile(File f) throws FileNotFoundException, ImportException {
-        return fromInputStream(new FileInputStream(f));
+        try (RandomAccessFile file = new RandomAccessFile(f, "r"); FileChannel channel = file.getChannel()) {
+            // The mapping remains valid after the channel is closed
+            return fromByteBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new ImportException("Cannot read the stack file.", e);
+        }
     }
 
     public static HyperCardStack fromInputStream(InputStream sis) throws ImportException {
+        try {
+            return fromByteBuffer(ByteBuffer.wrap(ByteStreams.toByteArray(sis)));
+        } catch (IOException e) {
+            throw new ImportException("Cannot read the stack file.", e);
+        }
+    }
+
+    public static HyperCardStack fromByteBuffer(ByteBuffer data) throws ImportException {
         HyperCardStack stack = new HyperCardStack();
-        stack.unpack(new StackInputStream(sis));
+        stack.unpack(new StackInputStream(data));
         return stack;
     }
 
@@ -50,9 +80,7 @@ public class HyperCardStack {
      * @return The list of matching blocks.
      */
     public List<Block> getBlocks(BlockType type) {
-        return blocks.stream()
-                .filter(b -> b.getBlockType() == type)
-                .collect(Collectors.toList());
+        return new ArrayList<>(blocksByType.getOrDefault(type, Collections.emptyList()));
     }
 
     /**
@@ -64,15 +92,17 @@ public class HyperCardStack {
      */
     @SuppressWarnings("unchecked")
     public <T extends Block> T getBlock(Class<T> klass) {
-        return blocks.stream()
-                .filter(b -> b.getClass() == klass)
-                .map(b -> (T) b)
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("No block matching type " + klass));
+        List<Block> matching = blocksByClass.get(klass);
+
+        if (matching == null || matching.isEmpty()) {
+            throw new IllegalArgumentException("No block matching type " + klass);
+        }
+
+        return (T) matching.get(0);
     }
 
     public <T extends Block> boolean hasBlock(Class<T> klass) {
-        return blocks.stream().anyMatch(b -> b.getClass() == klass);
+        return blocksByClass.containsKey(klass);
     }
 
     /**
@@ -84,10 +114,7 @@ public class HyperCardStack {
      */
     @SuppressWarnings("unchecked")
     public <T extends Block> List<T> getBlocks(Class<T> klass) {
-        return blocks.stream()
-                .filter(b -> b.getClass() == klass)
-                .map(b -> (T) b)
-                .collect(Collectors.toList());
+        return new ArrayList<>((List<T>) blocksByClass.getOrDefault(klass, Collections.emptyList()));
     }
 
     /**
@@ -102,12 +129,13 @@ public class HyperCardStack {
      */
     @SuppressWarnings("unchecked")
     public <T extends Block> T getBlock(Class<T> klass, int blockId) {
-        return blocks.stream()
-                .filter(b -> b.getBlockId() == blockId)
-                .filter(b -> b.getClass() == klass)
-                .map(b -> (T) b)
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("No block matching type " + klass + " and id " + blockId));
+        Block block = blocksById.getOrDefault(klass, Collections.emptyMap()).get(blockId);
+
+        if (block == null) {
+            throw new IllegalArgumentException("No block matching type " + klass + " and id " + blockId);
+        }
+
+        return (T) block;
     }
 
     /**
@@ -126,12 +154,8 @@ public class HyperCardStack {
     }
 
     public BufferedImage getImage(int bitmapId) {
-        return blocks.stream()
-                .filter(b -> b.getBlockId() == bitmapId)
-                .filter(b -> b.getClass() == ImageBlock.class)
-                .map(b -> ((ImageBlock) b).getImage())
-                .findFirst()
-                .orElse(null);
+        Block block = blocksById.getOrDefault(ImageBlock.class, Collections.emptyMap()).get(bitmapId);
+        return block == null ? null : ((ImageBlock) block).getImage();
     }
 
     private void unpack(StackInputStream fis) throws ImportException {
@@ -147,11 +171,11 @@ public class HyperCardStack {
 
                 LOG.debug("Unpacking {} bytes of block {}, id={}", blockSize, BlockType.fromBlockId(blockTypeId), blockId);
 
-                byte[] blockData = fis.readBytes(blockSize - 16);
+                ByteBuffer blockData = fis.readSlice(blockSize - 16);
                 blockType = BlockType.fromBlockId(blockTypeId);
                 Block block = blockType.instantiate(this, blockId, blockSize, blockData);
 
-                blocks.add(block);
+                add(block);
 
                 if (block instanceof StackBlock && block.getMajorVersion(((StackBlock) block).getModifyVersion()) < 2) {
                     throw new UnsupportedVersionException(block, "Cannot import stacks from HyperCard 1.x. Please use the \"Convert Stack...\" command in HyperCard 2.x to update this stack.");
@@ -164,6 +188,13 @@ public class HyperCardStack {
         }
     }
 
+    private void add(Block block) {
+        blocks.add(block);
+        blocksByType.computeIfAbsent(block.getBlockType(), t -> new ArrayList<>()).add(block);
+        blocksByClass.computeIfAbsent(block.getClass(), c -> new ArrayList<>()).add(block);
+        blocksById.computeIfAbsent(block.getClass(), c -> new HashMap<>()).putIfAbsent(block.getBlockId(), block);
+    }
+
     @Override
     public String toString() {
         return ToStringBuilder.reflectionToString(blocks.stream().map(Block::getBlockType).toArray(), ToStringStyle.SIMPLE_STYLE);
@@ -11,6 +11,7 @@ import org.apache.commons.lang.builder.ToStringStyle;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 
 /**
  * Represents a "block" structure, an array of which comprise the HyperCard stack file format.
@@ -24,9 +25,9 @@ public abstract class Block implements PatternDecoder, VersionDecoder, WOBAImage
     private final BlockType blockType;
     private final int blockSize;
     private final int blockId;
-    private final byte[] blockData;
+    private final transient ByteBuffer blockData;     // Typically, a slice of the memory-mapped stack file
 
-    public Block(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, byte[] blockData) {
+    public Block(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, ByteBuffer blockData) {
         if (stack == null) {
             throw new IllegalArgumentException("Stack value cannot be null; each block must belong to a parent stack object.");
         }
@@ -88,11 +89,14 @@ public abstract class Block implements PatternDecoder, VersionDecoder, WOBAImage
      * Gets the data associated with the block, consisting of all of the bytes directly following the block header (the
      * block type, length and id). The size of the block data is equal to {@link #getBlockSize()} - 16 bytes (accounting
      * for the type, size and id fields).
+     * <p>
+     * The returned buffer shares its content with the stack file from which the block was read (no data is copied);
+     * it is positioned at the beginning of the block data and may be read independently of other callers.
      *
      * @return The block data
      */
-    public byte[] getBlockData() {
-        return blockData;
+    public ByteBuffer getBlockData() {
+        return blockData.duplicate();
     }
 
     /**
@@ -8,6 +8,7 @@ import com.defano.wyldcard.stackreader.record.PartRecord;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Represents data elements that are common to CARD and BKGD blocks.
@@ -25,7 +26,7 @@ public abstract class CardLayerBlock extends Block {
     private String script; // the card script
 
     @SuppressWarnings("WeakerAccess")
-    public CardLayerBlock(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, byte[] blockData) {
+    public CardLayerBlock(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, ByteBuffer blockData) {
         super(stack, blockType, blockSize, blockId, blockData);
     }
 
@@ -4,6 +4,7 @@ import com.defano.wyldcard.stackreader.HyperCardStack;
 import com.defano.wyldcard.stackreader.misc.StackInputStream;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 @SuppressWarnings("unused")
 public class FreeBlock extends Block {
@@ -11,7 +12,7 @@ public class FreeBlock extends Block {
     private byte markerLength;
     private String markerText;
 
-    public FreeBlock(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, byte[] blockData) {
+    public FreeBlock(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, ByteBuffer blockData) {
         super(stack, blockType, blockSize, blockId, blockData);
     }
 
@@ -37,6 +37,7 @@ import com.defano.wyldcard.stackreader.misc.StackInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 @SuppressWarnings("unused")
 public class ImageBlock extends Block implements WOBAImageDecoder {
@@ -55,15 +56,15 @@ public class ImageBlock extends Block implements WOBAImageDecoder {
     private short imageBoundRight;   // right of the image bounding rectangle
     private int maskSize;            // size of the mask data
     private int imageSize;           // size of the image data
-    private byte[] maskData;         // the WOBA-compressed mask data
-    private byte[] imageData;        // the WOBA-compressed image data
+    private ByteBuffer maskData;     // the WOBA-compressed mask data (a slice of the block data)
+    private ByteBuffer imageData;    // the WOBA-compressed image data (a slice of the block data)
 
     private Rectangle boundRect;     // the image bounding rectangle
     private Rectangle maskRect;      // the image mask rectangle
     private Rectangle imageRect;     // the image rectangle
-    private BufferedImage image;     // the decoded image
+    private BufferedImage image;     // the decoded image; decoded on first use
 
-    public ImageBlock(HyperCardStack root, BlockType blockType, int blockSize, int blockId, byte[] blockData) {
+    public ImageBlock(HyperCardStack root, BlockType blockType, int blockSize, int blockId, ByteBuffer blockData) {
         super(root, blockType, blockSize, blockId, blockData);
     }
 
@@ -123,12 +124,12 @@ public class ImageBlock extends Block implements WOBAImageDecoder {
         return imageSize;
     }
 
-    public byte[] getMaskData() {
-        return maskData;
+    public ByteBuffer getMaskData() {
+        return maskData.duplicate();
     }
 
-    public byte[] getImageData() {
-        return imageData;
+    public ByteBuffer getImageData() {
+        return imageData.duplicate();
     }
 
     public Rectangle getBoundRect() {
@@ -146,9 +147,21 @@ public class ImageBlock extends Block implements WOBAImageDecoder {
     /**
      * The decoded image represented by this block, in {@link BufferedImage#TYPE_INT_ARGB} format. Returns an empty,
      * 0x0 BufferedImage if the image data cannot be decoded.
+     * <p>
+     * The image is decoded the first time this method is invoked (rather than when the block is unpacked) so that the
+     * images in a stack can be decoded in parallel. Safe to invoke from any thread.
+     *
      * @return The decoded BufferedImage.
      */
-    public BufferedImage getImage() {
+    public synchronized BufferedImage getImage() {
+        if (image == null) {
+            image = decodeImage(boundRect, maskRect, imageRect, imageSize, imageData, maskSize, maskData);
+
+            if (image == null) {
+                image = new BufferedImage(0, 0, BufferedImage.TYPE_INT_ARGB);
+            }
+        }
+
         return image;
     }
 
@@ -192,14 +205,8 @@ public class ImageBlock extends Block implements WOBAImageDecoder {
 
             maskSize = sis.readInt();
             imageSize = sis.readInt();
-            maskData = sis.readBytes(maskSize);
-            imageData = sis.readBytes(imageSize);
-
-            image = decodeImage(boundRect, maskRect, imageRect, imageSize, imageData, maskSize, maskData);
-
-            if (image == null) {
-                image = new BufferedImage(0, 0, BufferedImage.TYPE_INT_ARGB);
-            }
+            maskData = sis.readSlice(maskSize);
+            imageData = sis.readSlice(imageSize);
         }
     }
 }
@@ -5,6 +5,7 @@ import com.defano.wyldcard.stackreader.misc.StackInputStream;
 import com.defano.wyldcard.stackreader.record.BlockOffsetRecord;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 @SuppressWarnings("unused")
@@ -12,7 +13,7 @@ public class MasterBlock extends Block {
 
     private BlockOffsetRecord[] blockOffsets = new BlockOffsetRecord[0];
 
-    public MasterBlock(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, byte[] blockData) {
+    public MasterBlock(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, ByteBuffer blockData) {
         super(stack, blockType, blockSize, blockId, blockData);
     }
 
@@ -5,6 +5,7 @@ import com.defano.wyldcard.stackreader.enums.PrintMethod;
 import com.defano.wyldcard.stackreader.misc.StackInputStream;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 @SuppressWarnings("unused")
 public class PageSetupBlock extends Block {
@@ -39,7 +40,7 @@ public class PageSetupBlock extends Block {
     private short spoolVolume;
     private byte spoolVersion;
 
-    public PageSetupBlock(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, byte[] blockData) {
+    public PageSetupBlock(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, ByteBuffer blockData) {
         super(stack, blockType, blockSize, blockId, blockData);
     }
 
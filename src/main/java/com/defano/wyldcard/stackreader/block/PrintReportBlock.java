@@ -8,6 +8,7 @@ import com.defano.wyldcard.stackreader.misc.StackInputStream;
 import com.defano.wyldcard.stackreader.record.ReportRecord;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 @SuppressWarnings("unused")
 public class PrintReportBlock extends Block {
@@ -27,7 +28,7 @@ public class PrintReportBlock extends Block {
     private int reportRecordCount;
     private ReportRecord[] reportRecords = new ReportRecord[0];
 
-    public PrintReportBlock(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, byte[] blockData) {
+    public PrintReportBlock(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, ByteBuffer blockData) {
         super(stack, blockType, blockSize, blockId, blockData);
     }
 
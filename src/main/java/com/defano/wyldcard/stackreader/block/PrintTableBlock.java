@@ -5,6 +5,7 @@ import com.defano.wyldcard.stackreader.misc.StackInputStream;
 import com.defano.wyldcard.stackreader.record.ReportTemplateRecord;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 @SuppressWarnings("unused")
 public class PrintTableBlock extends Block {
@@ -13,7 +14,7 @@ public class PrintTableBlock extends Block {
     private short reportTemplateCount;
     private ReportTemplateRecord[] templateRecords = new ReportTemplateRecord[0];
 
-    public PrintTableBlock(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, byte[] blockData) {
+    public PrintTableBlock(HyperCardStack stack, BlockType blockType, int blockSize, int blockId, ByteBuffer blockData) {
         super(stack, blockType, blockSize, blockId, blockData);
     }
 
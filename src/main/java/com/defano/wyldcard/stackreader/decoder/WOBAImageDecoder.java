@@ -32,11 +32,12 @@ package com.defano.wyldcard.stackreader.decoder;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
 
 public interface WOBAImageDecoder {
 
     @SuppressWarnings("PointlessArithmeticExpression")
-    default BufferedImage decodeImage(Rectangle boundRect, Rectangle maskRect, Rectangle imageRect, int imageSize, byte[] imageData, int maskSize, byte[] maskData) {
+    default BufferedImage decodeImage(Rectangle boundRect, Rectangle maskRect, Rectangle imageRect, int imageSize, ByteBuffer imageData, int maskSize, ByteBuffer maskData) {
         BufferedImage image;
 
         try {
@@ -60,12 +61,12 @@ public interface WOBAImageDecoder {
             image.setRGB(0, 0, boundRect.width, boundRect.height, pixels, 0, snap32(boundRect).width);
             return image;
 
-        } catch (ArrayIndexOutOfBoundsException e) {
+        } catch (IndexOutOfBoundsException e) {
             return null;
         }
     }
 
-    default byte[] decodeWOBA(Rectangle totr, Rectangle r, byte[] data, int offset, int l) throws ArrayIndexOutOfBoundsException {
+    default byte[] decodeWOBA(Rectangle totr, Rectangle r, ByteBuffer data, int offset, int l) throws IndexOutOfBoundsException {
         Rectangle tr = snap32(totr);
         int trw = tr.width >> 3;
         Rectangle rf = snap32(r);
@@ -98,13 +99,13 @@ public interface WOBAImageDecoder {
                     (byte) 0xAA, (byte) 0x55, (byte) 0xAA, (byte) 0x55,
                     (byte) 0xAA, (byte) 0x55, (byte) 0xAA, (byte) 0x55
             };
-            while (y < rf.y - tr.y + rf.height && p < data.length) {
-                byte opcode = data[p++];
+            while (y < rf.y - tr.y + rf.height && p < data.limit()) {
+                byte opcode = data.get(p++);
                 if ((opcode & 0x80) == 0) {
                     int d = (opcode & 0x70) >> 4;
                     int z = opcode & 0x0F;
                     byte[] dat = new byte[d];
-                    for (int i = 0; i < d; i++) dat[i] = data[p++];
+                    for (int i = 0; i < d; i++) dat[i] = data.get(p++);
                     while ((repeat--) > 0) {
                         pp += z;
                         for (int i = 0; i < d; i++) stuff[pp++] = dat[i];
@@ -115,7 +116,7 @@ public interface WOBAImageDecoder {
                 } else if ((opcode & 0xE0) == 0xC0) {
                     int d = (opcode & 0x1F) << 3;
                     byte[] dat = new byte[d];
-                    for (int i = 0; i < d; i++) dat[i] = data[p++];
+                    for (int i = 0; i < d; i++) dat[i] = data.get(p++);
                     while ((repeat--) > 0) {
                         for (int i = 0; i < d; i++) stuff[pp++] = dat[i];
                     }
@@ -125,7 +126,7 @@ public interface WOBAImageDecoder {
                     switch (opcode) {
                         case (byte) 0x80: {
                             byte[] dat = new byte[rw];
-                            for (int i = 0; i < rw; i++) dat[i] = data[p++];
+                            for (int i = 0; i < rw; i++) dat[i] = data.get(p++);
                             while ((repeat--) > 0) {
                                 for (int i = 0; i < rw; i++) stuff[pp++] = dat[i];
                                 y++;
@@ -153,7 +154,7 @@ public interface WOBAImageDecoder {
                         }
                         break;
                         case (byte) 0x83: {
-                            byte pb = data[p++];
+                            byte pb = data.get(p++);
                             while ((repeat--) > 0) {
                                 patt[y & 0x7] = pb;
                                 for (int i = 0; i < rw; i++) stuff[pp++] = pb;
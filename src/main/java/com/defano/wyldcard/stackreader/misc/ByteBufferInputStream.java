@@ -0,0 +1,86 @@
+package com.defano.wyldcard.stackreader.misc;
+
+import java.io.EOFException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream reading from a {@link ByteBuffer} (typically, a slice of a memory-mapped stack file) without copying
+ * it. Like {@link java.io.ByteArrayInputStream}, the stream supports {@link #mark(int)} and {@link #reset()}, and is
+ * initially marked at its beginning.
+ */
+class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+    private int mark;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+        this.mark = this.buffer.position();
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        } else if (!buffer.hasRemaining()) {
+            return -1;
+        }
+
+        int count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        mark = buffer.position();
+    }
+
+    @Override
+    public synchronized void reset() {
+        buffer.position(mark);
+    }
+
+    /**
+     * Reads the given number of bytes as a slice of the underlying buffer (sharing its content) rather than copying
+     * them.
+     *
+     * @param length The number of bytes to read
+     * @return A buffer whose content is the next length bytes of this stream
+     * @throws EOFException Thrown if fewer than length bytes remain in the stream
+     */
+    ByteBuffer slice(int length) throws EOFException {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new EOFException();
+        }
+
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+
+        return slice;
+    }
+}
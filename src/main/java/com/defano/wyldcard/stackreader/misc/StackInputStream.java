@@ -3,12 +3,15 @@ package com.defano.wyldcard.stackreader.misc;
 import com.defano.wyldcard.stackreader.decoder.MacRomanDecoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 
 /**
  * An input stream with helper methods intended to simplify parsing a HyperCard stack file.
  */
 public class StackInputStream extends DataInputStream implements MacRomanDecoder {
 
+    private final ByteBufferInputStream buffer;     // Stream source, when reading from a buffer; null otherwise
+
     /**
      * Create a StackInputStream from an InputStream.
      *
@@ -16,6 +19,7 @@ public class StackInputStream extends DataInputStream implements MacRomanDecoder
      */
     public StackInputStream(InputStream is) {
         super(is);
+        this.buffer = null;
     }
 
     /**
@@ -24,7 +28,22 @@ public class StackInputStream extends DataInputStream implements MacRomanDecoder
      * @param data The bytes that the StackInputStream will stream.
      */
     public StackInputStream(byte[] data) {
-        this(new ByteArrayInputStream(data));
+        this(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Create a StackInputStream from a buffer, such as a slice of a memory-mapped stack file. The stream reads the
+     * buffer's content (from its position to its limit) without copying it; the buffer's own position is unaffected.
+     *
+     * @param data The buffer that the StackInputStream will stream.
+     */
+    public StackInputStream(ByteBuffer data) {
+        this(new ByteBufferInputStream(data));
+    }
+
+    private StackInputStream(ByteBufferInputStream buffer) {
+        super(buffer);
+        this.buffer = buffer;
     }
 
     /**
@@ -91,6 +110,18 @@ public class StackInputStream extends DataInputStream implements MacRomanDecoder
         return buffer;
     }
 
+    /**
+     * Reads zero or more bytes (8-bit values) from the input stream as a buffer. When this stream reads from a
+     * buffer, the returned buffer is a slice of it (no data is copied).
+     *
+     * @param count The number of bytes to read.
+     * @return A buffer containing the bytes, positioned at its beginning, whose limit is equal to count.
+     * @throws IOException Thrown if the input stream cannot produce the data.
+     */
+    public ByteBuffer readSlice(int count) throws IOException {
+        return buffer == null ? ByteBuffer.wrap(readBytes(count)) : buffer.slice(count);
+    }
+
     /**
      * Reads a fixed number of MacRoman charset-encoded characters (Pascal-style).
      *
@@ -1,5 +1,6 @@
 package com.defano.wyldcard.window.layout;
 
+import com.defano.hypertalk.ast.SourcePosition;
 import com.defano.hypertalk.ast.model.enums.PartType;
 import com.defano.hypertalk.exception.HtException;
 import com.defano.wyldcard.WyldCard;
@@ -9,7 +10,6 @@ import com.defano.wyldcard.part.stack.StackPart;
 import com.defano.hypertalk.exception.Breadcrumb;
 import com.defano.wyldcard.runtime.ExecutionContext;
 import com.defano.wyldcard.thread.Invoke;
-import org.antlr.v4.runtime.Token;
 
 import javax.swing.*;
 
@@ -35,7 +35,7 @@ public class HyperTalkErrorDialog {
                     // Suppress further error messages while user is editing script of this part
                     ScriptEditor scriptEditor = WyldCard.getInstance().getWindowManager().findScriptEditorForPart(e.getBreadcrumb().getPartModel());
                     if (scriptEditor == null || !scriptEditor.isVisible()) {
-                        showEditableError(e.getMessage(), e.getBreadcrumb().getContext().getCurrentStack(), e.getBreadcrumb().getPartModel(), e.getBreadcrumb().getToken());
+                        showEditableError(e.getMessage(), e.getBreadcrumb().getContext().getCurrentStack(), e.getBreadcrumb().getPartModel(), e.getBreadcrumb().getSourcePosition());
                     }
                 } else {
                     showUneditableError(e.getMessage());
@@ -57,7 +57,7 @@ public class HyperTalkErrorDialog {
     }
 
     @RunOnDispatch
-    private void showEditableError(String message, StackPart stackPart, PartModel offendingPart, Token offendingToken) {
+    private void showEditableError(String message, StackPart stackPart, PartModel offendingPart, SourcePosition offendingPosition) {
         Object[] options = {"OK", "Script..."};
         int selection = JOptionPane.showOptionDialog(
                 WyldCard.getInstance().getWindowManager().getWindowForStack(new ExecutionContext(), stackPart),
@@ -70,7 +70,7 @@ public class HyperTalkErrorDialog {
                 options[0]);
 
         if (selection == 1) {
-            offendingPart.editScript(new ExecutionContext(), offendingToken.getStartIndex());
+            offendingPart.editScript(new ExecutionContext(), offendingPosition.getStartIndex());
         }
     }
 
@@ -79,7 +79,7 @@ public class HyperTalkErrorDialog {
 
         return breadcrumb != null &&
                 breadcrumb.getPartModel() != null &&
-                breadcrumb.getToken() != null &&
+                breadcrumb.getSourcePosition() != null &&
                 breadcrumb.getPart().getType() != null &&
                 breadcrumb.getPart().getType() != PartType.MESSAGE_BOX;
     }
@@ -0,0 +1,83 @@
+package com.defano.hypertalk;
+
+import com.defano.hypertalk.exception.HtException;
+import com.defano.hypertalk.parser.HyperTalkLexer;
+import com.defano.hypertalk.parser.HyperTalkParser;
+import com.defano.wyldcard.runtime.compiler.CaseInsensitiveInputStream;
+import com.defano.wyldcard.runtime.compiler.CompilationUnit;
+import com.defano.wyldcard.runtime.compiler.TwoPhaseParser;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.apache.commons.io.IOUtils;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+@Ignore     // Benchmark of compiled script memory and AST construction time, don't run as part of normal test suite
+public class TestScriptFootprint {
+
+    private static final int SCRIPT_COUNT = 200;
+    private static final int VISIT_COUNT = 50;
+
+    @Test
+    public void testRetainedHeapOfCompiledScripts() throws IOException, HtException {
+        String testScript = readScript("examples/Script.txt");
+        List<Object> compiledScripts = new ArrayList<>();
+
+        // Warm up the parser's DFA cache so that it is not counted against the compiled scripts
+        TwoPhaseParser.parseScript(CompilationUnit.SCRIPT, testScript);
+
+        long before = usedHeap();
+        for (int index = 0; index < SCRIPT_COUNT; index++) {
+            // Compile directly (not via ScriptCompiler) so that each copy is a distinct compiled script
+            compiledScripts.add(TwoPhaseParser.parseScript(CompilationUnit.SCRIPT, testScript));
+        }
+        long after = usedHeap();
+
+        System.out.println("Script text is " + testScript.length() * 2 / 1024 + "KB; each compiled script retains " +
+                (after - before) / SCRIPT_COUNT / 1024 + "KB of heap (" + compiledScripts.size() + " scripts).");
+    }
+
+    @Test
+    public void testTreeVisitorPerformance() throws IOException {
+        String testScript = TwoPhaseParser.commentNonHandlerLines(readScript("examples/Script.txt"));
+
+        HyperTalkParser parser = new HyperTalkParser(new CommonTokenStream(new HyperTalkLexer(new CaseInsensitiveInputStream(testScript))));
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        ParseTree tree = CompilationUnit.SCRIPT.getParseTree(parser);
+
+        long start = System.nanoTime();
+        new HyperTalkTreeVisitor().visit(tree);
+        long end = System.nanoTime();
+
+        System.out.println("Cold-visited parse tree in " + (end - start) / 1000 + "us.");
+
+        start = System.nanoTime();
+        for (int index = 0; index < VISIT_COUNT; index++) {
+            new HyperTalkTreeVisitor().visit(tree);
+        }
+        end = System.nanoTime();
+
+        System.out.println("Warm-visited parse tree mean: " + (end - start) / VISIT_COUNT / 1000 + "us.");
+    }
+
+    private String readScript(String resource) throws IOException {
+        InputStream in = this.getClass().getClassLoader().getResourceAsStream(resource);
+        return IOUtils.toString(in);
+    }
+
+    private long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int index = 0; index < 4; index++) {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,82 @@
+package com.defano.hypertalk.ast.expression;
+
+import com.defano.hypertalk.GuiceTest;
+import com.defano.hypertalk.ast.expression.container.VariableExp;
+import com.defano.hypertalk.ast.expression.operator.binary.AddOp;
+import com.defano.hypertalk.ast.expression.operator.binary.AndOp;
+import com.defano.hypertalk.ast.expression.operator.binary.LessThanOp;
+import com.defano.hypertalk.ast.expression.operator.binary.MinusOp;
+import com.defano.hypertalk.ast.expression.operator.binary.MultiplyOp;
+import com.defano.hypertalk.ast.expression.operator.unary.NotOp;
+import com.defano.hypertalk.ast.model.Value;
+import com.defano.hypertalk.exception.HtSemanticException;
+import com.defano.wyldcard.runtime.ExecutionContext;
+import com.defano.wyldcard.runtime.symbol.SymbolReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class ExpressionCompilerTest extends GuiceTest<ExpressionCompiler> {
+
+    @BeforeEach
+    public void setUp() {
+        initialize();
+    }
+
+    @Test
+    public void testThatOperatorsAreCompiled() throws Exception {
+        // (2 + 3) * 4
+        Expression product = new MultiplyOp(mockParserRuleContext,
+                new GroupExp(mockParserRuleContext, new AddOp(mockParserRuleContext, literal("2"), literal("3"))), literal("4"));
+
+        // not (4 < 3 and true)
+        Expression negation = new NotOp(mockParserRuleContext,
+                new AndOp(mockParserRuleContext, new LessThanOp(mockParserRuleContext, literal("4"), literal("3")), literal("true")));
+
+        assertEquals(new Value(20), ExpressionCompiler.compile(product).evaluate(mockExecutionContext));
+        assertEquals(new Value(true), ExpressionCompiler.compile(negation).evaluate(mockExecutionContext));
+    }
+
+    @Test
+    public void testThatVariableIsReadOnEachEvaluation() throws Exception {
+        when(mockExecutionContext.getVariable(any(SymbolReference.class))).thenReturn(new Value(7), new Value(10));
+        CompiledExpression compiled = ExpressionCompiler.compile(new MinusOp(mockParserRuleContext, new VariableExp(mockParserRuleContext, "x"), literal("2")));
+
+        assertEquals(new Value(5), compiled.evaluate(mockExecutionContext));
+        assertEquals(new Value(8), compiled.evaluate(mockExecutionContext));
+        verify(mockExecutionContext, times(2)).getVariable(any(SymbolReference.class));
+    }
+
+    @Test
+    public void testThatOperatorErrorIsContextualized() {
+        CompiledExpression compiled = ExpressionCompiler.compile(new AddOp(mockParserRuleContext, literal("abc"), literal("1")));
+
+        HtSemanticException e = assertThrows(HtSemanticException.class, () -> compiled.evaluate(mockExecutionContext));
+        assertEquals("The value '1' cannot be added to 'abc'.", e.getMessage());
+        assertNotNull(e.getBreadcrumb());
+    }
+
+    @Test
+    public void testThatOtherExpressionsAreEvaluated() throws Exception {
+        int[] evaluations = new int[1];
+        Expression other = new Expression(mockParserRuleContext) {
+            @Override
+            protected Value onEvaluate(ExecutionContext context) {
+                evaluations[0]++;
+                return new Value(1);
+            }
+        };
+
+        CompiledExpression compiled = ExpressionCompiler.compile(new AddOp(mockParserRuleContext, other, literal("1")));
+
+        assertEquals(new Value(2), compiled.evaluate(mockExecutionContext));
+        assertEquals(1, evaluations[0]);
+    }
+
+    private LiteralExp literal(String value) {
+        return new LiteralExp(null, value);
+    }
+}
@@ -945,4 +945,63 @@ public class ValueTest extends GuiceTest<Value> {
         assertEquals(new Value("thatthis"), Value.ofValue(new Value("this"), Preposition.BEFORE, new Value("that")));
         assertEquals(new Value("thisthat"), Value.ofValue(new Value("this"), Preposition.AFTER, new Value("that")));
     }
+
+    @Test
+    public void testPrimitiveValuesBehaveAsTheirStringForm() {
+        assertEquals("12", new Value(12L).toString());
+        assertEquals("-3.5", new Value(-3.5).toString());
+        assertEquals("true", new Value(true).toString());
+
+        assertTrue(new Value(12L).isInteger());
+        assertTrue(new Value(12L).isNumber());
+        assertFalse(new Value(12L).isBoolean());
+        assertFalse(new Value(2.0).isInteger());
+        assertTrue(new Value(2.0).isNumber());
+        assertFalse(new Value(false).isNumber());
+        assertTrue(new Value(false).isBoolean());
+
+        assertFalse(new Value(0L).isEmpty());
+        assertEquals(new Value("12"), new Value(12L));
+        assertEquals(new Value("12").hashCode(), new Value(12L).hashCode());
+        assertEquals(new Value(" TRUE "), Value.of(true));
+    }
+
+    @Test
+    public void testCopyOfPrimitiveValue() {
+        Value copy = new Value(new Value(42L));
+        assertTrue(copy.isInteger());
+        assertEquals(42, copy.integerValue());
+        assertEquals("42", copy.toString());
+    }
+
+    @Test
+    public void testArithmeticOnPrimitiveValues() throws HtException {
+        Value sum = new Value(40L).add(new Value(2L));
+        assertTrue(sum.isInteger());
+        assertEquals(42L, sum.longValue());
+        assertEquals("42", sum.toString());
+
+        Value product = new Value(1.5).multipliedBy(new Value("2"));
+        assertFalse(product.isInteger());
+        assertEquals("3.0", product.toString());
+
+        assertSame(Value.of(true), new Value(1L).isLessThan(new Value(2L)));
+    }
+
+    @Test
+    public void testMemoizedChunkIndex() throws HtException {
+        Mockito.when(mockWyldCardPart.get(mockExecutionContext, WyldCardProperties.PROP_ITEMDELIMITER)).thenReturn(new Value(","));
+        Value value = new Value("a,b\nc-d e\nf");
+
+        assertEquals(3, value.lineCount(mockExecutionContext));
+        assertEquals(new Value("c-d e"), value.getChunk(mockExecutionContext, TestChunkBuilder.buildSingleChunk(ChunkType.LINE, 2)));
+        assertEquals(new Value("c-d e\nf"), value.getChunk(mockExecutionContext, TestChunkBuilder.buildChunkRange(ChunkType.LINERANGE, 2, 3)));
+        assertEquals(new Value(""), value.getChunk(mockExecutionContext, TestChunkBuilder.buildSingleChunk(ChunkType.LINE, 4)));
+        assertEquals(new Value("e"), value.getChunk(mockExecutionContext, TestChunkBuilder.buildSingleChunk(ChunkType.WORD, 3)));
+        assertEquals(new Value("b\nc-d e\nf"), value.getChunk(mockExecutionContext, TestChunkBuilder.buildSingleChunk(ChunkType.ITEM, 2)));
+
+        Mockito.when(mockWyldCardPart.get(mockExecutionContext, WyldCardProperties.PROP_ITEMDELIMITER)).thenReturn(new Value("-"));
+        assertEquals(new Value("d e\nf"), value.getChunk(mockExecutionContext, TestChunkBuilder.buildSingleChunk(ChunkType.ITEM, 2)));
+        assertEquals(2, new Value(value).itemCount(mockExecutionContext));
+    }
 }
@@ -0,0 +1,105 @@
+package com.defano.hypertalk.ast.statement;
+
+import com.defano.hypertalk.GuiceTest;
+import com.defano.hypertalk.ast.expression.LiteralExp;
+import com.defano.hypertalk.ast.expression.operator.binary.AddOp;
+import com.defano.hypertalk.ast.model.Value;
+import com.defano.hypertalk.ast.preemption.TerminateHandlerPreemption;
+import com.defano.hypertalk.ast.preemption.TerminateIterationPreemption;
+import com.defano.hypertalk.ast.statement.conditional.IfStatement;
+import com.defano.hypertalk.ast.statement.conditional.ThenElseBlock;
+import com.defano.hypertalk.ast.statement.repeat.RepeatCount;
+import com.defano.hypertalk.ast.statement.repeat.RepeatStatement;
+import com.defano.hypertalk.exception.HtSemanticException;
+import com.defano.wyldcard.runtime.ExecutionContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+public class StatementCompilerTest extends GuiceTest<StatementCompiler> {
+
+    private int[] before;
+    private int[] after;
+
+    @BeforeEach
+    public void setUp() {
+        initialize();
+        before = new int[1];
+        after = new int[1];
+    }
+
+    @Test
+    public void testThatNextRepeatContinuesLoop() throws Exception {
+        StatementList body = list(counter(before), new IfStatement(mockParserRuleContext, new LiteralExp(null, "true"),
+                new ThenElseBlock(new NextRepeatStatement(mockParserRuleContext), null)), counter(after));
+        StatementList handler = list(repeat(5, body));
+
+        StatementCompiler.execute(StatementCompiler.compile(handler), mockExecutionContext);
+
+        assertEquals(5, before[0]);
+        assertEquals(0, after[0]);
+    }
+
+    @Test
+    public void testThatExitRepeatExitsLoop() throws Exception {
+        StatementList body = list(counter(before), new ExitRepeatStatement(mockParserRuleContext), counter(after));
+        StatementList handler = list(repeat(5, body), counter(after));
+
+        StatementCompiler.execute(StatementCompiler.compile(handler), mockExecutionContext);
+
+        assertEquals(1, before[0]);
+        assertEquals(1, after[0]);
+    }
+
+    @Test
+    public void testThatNextRepeatOutsideLoopIsPreemption() {
+        StatementList handler = list(new NextRepeatStatement(mockParserRuleContext), counter(after));
+
+        assertThrows(TerminateIterationPreemption.class, () -> StatementCompiler.execute(StatementCompiler.compile(handler), mockExecutionContext));
+        assertEquals(0, after[0]);
+    }
+
+    @Test
+    public void testThatNonBooleanConditionIsContextualizedError() {
+        StatementList handler = list(new IfStatement(mockParserRuleContext, new LiteralExp(null, "maybe"),
+                new ThenElseBlock(counter(after), null)));
+
+        HtSemanticException e = assertThrows(HtSemanticException.class, () -> StatementCompiler.execute(StatementCompiler.compile(handler), mockExecutionContext));
+        assertEquals("Condition expects a true or false value.", e.getMessage());
+        assertNotNull(e.getBreadcrumb());
+    }
+
+    @Test
+    public void testThatReturnTerminatesHandlerWithValue() {
+        StatementList handler = list(new ReturnStatement(mockParserRuleContext,
+                new AddOp(mockParserRuleContext, new LiteralExp(null, "1"), new LiteralExp(null, "2"))), counter(after));
+
+        assertThrows(TerminateHandlerPreemption.class, () -> StatementCompiler.execute(StatementCompiler.compile(handler), mockExecutionContext));
+        verify(mockExecutionContext.getStackFrame()).setReturnValue(new Value(3));
+        verify(mockExecutionContext).setResult(new Value(3));
+        assertEquals(0, after[0]);
+    }
+
+    private RepeatStatement repeat(int count, StatementList body) {
+        return new RepeatStatement(mockParserRuleContext, new RepeatCount(new LiteralExp(null, String.valueOf(count))), body);
+    }
+
+    private StatementList list(Statement... statements) {
+        StatementList list = new StatementList();
+        for (int index = statements.length - 1; index >= 0; index--) {
+            list.prepend(statements[index]);
+        }
+        return list;
+    }
+
+    private Statement counter(int[] count) {
+        return new Statement(mockParserRuleContext) {
+            @Override
+            protected void onExecute(ExecutionContext context) {
+                count[0]++;
+            }
+        };
+    }
+}
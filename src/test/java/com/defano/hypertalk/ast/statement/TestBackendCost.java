@@ -0,0 +1,134 @@
+package com.defano.hypertalk.ast.statement;
+
+import com.defano.hypertalk.GuiceTest;
+import com.defano.hypertalk.ast.model.NamedBlock;
+import com.defano.hypertalk.ast.model.Value;
+import com.defano.hypertalk.ast.model.specifier.PartSpecifier;
+import com.defano.hypertalk.exception.HtException;
+import com.defano.wyldcard.part.builder.StackModelBuilder;
+import com.defano.wyldcard.part.model.PartModel;
+import com.defano.wyldcard.part.stack.StackModel;
+import com.defano.wyldcard.part.stack.StackPart;
+import com.defano.wyldcard.runtime.ExecutionContext;
+import com.defano.wyldcard.runtime.executor.ExecutionBackend;
+import com.defano.wyldcard.runtime.executor.ScriptExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.when;
+
+@Ignore     // Benchmark of the interpreted and compiled execution backends, don't run as part of normal test suite
+public class TestBackendCost extends GuiceTest<Object> {
+
+    private static final int FIBONACCI = 20;
+    private static final int MULTIPLES = 100000;
+    private static final int PASSES = 10;
+
+    private static final String SCRIPT =
+            "function fibonacci n\n" +
+            "  if n < 2 then return n\n" +
+            "  return fibonacci(n - 1) + fibonacci(n - 2)\n" +
+            "end fibonacci\n" +
+            "\n" +
+            "function sumOfMultiples n\n" +
+            "  put 0 into total\n" +
+            "  repeat with i = 1 to n\n" +
+            "    if i mod 3 = 0 or i mod 5 = 0 then add i to total\n" +
+            "  end repeat\n" +
+            "  return total\n" +
+            "end sumOfMultiples\n";
+
+    private final ExecutionBackend selectedBackend = ExecutionBackend.getSelectedBackend();
+
+    private StackModel stack;
+    private ExecutionContext context;
+
+    @Before
+    public void setUp() {
+        initialize();
+
+        stack = new StackModelBuilder().build();
+        context = new BenchmarkContext();
+    }
+
+    @After
+    public void tearDown() {
+        ExecutionBackend.setSelectedBackend(selectedBackend);
+    }
+
+    @Test
+    public void testRecursiveFunction() throws HtException {
+        long expected = fibonacci(FIBONACCI);
+
+        System.out.println("Recursive function, interpreted: " + run(ExecutionBackend.INTERPRETED, "fibonacci", FIBONACCI, expected) + "us per call.");
+        System.out.println("Recursive function, compiled: " + run(ExecutionBackend.COMPILED, "fibonacci", FIBONACCI, expected) + "us per call.");
+    }
+
+    @Test
+    public void testLoopOfExpressions() throws HtException {
+        long expected = 0;
+        for (int i = 1; i <= MULTIPLES; i++) {
+            expected += i % 3 == 0 || i % 5 == 0 ? i : 0;
+        }
+
+        System.out.println("Loop of expressions, interpreted: " + run(ExecutionBackend.INTERPRETED, "sumOfMultiples", MULTIPLES, expected) + "us per call.");
+        System.out.println("Loop of expressions, compiled: " + run(ExecutionBackend.COMPILED, "sumOfMultiples", MULTIPLES, expected) + "us per call.");
+    }
+
+    /**
+     * Executes the given function of the script under the given backend; warms up (so that, when compiled, the
+     * function is hot), then reports the cost of the last call.
+     */
+    private long run(ExecutionBackend backend, String function, int argument, long expected) throws HtException {
+        ExecutionBackend.setSelectedBackend(backend);
+
+        // Script text unique to the backend, so that neither backend executes statements the other compiled
+        stack.set(context, StackModel.PROP_SCRIPT, new Value(SCRIPT + "-- " + backend + "\n"));
+        NamedBlock block = stack.getScript(context).getNamedBlock(function);
+        long elapsed = 0;
+
+        for (int pass = 0; pass < PASSES; pass++) {
+            long start = System.nanoTime();
+            Value result = ScriptExecutor.blockingExecuteFunction(context, null, stack.getMe(context), block, Collections.singletonList(new Value(argument)));
+            elapsed = System.nanoTime() - start;
+
+            if (result.longValue() != expected) {
+                throw new IllegalStateException("Expected " + expected + " but " + backend + " returned " + result);
+            }
+        }
+
+        return elapsed / 1000;
+    }
+
+    private static long fibonacci(int n) {
+        return n < 2 ? n : fibonacci(n - 1) + fibonacci(n - 2);
+    }
+
+    /**
+     * An execution context in which the benchmark stack is the current stack, and the only part.
+     */
+    private class BenchmarkContext extends ExecutionContext {
+        private final StackPart mockStackPart = Mockito.mock(StackPart.class, RETURNS_DEEP_STUBS);
+
+        private BenchmarkContext() {
+            unbind();
+            when(mockStackPart.getStackModel()).thenReturn(stack);
+        }
+
+        @Override
+        public StackPart getCurrentStack() {
+            return mockStackPart;
+        }
+
+        @Override
+        public PartModel getPart(PartSpecifier ps) {
+            return stack;
+        }
+    }
+}
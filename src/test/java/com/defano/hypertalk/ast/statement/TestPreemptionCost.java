@@ -0,0 +1,141 @@
+package com.defano.hypertalk.ast.statement;
+
+import com.defano.hypertalk.GuiceTest;
+import com.defano.hypertalk.ast.model.NamedBlock;
+import com.defano.hypertalk.ast.model.Value;
+import com.defano.hypertalk.ast.model.specifier.PartSpecifier;
+import com.defano.hypertalk.exception.HtException;
+import com.defano.wyldcard.part.builder.StackModelBuilder;
+import com.defano.wyldcard.part.model.PartModel;
+import com.defano.wyldcard.part.stack.StackModel;
+import com.defano.wyldcard.part.stack.StackPart;
+import com.defano.wyldcard.runtime.ExecutionContext;
+import com.defano.wyldcard.runtime.executor.ScriptExecutor;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.when;
+
+@Ignore     // Benchmark of control-flow preemption cost, don't run as part of normal test suite
+public class TestPreemptionCost extends GuiceTest<Object> {
+
+    private static final int ITERATIONS = 100000;
+    private static final int PASSES = 5;
+
+    private static final String SCRIPT =
+            "function nextRepeatLoop\n" +
+            "  put 0 into counter\n" +
+            "  repeat " + ITERATIONS + "\n" +
+            "    add 1 to counter\n" +
+            "    next repeat\n" +
+            "    subtract 1 from counter\n" +
+            "  end repeat\n" +
+            "  return counter\n" +
+            "end nextRepeatLoop\n" +
+            "\n" +
+            "function plainLoop\n" +
+            "  put 0 into counter\n" +
+            "  repeat " + ITERATIONS + "\n" +
+            "    add 1 to counter\n" +
+            "  end repeat\n" +
+            "  return counter\n" +
+            "end plainLoop\n" +
+            "\n" +
+            "function earlyReturnLoop\n" +
+            "  put 0 into counter\n" +
+            "  repeat with i = 1 to " + ITERATIONS + "\n" +
+            "    add earlyReturn(i) to counter\n" +
+            "  end repeat\n" +
+            "  return counter\n" +
+            "end earlyReturnLoop\n" +
+            "\n" +
+            "function fallThroughLoop\n" +
+            "  put 0 into counter\n" +
+            "  repeat with i = 1 to " + ITERATIONS + "\n" +
+            "    get fallThrough(i)\n" +
+            "    add 1 to counter\n" +
+            "  end repeat\n" +
+            "  return counter\n" +
+            "end fallThroughLoop\n" +
+            "\n" +
+            "function earlyReturn n\n" +
+            "  if n > 0 then return 1\n" +
+            "  return 0\n" +
+            "end earlyReturn\n" +
+            "\n" +
+            "function fallThrough n\n" +
+            "  put 1 into x\n" +
+            "end fallThrough\n";
+
+    private StackModel stack;
+    private ExecutionContext context;
+
+    @Before
+    public void setUp() {
+        initialize();
+
+        stack = new StackModelBuilder().build();
+        context = new BenchmarkContext();
+        stack.set(context, StackModel.PROP_SCRIPT, new Value(SCRIPT));
+    }
+
+    @Test
+    public void testNextRepeat() throws HtException {
+        System.out.println("'next repeat' on every iteration: " + run("nextRepeatLoop") + "ns per iteration.");
+        System.out.println("Same loop without 'next repeat': " + run("plainLoop") + "ns per iteration.");
+    }
+
+    @Test
+    public void testEarlyReturn() throws HtException {
+        System.out.println("Function returning early, called on every iteration: " + run("earlyReturnLoop") + "ns per iteration.");
+        System.out.println("Function without 'return', called on every iteration: " + run("fallThroughLoop") + "ns per iteration.");
+    }
+
+    /**
+     * Executes the given function of the script through the interpreter; warms up, then reports the mean cost of an
+     * iteration of the function's loop.
+     */
+    private long run(String function) throws HtException {
+        NamedBlock block = stack.getScript(context).getNamedBlock(function);
+        long elapsed = 0;
+
+        for (int pass = 0; pass < PASSES; pass++) {
+            long start = System.nanoTime();
+            Value counter = ScriptExecutor.blockingExecuteFunction(context, null, stack.getMe(context), block, Collections.emptyList());
+            elapsed = System.nanoTime() - start;
+
+            if (counter.integerValue() != ITERATIONS) {
+                throw new IllegalStateException("Expected " + ITERATIONS + " iterations but counted " + counter);
+            }
+        }
+
+        return elapsed / ITERATIONS;
+    }
+
+    /**
+     * An execution context in which the benchmark stack is the current stack, and the only part.
+     */
+    private class BenchmarkContext extends ExecutionContext {
+        private final StackPart mockStackPart = Mockito.mock(StackPart.class, RETURNS_DEEP_STUBS);
+
+        private BenchmarkContext() {
+            unbind();
+            when(mockStackPart.getStackModel()).thenReturn(stack);
+        }
+
+        @Override
+        public StackPart getCurrentStack() {
+            return mockStackPart;
+        }
+
+        @Override
+        public PartModel getPart(PartSpecifier ps) {
+            return stack;
+        }
+    }
+}
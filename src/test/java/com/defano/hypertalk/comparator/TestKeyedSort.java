@@ -0,0 +1,81 @@
+package com.defano.hypertalk.comparator;
+
+import com.defano.hypertalk.ast.model.Value;
+import com.defano.hypertalk.ast.model.enums.SortDirection;
+import com.defano.hypertalk.ast.model.enums.SortStyle;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestKeyedSort {
+
+    @Test
+    public void testNumericSort() {
+        List<Value> items = values("10", "9", "100", "-1");
+
+        assertEquals(Arrays.asList("-1", "9", "10", "100"), strings(KeyedSort.sort(items, items, SortStyle.NUMERIC, SortDirection.ASCENDING)));
+        assertEquals(Arrays.asList("100", "10", "9", "-1"), strings(KeyedSort.sort(items, items, SortStyle.NUMERIC, SortDirection.DESCENDING)));
+    }
+
+    @Test
+    public void testTextSort() {
+        List<Value> items = values("b", "a", "C");
+
+        assertEquals(Arrays.asList("C", "a", "b"), strings(KeyedSort.sort(items, items, SortStyle.TEXT, SortDirection.ASCENDING)));
+    }
+
+    @Test
+    public void testSortIsStable() {
+        List<Value> items = values("x", "y", "z", "w");
+        List<Value> keys = values("2", "1", "2", "1");
+
+        assertEquals(Arrays.asList("y", "w", "x", "z"), strings(KeyedSort.sort(items, keys, SortStyle.NUMERIC, SortDirection.ASCENDING)));
+        assertEquals(Arrays.asList("x", "z", "y", "w"), strings(KeyedSort.sort(items, keys, SortStyle.NUMERIC, SortDirection.DESCENDING)));
+    }
+
+    @Test
+    public void testDateSortMatchesValueComparison() {
+        List<Value> items = values("not a date", "12/25/99", "1/1/2000", "12:30 PM", "also not a date", "7/4/76");
+
+        List<Value> ascending = new ArrayList<>(items);
+        ascending.sort((o1, o2) -> o1.compareTo(o2, SortStyle.DATE_TIME));
+        List<Value> descending = new ArrayList<>(items);
+        descending.sort((o1, o2) -> o2.compareTo(o1, SortStyle.DATE_TIME));
+
+        assertEquals(strings(ascending), strings(KeyedSort.sort(items, items, SortStyle.DATE_TIME, SortDirection.ASCENDING)));
+        assertEquals(strings(descending), strings(KeyedSort.sort(items, items, SortStyle.DATE_TIME, SortDirection.DESCENDING)));
+    }
+
+    @Test
+    public void testLargeSortMatchesValueComparison() {
+        List<Value> items = new ArrayList<>();
+        for (int index = 0; index < 10000; index++) {
+            items.add(new Value((index * 7919) % 10007));
+        }
+
+        List<Value> expected = new ArrayList<>(items);
+        expected.sort((o1, o2) -> o1.compareTo(o2, SortStyle.NUMERIC));
+
+        assertEquals(strings(expected), strings(KeyedSort.sort(items, items, SortStyle.NUMERIC, SortDirection.ASCENDING)));
+    }
+
+    private List<Value> values(String... values) {
+        List<Value> list = new ArrayList<>();
+        for (String thisValue : values) {
+            list.add(new Value(thisValue));
+        }
+        return list;
+    }
+
+    private List<String> strings(List<Value> values) {
+        List<String> list = new ArrayList<>();
+        for (Value thisValue : values) {
+            list.add(thisValue.toString());
+        }
+        return list;
+    }
+}
@@ -98,6 +98,25 @@ public class TestChunkUtils extends GuiceTest {
         assertEquals("L1\n\nL3\nL4\n\n\n\n\nx", ChunkUtils.putChunk(mockExecutionContext, ChunkType.LINE, Preposition.INTO, "L1\n\nL3\nL4", 9, 0, "x"));
     }
 
+    @Test
+    public void testPutLineChunkInRope() {
+        Rope rope = Rope.of("L1\n\nL3\nL4");
+
+        assertEquals("L1\n\nx\nL3\nL4", ChunkUtils.putLineChunk(Preposition.AFTER, rope, 2, Rope.of("x")).toString());
+        assertEquals("x\nL1\n\nL3\nL4", ChunkUtils.putLineChunk(Preposition.BEFORE, rope, 1, Rope.of("x")).toString());
+        assertEquals("L1\n\nL3\nx", ChunkUtils.putLineChunk(Preposition.INTO, rope, Ordinal.LAST.intValue(), Rope.of("x")).toString());
+        assertEquals("L1\n\nL3\nL4\n\n\n\n\n\nx", ChunkUtils.putLineChunk(Preposition.AFTER, rope, 9, Rope.of("x")).toString());
+
+        StringBuilder expected = new StringBuilder();
+        for (int line = 1; line <= 5000; line++) {
+            rope = ChunkUtils.putLineChunk(Preposition.INTO, rope, line + 4, Rope.of("Line " + line));
+            expected.append("\nLine ").append(line);
+        }
+
+        assertEquals("L1\n\nL3\nL4" + expected, rope.toString());
+        assertEquals(5004, rope.getLineCount());
+    }
+
     @Test
     public void testPutAfterItem() throws HtSemanticException {
         assertEquals("1,x, 2,\n3,\t4", ChunkUtils.putChunk(mockExecutionContext, ChunkType.ITEM, Preposition.AFTER, "1, 2,\n3,\t4", 1, 0, "x"));
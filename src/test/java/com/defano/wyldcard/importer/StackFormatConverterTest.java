@@ -0,0 +1,155 @@
+package com.defano.wyldcard.importer;
+
+import com.defano.hypertalk.GuiceTest;
+import com.defano.wyldcard.part.card.CardModel;
+import com.defano.wyldcard.part.stack.StackModel;
+import com.defano.wyldcard.stackreader.TestStackBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StackFormatConverterTest extends GuiceTest<Object> {
+
+    private static final int CARD_COUNT = 40;
+    private static final Dimension SIZE = new Dimension(40, 12);
+
+    @TempDir
+    public Path tempDir;
+
+    private final List<String> progressMessages = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> imagesDecoded = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> cardsImported = Collections.synchronizedList(new ArrayList<>());
+
+    private StackModel importedStack;
+    private Exception importFailure;
+
+    @BeforeEach
+    public void setUp() {
+        initialize();
+    }
+
+    @Test
+    public void testThatCardsAreImportedInOrder() throws Exception {
+        convert(stackFile());
+
+        assertEquals(CARD_COUNT, importedStack.getCardCount());
+        assertEquals(SIZE, importedStack.getSize(mockExecutionContext));
+
+        for (int cardIdx = 0; cardIdx < CARD_COUNT; cardIdx++) {
+            CardModel card = importedStack.getCardModel(cardIdx);
+            assertEquals(TestStackBuilder.FIRST_CARD_ID + cardIdx, card.getId());
+            assertEquals(TestStackBuilder.BACKGROUND_ID, card.getBackgroundModel().getId());
+        }
+    }
+
+    @Test
+    public void testThatCardImagesAreDecoded() throws Exception {
+        convert(stackFile());
+
+        for (int cardIdx = 0; cardIdx < CARD_COUNT; cardIdx++) {
+            BufferedImage expected = cardImage(cardIdx);
+            BufferedImage actual = importedStack.getCardModel(cardIdx).getCardImage(SIZE);
+
+            for (int y = 0; y < SIZE.height; y++) {
+                for (int x = 0; x < SIZE.width; x++) {
+                    assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "Pixel " + x + "," + y + " of card " + cardIdx);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testThatDecodingProgressIsReportedInOrder() throws Exception {
+        // Fewer than 100 images, so progress is reported after each is decoded
+        convert(stackFile());
+
+        assertEquals(IntStream.rangeClosed(1, CARD_COUNT).boxed().collect(Collectors.toList()), imagesDecoded);
+        assertEquals(IntStream.rangeClosed(1, CARD_COUNT).boxed().collect(Collectors.toList()), cardsImported);
+    }
+
+    @Test
+    public void testThatDecodingPrecedesImporting() throws Exception {
+        convert(stackFile());
+
+        assertEquals(CARD_COUNT * 2, progressMessages.size());
+        assertEquals("Decoding image " + CARD_COUNT + " of " + CARD_COUNT + ".", progressMessages.get(CARD_COUNT - 1));
+        assertEquals("Importing card 1 of " + CARD_COUNT + ".", progressMessages.get(CARD_COUNT));
+    }
+
+    @Test
+    public void testThatMalformedStackFails() throws Exception {
+        File file = tempDir.resolve("Malformed").toFile();
+        Files.write(file.toPath(), new byte[]{0, 0, 0, 16, 'J', 'U', 'N', 'K', 0, 0, 0, 0, 0, 0, 0, 0});
+
+        convert(file);
+
+        assertNull(importedStack);
+        assertNotNull(importFailure);
+    }
+
+    private void convert(File stackFile) throws InterruptedException {
+        CountDownLatch completion = new CountDownLatch(1);
+
+        StackFormatConverter.convert(stackFile, new ConversionStatusObserver() {
+            @Override
+            public void onConversionFailed(String message, Exception cause) {
+                importFailure = cause;
+                completion.countDown();
+            }
+
+            @Override
+            public void onConversionSucceeded(StackModel stack) {
+                importedStack = stack;
+                completion.countDown();
+            }
+        }, (count, total, message) -> {
+            progressMessages.add(message);
+            if (message.startsWith("Decoding")) {
+                imagesDecoded.add(count);
+            } else {
+                cardsImported.add(count);
+            }
+        });
+
+        assertTrue(completion.await(30, TimeUnit.SECONDS));
+    }
+
+    private File stackFile() throws Exception {
+        TestStackBuilder builder = new TestStackBuilder(SIZE.width, SIZE.height);
+        for (int cardIdx = 0; cardIdx < CARD_COUNT; cardIdx++) {
+            builder.withCard(cardImage(cardIdx));
+        }
+
+        return builder.build(tempDir.resolve("Test Stack").toFile());
+    }
+
+    /**
+     * An image unique to each card; a diagonal stripe pattern, offset by the card's index.
+     */
+    private BufferedImage cardImage(int cardIdx) {
+        BufferedImage image = new BufferedImage(SIZE.width, SIZE.height, BufferedImage.TYPE_INT_ARGB);
+
+        for (int y = 0; y < SIZE.height; y++) {
+            for (int x = 0; x < SIZE.width; x++) {
+                image.setRGB(x, y, (x + y + cardIdx) % 5 == 0 ? 0xFF000000 : 0xFFFFFFFF);
+            }
+        }
+
+        return image;
+    }
+}
@@ -0,0 +1,56 @@
+package com.defano.wyldcard.message;
+
+import com.defano.hypertalk.GuiceTest;
+import com.defano.hypertalk.ast.model.enums.PartType;
+import com.defano.wyldcard.part.stack.StackModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class HandlerIndexTest extends GuiceTest<HandlerIndex> {
+
+    private Messagable mockCard;
+    private StackModel mockStack;
+
+    @BeforeEach
+    public void setup() {
+        initialize(new HandlerIndex());
+
+        mockCard = mock(Messagable.class, RETURNS_DEEP_STUBS);
+        mockStack = mock(StackModel.class, RETURNS_DEEP_STUBS);
+
+        when(mockCard.getMe(mockExecutionContext).getType()).thenReturn(PartType.CARD);
+        when(mockCard.getNextMessageRecipient(mockExecutionContext, PartType.CARD)).thenReturn(mockStack);
+        when(mockStack.getMe(mockExecutionContext).getType()).thenReturn(PartType.STACK);
+        when(mockCard.getNextMessageRecipient(mockExecutionContext, PartType.STACK)).thenReturn(mockWyldCardPart);
+        when(mockStack.hasHandler(mockExecutionContext, "myHandler")).thenReturn(true);
+    }
+
+    @Test
+    public void testThatHandlerIsResolvedOnce() {
+        assertEquals(mockStack, uut.findHandlerRecipient(mockExecutionContext, mockCard, "myHandler"));
+        assertEquals(mockStack, uut.findHandlerRecipient(mockExecutionContext, mockCard, "MYHANDLER"));
+
+        verify(mockCard, times(1)).hasHandler(mockExecutionContext, "myHandler");
+        verify(mockStack, times(1)).hasHandler(mockExecutionContext, "myHandler");
+        verify(mockCard, never()).hasHandler(mockExecutionContext, "MYHANDLER");
+    }
+
+    @Test
+    public void testThatUnhandledMessageResolvesToWyldCard() {
+        assertEquals(mockWyldCardPart, uut.findHandlerRecipient(mockExecutionContext, mockCard, "noSuchHandler"));
+        assertEquals(mockWyldCardPart, uut.findHandlerRecipient(mockExecutionContext, mockWyldCardPart, "myHandler"));
+    }
+
+    @Test
+    public void testThatInvalidationDiscardsResolutions() {
+        uut.findHandlerRecipient(mockExecutionContext, mockCard, "myHandler");
+
+        HandlerIndex.invalidate();
+        when(mockCard.hasHandler(mockExecutionContext, "myHandler")).thenReturn(true);
+
+        assertEquals(mockCard, uut.findHandlerRecipient(mockExecutionContext, mockCard, "myHandler"));
+    }
+}
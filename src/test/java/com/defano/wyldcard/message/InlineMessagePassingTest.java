@@ -0,0 +1,241 @@
+package com.defano.wyldcard.message;
+
+import com.defano.hypertalk.GuiceTest;
+import com.defano.hypertalk.ast.ASTNode;
+import com.defano.hypertalk.ast.model.NamedBlock;
+import com.defano.hypertalk.ast.model.Script;
+import com.defano.hypertalk.ast.model.Value;
+import com.defano.hypertalk.ast.model.enums.Owner;
+import com.defano.hypertalk.ast.model.enums.PartType;
+import com.defano.hypertalk.ast.model.specifier.PartIdSpecifier;
+import com.defano.hypertalk.ast.model.specifier.PartSpecifier;
+import com.defano.hypertalk.exception.HtException;
+import com.defano.hypertalk.exception.HtSemanticException;
+import com.defano.wyldcard.part.stack.StackPart;
+import com.defano.wyldcard.runtime.ExecutionContext;
+import com.defano.wyldcard.runtime.compiler.CompilationUnit;
+import com.defano.wyldcard.runtime.compiler.ScriptCompiler;
+import com.defano.wyldcard.runtime.executor.observer.MessageCompletionObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verifies that messages sent from a script executor thread (passed inline through the message passing hierarchy)
+ * are handled exactly as messages sent from any other thread (passed asynchronously, one part at a time).
+ */
+public class InlineMessagePassingTest extends GuiceTest<Object> {
+
+    private static final String TRAP = "on myMsg\nend myMsg";
+    private static final String PASS = "on myMsg\n  pass myMsg\nend myMsg";
+
+    private final Map<PartType, Messagable> hierarchy = new HashMap<>();
+    private final ExecutorService scriptThread = Executors.newSingleThreadExecutor(r -> new Thread(r, "script-exe-test"));
+    private StackPart mockStackPart;
+    private boolean failInHandler;
+
+    @BeforeEach
+    public void setUp() {
+        initialize();
+        HandlerIndex.invalidate();
+
+        mockStackPart = Mockito.mock(StackPart.class, RETURNS_DEEP_STUBS);
+        when(mockStackPart.getStackModel().getHandlerIndex()).thenReturn(new HandlerIndex());
+
+        // WyldCard traps nothing; messages reaching it are simply passed
+        doAnswer(invocation -> {
+            ((MessageCompletionObserver) invocation.getArguments()[3]).onMessagePassed((Message) invocation.getArguments()[2], false, null);
+            return null;
+        }).when(mockWyldCardPart).receiveMessage(any(ExecutionContext.class), any(ASTNode.class), any(Message.class), any(MessageCompletionObserver.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scriptThread.shutdownNow();
+    }
+
+    @Test
+    public void testThatFirstHandlerTrapsMessage() throws Exception {
+        givenHierarchy(TRAP, PASS, PASS, PASS);
+
+        assertSameOutcome(true, Collections.singletonList(PartType.BUTTON), PartType.BUTTON);
+    }
+
+    @Test
+    public void testThatPassedMessageReachesNextHandler() throws Exception {
+        givenHierarchy(PASS, null, TRAP, PASS);
+
+        assertSameOutcome(true, Arrays.asList(PartType.BUTTON, PartType.BACKGROUND), PartType.BUTTON);
+    }
+
+    @Test
+    public void testThatMessagePassedByEveryPartIsNotTrapped() throws Exception {
+        givenHierarchy(PASS, PASS, PASS, PASS);
+
+        assertSameOutcome(false, Arrays.asList(PartType.BUTTON, PartType.CARD, PartType.BACKGROUND, PartType.STACK), PartType.BUTTON);
+    }
+
+    @Test
+    public void testThatUnhandledMessageIsNotTrapped() throws Exception {
+        givenHierarchy(null, null, null, null);
+
+        assertSameOutcome(false, Collections.emptyList(), PartType.BUTTON);
+    }
+
+    @Test
+    public void testThatUnhandledFirstRecipientIsTarget() throws Exception {
+        givenHierarchy(null, null, TRAP, PASS);
+
+        assertSameOutcome(true, Collections.singletonList(PartType.BACKGROUND), PartType.BUTTON);
+    }
+
+    @Test
+    public void testThatUnexpectedErrorInHandlerIsReportedAlike() throws Exception {
+        givenHierarchy(TRAP, null, null, null);
+        failInHandler = true;
+
+        Outcome baseline = send(false);
+        Outcome inline = send(true);
+
+        assertTrue(baseline.trapped);
+        assertTrue(baseline.error instanceof HtSemanticException);
+        assertTrue(baseline.error.getMessage().startsWith("Bug!"));
+
+        assertEquals(baseline.trapped, inline.trapped);
+        assertEquals(baseline.error.getClass(), inline.error.getClass());
+        assertEquals(baseline.error.getMessage(), inline.error.getMessage());
+        assertEquals(baseline.handledBy, inline.handledBy);
+    }
+
+    private void assertSameOutcome(boolean trapped, List<PartType> handledBy, PartType target) throws Exception {
+        Outcome baseline = send(false);
+        Outcome inline = send(true);
+
+        assertNull(baseline.error);
+        assertNull(inline.error);
+        assertEquals(trapped, baseline.trapped);
+        assertEquals(handledBy, baseline.handledBy);
+        assertEquals(target, baseline.target.getType());
+
+        assertEquals(baseline.trapped, inline.trapped);
+        assertEquals(baseline.handledBy, inline.handledBy);
+        assertEquals(baseline.target, inline.target);
+    }
+
+    /**
+     * Sends 'myMsg' to the button at the bottom of the hierarchy, either from a script executor thread (passing the
+     * message inline) or from this thread (passing the message asynchronously).
+     */
+    private Outcome send(boolean fromScriptThread) throws Exception {
+        Outcome outcome = new Outcome();
+        CountDownLatch completion = new CountDownLatch(1);
+        Message message = MessageBuilder.named("myMsg").build();
+
+        outcome.context = new RecordingContext(outcome.handledBy);
+        MessageCompletionObserver observer = (msg, wasTrapped, err) -> {
+            outcome.trapped = wasTrapped;
+            outcome.error = err;
+            completion.countDown();
+        };
+
+        if (fromScriptThread) {
+            scriptThread.submit(() -> hierarchy.get(PartType.BUTTON).receiveMessage(outcome.context, null, message, observer)).get(5, TimeUnit.SECONDS);
+        } else {
+            hierarchy.get(PartType.BUTTON).receiveMessage(outcome.context, null, message, observer);
+        }
+
+        assertTrue(completion.await(5, TimeUnit.SECONDS));
+
+        outcome.target = outcome.context.getTarget();
+        return outcome;
+    }
+
+    private void givenHierarchy(String buttonScript, String cardScript, String backgroundScript, String stackScript) throws HtException {
+        hierarchy.put(PartType.BUTTON, new TestPart(PartType.BUTTON, buttonScript));
+        hierarchy.put(PartType.CARD, new TestPart(PartType.CARD, cardScript));
+        hierarchy.put(PartType.BACKGROUND, new TestPart(PartType.BACKGROUND, backgroundScript));
+        hierarchy.put(PartType.STACK, new TestPart(PartType.STACK, stackScript));
+    }
+
+    private static class Outcome {
+        private RecordingContext context;
+        private final List<PartType> handledBy = new CopyOnWriteArrayList<>();
+        private boolean trapped;
+        private HtException error;
+        private PartSpecifier target;
+    }
+
+    /**
+     * An execution context recording the type of each part whose handler is invoked.
+     */
+    private class RecordingContext extends ExecutionContext {
+        private final List<PartType> handledBy;
+
+        private RecordingContext(List<PartType> handledBy) {
+            this.handledBy = handledBy;
+            unbind();
+        }
+
+        @Override
+        public StackPart getCurrentStack() {
+            return mockStackPart;
+        }
+
+        @Override
+        public void pushStackFrame(ASTNode callingNode, NamedBlock handler, PartSpecifier me, List<Value> arguments) throws HtException {
+            handledBy.add(me.getType());
+
+            // Simulates a bug in the handler's execution (rather than a HyperTalk error)
+            if (failInHandler) {
+                throw new IllegalStateException("Bang");
+            }
+
+            super.pushStackFrame(callingNode, handler, me, arguments);
+        }
+    }
+
+    /**
+     * A part in the button, card, background, stack hierarchy whose script is given as text (null for no script).
+     */
+    private class TestPart implements Messagable {
+        private final PartSpecifier me;
+        private final Script script;
+
+        private TestPart(PartType type, String scriptText) throws HtException {
+            this.me = new PartIdSpecifier(type == PartType.BUTTON ? Owner.CARD : null, type, type.ordinal());
+            this.script = scriptText == null ? new Script() : (Script) ScriptCompiler.blockingCompile(CompilationUnit.SCRIPT, scriptText);
+        }
+
+        @Override
+        public Script getScript(ExecutionContext context) {
+            return script;
+        }
+
+        @Override
+        public PartSpecifier getMe(ExecutionContext context) {
+            return me;
+        }
+
+        @Override
+        public Messagable getNextMessageRecipient(ExecutionContext context, PartType type) {
+            switch (type) {
+                case BUTTON:
+                    return hierarchy.get(PartType.CARD);
+                case CARD:
+                    return hierarchy.get(PartType.BACKGROUND);
+                case BACKGROUND:
+                    return hierarchy.get(PartType.STACK);
+                default:
+                    return mockWyldCardPart;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.defano.wyldcard.part.field;
+
+import com.defano.hypertalk.GuiceTest;
+import com.defano.hypertalk.ast.model.Value;
+import com.defano.hypertalk.ast.model.enums.Owner;
+import com.defano.wyldcard.part.builder.FieldModelBuilder;
+import com.defano.wyldcard.part.builder.StackModelBuilder;
+import com.defano.wyldcard.part.stack.StackModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.text.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FieldModelTest extends GuiceTest<Object> {
+
+    private static final int[] ALIGNMENTS = {StyleConstants.ALIGN_LEFT, StyleConstants.ALIGN_CENTER, StyleConstants.ALIGN_RIGHT};
+
+    private FieldModel field;
+
+    @BeforeEach
+    public void setUp() {
+        initialize();
+
+        StackModel stack = new StackModelBuilder().withInitialCard().build();
+        field = new FieldModelBuilder(Owner.CARD, stack.getCardModel(0)).withId(1).build();
+    }
+
+    @Test
+    public void testThatEachParagraphKeepsItsAlignment() throws BadLocationException {
+        field.setStyledDocument(mockExecutionContext, alignedDocument("Left", "Center", "Right"));
+
+        field.set(mockExecutionContext, FieldModel.PROP_TEXT, new Value("Left\nCenter line\nRight"));
+
+        assertEquals("Left\nCenter line\nRight", field.getText(mockExecutionContext));
+        assertAlignments(StyleConstants.ALIGN_LEFT, StyleConstants.ALIGN_CENTER, StyleConstants.ALIGN_RIGHT);
+    }
+
+    @Test
+    public void testThatInsertingParagraphKeepsAlignmentOfOthers() throws BadLocationException {
+        field.setStyledDocument(mockExecutionContext, alignedDocument("Left", "Center", "Right"));
+
+        field.set(mockExecutionContext, FieldModel.PROP_TEXT, new Value("Left\nNew\nCenter\nRight"));
+
+        assertEquals("Left\nNew\nCenter\nRight", field.getText(mockExecutionContext));
+        assertEquals(StyleConstants.ALIGN_LEFT, alignmentOf(0));
+        assertEquals(StyleConstants.ALIGN_CENTER, alignmentOf(2));
+        assertEquals(StyleConstants.ALIGN_RIGHT, alignmentOf(3));
+    }
+
+    @Test
+    public void testThatTextTooLargeToDiffKeepsParagraphAlignments() throws BadLocationException {
+        String line = repeat('x', 12 * 1024);
+        field.setStyledDocument(mockExecutionContext, alignedDocument(line, line, line));
+
+        // Existing and new text combined are longer than can be diffed
+        String newLine = repeat('y', 24 * 1024);
+        String newText = newLine + "\n" + newLine + "\n" + newLine + "\n" + newLine;
+        field.set(mockExecutionContext, FieldModel.PROP_TEXT, new Value(newText));
+
+        assertEquals(newText, field.getText(mockExecutionContext));
+
+        // Paragraphs are styled like the existing paragraph at the same index (or the last, when there are more)
+        assertAlignments(StyleConstants.ALIGN_LEFT, StyleConstants.ALIGN_CENTER, StyleConstants.ALIGN_RIGHT, StyleConstants.ALIGN_RIGHT);
+    }
+
+    private void assertAlignments(int... alignments) {
+        Element paragraphs = field.getStyledDocument(mockExecutionContext).getDefaultRootElement();
+
+        assertEquals(alignments.length, paragraphs.getElementCount());
+        for (int index = 0; index < alignments.length; index++) {
+            assertEquals(alignments[index], alignmentOf(index), "Paragraph " + index);
+        }
+    }
+
+    private int alignmentOf(int paragraph) {
+        Element paragraphs = field.getStyledDocument(mockExecutionContext).getDefaultRootElement();
+        return StyleConstants.getAlignment(paragraphs.getElement(paragraph).getAttributes());
+    }
+
+    /**
+     * Creates a document of the given lines, aligned left, center and right in turn.
+     */
+    private static StyledDocument alignedDocument(String... lines) throws BadLocationException {
+        StyledDocument document = new DefaultStyledDocument();
+        document.insertString(0, String.join("\n", lines), new SimpleAttributeSet());
+
+        for (int index = 0; index < lines.length; index++) {
+            SimpleAttributeSet alignment = new SimpleAttributeSet();
+            StyleConstants.setAlignment(alignment, ALIGNMENTS[index % ALIGNMENTS.length]);
+            document.setParagraphAttributes(document.getDefaultRootElement().getElement(index).getStartOffset(), 0, alignment, false);
+        }
+
+        return document;
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int index = 0; index < count; index++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
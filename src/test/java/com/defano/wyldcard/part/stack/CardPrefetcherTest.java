@@ -0,0 +1,142 @@
+package com.defano.wyldcard.part.stack;
+
+import com.defano.hypertalk.GuiceTest;
+import com.defano.wyldcard.part.builder.CardModelBuilder;
+import com.defano.wyldcard.part.builder.StackModelBuilder;
+import com.defano.wyldcard.part.card.CardModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CardPrefetcherTest extends GuiceTest<CardPrefetcher> {
+
+    private static final int CARD_COUNT = 12;
+
+    private StackModel stack;
+
+    @BeforeEach
+    public void setUp() {
+        initialize(new CardPrefetcher());
+
+        stack = new StackModelBuilder().withInitialCard().build();
+        int backgroundId = stack.getCardModel(0).getBackgroundModel().getId();
+
+        for (int index = 1; index < CARD_COUNT; index++) {
+            CardModel card = new CardModelBuilder(stack)
+                    .withId(stack.getNextCardId())
+                    .withBackgroundId(backgroundId)
+                    .build();
+            card.setCardImage(new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB));
+            stack.addCard(card);
+        }
+    }
+
+    @Test
+    public void testThatAdjacentCardsAreWarmed() throws Exception {
+        await(uut.prefetch(stack, 4, card(9)));
+
+        assertWarm(3, 4, 5, 9);
+        assertCold(0, 1, 2, 6, 7, 8, 10, 11);
+    }
+
+    @Test
+    public void testThatPredictionWrapsAroundStack() throws Exception {
+        await(uut.prefetch(stack, 0, null));
+
+        assertWarm(CARD_COUNT - 1, 0, 1);
+        assertCold(2, CARD_COUNT - 2);
+    }
+
+    @Test
+    public void testThatLeastRecentlyUsedCardIsEvicted() throws Exception {
+        await(uut.prefetch(stack, 1, null));     // Warms 0, 2, 1 (in that order)
+        await(uut.prefetch(stack, 4, null));     // Warms 3, 5, 4
+        await(uut.prefetch(stack, 7, null));     // Warms 6, 8, 7; nine cards exceeds the limit of eight
+
+        assertCold(0);
+        assertWarm(1, 2, 3, 4, 5, 6, 7, 8);
+    }
+
+    @Test
+    public void testThatRecentlyUsedCardIsNotEvicted() throws Exception {
+        await(uut.prefetch(stack, 1, null));     // Warms 0, 2, 1
+        await(uut.prefetch(stack, 4, null));     // Warms 3, 5, 4
+        await(uut.prefetch(stack, 7, card(0)));  // Warms 0 (again), 6, 8, 7; card 2 is now least recently used
+
+        assertWarm(0, 1, 3, 4, 5, 6, 7, 8);
+        assertCold(2);
+    }
+
+    @Test
+    public void testThatEvictRemovesDeletedCard() throws Exception {
+        await(uut.prefetch(stack, 4, null));
+
+        uut.evict(card(5));
+
+        assertCold(5);
+        assertWarm(3, 4);
+    }
+
+    @Test
+    public void testThatInvalidateRemovesCardsNoLongerInStack() throws Exception {
+        await(uut.prefetch(stack, 4, null));
+        CardModel removed = card(5);
+
+        List<CardModel> cards = stack.getCardModels();
+        cards.remove(removed);
+        stack.setCardModels(cards);
+        uut.invalidate(stack);
+
+        assertFalse(uut.isWarm(removed));
+        assertWarm(3, 4);
+    }
+
+    @Test
+    public void testThatClearRemovesAllCards() throws Exception {
+        await(uut.prefetch(stack, 4, null));
+
+        uut.clear();
+
+        assertCold(3, 4, 5);
+    }
+
+    @Test
+    public void testThatAbandonedPredictionIsNotRetained() throws Exception {
+        Future<?> abandoned = uut.prefetch(stack, 4, null);
+        uut.clear();
+        await(abandoned);
+
+        assertCold(3, 4, 5);
+    }
+
+    private CardModel card(int index) {
+        return stack.getCardModel(index);
+    }
+
+    private void assertWarm(int... cardIndices) {
+        for (int index : cardIndices) {
+            assertTrue(uut.isWarm(card(index)), "Expected card " + index + " to be warm.");
+        }
+    }
+
+    private void assertCold(int... cardIndices) {
+        for (int index : cardIndices) {
+            assertFalse(uut.isWarm(card(index)), "Expected card " + index + " not to be warm.");
+        }
+    }
+
+    private void await(Future<?> prefetch) throws Exception {
+        try {
+            prefetch.get(5, TimeUnit.SECONDS);
+        } catch (CancellationException e) {
+            // Abandoned; nothing to wait for
+        }
+    }
+}
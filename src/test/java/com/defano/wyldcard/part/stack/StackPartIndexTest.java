@@ -0,0 +1,205 @@
+package com.defano.wyldcard.part.stack;
+
+import com.defano.hypertalk.GuiceTest;
+import com.defano.hypertalk.ast.model.Value;
+import com.defano.wyldcard.part.bkgnd.BackgroundModel;
+import com.defano.wyldcard.part.builder.CardModelBuilder;
+import com.defano.wyldcard.part.builder.StackModelBuilder;
+import com.defano.wyldcard.part.card.CardModel;
+import com.defano.wyldcard.part.model.PartModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StackPartIndexTest extends GuiceTest<Object> {
+
+    private StackModel stack;
+    private StackPartIndex index;
+
+    private CardModel first;
+    private CardModel second;
+    private CardModel third;
+    private CardModel fourth;
+    private BackgroundModel alpha;
+    private BackgroundModel beta;
+
+    @BeforeEach
+    public void setUp() {
+        initialize();
+
+        stack = new StackModelBuilder().withInitialCard().build();
+        index = stack.getPartIndex();
+
+        // Cards 1, 2 and 4 share background "Alpha"; card 3 is alone in background "Beta"
+        first = stack.getCardModel(0);
+        alpha = first.getBackgroundModel();
+        alpha.set(mockExecutionContext, BackgroundModel.PROP_NAME, new Value("Alpha"));
+        beta = stack.getBackground(stack.newBackground());
+        beta.set(mockExecutionContext, BackgroundModel.PROP_NAME, new Value("Beta"));
+
+        first.set(mockExecutionContext, CardModel.PROP_NAME, new Value("First"));
+        second = newCard(alpha, "Second");
+        third = newCard(beta, "Third");
+        fourth = newCard(alpha, "Second");
+
+        stack.addCard(second);
+        stack.addCard(third);
+        stack.addCard(fourth);
+    }
+
+    @Test
+    public void testThatCardsAreFoundById() {
+        assertSame(first, index.getCard(first.getId()));
+        assertSame(third, index.getCard(third.getId()));
+        assertSame(fourth, index.getCard(fourth.getId()));
+        assertNull(index.getCard(-1));
+    }
+
+    @Test
+    public void testThatCardsAreFoundByNumber() {
+        assertSame(first, index.getCardByNumber(1));
+        assertSame(third, index.getCardByNumber(3));
+        assertSame(fourth, index.getCardByNumber(4));
+        assertNull(index.getCardByNumber(0));
+        assertNull(index.getCardByNumber(5));
+
+        assertEquals(Integer.valueOf(1), index.getNumber(first));
+        assertEquals(Integer.valueOf(3), index.getNumber(third));
+    }
+
+    @Test
+    public void testThatCardsAreFoundByName() {
+        assertSame(third, index.getCard(mockExecutionContext, "THIRD"));
+        assertSame(first, index.getCard(mockExecutionContext, "first"));
+        assertNull(index.getCard(mockExecutionContext, "Fifth"));
+
+        // The first of two like-named cards is found
+        assertSame(second, index.getCard(mockExecutionContext, "second"));
+    }
+
+    @Test
+    public void testThatBackgroundsAreIndexed() {
+        assertSame(alpha, index.getBackground(alpha.getId()));
+        assertSame(beta, index.getBackground(beta.getId()));
+
+        // Backgrounds are numbered by the order of their first card
+        assertSame(alpha, index.getBackgroundByNumber(1));
+        assertSame(beta, index.getBackgroundByNumber(2));
+        assertNull(index.getBackgroundByNumber(3));
+        assertEquals(Integer.valueOf(2), index.getNumber(beta));
+
+        assertSame(beta, index.getBackground(mockExecutionContext, "beta"));
+        assertNull(index.getBackground(mockExecutionContext, "Gamma"));
+
+        assertEquals(Arrays.asList(first, second, fourth), index.getCardsInBackground(alpha.getId()));
+        assertEquals(Collections.singletonList(third), index.getCardsInBackground(beta.getId()));
+    }
+
+    @Test
+    public void testThatBackgroundWithoutCardsIsNotFound() {
+        int emptyBackgroundId = stack.newBackground();
+
+        assertNull(index.getBackground(emptyBackgroundId));
+        assertTrue(index.getCardsInBackground(emptyBackgroundId).isEmpty());
+    }
+
+    @Test
+    public void testThatPartsInDisplayOrderAreCached() {
+        List<PartModel> parts = index.getPartsInDisplayOrder();
+
+        assertEquals(Arrays.asList(first, alpha, second, third, beta, fourth), parts);
+        assertSame(parts, index.getPartsInDisplayOrder());
+        assertSame(parts, stack.getPartsInDisplayOrder(mockExecutionContext));
+        assertThrows(UnsupportedOperationException.class, () -> parts.remove(0));
+
+        // Renaming a part does not change the display order
+        third.set(mockExecutionContext, CardModel.PROP_NAME, new Value("Renamed"));
+        assertSame(parts, index.getPartsInDisplayOrder());
+    }
+
+    @Test
+    public void testThatAddingCardInvalidatesIndex() {
+        List<PartModel> parts = index.getPartsInDisplayOrder();
+        CardModel fifth = newCard(beta, "Fifth");
+
+        stack.addCard(fifth, 0);
+
+        assertNotSame(parts, index.getPartsInDisplayOrder());
+        assertEquals(Arrays.asList(fifth, beta, first, alpha, second, third, fourth), index.getPartsInDisplayOrder());
+        assertSame(fifth, index.getCard(fifth.getId()));
+        assertSame(fifth, index.getCard(mockExecutionContext, "fifth"));
+        assertEquals(Integer.valueOf(1), index.getNumber(fifth));
+        assertEquals(Integer.valueOf(4), index.getNumber(third));
+        assertSame(beta, index.getBackgroundByNumber(1));
+        assertEquals(Arrays.asList(fifth, third), index.getCardsInBackground(beta.getId()));
+    }
+
+    @Test
+    public void testThatDeletingCardInvalidatesIndex() {
+        index.getPartsInDisplayOrder();
+
+        stack.setCurrentCardIndex(2);
+        stack.deleteCurrentCard();
+
+        assertNull(index.getCard(third.getId()));
+        assertNull(index.getCard(mockExecutionContext, "Third"));
+        assertNull(index.getBackground(beta.getId()));
+        assertNull(index.getBackgroundByNumber(2));
+        assertEquals(Integer.valueOf(3), index.getNumber(fourth));
+        assertEquals(Arrays.asList(first, alpha, second, fourth), index.getPartsInDisplayOrder());
+    }
+
+    @Test
+    public void testThatSettingCardModelsInvalidatesIndex() {
+        index.getPartsInDisplayOrder();
+
+        List<CardModel> reversed = new ArrayList<>(stack.getCardModels());
+        Collections.reverse(reversed);
+        stack.setCardModels(reversed);
+
+        assertEquals(Integer.valueOf(1), index.getNumber(fourth));
+        assertEquals(Integer.valueOf(4), index.getNumber(first));
+        assertSame(fourth, index.getCardByNumber(1));
+        assertSame(beta, index.getBackgroundByNumber(2));
+        assertEquals(Arrays.asList(fourth, second, first), index.getCardsInBackground(alpha.getId()));
+        assertEquals(Arrays.asList(fourth, alpha, third, beta, second, first), index.getPartsInDisplayOrder());
+
+        // The first like-named card is now the later one
+        assertSame(fourth, index.getCard(mockExecutionContext, "Second"));
+    }
+
+    @Test
+    public void testThatRenamingCardInvalidatesNames() {
+        assertSame(third, index.getCard(mockExecutionContext, "Third"));
+
+        third.set(mockExecutionContext, CardModel.PROP_NAME, new Value("Renamed"));
+
+        assertNull(index.getCard(mockExecutionContext, "Third"));
+        assertSame(third, index.getCard(mockExecutionContext, "renamed"));
+        assertSame(third, index.getCard(third.getId()));
+    }
+
+    @Test
+    public void testThatRenamingBackgroundInvalidatesNames() {
+        assertSame(beta, index.getBackground(mockExecutionContext, "Beta"));
+
+        beta.set(mockExecutionContext, BackgroundModel.PROP_NAME, new Value("Gamma"));
+
+        assertNull(index.getBackground(mockExecutionContext, "Beta"));
+        assertSame(beta, index.getBackground(mockExecutionContext, "gamma"));
+    }
+
+    private CardModel newCard(BackgroundModel background, String name) {
+        return new CardModelBuilder(stack)
+                .withId(stack.getNextCardId())
+                .withBackgroundId(background.getId())
+                .withName(name)
+                .build();
+    }
+}
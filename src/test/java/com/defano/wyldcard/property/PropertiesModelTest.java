@@ -6,6 +6,10 @@ import com.defano.wyldcard.runtime.ExecutionContext;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class PropertiesModelTest extends GuiceTest {
@@ -49,6 +53,37 @@ public class PropertiesModelTest extends GuiceTest {
         assertEquals(new Value(15), model.get(context, "THREE"));
     }
 
+    @Test
+    public void testThatLateAliasesAndRedefinitionsAreFound() {
+        model.define("basic").asValue(10);
+        model.get(context, "basic");
+
+        model.define("alias").asAliasOf("basic");
+        assertEquals(new Value(10), model.get(context, "ALIAS"));
+
+        model.define("basic").asValue(20);
+        assertEquals(new Value(20), model.get(context, "basic"));
+    }
+
+    @Test
+    public void testThatOnlyChangedValuesAreModifications() {
+        List<String> modified = new ArrayList<>();
+        SimplePropertiesModel model = new SimplePropertiesModel() {
+            @Override
+            protected void onPropertyModified(String property) {
+                modified.add(property);
+            }
+        };
+
+        model.define("basic", "alias").asValue("value");
+
+        model.set(context, "basic", new Value("value"));
+        assertEquals(0, modified.size());
+
+        model.set(context, "alias", new Value("Value"));
+        assertEquals(Collections.singletonList("basic"), modified);
+    }
+
     @Test
     public void testThatDelegatedPropertiesDelegateToModel() {
         SimplePropertiesModel delegate = new SimplePropertiesModel();
@@ -0,0 +1,94 @@
+package com.defano.wyldcard.runtime.compiler;
+
+import com.defano.hypertalk.ast.model.Script;
+import com.defano.hypertalk.exception.HtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScriptCacheTest {
+
+    private static final String SCRIPT = "on mouseUp\n  put 1 into x\nend mouseUp\n\nfunction double n\n  return n * 2\nend double";
+
+    @BeforeEach
+    public void setUp() {
+        ScriptCache.getInstance().clear();
+    }
+
+    @Test
+    public void testThatIdenticalTextSharesCompiledScript() throws HtException {
+        Object first = ScriptCache.getInstance().blockingCompile(CompilationUnit.SCRIPT, SCRIPT);
+        Object second = ScriptCache.getInstance().blockingCompile(CompilationUnit.SCRIPT, new String(SCRIPT));
+
+        assertNotNull(first);
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testThatCompilationUnitIsPartOfKey() throws HtException {
+        Object script = ScriptCache.getInstance().blockingCompile(CompilationUnit.SCRIPT, "put 1 into x");
+        Object scriptlet = ScriptCache.getInstance().blockingCompile(CompilationUnit.SCRIPTLET, "put 1 into x");
+
+        assertNotSame(script, scriptlet);
+    }
+
+    @Test
+    public void testThatCompileProducesSignature() throws HtException {
+        assertNull(ScriptCache.getInstance().getSignature(ScriptCache.hash(SCRIPT)));
+
+        Script script = (Script) ScriptCache.getInstance().blockingCompile(CompilationUnit.SCRIPT, SCRIPT);
+        ScriptSignature signature = ScriptCache.getInstance().getSignature(ScriptCache.hash(SCRIPT));
+
+        assertNotNull(script);
+        assertNotNull(signature);
+        assertTrue(signature.definesHandler("MOUSEUP"));
+        assertFalse(signature.definesHandler("mouseDown"));
+        assertTrue(signature.definesFunction("double"));
+        assertFalse(signature.definesFunction("mouseUp"));
+    }
+
+    @Test
+    public void testThatSyntaxErrorsAreNotCached() {
+        assertThrows(HtException.class, () -> ScriptCache.getInstance().blockingCompile(CompilationUnit.SCRIPT, "on mouseUp\nput\nend mouseDown"));
+        assertThrows(HtException.class, () -> ScriptCache.getInstance().blockingCompile(CompilationUnit.SCRIPT, "on mouseUp\nput\nend mouseDown"));
+    }
+
+    @Test
+    public void testThatScriptletIsCached() {
+        Script first = ScriptCache.getInstance().getScriptlet("put 1 into x");
+        Script second = ScriptCache.getInstance().getScriptlet(new String("put 1 into x"));
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals(1, ScriptCache.getInstance().size());
+    }
+
+    @Test
+    public void testThatScriptletSharesEntryWithCompiledScriptlet() throws HtException {
+        Object compiled = ScriptCache.getInstance().blockingCompile(CompilationUnit.SCRIPTLET, "put 1 into x");
+
+        assertSame(compiled, ScriptCache.getInstance().getScriptlet("put 1 into x"));
+        assertEquals(1, ScriptCache.getInstance().size());
+    }
+
+    @Test
+    public void testThatFailedScriptletIsCached() {
+        assertNull(ScriptCache.getInstance().getScriptlet("put 2 +"));
+        assertEquals(1, ScriptCache.getInstance().size());
+
+        assertNull(ScriptCache.getInstance().getScriptlet("put 2 +"));
+        assertEquals(1, ScriptCache.getInstance().size());
+    }
+
+    @Test
+    public void testThatFailedScriptletStillProducesError() {
+        assertNull(ScriptCache.getInstance().getScriptlet("put"));
+        assertThrows(HtException.class, () -> ScriptCache.getInstance().blockingCompile(CompilationUnit.SCRIPTLET, "put"));
+    }
+
+    @Test
+    public void testThatEmptyScriptletIsNull() {
+        assertNull(ScriptCache.getInstance().getScriptlet("-- just a comment"));
+    }
+}
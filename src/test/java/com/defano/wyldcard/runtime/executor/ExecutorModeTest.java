@@ -0,0 +1,95 @@
+package com.defano.wyldcard.runtime.executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ExecutorModeTest {
+
+    private String originalSelection;
+
+    @BeforeEach
+    public void setUp() {
+        originalSelection = System.getProperty(ExecutorMode.PROPERTY);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (originalSelection == null) {
+            System.clearProperty(ExecutorMode.PROPERTY);
+        } else {
+            System.setProperty(ExecutorMode.PROPERTY, originalSelection);
+        }
+    }
+
+    @Test
+    public void testThatPooledIsDefault() {
+        System.clearProperty(ExecutorMode.PROPERTY);
+        assertEquals(ExecutorMode.POOLED, ExecutorMode.getSelectedMode());
+    }
+
+    @Test
+    public void testThatPooledIsAlwaysSupported() {
+        assertTrue(ExecutorMode.POOLED.isSupported());
+    }
+
+    @Test
+    public void testThatSelectionIsCaseInsensitive() {
+        System.setProperty(ExecutorMode.PROPERTY, " Pooled ");
+        assertEquals(ExecutorMode.POOLED, ExecutorMode.getSelectedMode());
+    }
+
+    @Test
+    public void testThatUnknownModeFallsBackToPooled() {
+        System.setProperty(ExecutorMode.PROPERTY, "green");
+        assertEquals(ExecutorMode.POOLED, ExecutorMode.getSelectedMode());
+    }
+
+    @Test
+    public void testThatVirtualIsSelectedWhenSupported() {
+        assumeTrue(ExecutorMode.VIRTUAL.isSupported());
+
+        System.setProperty(ExecutorMode.PROPERTY, "virtual");
+        assertEquals(ExecutorMode.VIRTUAL, ExecutorMode.getSelectedMode());
+    }
+
+    @Test
+    public void testThatVirtualFallsBackToPooledWhenUnsupported() {
+        assumeFalse(ExecutorMode.VIRTUAL.isSupported());
+
+        System.setProperty(ExecutorMode.PROPERTY, "virtual");
+        assertEquals(ExecutorMode.POOLED, ExecutorMode.getSelectedMode());
+    }
+
+    @Test
+    public void testThatPooledExecutorNamesThreads() throws Exception {
+        assertEquals("test-exe-0", threadNameOf(ExecutorMode.POOLED.newExecutorService(1, "test-exe-")));
+    }
+
+    @Test
+    public void testThatVirtualExecutorNamesThreads() throws Exception {
+        assumeTrue(ExecutorMode.VIRTUAL.isSupported());
+        assertEquals("test-exe-v-0", threadNameOf(ExecutorMode.VIRTUAL.newExecutorService(1, "test-exe-")));
+    }
+
+    @Test
+    public void testThatVirtualExecutorFallsBackToPoolWhenUnsupported() throws Exception {
+        assumeFalse(ExecutorMode.VIRTUAL.isSupported());
+        assertEquals("test-exe-0", threadNameOf(ExecutorMode.VIRTUAL.newExecutorService(1, "test-exe-")));
+    }
+
+    private String threadNameOf(ExecutorService executor) throws Exception {
+        try {
+            return executor.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.defano.wyldcard.runtime.symbol;
+
+import com.defano.hypertalk.ast.model.Value;
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalSymbolTableTest {
+
+    @Test
+    public void testThatParametersOccupyFirstSlots() {
+        SymbolSlots slots = new SymbolSlots(Lists.newArrayList("First", "second"));
+
+        assertEquals(0, slots.getSlot("first"));
+        assertEquals(1, slots.getSlot("second"));
+        assertEquals(2, slots.getSlot("third"));
+        assertEquals(-1, slots.findSlot("fourth"));
+    }
+
+    @Test
+    public void testThatSlotAndNameAccessAgree() {
+        LocalSymbolTable table = new LocalSymbolTable(new SymbolSlots());
+        SymbolReference reference = new SymbolReference("MyVar");
+
+        assertFalse(table.contains("myvar"));
+        assertNull(table.get(reference.getSlot(table.getSlots())));
+
+        table.set(reference.getSlot(table.getSlots()), new Value(42));
+        assertTrue(table.contains("MYVAR"));
+        assertEquals(new Value(42), table.get("myVar"));
+
+        table.set("myvar", new Value("hello"));
+        assertEquals(new Value("hello"), table.get(reference.getSlot(table.getSlots())));
+        assertEquals(Lists.newArrayList("myvar"), table.getSymbols());
+    }
+
+    @Test
+    public void testThatReferenceResolvesPerHandler() {
+        LocalSymbolTable first = new LocalSymbolTable(new SymbolSlots(Lists.newArrayList("a", "b")));
+        LocalSymbolTable second = new LocalSymbolTable(new SymbolSlots());
+        SymbolReference reference = new SymbolReference("b");
+
+        assertEquals(1, reference.getSlot(first.getSlots()));
+        assertEquals(0, reference.getSlot(second.getSlots()));
+
+        for (int index = 0; index < 100; index++) {
+            second.set("var" + index, new Value(index));
+        }
+
+        assertEquals(new Value(99), second.get("VAR99"));
+    }
+}
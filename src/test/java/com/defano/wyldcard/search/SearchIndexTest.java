@@ -0,0 +1,63 @@
+package com.defano.wyldcard.search;
+
+import com.defano.hypertalk.GuiceTest;
+import com.defano.hypertalk.ast.model.enums.SearchType;
+import com.defano.hypertalk.util.Range;
+import com.defano.wyldcard.part.field.FieldModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class SearchIndexTest extends GuiceTest<SearchIndex> {
+
+    private FieldModel mockField;
+
+    @BeforeEach
+    public void setup() {
+        initialize(new SearchIndex());
+
+        mockField = mock(FieldModel.class);
+        when(mockField.getText(1, false)).thenReturn("The quick brown fox");
+        when(mockField.getText(2, false)).thenReturn("jumped over the lazy dog");
+    }
+
+    @Test
+    public void testThatCandidatesContainTerm() {
+        SearchIndex.IndexedText first = uut.getIndexedText(mockField, 1, false);
+        SearchIndex.IndexedText second = uut.getIndexedText(mockField, 2, false);
+
+        assertEquals(Collections.singleton(first), uut.findCandidates(SearchType.WORDS, "QUICK"));
+        assertEquals(Collections.singleton(second), uut.findCandidates(SearchType.WHOLE, "laz"));
+        assertEquals(Collections.singleton(first), uut.findCandidates(SearchType.CHARS, "row"));
+        assertEquals(Collections.singleton(second), uut.findCandidates(SearchType.STRING, "ed ov"));
+        assertTrue(uut.findCandidates(SearchType.WORDS, "qui").isEmpty());
+    }
+
+    @Test
+    public void testThatWordOffsetsAreIndexed() {
+        SearchIndex.IndexedText first = uut.getIndexedText(mockField, 1, false);
+
+        List<Range> ranges = first.findWord("Brown");
+
+        assertEquals(1, ranges.size());
+        assertEquals(10, ranges.get(0).start);
+        assertEquals(15, ranges.get(0).end);
+    }
+
+    @Test
+    public void testThatInvalidatedTextIsReindexed() {
+        SearchIndex.IndexedText first = uut.getIndexedText(mockField, 1, false);
+
+        when(mockField.getText(1, false)).thenReturn("A slow red fox");
+        uut.invalidate(mockField, 1);
+
+        assertNotSame(first, uut.getIndexedText(mockField, 1, false));
+        assertTrue(uut.findCandidates(SearchType.WORDS, "quick").isEmpty());
+        assertEquals(1, uut.findCandidates(SearchType.WORDS, "slow").size());
+    }
+}
@@ -0,0 +1,210 @@
+package com.defano.wyldcard.search;
+
+import com.defano.hypertalk.GuiceTest;
+import com.defano.hypertalk.ast.model.Value;
+import com.defano.hypertalk.ast.model.enums.SearchType;
+import com.defano.wyldcard.part.bkgnd.BackgroundModel;
+import com.defano.wyldcard.part.card.CardModel;
+import com.defano.wyldcard.part.field.FieldModel;
+import com.defano.wyldcard.part.stack.StackModel;
+import com.defano.wyldcard.runtime.ExecutionContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+public class SearchIndexerTest extends GuiceTest<Object> {
+
+    private static final int CARD_COUNT = 40;
+    private static final int CURRENT_CARD = 10;
+    private static final int FIRST_CARD_ID = 100;
+
+    private final Map<Integer, AtomicInteger> textReads = new HashMap<>();
+    private final Set<Thread> contextThreads = Collections.synchronizedSet(new HashSet<>());
+
+    // When set, reading the text of the current card blocks (once) until released
+    private CountDownLatch blockCurrentCard;
+    private CountDownLatch currentCardBlocked;
+
+    @BeforeEach
+    public void setUp() {
+        initialize();
+
+        StackModel mockStack = mock(StackModel.class);
+        List<CardModel> cards = new ArrayList<>();
+        for (int cardIndex = 0; cardIndex < CARD_COUNT; cardIndex++) {
+            cards.add(mockCard(cardIndex));
+        }
+
+        when(mockStack.getCardModels()).thenReturn(cards);
+        when(mockStack.getCardModel(anyInt())).thenAnswer(invocation -> cards.get((int) invocation.getArguments()[0]));
+        when(mockStack.getCurrentCardIndex()).thenReturn(CURRENT_CARD);
+        when(mockStack.getSearchIndex()).thenReturn(new SearchIndex());
+        when(mockExecutionContext.getCurrentStack().getStackModel()).thenReturn(mockStack);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (blockCurrentCard != null) {
+            blockCurrentCard.countDown();
+        }
+    }
+
+    @Test
+    public void testThatResultsBeginWithCurrentCard() throws Exception {
+        SearchResults results = SearchIndexer.indexResults(mockExecutionContext, new SearchQuery(SearchType.WORDS, "needle", false));
+
+        assertEquals(cardsContaining("needle"), cardIndicesOf(results));
+    }
+
+    @Test
+    public void testThatEveryFieldIsSearched() throws Exception {
+        SearchResults results = SearchIndexer.indexResults(mockExecutionContext, new SearchQuery(SearchType.CHARS, "aysta", false));
+
+        assertEquals(CARD_COUNT, cardIndicesOf(results).size());
+        assertEquals(CURRENT_CARD, results.get(mockExecutionContext, 0).getCardIndex());
+        assertEquals(CURRENT_CARD - 1, results.get(mockExecutionContext, CARD_COUNT - 1).getCardIndex());
+    }
+
+    @Test
+    public void testThatSingleCardIsSearched() {
+        assertEquals(1, SearchIndexer.indexResults(mockExecutionContext, new SearchQuery(SearchType.WORDS, "needle", false), 9).size());
+        assertTrue(SearchIndexer.indexResults(mockExecutionContext, new SearchQuery(SearchType.WORDS, "needle", false), 10).isEmpty());
+    }
+
+    @Test
+    public void testThatExecutionContextIsOnlyUsedBySearchingThread() throws Exception {
+        SearchResults results = SearchIndexer.indexResults(mockExecutionContext, new SearchQuery(SearchType.STRING, "hay", false));
+        cardIndicesOf(results);
+
+        assertEquals(Collections.singleton(Thread.currentThread()), contextThreads);
+    }
+
+    @Test
+    public void testThatCancelledSearchStopsSearchingRange() throws Exception {
+        blockOnCurrentCard();
+        SearchResults results = SearchIndexer.indexResults(mockExecutionContext, new SearchQuery(SearchType.WORDS, "needle", false));
+        assertTrue(currentCardBlocked.await(5, TimeUnit.SECONDS));
+
+        results.cancel();
+        blockCurrentCard.countDown();
+        assertTrue(ForkJoinPool.commonPool().awaitQuiescence(5, TimeUnit.SECONDS));
+
+        assertNull(results.get(mockExecutionContext, 0));
+
+        // The range containing the current card stops after it (the next range begins at least 8 cards later)
+        assertEquals(1, textReads.get(CURRENT_CARD).get());
+        assertEquals(0, textReads.get(CURRENT_CARD + 1).get());
+    }
+
+    @Test
+    public void testThatFindDuringSearchIsIndependentOfIt() throws Exception {
+        blockOnCurrentCard();
+        SearchResults first = SearchIndexer.indexResults(mockExecutionContext, new SearchQuery(SearchType.WORDS, "needle", false));
+        assertTrue(currentCardBlocked.await(5, TimeUnit.SECONDS));
+
+        // As when 'find' is issued while a previous find is still being searched
+        first.cancel();
+        SearchResults second = SearchIndexer.indexResults(mockExecutionContext, new SearchQuery(SearchType.WORDS, "pin", false));
+        blockCurrentCard.countDown();
+
+        assertEquals(cardsContaining("pin"), cardIndicesOf(second));
+        assertNull(first.get(mockExecutionContext, 0));
+    }
+
+    @Test
+    public void testThatTextIndexedDuringSearchIsSearched() throws Exception {
+        blockOnCurrentCard();
+        SearchResults first = SearchIndexer.indexResults(mockExecutionContext, new SearchQuery(SearchType.WORDS, "needle", false));
+        assertTrue(currentCardBlocked.await(5, TimeUnit.SECONDS));
+
+        // The current card's text is indexed by the first search after the second search begins
+        SearchResults second = SearchIndexer.indexResults(mockExecutionContext, new SearchQuery(SearchType.WORDS, "pin", false));
+        blockCurrentCard.countDown();
+
+        assertEquals(cardsContaining("needle"), cardIndicesOf(first));
+        assertEquals(cardsContaining("pin"), cardIndicesOf(second));
+    }
+
+    private void blockOnCurrentCard() {
+        blockCurrentCard = new CountDownLatch(1);
+        currentCardBlocked = new CountDownLatch(1);
+    }
+
+    private CardModel mockCard(int cardIndex) {
+        int cardId = FIRST_CARD_ID + cardIndex;
+        CardModel mockCard = mock(CardModel.class);
+        BackgroundModel mockBackground = mock(BackgroundModel.class);
+        FieldModel mockField = mock(FieldModel.class);
+        AtomicInteger reads = new AtomicInteger();
+
+        Answer<Value> notDontSearch = invocation -> {
+            contextThreads.add(Thread.currentThread());
+            return new Value(false);
+        };
+
+        when(mockCard.getId()).thenReturn(cardId);
+        when(mockCard.get(any(ExecutionContext.class), eq(CardModel.PROP_DONTSEARCH))).thenAnswer(notDontSearch);
+        when(mockCard.getBackgroundModel()).thenReturn(mockBackground);
+        when(mockCard.getFieldModels()).thenReturn(Collections.singletonList(mockField));
+        when(mockBackground.get(any(ExecutionContext.class), eq(BackgroundModel.PROP_DONTSEARCH))).thenAnswer(notDontSearch);
+        when(mockBackground.getFieldModels()).thenReturn(Collections.emptyList());
+        when(mockField.get(any(ExecutionContext.class), eq(FieldModel.PROP_DONTSEARCH))).thenAnswer(notDontSearch);
+        when(mockField.isSharedText(any(ExecutionContext.class))).thenAnswer(invocation -> {
+            contextThreads.add(Thread.currentThread());
+            return false;
+        });
+        when(mockField.getText(cardId, false)).thenAnswer(invocation -> {
+            if (reads.incrementAndGet() == 1 && cardIndex == CURRENT_CARD && blockCurrentCard != null) {
+                currentCardBlocked.countDown();
+                blockCurrentCard.await();
+            }
+            return textOf(cardIndex);
+        });
+
+        textReads.put(cardIndex, reads);
+        return mockCard;
+    }
+
+    private static String textOf(int cardIndex) {
+        return "Haystack " + cardIndex + (cardIndex % 3 == 0 ? " needle" : "") + (cardIndex % 4 == 0 ? " pin" : "");
+    }
+
+    /**
+     * The indices of the cards containing the given word, in search order (i.e., beginning with the current card).
+     */
+    private static List<Integer> cardsContaining(String word) {
+        List<Integer> cardIndices = new ArrayList<>();
+
+        for (int offset = 0; offset < CARD_COUNT; offset++) {
+            int cardIndex = (CURRENT_CARD + offset) % CARD_COUNT;
+            if (textOf(cardIndex).contains(" " + word)) {
+                cardIndices.add(cardIndex);
+            }
+        }
+
+        return cardIndices;
+    }
+
+    private List<Integer> cardIndicesOf(SearchResults results) {
+        List<Integer> cardIndices = new ArrayList<>();
+
+        SearchResult result;
+        while ((result = results.get(mockExecutionContext, cardIndices.size())) != null) {
+            cardIndices.add(result.getCardIndex());
+        }
+
+        return cardIndices;
+    }
+}
@@ -0,0 +1,177 @@
+package com.defano.wyldcard.search;
+
+import com.defano.hypertalk.util.Range;
+import com.defano.wyldcard.part.field.FieldModel;
+import com.defano.wyldcard.runtime.ExecutionContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class SearchResultsTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private FieldModel mockField;
+    private ExecutionContext mockContext;
+    private SearchResults uut;
+
+    @BeforeEach
+    public void setUp() {
+        mockField = mock(FieldModel.class);
+        mockContext = mock(ExecutionContext.class);
+        uut = new SearchResults();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testThatResultsAreInRangeOrder() {
+        CompletableFuture<List<SearchResult>> first = new CompletableFuture<>();
+        CompletableFuture<List<SearchResult>> second = new CompletableFuture<>();
+        CompletableFuture<List<SearchResult>> third = new CompletableFuture<>();
+        uut.addRange(first);
+        uut.addRange(second);
+        uut.addRange(third);
+
+        // Ranges complete out of order
+        third.complete(results(7, 8));
+        second.complete(Collections.emptyList());
+        first.complete(results(2));
+
+        assertEquals(2, uut.get(mockContext, 0).getCardIndex());
+        assertEquals(7, uut.get(mockContext, 1).getCardIndex());
+        assertEquals(8, uut.get(mockContext, 2).getCardIndex());
+        assertNull(uut.get(mockContext, 3));
+        assertFalse(uut.isEmpty(mockContext));
+    }
+
+    @Test
+    public void testThatResultIsAvailableBeforeLaterRangesComplete() throws Exception {
+        CompletableFuture<List<SearchResult>> first = new CompletableFuture<>();
+        uut.addRange(first);
+        uut.addRange(new CompletableFuture<>());
+
+        first.complete(results(1, 2));
+
+        assertEquals(2, executor.submit(() -> uut.get(mockContext, 1).getCardIndex()).get(5, TimeUnit.SECONDS).intValue());
+    }
+
+    @Test
+    public void testThatResultWaitsForPrecedingRanges() throws Exception {
+        CompletableFuture<List<SearchResult>> first = new CompletableFuture<>();
+        CompletableFuture<List<SearchResult>> second = new CompletableFuture<>();
+        uut.addRange(first);
+        uut.addRange(second);
+
+        second.complete(results(9));
+        Future<SearchResult> result = executor.submit(() -> uut.get(mockContext, 0));
+
+        assertThrows(TimeoutException.class, () -> result.get(100, TimeUnit.MILLISECONDS));
+
+        first.complete(Collections.emptyList());
+        assertEquals(9, result.get(5, TimeUnit.SECONDS).getCardIndex());
+    }
+
+    @Test
+    public void testThatCancelledResultsAreNotAwaited() throws Exception {
+        CompletableFuture<List<SearchResult>> first = new CompletableFuture<>();
+        uut.addRange(CompletableFuture.completedFuture(results(1)));
+        uut.addRange(first);
+
+        uut.cancel();
+
+        assertTrue(uut.isCancelled());
+        assertNull(executor.submit(() -> uut.get(mockContext, 0)).get(5, TimeUnit.SECONDS));
+        assertTrue(uut.isEmpty(mockContext));
+        assertFalse(first.isDone());
+    }
+
+    @Test
+    public void testThatCancelReleasesWaitingThread() throws Exception {
+        CompletableFuture<List<SearchResult>> first = new CompletableFuture<>();
+        CompletableFuture<List<SearchResult>> second = new CompletableFuture<>();
+        uut.addRange(first);
+        uut.addRange(second);
+
+        Future<SearchResult> result = executor.submit(() -> uut.get(mockContext, 0));
+        uut.cancel();
+
+        // The range being awaited completes (once its search notices the cancellation); no later range is awaited
+        first.complete(Collections.emptyList());
+        assertNull(result.get(5, TimeUnit.SECONDS));
+        assertFalse(second.isDone());
+    }
+
+    @Test
+    public void testThatRangeFailureIsThrown() {
+        CompletableFuture<List<SearchResult>> first = new CompletableFuture<>();
+        uut.addRange(first);
+
+        first.completeExceptionally(new IllegalStateException("Bang"));
+
+        assertEquals("Bang", assertThrows(IllegalStateException.class, () -> uut.get(mockContext, 0)).getMessage());
+    }
+
+    @Test
+    public void testThatRangesAreStartedAsResultsAreNeeded() {
+        List<ExecutionContext> startedWith = new ArrayList<>();
+        uut = new SearchResults(1);
+
+        for (int cardIndex = 0; cardIndex < 4; cardIndex++) {
+            List<SearchResult> rangeResults = results(cardIndex);
+            uut.addRange(context -> {
+                startedWith.add(context);
+                return CompletableFuture.completedFuture(rangeResults);
+            });
+        }
+
+        // The first range, and one range ahead of it, are started before any result is requested
+        uut.start(mockContext);
+        assertEquals(2, startedWith.size());
+
+        assertEquals(1, uut.get(mockContext, 1).getCardIndex());
+        assertEquals(3, startedWith.size());
+
+        assertNull(uut.get(mockContext, 4));
+        assertEquals(Collections.nCopies(4, mockContext), startedWith);
+    }
+
+    @Test
+    public void testThatCancelledResultsStartNoRanges() {
+        uut.addRange(context -> fail("Range started"));
+
+        uut.cancel();
+
+        assertNull(uut.get(mockContext, 0));
+    }
+
+    @Test
+    public void testThatKnownResultsAreAvailable() {
+        SearchResults known = SearchResults.of(results(3, 4));
+
+        assertEquals(3, known.get(mockContext, 0).getCardIndex());
+        assertEquals(4, known.get(mockContext, 1).getCardIndex());
+        assertNull(known.get(mockContext, 2));
+        assertTrue(SearchResults.empty().isEmpty(mockContext));
+    }
+
+    private List<SearchResult> results(int... cardIndices) {
+        List<SearchResult> results = new ArrayList<>();
+
+        for (int cardIndex : cardIndices) {
+            results.add(new SearchResult("needle", new Range(0, 6), mockField, cardIndex));
+        }
+
+        return results;
+    }
+}
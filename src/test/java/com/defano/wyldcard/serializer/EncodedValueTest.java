@@ -0,0 +1,181 @@
+package com.defano.wyldcard.serializer;
+
+import com.defano.wyldcard.part.model.PartModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.text.DefaultStyledDocument;
+import javax.swing.text.StyledDocument;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EncodedValueTest {
+
+    private CountingCodec codec;
+    private PartModel mockOwner;
+
+    @BeforeEach
+    public void setUp() {
+        codec = new CountingCodec();
+        mockOwner = mock(PartModel.class);
+        when(mockOwner.getGeneration()).thenReturn(1L);
+    }
+
+    @Test
+    public void testThatValueIsNotDecodedUntilUsed() {
+        EncodedValue<StringBuilder> value = EncodedValue.ofEncoded(codec, bytes("hello"), "documents/hello.rtf");
+
+        assertEquals(0, codec.decodes);
+        assertEquals("hello", value.get(mockOwner).toString());
+        assertEquals(1, codec.decodes);
+    }
+
+    @Test
+    public void testThatRetainedValueIsDecodedOnce() {
+        EncodedValue<StringBuilder> value = EncodedValue.ofEncoded(codec, bytes("hello"), null);
+
+        StringBuilder first = value.get(mockOwner);
+        assertSame(first, value.get(mockOwner));
+        assertSame(first, value.read());
+        assertTrue(value.holds(first));
+        assertEquals(1, codec.decodes);
+    }
+
+    @Test
+    public void testThatReadDoesNotRetainValue() {
+        EncodedValue<StringBuilder> value = EncodedValue.ofEncoded(codec, bytes("hello"), null);
+
+        StringBuilder read = value.read();
+        assertFalse(value.holds(read));
+
+        reclaim(value);
+        assertEquals("hello", value.read().toString());
+        assertEquals(2, codec.decodes);
+    }
+
+    @Test
+    public void testThatReleasedValueIsSoftlyHeld() {
+        EncodedValue<StringBuilder> value = EncodedValue.ofEncoded(codec, bytes("hello"), null);
+
+        StringBuilder decoded = value.get(mockOwner);
+        value.release();
+
+        assertFalse(value.holds(decoded));
+        assertSame(decoded, value.get(mockOwner));
+        assertEquals(1, codec.decodes);
+    }
+
+    @Test
+    public void testThatReclaimedValueIsDecodedAgain() {
+        EncodedValue<StringBuilder> value = EncodedValue.ofEncoded(codec, bytes("hello"), null);
+
+        StringBuilder decoded = value.get(mockOwner);
+        value.release();
+        reclaim(value);
+
+        StringBuilder redecoded = value.get(mockOwner);
+        assertNotSame(decoded, redecoded);
+        assertEquals("hello", redecoded.toString());
+        assertEquals(2, codec.decodes);
+    }
+
+    @Test
+    public void testThatUnmodifiedValueKeepsEncodedForm() throws Exception {
+        EncodedValue<StringBuilder> value = EncodedValue.ofEncoded(codec, bytes("hello"), "documents/hello.rtf");
+
+        value.get(mockOwner);
+
+        assertTrue(value.isEncoded());
+        assertEquals("documents/hello.rtf", value.getOrigin());
+        assertEquals("hello", new String(value.getEncoded(), StandardCharsets.UTF_8));
+        assertEquals(0, codec.encodes);
+    }
+
+    @Test
+    public void testThatModifiedValueIsEncodedAgain() throws Exception {
+        EncodedValue<StringBuilder> value = EncodedValue.ofEncoded(codec, bytes("hello"), "documents/hello.rtf");
+
+        value.get(mockOwner).append(" world");
+        when(mockOwner.getGeneration()).thenReturn(2L);
+
+        assertFalse(value.isEncoded());
+        assertNull(value.getOrigin());
+        assertEquals("hello world", new String(value.getEncoded(), StandardCharsets.UTF_8));
+        assertEquals(1, codec.encodes);
+    }
+
+    @Test
+    public void testThatModifiedValueIsNotReleased() throws Exception {
+        EncodedValue<StringBuilder> value = EncodedValue.ofEncoded(codec, bytes("hello"), "documents/hello.rtf");
+
+        StringBuilder decoded = value.get(mockOwner);
+        decoded.append(" world");
+        when(mockOwner.getGeneration()).thenReturn(2L);
+        value.release();
+
+        // Stale encoded form is discarded; the modified value can't be recovered from it, so remains strongly held
+        assertTrue(value.holds(decoded));
+        assertFalse(value.isEncoded());
+
+        // ...even once the owner is no longer considered modified relative to it
+        when(mockOwner.getGeneration()).thenReturn(1L);
+        value.release();
+        assertTrue(value.holds(decoded));
+        assertEquals("hello world", new String(value.getEncoded(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testThatNewValueIsNeverReleased() {
+        StyledDocument document = new DefaultStyledDocument();
+        EncodedValue<StyledDocument> value = EncodedValue.ofDocument(document);
+
+        value.release();
+
+        assertTrue(value.holds(document));
+        assertSame(document, value.read());
+        assertFalse(value.isEncoded());
+        assertNull(value.getOrigin());
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Simulates the garbage collector reclaiming a value that is only softly held.
+     */
+    private static void reclaim(EncodedValue<?> value) {
+        try {
+            Field released = EncodedValue.class.getDeclaredField("released");
+            released.setAccessible(true);
+            ((SoftReference<?>) released.get(value)).clear();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A codec of mutable strings that counts the number of times it's used.
+     */
+    private static class CountingCodec implements EncodedValue.Codec<StringBuilder> {
+        private int decodes;
+        private int encodes;
+
+        @Override
+        public StringBuilder decode(byte[] data) {
+            decodes++;
+            return new StringBuilder(new String(data, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public byte[] encode(StringBuilder value) {
+            encodes++;
+            return bytes(value.toString());
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.defano.wyldcard.serializer;
+
+import com.defano.hypertalk.GuiceTest;
+import com.defano.hypertalk.ast.model.enums.Owner;
+import com.defano.wyldcard.part.builder.CardModelBuilder;
+import com.defano.wyldcard.part.builder.FieldModelBuilder;
+import com.defano.wyldcard.part.builder.StackModelBuilder;
+import com.defano.wyldcard.part.card.CardModel;
+import com.defano.wyldcard.part.field.FieldModel;
+import com.defano.wyldcard.part.stack.StackModel;
+import com.google.common.io.ByteStreams;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.swing.text.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StackArchiveTest extends GuiceTest<Object> {
+
+    private static final Dimension SIZE = new Dimension(64, 48);
+
+    @TempDir
+    public Path tempDir;
+
+    private File file;
+    private StackModel stack;
+    private CardModel firstCard;
+    private CardModel secondCard;
+
+    @BeforeEach
+    public void setUp() {
+        initialize();
+
+        file = tempDir.resolve("Test Stack.stack").toFile();
+        stack = new StackModelBuilder().withInitialCard().build();
+
+        firstCard = stack.getCardModel(0);
+        firstCard.setCardImage(newImage(Color.RED));
+        firstCard.getBackgroundModel().setBackgroundImage(newImage(Color.BLUE));
+
+        secondCard = new CardModelBuilder(stack)
+                .withId(stack.getNextCardId())
+                .withBackgroundId(firstCard.getBackgroundModel().getId())
+                .withName("second")
+                .build();
+        secondCard.setCardImage(newImage(Color.GREEN));
+        stack.addCard(secondCard);
+    }
+
+    @Test
+    public void testThatCardsAndBackgroundsRoundTrip() throws IOException {
+        StackArchive.write(file, stack);
+        StackModel read = StackArchive.read(file);
+
+        assertTrue(StackArchive.isArchive(file));
+        assertEquals(2, read.getCardCount());
+        assertEquals(1, read.getBackgroundCount());
+        assertEquals(firstCard.getId(), read.getCardModel(0).getId());
+        assertEquals(secondCard.getId(), read.getCardModel(1).getId());
+        assertEquals("second", read.getCardModel(1).get(mockExecutionContext, CardModel.PROP_NAME).toString());
+        assertEquals(firstCard.getBackgroundModel().getId(), read.getCardModel(1).getBackgroundModel().getId());
+        assertSame(read.getCardModel(0).getBackgroundModel(), read.getCardModel(1).getBackgroundModel());
+
+        assertEntries(file, "stack.json",
+                "cards/" + firstCard.getId() + ".json",
+                "cards/" + secondCard.getId() + ".json",
+                "backgrounds/" + firstCard.getBackgroundModel().getId() + ".json");
+    }
+
+    @Test
+    public void testThatImagesRoundTrip() throws IOException {
+        StackArchive.write(file, stack);
+        StackModel read = StackArchive.read(file);
+
+        assertImageEquals(newImage(Color.RED), read.getCardModel(0).getCardImage(SIZE));
+        assertImageEquals(newImage(Color.GREEN), read.getCardModel(1).getCardImage(SIZE));
+        assertImageEquals(newImage(Color.BLUE), read.getCardModel(0).getBackgroundModel().getBackgroundImage(SIZE));
+    }
+
+    @Test
+    public void testThatIdenticalImagesShareEntry() throws IOException {
+        secondCard.setCardImage(newImage(Color.RED));
+
+        StackArchive.write(file, stack);
+        StackModel read = StackArchive.read(file);
+
+        assertEquals(2, countEntries(file, "images/"));      // Red card image and blue background image
+        assertImageEquals(newImage(Color.RED), read.getCardModel(1).getCardImage(SIZE));
+    }
+
+    @Test
+    public void testThatStyledTextRoundTrips() throws Exception {
+        FieldModel field = new FieldModelBuilder(Owner.CARD, firstCard).withId(1).build();
+        firstCard.addPartModel(field);
+
+        StyledDocument document = new DefaultStyledDocument();
+        SimpleAttributeSet bold = new SimpleAttributeSet();
+        StyleConstants.setBold(bold, true);
+        document.insertString(0, "Hello ", new SimpleAttributeSet());
+        document.insertString(6, "World", bold);
+        field.setStyledDocument(mockExecutionContext, document);
+
+        StackArchive.write(file, stack);
+        StackModel read = StackArchive.read(file);
+
+        FieldModel readField = read.getCardModel(0).getFieldModels().iterator().next();
+        StyledDocument readDocument = readField.getStyledDocument(mockExecutionContext);
+
+        assertEquals("Hello World", readField.getText(mockExecutionContext).trim());
+        assertFalse(StyleConstants.isBold(readDocument.getCharacterElement(0).getAttributes()));
+        assertTrue(StyleConstants.isBold(readDocument.getCharacterElement(7).getAttributes()));
+        assertEquals(1, countEntries(file, "documents/"));
+    }
+
+    @Test
+    public void testThatDuplicateIdsDoNotOverwriteEntries() throws IOException {
+        CardModel duplicate = new CardModelBuilder(stack)
+                .withId(secondCard.getId())
+                .withBackgroundId(firstCard.getBackgroundModel().getId())
+                .withName("duplicate")
+                .build();
+        stack.addCard(duplicate);
+
+        StackArchive.write(file, stack);
+        StackModel read = StackArchive.read(file);
+
+        assertEquals(3, read.getCardCount());
+        assertEquals("second", read.getCardModel(1).get(mockExecutionContext, CardModel.PROP_NAME).toString());
+        assertEquals("duplicate", read.getCardModel(2).get(mockExecutionContext, CardModel.PROP_NAME).toString());
+        assertEntries(file, "cards/" + secondCard.getId() + ".json", "cards/" + secondCard.getId() + "-1.json");
+    }
+
+    @Test
+    public void testThatUnchangedCardsAreCopied() throws IOException {
+        StackArchive.write(file, stack);
+        stack.setSavedStackFile(mockExecutionContext, file);
+
+        // Alter the first card's entry in place; an unchanged card is copied from the archive, not serialized again
+        String firstEntry = "cards/" + firstCard.getId() + ".json";
+        rewriteJson(file, firstEntry, json -> json + " ");
+
+        secondCard.markModified();
+        StackArchive.write(file, stack);
+
+        assertTrue(readEntry(file, firstEntry).endsWith(" "));
+        assertFalse(readEntry(file, "cards/" + secondCard.getId() + ".json").endsWith(" "));
+        assertImageEquals(newImage(Color.RED), StackArchive.read(file).getCardModel(0).getCardImage(SIZE));
+    }
+
+    @Test
+    public void testThatModifiedCardsAreWrittenAgain() throws IOException {
+        StackArchive.write(file, stack);
+        stack.setSavedStackFile(mockExecutionContext, file);
+
+        String firstEntry = "cards/" + firstCard.getId() + ".json";
+        rewriteJson(file, firstEntry, json -> json + " ");
+
+        firstCard.markModified();
+        StackArchive.write(file, stack);
+
+        assertFalse(readEntry(file, firstEntry).endsWith(" "));
+    }
+
+    @Test
+    public void testThatSaveToAnotherFileWritesEveryCard() throws IOException {
+        StackArchive.write(file, stack);
+        stack.setSavedStackFile(mockExecutionContext, file);
+
+        File other = tempDir.resolve("Other.stack").toFile();
+        StackArchive.write(other, stack);
+
+        assertEquals(2, StackArchive.read(other).getCardCount());
+        assertImageEquals(newImage(Color.GREEN), StackArchive.read(other).getCardModel(1).getCardImage(SIZE));
+    }
+
+    @Test
+    public void testThatImagesAreReadFromArchiveWhenUsed() throws IOException {
+        StackArchive.write(file, stack);
+        StackModel read = StackArchive.read(file);
+
+        // Entries are read only once the images are used, so replacing them now changes what's read
+        byte[] yellow = BufferedImageSerializer.toPng(newImage(Color.YELLOW));
+        for (String image : entryNames(file, "images/")) {
+            rewriteEntry(file, image, png -> yellow);
+        }
+
+        assertImageEquals(newImage(Color.YELLOW), read.getCardModel(0).getCardImage(SIZE));
+        assertImageEquals(newImage(Color.YELLOW), read.getCardModel(0).getBackgroundModel().getBackgroundImage(SIZE));
+    }
+
+    @Test
+    public void testThatUnreadImagesSurviveReplacingArchive() throws IOException {
+        StackArchive.write(file, stack);
+        StackModel read = StackArchive.read(file);
+
+        // Replace the archive with a different stack whose images are all different
+        StackModel other = new StackModelBuilder().withInitialCard().build();
+        other.getCardModel(0).setCardImage(newImage(Color.YELLOW));
+        StackArchive.write(file, other);
+
+        assertEquals(1, countEntries(file, "images/"));
+        assertImageEquals(newImage(Color.RED), read.getCardModel(0).getCardImage(SIZE));
+        assertImageEquals(newImage(Color.GREEN), read.getCardModel(1).getCardImage(SIZE));
+        assertImageEquals(newImage(Color.BLUE), read.getCardModel(0).getBackgroundModel().getBackgroundImage(SIZE));
+    }
+
+    @Test
+    public void testThatUnreadImagesSurviveSavingToSameArchive() throws IOException {
+        StackArchive.write(file, stack);
+        StackModel read = StackArchive.read(file);
+        read.setSavedStackFile(mockExecutionContext, file);
+
+        read.getCardModel(0).markModified();
+        StackArchive.write(file, read);
+
+        assertImageEquals(newImage(Color.RED), read.getCardModel(0).getCardImage(SIZE));
+        assertImageEquals(newImage(Color.GREEN), read.getCardModel(1).getCardImage(SIZE));
+        assertImageEquals(newImage(Color.GREEN), StackArchive.read(file).getCardModel(1).getCardImage(SIZE));
+    }
+
+    private BufferedImage newImage(Color color) {
+        BufferedImage image = new BufferedImage(SIZE.width, SIZE.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillRect(4, 4, SIZE.width - 8, SIZE.height - 8);
+        g.dispose();
+        return image;
+    }
+
+    private void assertImageEquals(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+
+    private void assertEntries(File archive, String... names) throws IOException {
+        try (ZipFile zip = new ZipFile(archive)) {
+            for (String name : names) {
+                assertNotNull(zip.getEntry(name), "Missing entry " + name);
+            }
+        }
+    }
+
+    private long countEntries(File archive, String folder) throws IOException {
+        return entryNames(archive, folder).size();
+    }
+
+    private List<String> entryNames(File archive, String folder) throws IOException {
+        try (ZipFile zip = new ZipFile(archive)) {
+            return Collections.list(zip.entries()).stream()
+                    .map(ZipEntry::getName)
+                    .filter(name -> name.startsWith(folder))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private String readEntry(File archive, String name) throws IOException {
+        try (ZipFile zip = new ZipFile(archive); InputStream in = zip.getInputStream(zip.getEntry(name))) {
+            return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void rewriteEntry(File archive, String name, EntryRewriter rewriter) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+
+        try (ZipFile zip = new ZipFile(archive)) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                try (InputStream in = zip.getInputStream(entry)) {
+                    entries.put(entry.getName(), ByteStreams.toByteArray(in));
+                }
+            }
+        }
+
+        entries.put(name, rewriter.rewrite(entries.get(name)));
+
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                out.putNextEntry(new ZipEntry(entry.getKey()));
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+        }
+    }
+
+    private void rewriteJson(File archive, String name, JsonRewriter rewriter) throws IOException {
+        rewriteEntry(archive, name, bytes -> rewriter.rewrite(new String(bytes, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private interface EntryRewriter {
+        byte[] rewrite(byte[] contents);
+    }
+
+    private interface JsonRewriter {
+        String rewrite(String json);
+    }
+}
@@ -0,0 +1,200 @@
+package com.defano.wyldcard.stackreader;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a minimal HyperCard 2.x stack file: one background (without a bitmap) shared by any number of cards, each
+ * of which has its own bitmap. Card bitmaps are WOBA-encoded one uncompressed row at a time; any pixel that isn't
+ * black is opaque white.
+ */
+public class TestStackBuilder {
+
+    public static final int BACKGROUND_ID = 2000;
+    public static final int FIRST_CARD_ID = 3000;
+    public static final int FIRST_BITMAP_ID = 4000;
+
+    private static final int STACK_FORMAT = 10;             // HyperCard 2.x
+    private static final int STACK_VERSION = 0x02418000;    // 2.4.1 final
+
+    private final int width;
+    private final int height;
+    private final List<BufferedImage> cardImages = new ArrayList<>();
+
+    public TestStackBuilder(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public TestStackBuilder withCard(BufferedImage cardImage) {
+        cardImages.add(cardImage);
+        return this;
+    }
+
+    public byte[] build() {
+        ByteArrayOutputStream stack = new ByteArrayOutputStream();
+
+        writeBlock(stack, "STAK", -1, stackData());
+        writeBlock(stack, "BKGD", BACKGROUND_ID, backgroundData());
+
+        for (int cardIdx = 0; cardIdx < cardImages.size(); cardIdx++) {
+            writeBlock(stack, "CARD", FIRST_CARD_ID + cardIdx, cardData(FIRST_BITMAP_ID + cardIdx));
+            writeBlock(stack, "BMAP", FIRST_BITMAP_ID + cardIdx, imageData(cardImages.get(cardIdx)));
+        }
+
+        writeBlock(stack, "TAIL", -1, tailData());
+        return stack.toByteArray();
+    }
+
+    public File build(File file) throws IOException {
+        Files.write(file.toPath(), build());
+        return file;
+    }
+
+    /**
+     * Encodes the data of a BMAP block, with no mask data (i.e., the mask covers the whole image) and with image
+     * data consisting of the given WOBA-encoded bytes.
+     *
+     * @param width    The width of the image, in pixels
+     * @param height   The height of the image, in pixels
+     * @param wobaData The WOBA-encoded image
+     * @return The BMAP block data (the bytes following the block header)
+     */
+    public static byte[] imageData(int width, int height, byte[] wobaData) {
+        ByteBuffer data = ByteBuffer.allocate(48 + wobaData.length);
+
+        data.position(8);                                    // Unknown field
+        putRect(data, width, height);                        // Card rectangle
+        putRect(data, width, height);                        // Mask bounds
+        putRect(data, width, height);                        // Image bounds
+        data.position(data.position() + 8);                  // Unknown field
+        data.putInt(0);                                      // Mask size; mask is the mask bounds
+        data.putInt(wobaData.length);                        // Image size
+        data.put(wobaData);
+
+        return data.array();
+    }
+
+    /**
+     * Encodes an image in WOBA format, one uncompressed row at a time (opcode 0x80). Rows are padded to a multiple of
+     * 32 pixels.
+     *
+     * @param image The image to encode; black pixels are set, all others are clear
+     * @return The encoded image
+     */
+    public static byte[] encodeRows(BufferedImage image) {
+        int rowBytes = ((image.getWidth() + 31) / 32) * 4;
+        ByteArrayOutputStream woba = new ByteArrayOutputStream();
+
+        for (int y = 0; y < image.getHeight(); y++) {
+            byte[] row = new byte[rowBytes];
+            for (int x = 0; x < image.getWidth(); x++) {
+                if (image.getRGB(x, y) == 0xFF000000) {
+                    row[x >> 3] |= 0x80 >> (x & 0x7);
+                }
+            }
+
+            woba.write(0x80);
+            woba.write(row, 0, row.length);
+        }
+
+        return woba.toByteArray();
+    }
+
+    private byte[] imageData(BufferedImage image) {
+        return imageData(image.getWidth(), image.getHeight(), encodeRows(image));
+    }
+
+    private byte[] stackData() {
+        ByteBuffer data = ByteBuffer.allocate(0x600 - 16 + 1);
+
+        data.putInt(0, STACK_FORMAT);
+        data.putInt(20, 1);                                  // Background count
+        data.putInt(24, BACKGROUND_ID);                      // First background
+        data.putInt(28, cardImages.size());                  // Card count
+        data.putInt(32, FIRST_CARD_ID);                      // First card
+        data.putInt(80, STACK_VERSION);                      // Created
+        data.putInt(84, STACK_VERSION);                      // Compacted
+        data.putInt(88, STACK_VERSION);                      // Modified
+        data.putInt(92, STACK_VERSION);                      // Opened
+        data.putShort(0x1b0 - 16 + 8, (short) height);
+        data.putShort(0x1b0 - 16 + 10, (short) width);
+
+        // Patterns are all clear and the stack script (at 0x600) is empty
+        return data.array();
+    }
+
+    private byte[] backgroundData() {
+        ByteBuffer data = ByteBuffer.allocate(36);
+
+        data.putInt(0);                                      // No bitmap
+        data.putShort((short) 0);                            // Flags
+        data.putShort((short) 0);                            // Unknown field
+        data.putInt(cardImages.size());                      // Card count
+        data.putInt(BACKGROUND_ID);                          // Next background
+        data.putInt(BACKGROUND_ID);                          // Previous background
+        data.putShort((short) 0);                            // Part count
+        putEmptyLayer(data);
+
+        return data.array();
+    }
+
+    private byte[] cardData(int bitmapId) {
+        ByteBuffer data = ByteBuffer.allocate(40);
+
+        data.putInt(bitmapId);
+        data.putShort((short) 0);                            // Flags
+        data.position(data.position() + 10);                 // Unknown field
+        data.putInt(0);                                      // No page
+        data.putInt(BACKGROUND_ID);
+        data.putShort((short) 0);                            // Part count
+        putEmptyLayer(data);
+
+        return data.array();
+    }
+
+    private byte[] tailData() {
+        byte[] tail = "That's all folks...".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer data = ByteBuffer.allocate(tail.length + 1);
+
+        data.put((byte) tail.length);
+        data.put(tail);
+
+        return data.array();
+    }
+
+    private static void putEmptyLayer(ByteBuffer data) {
+        data.putShort((short) 1);                            // Next part id
+        data.putInt(0);                                      // Part list size
+        data.putShort((short) 0);                            // Part content count
+        data.putInt(0);                                      // Part content size
+        data.put((byte) 0);                                  // Name
+        data.put((byte) 0);                                  // Script
+    }
+
+    private static void putRect(ByteBuffer data, int width, int height) {
+        data.putShort((short) 0);                            // Top
+        data.putShort((short) 0);                            // Left
+        data.putShort((short) height);                       // Bottom
+        data.putShort((short) width);                        // Right
+    }
+
+    private static void writeBlock(ByteArrayOutputStream stack, String type, int id, byte[] data) {
+        ByteBuffer header = ByteBuffer.allocate(16);
+
+        header.putInt(data.length + 16);
+        header.put(type.getBytes(StandardCharsets.US_ASCII));
+        header.putInt(id);
+        header.putInt(0);                                    // Padding
+
+        stack.write(header.array(), 0, header.capacity());
+        stack.write(data, 0, data.length);
+    }
+}
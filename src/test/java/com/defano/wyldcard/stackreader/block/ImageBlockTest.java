@@ -0,0 +1,161 @@
+package com.defano.wyldcard.stackreader.block;
+
+import com.defano.wyldcard.stackreader.HyperCardStack;
+import com.defano.wyldcard.stackreader.TestStackBuilder;
+import com.defano.wyldcard.stackreader.misc.ImportException;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageBlockTest {
+
+    private static final int WIDTH = 32;
+    private static final int HEIGHT = 8;
+
+    private static final int BLACK = 0xFF000000;
+    private static final int WHITE = 0xFFFFFFFF;
+    private static final int CLEAR = 0;
+
+    // A 32x8 bitmap encoded using a variety of WOBA opcodes
+    private static final byte[] WOBA = bytes(
+            0x80, 0xF0, 0x0F, 0xAA, 0x55,       // Row 0: Four bytes of literal data
+            0x82,                               // Row 1: All black
+            0xA2, 0x81,                         // Rows 2 & 3: Repeat (twice) an all-white row
+            0x83, 0x3C,                         // Row 4: A repeating byte
+            0x85,                               // Row 5: Copy of the row above
+            0x21, 0x81, 0x42,                   // Row 6: Skip one byte, then two bytes of data...
+            0x10, 0x18,                         // ...then one more byte of data
+            0x80, 0x01, 0x02, 0x04, 0x08        // Row 7: Four bytes of literal data
+    );
+
+    // The rows of the bitmap, as decoded
+    private static final byte[][] ROWS = new byte[][]{
+            bytes(0xF0, 0x0F, 0xAA, 0x55),
+            bytes(0xFF, 0xFF, 0xFF, 0xFF),
+            bytes(0x00, 0x00, 0x00, 0x00),
+            bytes(0x00, 0x00, 0x00, 0x00),
+            bytes(0x3C, 0x3C, 0x3C, 0x3C),
+            bytes(0x3C, 0x3C, 0x3C, 0x3C),
+            bytes(0x00, 0x81, 0x42, 0x18),
+            bytes(0x01, 0x02, 0x04, 0x08)
+    };
+
+    @Test
+    public void testThatBitmapIsDecoded() throws ImportException {
+        ImageBlock block = imageBlock(TestStackBuilder.imageData(WIDTH, HEIGHT, WOBA));
+        BufferedImage image = block.getImage();
+
+        assertEquals(new Rectangle(0, 0, WIDTH, HEIGHT), block.getBoundRect());
+        assertEquals(WIDTH, image.getWidth());
+        assertEquals(HEIGHT, image.getHeight());
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(isSet(x, y) ? BLACK : WHITE, image.getRGB(x, y), "Pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testThatPixelsOutsideMaskAreClear() throws ImportException {
+        ByteBuffer data = ByteBuffer.wrap(TestStackBuilder.imageData(WIDTH, HEIGHT, WOBA));
+        data.putShort(22, (short) (WIDTH / 2));           // Right edge of the mask bounds
+
+        BufferedImage image = imageBlock(data.array()).getImage();
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int unset = x < WIDTH / 2 ? WHITE : CLEAR;
+                assertEquals(isSet(x, y) ? BLACK : unset, image.getRGB(x, y), "Pixel " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testThatImageDataIsSliceOfBlockData() throws ImportException {
+        ImageBlock block = imageBlock(TestStackBuilder.imageData(WIDTH, HEIGHT, WOBA));
+
+        ByteBuffer imageData = block.getImageData();
+        assertEquals(WOBA.length, block.getImageSize());
+        assertEquals(0, imageData.position());
+        assertEquals(WOBA.length, imageData.remaining());
+
+        byte[] bytes = new byte[WOBA.length];
+        imageData.get(bytes);
+        assertArrayEquals(WOBA, bytes);
+
+        // Each caller receives its own view of the data
+        assertEquals(0, block.getImageData().position());
+        assertEquals(0, block.getMaskSize());
+        assertEquals(0, block.getMaskData().remaining());
+    }
+
+    @Test
+    public void testThatStackIsReadFromBufferPosition() throws ImportException {
+        BufferedImage first = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage second = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                first.setRGB(x, y, isSet(x, y) ? BLACK : WHITE);
+                second.setRGB(x, y, isSet(x, y) ? WHITE : BLACK);
+            }
+        }
+
+        byte[] stack = new TestStackBuilder(WIDTH, HEIGHT).withCard(first).withCard(second).build();
+
+        // The stack file begins part way into the buffer
+        ByteBuffer buffer = ByteBuffer.allocate(stack.length + 13);
+        buffer.position(13);
+        buffer.put(stack);
+        buffer.position(13);
+
+        HyperCardStack hcStack = HyperCardStack.fromByteBuffer(buffer);
+
+        assertEquals(2, hcStack.getCardBlocks().size());
+        assertImageEquals(first, hcStack.getCardBlocks().get(0).getImage());
+        assertImageEquals(second, hcStack.getCardBlocks().get(1).getImage());
+    }
+
+    private static boolean isSet(int x, int y) {
+        return (ROWS[y][x >> 3] & (0x80 >> (x & 0x7))) != 0;
+    }
+
+    private static void assertImageEquals(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "Pixel " + x + "," + y);
+            }
+        }
+    }
+
+    /**
+     * Creates an image block from the given block data, which is read from part way into a larger buffer (as though
+     * the block was read from a stack file).
+     */
+    private static ImageBlock imageBlock(byte[] blockData) throws ImportException {
+        ByteBuffer file = ByteBuffer.allocate(blockData.length + 24);
+        file.position(16);
+        file.put(blockData);
+        file.position(16);
+
+        ByteBuffer slice = file.slice();
+        slice.limit(blockData.length);
+
+        return (ImageBlock) BlockType.BMAP.instantiate(new HyperCardStack(), 1, blockData.length + 16, slice);
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int index = 0; index < values.length; index++) {
+            bytes[index] = (byte) values[index];
+        }
+        return bytes;
+    }
+}
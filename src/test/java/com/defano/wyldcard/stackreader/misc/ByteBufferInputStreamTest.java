@@ -0,0 +1,130 @@
+package com.defano.wyldcard.stackreader.misc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteBufferInputStreamTest {
+
+    private ByteBuffer source;
+    private ByteBufferInputStream uut;
+
+    @BeforeEach
+    public void setUp() {
+        source = ByteBuffer.wrap(new byte[]{9, 9, 1, 2, 3, (byte) 0xFE, 5, 6, 7, 8});
+        source.position(2);
+        uut = new ByteBufferInputStream(source);
+    }
+
+    @Test
+    public void testThatReadStartsAtBufferPosition() {
+        assertEquals(1, uut.read());
+        assertEquals(2, uut.read());
+        assertEquals(6, uut.available());
+    }
+
+    @Test
+    public void testThatReadIsUnsigned() {
+        uut.skip(3);
+        assertEquals(0xFE, uut.read());
+    }
+
+    @Test
+    public void testThatReadDoesNotMoveSourceBuffer() {
+        uut.read(new byte[5], 0, 5);
+
+        assertEquals(2, source.position());
+        assertEquals(10, source.limit());
+    }
+
+    @Test
+    public void testThatReadSignalsEndOfStream() {
+        byte[] bytes = new byte[20];
+
+        assertEquals(8, uut.read(bytes, 4, 16));
+        assertArrayEquals(new byte[]{1, 2, 3, (byte) 0xFE, 5, 6, 7, 8}, Arrays.copyOfRange(bytes, 4, 12));
+        assertEquals(-1, uut.read());
+        assertEquals(-1, uut.read(bytes, 0, 1));
+        assertEquals(0, uut.read(bytes, 0, 0));
+        assertEquals(0, uut.available());
+    }
+
+    @Test
+    public void testThatSkipIsBoundedByRemaining() {
+        assertEquals(0, uut.skip(-4));
+        assertEquals(3, uut.skip(3));
+        assertEquals(0xFE, uut.read());
+        assertEquals(4, uut.skip(100));
+        assertEquals(-1, uut.read());
+    }
+
+    @Test
+    public void testThatStreamIsInitiallyMarkedAtBufferPosition() {
+        assertTrue(uut.markSupported());
+
+        uut.skip(5);
+        uut.reset();
+
+        assertEquals(1, uut.read());
+    }
+
+    @Test
+    public void testThatResetReturnsToMark() {
+        uut.skip(2);
+        uut.mark(0);
+        uut.skip(4);
+        uut.reset();
+
+        assertEquals(3, uut.read());
+    }
+
+    @Test
+    public void testThatSliceSharesContent() throws EOFException {
+        uut.skip(1);
+        ByteBuffer slice = uut.slice(3);
+
+        assertEquals(0, slice.position());
+        assertEquals(3, slice.limit());
+        assertEquals(2, slice.get(0));
+        assertEquals(3, slice.get(1));
+        assertEquals((byte) 0xFE, slice.get(2));
+
+        // Shares (rather than copies) the content of the source buffer
+        source.put(3, (byte) 42);
+        assertEquals(42, slice.get(0));
+    }
+
+    @Test
+    public void testThatSliceAdvancesStream() throws EOFException {
+        uut.slice(4);
+
+        assertEquals(5, uut.read());
+        assertEquals(3, uut.available());
+    }
+
+    @Test
+    public void testThatSliceOfEntireRemainderIsAllowed() throws EOFException {
+        uut.skip(2);
+        ByteBuffer slice = uut.slice(6);
+
+        assertEquals(6, slice.remaining());
+        assertEquals(8, slice.get(5));
+        assertEquals(-1, uut.read());
+    }
+
+    @Test
+    public void testThatSliceBeyondEndThrows() {
+        uut.skip(2);
+
+        assertThrows(EOFException.class, () -> uut.slice(7));
+        assertThrows(EOFException.class, () -> uut.slice(-1));
+
+        // Nothing was consumed
+        assertEquals(3, uut.read());
+    }
+}
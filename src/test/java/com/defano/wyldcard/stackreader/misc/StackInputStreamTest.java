@@ -0,0 +1,132 @@
+package com.defano.wyldcard.stackreader.misc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StackInputStreamTest {
+
+    private static final byte[] DATA = new byte[]{
+            0x00, 0x00, 0x00, 0x02,             // An int
+            0x11, 0x22,                         // A two-byte slice
+            0x01, 0x02,                         // A short
+            'H', 'i', 0x00,                     // A C-string
+            0x7F                                // A byte
+    };
+
+    @Test
+    public void testThatSliceIsReadBetweenValues() throws IOException {
+        try (StackInputStream sis = new StackInputStream(DATA)) {
+            assertSliceBetweenValues(sis);
+        }
+    }
+
+    @Test
+    public void testThatSliceIsReadFromInputStream() throws IOException {
+        try (StackInputStream sis = new StackInputStream(new ByteArrayInputStream(DATA))) {
+            assertSliceBetweenValues(sis);
+        }
+    }
+
+    @Test
+    public void testThatStreamIsBoundedByBufferPositionAndLimit() throws IOException {
+        ByteBuffer buffer = withPadding(DATA, 5, 3);
+        buffer.position(5);
+        buffer.limit(5 + DATA.length);
+
+        try (StackInputStream sis = new StackInputStream(buffer)) {
+            assertSliceBetweenValues(sis);
+        }
+
+        // The buffer's own position is unaffected by reading from it
+        assertEquals(5, buffer.position());
+        assertEquals(5 + DATA.length, buffer.limit());
+    }
+
+    @Test
+    public void testThatSliceOfSliceIsRelativeToEnclosingSlice() throws IOException {
+        ByteBuffer outer;
+        try (StackInputStream sis = new StackInputStream(withPadding(DATA, 7, 0))) {
+            sis.skipBytes(7);
+            outer = sis.readSlice(DATA.length);
+        }
+
+        try (StackInputStream sis = new StackInputStream(outer)) {
+            assertSliceBetweenValues(sis);
+        }
+    }
+
+    @Test
+    public void testThatSliceSharesBufferContent() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(DATA.clone());
+
+        try (StackInputStream sis = new StackInputStream(buffer)) {
+            sis.readInt();
+            ByteBuffer slice = sis.readSlice(2);
+
+            buffer.put(4, (byte) 0x33);
+            assertEquals(0x33, slice.get(0));
+        }
+    }
+
+    @Test
+    public void testThatSkipToOffsetIsRelativeToStartOfStream() throws IOException {
+        ByteBuffer buffer = withPadding(DATA, 5, 0);
+        buffer.position(5);
+
+        try (StackInputStream sis = new StackInputStream(buffer)) {
+            sis.readInt();
+            sis.readSlice(2);
+            sis.skipToOffset(4);
+
+            assertEquals(0x1122, sis.readShort());
+        }
+    }
+
+    @Test
+    public void testThatSliceBeyondEndThrows() throws IOException {
+        try (StackInputStream sis = new StackInputStream(DATA)) {
+            sis.readInt();
+            assertThrows(EOFException.class, () -> sis.readSlice(DATA.length));
+        }
+
+        try (StackInputStream sis = new StackInputStream(new ByteArrayInputStream(DATA))) {
+            sis.readInt();
+            assertThrows(EOFException.class, () -> sis.readSlice(DATA.length));
+        }
+    }
+
+    private void assertSliceBetweenValues(StackInputStream sis) throws IOException {
+        assertEquals(2, sis.readInt());
+
+        ByteBuffer slice = sis.readSlice(2);
+        assertEquals(0, slice.position());
+        assertEquals(2, slice.remaining());
+        assertEquals(0x11, slice.get(0));
+        assertEquals(0x22, slice.get(1));
+
+        assertEquals(0x0102, sis.readShort());
+        assertEquals("Hi", sis.readString());
+        assertEquals(0x7F, sis.readByte());
+        assertEquals(-1, sis.read());
+    }
+
+    private static ByteBuffer withPadding(byte[] data, int before, int after) {
+        ByteBuffer buffer = ByteBuffer.allocate(before + data.length + after);
+
+        for (int index = 0; index < buffer.capacity(); index++) {
+            buffer.put(index, (byte) 0xEE);
+        }
+
+        buffer.position(before);
+        buffer.put(data);
+        buffer.rewind();
+
+        return buffer;
+    }
+}